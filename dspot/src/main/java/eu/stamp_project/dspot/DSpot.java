@@ -1,16 +1,28 @@
 package eu.stamp_project.dspot;
 
+import eu.stamp_project.dspot.amplifier.AmplifiedTestDeduplicator;
 import eu.stamp_project.dspot.common.configuration.*;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
+import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
+import eu.stamp_project.dspot.common.miscellaneous.ModelLock;
 import eu.stamp_project.dspot.common.configuration.UserInput;
 import eu.stamp_project.dspot.common.report.GlobalReport;
 import eu.stamp_project.dspot.common.report.error.Error;
+import eu.stamp_project.dspot.common.report.error.ErrorEnum;
+import eu.stamp_project.dspot.pipeline.AmplificationPipeline;
+import eu.stamp_project.dspot.amplifier.amplifiers.utils.RandomHelper;
 import org.slf4j.Logger;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import static eu.stamp_project.dspot.common.report.error.ErrorEnum.ERROR_ASSERT_AMPLIFICATION;
 import static eu.stamp_project.dspot.common.report.error.ErrorEnum.ERROR_INPUT_AMPLIFICATION;
 import static eu.stamp_project.dspot.common.report.error.ErrorEnum.ERROR_SELECTION;
@@ -48,15 +60,77 @@ public class DSpot {
     }
 
     public void run() {
+        if (dSpotState.shouldAmplifyTestClassesConcurrently()) {
+            setup.report(amplifyConcurrently());
+            return;
+        }
         for (CtType<?> testClassToBeAmplified : dSpotState.getTestClassesToBeAmplified()) {
-            TestTuple tuple = setup.preAmplification(testClassToBeAmplified, dSpotState.getTestMethodsToBeAmplifiedNames());
-            final List<CtMethod<?>> amplifiedTestMethods = amplification(tuple.testClassToBeAmplified,tuple.testMethodsToBeAmplified);
-            setup.postAmplification(testClassToBeAmplified,amplifiedTestMethods);
-            globalNumberOfSelectedAmplification = 0;
+            // each test class is amplified from the seed, as when the test classes are amplified concurrently
+            RandomHelper.resetRandom();
+            amplify(testClassToBeAmplified);
         }
         setup.report(setup.getAmplifiedTestClasses());
     }
 
+    private CtType<?> amplify(CtType<?> testClassToBeAmplified) {
+        TestTuple tuple = setup.preAmplification(testClassToBeAmplified, dSpotState.getTestMethodsToBeAmplifiedNames());
+        final List<CtMethod<?>> amplifiedTestMethods = amplification(tuple.testClassToBeAmplified,tuple.testMethodsToBeAmplified);
+        final CtType<?> amplifiedTestClass = setup.postAmplification(testClassToBeAmplified,amplifiedTestMethods);
+        globalNumberOfSelectedAmplification = 0;
+        return amplifiedTestClass;
+    }
+
+    /*
+        Amplify the test classes concurrently, each one by a worker that has its own compiler, test runner,
+        test selector, amplifiers and assertion generator, see InitializeDSpot#initWorker.
+        A worker amplifies one test class at a time, and the amplified test classes are given in the order of the test classes.
+        The workers share the Spoon model: a worker holds the ModelLock while it amplifies, and releases it while it runs tests.
+     */
+    private List<CtType<?>> amplifyConcurrently() {
+        final List<CtType<?>> testClassesToBeAmplified = dSpotState.getTestClassesToBeAmplified();
+        final int numberOfWorkers = Math.min(
+                dSpotState.getUserInput().getNumberOfParallelTestClasses(),
+                testClassesToBeAmplified.size()
+        );
+        LOGGER.info("Amplification of {} test classes by {} workers.", testClassesToBeAmplified.size(), numberOfWorkers);
+        final InitializeDSpot initializeDSpot = new InitializeDSpot();
+        final BlockingQueue<DSpot> workers = new ArrayBlockingQueue<>(numberOfWorkers);
+        for (int i = 0; i < numberOfWorkers; i++) {
+            workers.add(new DSpot(initializeDSpot.initWorker(dSpotState, i)));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfWorkers);
+        AmplificationHelper.setAmplifyingTestClassesConcurrently(true);
+        try {
+            final List<Future<CtType<?>>> amplifiedTestClasses = new ArrayList<>();
+            for (CtType<?> testClassToBeAmplified : testClassesToBeAmplified) {
+                amplifiedTestClasses.add(executor.submit(() -> {
+                    final DSpot worker = workers.take();
+                    RandomHelper.setRandomOfCurrentThread();
+                    try {
+                        return ModelLock.holding(() -> worker.amplify(testClassToBeAmplified));
+                    } finally {
+                        RandomHelper.removeRandomOfCurrentThread();
+                        workers.put(worker);
+                    }
+                }));
+            }
+            final List<CtType<?>> results = new ArrayList<>();
+            for (Future<CtType<?>> amplifiedTestClass : amplifiedTestClasses) {
+                results.add(amplifiedTestClass.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+            AmplificationHelper.setAmplifyingTestClassesConcurrently(false);
+        }
+    }
+
     private List<CtMethod<?>>  amplification(CtType<?> testClassToBeAmplified, List<CtMethod<?>> testMethodsToBeAmplified) {
         final List<CtMethod<?>> amplifiedTestMethodsToKeep;
         if (dSpotState.isOnlyInputAmplification()) {
@@ -108,6 +182,10 @@ public class DSpot {
         } else {
             LOGGER.info("Applying Input-amplification and Assertion-amplification test by test.");
         }
+        if (dSpotState.getUserInput().getPipelineCapacity() > 1) {
+            fullyAmplifyAllMethodsInPipeline(testClassToBeAmplified, testMethodsToBeAmplified, amplifiedTestMethodsToKeep);
+            return;
+        }
         for (int i = 0; i < testMethodsToBeAmplified.size(); i++) {
             CtMethod test = testMethodsToBeAmplified.get(i);
             LOGGER.info("Amplification of {}, ({}/{})", test.getSimpleName(), i + 1, testMethodsToBeAmplified.size());
@@ -128,6 +206,68 @@ public class DSpot {
         }
     }
 
+    // same as fullyAmplifyAllMethods, but the iterations of the different test methods overlap, see AmplificationPipeline.
+    // The stages use the Spoon model one at a time, see ModelLock: the input amplification of a batch overlaps
+    // only the execution of the test methods of another batch.
+    private void fullyAmplifyAllMethodsInPipeline(CtType<?> testClassToBeAmplified,
+                                                  List<CtMethod<?>> testMethodsToBeAmplified,
+                                                  List<CtMethod<?>> amplifiedTestMethodsToKeep) {
+        final AmplificationPipeline<CtMethod<?>> pipeline = new AmplificationPipeline<>(
+                dSpotState.getNbIteration(),
+                dSpotState.getUserInput().getPipelineCapacity(),
+                holdingTheModel((testMethods, iteration) -> setup.fullSelectorSetup(testClassToBeAmplified, testMethods)),
+                holdingTheModel(reportingErrors(ERROR_INPUT_AMPLIFICATION, (testMethods, iteration) ->
+                        this.removeDuplicates(testMethods, dSpotState.getInputAmplDistributor().inputAmplify(testMethods, iteration))
+                )),
+                holdingTheModel(reportingErrors(ERROR_ASSERT_AMPLIFICATION, (testMethods, iteration) -> {
+                    if (dSpotState.isOnlyInputAmplification()) {
+                        return dSpotState.getTestCompiler().compileRunAndDiscardUncompilableAndFailingTestMethods(
+                                testClassToBeAmplified,
+                                testMethods,
+                                dSpotState.getCompiler()
+                        );
+                    } else {
+                        return this.assertionAmplification(testClassToBeAmplified, testMethods);
+                    }
+                })),
+                holdingTheModel((testMethods, iteration) -> {
+                    final List<CtMethod<?>> amplifiedTests = new ArrayList<>();
+                    selectFullAmplification(testMethods, amplifiedTests);
+                    return amplifiedTests;
+                })
+        );
+        // the stages run in other threads, thus this thread must not hold the lock of the model meanwhile
+        final List<List<CtMethod<?>>> amplifiedTestsPerTestMethod =
+                ModelLock.releaseWhile(() -> pipeline.run(testMethodsToBeAmplified));
+        for (int i = 0; i < testMethodsToBeAmplified.size(); i++) {
+            final List<CtMethod<?>> amplifiedTests = amplifiedTestsPerTestMethod.get(i);
+            amplifiedTestMethodsToKeep.addAll(amplifiedTests);
+            this.globalNumberOfSelectedAmplification += amplifiedTestMethodsToKeep.size();
+            LOGGER.info("{} amplified test methods has been selected to be kept for {}. (global: {})",
+                    amplifiedTests.size(),
+                    testMethodsToBeAmplified.get(i).getSimpleName(),
+                    this.globalNumberOfSelectedAmplification);
+        }
+    }
+
+    private AmplificationPipeline.Stage<CtMethod<?>> holdingTheModel(AmplificationPipeline.Stage<CtMethod<?>> stage) {
+        return (testMethods, iteration) -> ModelLock.holding(() -> stage.apply(testMethods, iteration));
+    }
+
+    // reports the errors of the given stage as fullAmplification does, the selection stages report their own errors
+    private AmplificationPipeline.Stage<CtMethod<?>> reportingErrors(ErrorEnum error, AmplificationPipeline.Stage<CtMethod<?>> stage) {
+        return (testMethods, iteration) -> {
+            try {
+                return stage.apply(testMethods, iteration);
+            } catch (AmplificationException e) {
+                throw e;
+            } catch (Exception | java.lang.Error e) {
+                GLOBAL_REPORT.addError(new Error(error, e));
+                throw new AmplificationException("");
+            }
+        };
+    }
+
     /**
      * Amplification of test methods
      *
@@ -150,7 +290,9 @@ public class DSpot {
             selectedToBeAmplified = setup.fullSelectorSetup(testClassToBeAmplified,currentTestListToBeAmplified);
 
             // amplify tests and shrink amplified set with inputAmplDistributor
-            inputAmplifiedTests = dSpotState.getInputAmplDistributor().inputAmplify(selectedToBeAmplified, currentIteration);
+            inputAmplifiedTests = this.removeDuplicates(selectedToBeAmplified,
+                    dSpotState.getInputAmplDistributor().inputAmplify(selectedToBeAmplified, currentIteration)
+            );
 
             // add assertions to input modified tests
             if (dSpotState.isOnlyInputAmplification()) {
@@ -176,6 +318,17 @@ public class DSpot {
         return currentTestList;
     }
 
+    // discard the amplified tests identical to a test already seen, before compiling and running them
+    private List<CtMethod<?>> removeDuplicates(List<CtMethod<?>> selectedToBeAmplified,
+                                               List<CtMethod<?>> inputAmplifiedTests) {
+        final AmplifiedTestDeduplicator deduplicator = dSpotState.getAmplifiedTestDeduplicator();
+        if (deduplicator == null) {
+            return inputAmplifiedTests;
+        }
+        deduplicator.addAll(selectedToBeAmplified);
+        return deduplicator.removeDuplicates(inputAmplifiedTests);
+    }
+
     private List<CtMethod<?>> assertionAmplification(CtType<?> classTest, List<CtMethod<?>> testMethods) {
         final List<CtMethod<?>> testsWithAssertions;
         try {
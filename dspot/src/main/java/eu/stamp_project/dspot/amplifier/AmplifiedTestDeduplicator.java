@@ -0,0 +1,85 @@
+package eu.stamp_project.dspot.amplifier;
+
+import eu.stamp_project.dspot.common.configuration.DSpotCache;
+import eu.stamp_project.dspot.common.miscellaneous.TestMethodFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the amplified test methods that are identical to a test method already seen,
+ * before they are printed, compiled and run.
+ *
+ * Two test methods are identical if they have the same {@link TestMethodFingerprint}, and the same second fingerprint,
+ * see {@link TestMethodFingerprint#secondFingerprint(CtMethod)}, in order not to remove a test method
+ * because of a collision of the fingerprints.
+ * The test methods are remembered by their fingerprints only, across the iterations and across the test classes,
+ * including the test classes that are amplified concurrently: the test methods themselves are not kept in memory.
+ * The fingerprint of each test method is kept in {@link DSpotCache#getFingerprintCache()},
+ * in order not to compute it again for the test methods that are given more than once.
+ */
+public class AmplifiedTestDeduplicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmplifiedTestDeduplicator.class);
+
+    private final Map<Long, Set<Long>> secondFingerprintsByFingerprint = new HashMap<>();
+
+    private int numberOfRemovedTestMethods = 0;
+
+    /**
+     * Remembers the given test methods, e.g. the test methods to be amplified, in order to remove their duplicates.
+     *
+     * @param testMethods test methods to remember
+     */
+    public synchronized void addAll(List<CtMethod<?>> testMethods) {
+        testMethods.forEach(this::add);
+    }
+
+    /**
+     * Removes the duplicates from the given amplified test methods, and remembers the remaining ones.
+     *
+     * @param amplifiedTestMethods amplified test methods
+     * @return the given amplified test methods, without the ones that are identical to a test method already seen
+     */
+    public synchronized List<CtMethod<?>> removeDuplicates(List<CtMethod<?>> amplifiedTestMethods) {
+        final List<CtMethod<?>> uniqueTestMethods = amplifiedTestMethods.stream()
+                .filter(this::add)
+                .collect(Collectors.toList());
+        final int numberOfDuplicates = amplifiedTestMethods.size() - uniqueTestMethods.size();
+        if (numberOfDuplicates > 0) {
+            LOGGER.info("{} duplicated amplified test method(s) removed.", numberOfDuplicates);
+        }
+        this.numberOfRemovedTestMethods += numberOfDuplicates;
+        return uniqueTestMethods;
+    }
+
+    public synchronized int getNumberOfRemovedTestMethods() {
+        return numberOfRemovedTestMethods;
+    }
+
+    // returns false if the given test method is a duplicate of a test method already seen
+    private boolean add(CtMethod<?> testMethod) {
+        final Set<Long> secondFingerprints =
+                this.secondFingerprintsByFingerprint.computeIfAbsent(fingerprint(testMethod), fingerprint -> new HashSet<>(1));
+        if (!secondFingerprints.add(TestMethodFingerprint.secondFingerprint(testMethod))) {
+            LOGGER.debug("{} is a duplicate of a test method already seen", testMethod.getSimpleName());
+            return false;
+        }
+        if (secondFingerprints.size() > 1) {
+            LOGGER.debug("{} has the same fingerprint than a test method already seen, but a different body",
+                    testMethod.getSimpleName());
+        }
+        return true;
+    }
+
+    private static long fingerprint(CtMethod<?> testMethod) {
+        return DSpotCache.getFingerprintCache().computeIfAbsent(testMethod, TestMethodFingerprint::fingerprint);
+    }
+}
@@ -0,0 +1,150 @@
+package eu.stamp_project.dspot.amplifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.stamp_project.dspot.amplifier.amplifiers.AmplificationCandidate;
+import eu.stamp_project.dspot.amplifier.amplifiers.Amplifier;
+import eu.stamp_project.dspot.amplifier.amplifiers.utils.RandomHelper;
+import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
+import eu.stamp_project.dspot.common.miscellaneous.MinHashSketch;
+import spoon.reflect.declaration.CtMethod;
+
+/**
+ * Reduces the number of amplified tests while keeping a maximum of diversity, in near-linear time.
+ *
+ * Each amplified test is summarized by a {@link MinHashSketch} of its body. The sketches are split into bands,
+ * and two tests that have the same rows in one band, <i>i.e.</i> that fall in the same bucket, are likely to be similar
+ * (locality-sensitive hashing). The tests are then selected greedily: a test is selected if none of its buckets
+ * contains an already selected test.
+ */
+public class MinHashInputAmplDistributor extends AbstractInputAmplDistributor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MinHashInputAmplDistributor.class);
+
+    private static final int NUMBER_OF_BANDS = 16;
+
+    private static final int NUMBER_OF_ROWS = MinHashSketch.NUMBER_OF_BINS / NUMBER_OF_BANDS;
+
+    public MinHashInputAmplDistributor(int maxNumTests, List<Amplifier> amplifiers) {
+        super(maxNumTests, amplifiers);
+    }
+
+    /**
+     * Input amplification for a single test.
+     *
+     * @param test Test method
+     * @param i current iteration
+     * @return Candidate amplifications of the test, that are not applied yet
+     */
+    protected Stream<AmplificationCandidate> inputAmplifyTest(CtMethod<?> test, int i) {
+        return this.amplifiers.parallelStream()
+                .flatMap(amplifier -> amplifier.candidates(test, i));
+    }
+
+    /**
+     * Input amplification of multiple tests.
+     *
+     * @param testMethods Test methods
+     * @param i current iteration
+     * @return New generated tests
+     */
+    @Override
+    public List<CtMethod<?>> inputAmplify(List<CtMethod<?>> testMethods, int i) {
+        LOGGER.info("Amplification of inputs...");
+        List<AmplificationCandidate> inputAmplifiedTests = testMethods.parallelStream()
+                .flatMap(test -> {
+                    final Stream<AmplificationCandidate> inputAmplifiedTestMethods = inputAmplifyTest(test, i);
+                    DSpotUtils.printProgress(testMethods.indexOf(test), testMethods.size());
+                    return inputAmplifiedTestMethods;
+                }).collect(Collectors.toList());
+        LOGGER.info("{} new tests generated", inputAmplifiedTests.size());
+        // the sketches are computed on the amplified test methods, thus all the candidates must be applied
+        return reduce(inputAmplifiedTests.stream()
+                .map(AmplificationCandidate::apply)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Reduces the number of amplified tests to a practical threshold.
+     *
+     * The tests are visited in a random order, and a test is kept if it does not share any bucket with a test
+     * already kept. If there are not enough such tests, the remaining tests that share the fewest buckets with
+     * the kept tests are added.
+     *
+     * @param tests List of tests to be reduced
+     * @return A subset of the input tests
+     */
+    public List<CtMethod<?>> reduce(List<CtMethod<?>> tests) {
+        final List<CtMethod<?>> reducedTests = new ArrayList<>();
+        if (tests.size() > this.maxNumTests) {
+            LOGGER.warn("Too many tests have been generated: {}", tests.size());
+            // the order of the tests is kept by the collect, thus the buckets of the i-th test are at the index i
+            final List<long[]> bucketsOfTests = tests.parallelStream()
+                    .map(test -> buckets(MinHashSketch.sketch(test)))
+                    .collect(Collectors.toList());
+            final List<Integer> shuffledIndices = IntStream.range(0, tests.size()).boxed().collect(Collectors.toList());
+            Collections.shuffle(shuffledIndices, RandomHelper.getRandom());
+            final Set<Long> occupiedBuckets = new HashSet<>();
+            final List<Integer> skippedIndices = new ArrayList<>();
+            for (Integer index : shuffledIndices) {
+                if (reducedTests.size() >= this.maxNumTests) {
+                    break;
+                }
+                final long[] buckets = bucketsOfTests.get(index);
+                if (countOccupied(buckets, occupiedBuckets) == 0) {
+                    reducedTests.add(tests.get(index));
+                    for (long bucket : buckets) {
+                        occupiedBuckets.add(bucket);
+                    }
+                } else {
+                    skippedIndices.add(index);
+                }
+            }
+            if (reducedTests.size() < this.maxNumTests) {
+                skippedIndices.stream()
+                        .sorted(Comparator.comparingInt(index -> countOccupied(bucketsOfTests.get(index), occupiedBuckets)))
+                        .limit(this.maxNumTests - reducedTests.size())
+                        .forEach(index -> reducedTests.add(tests.get(index)));
+            }
+            LOGGER.info("Number of generated test reduced to {}", reducedTests.size());
+        }
+        if (reducedTests.isEmpty()) {
+            reducedTests.addAll(tests);
+        }
+        return reducedTests;
+    }
+
+    private static long[] buckets(long[] sketch) {
+        final long[] buckets = new long[NUMBER_OF_BANDS];
+        for (int band = 0; band < NUMBER_OF_BANDS; band++) {
+            long bucket = band;
+            for (int row = 0; row < NUMBER_OF_ROWS; row++) {
+                bucket = bucket * 31 + sketch[band * NUMBER_OF_ROWS + row];
+            }
+            buckets[band] = bucket;
+        }
+        return buckets;
+    }
+
+    private static int countOccupied(long[] buckets, Set<Long> occupiedBuckets) {
+        int count = 0;
+        for (long bucket : buckets) {
+            if (occupiedBuckets.contains(bucket)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
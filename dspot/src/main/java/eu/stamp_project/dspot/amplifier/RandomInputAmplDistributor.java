@@ -9,6 +9,7 @@ import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import eu.stamp_project.dspot.amplifier.amplifiers.AmplificationCandidate;
 import eu.stamp_project.dspot.amplifier.amplifiers.Amplifier;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
 import eu.stamp_project.dspot.common.configuration.UserInput;
@@ -32,11 +33,11 @@ public class RandomInputAmplDistributor extends AbstractInputAmplDistributor {
      *
      * @param test Test method
      * @param i current iteration
-     * @return New generated tests
+     * @return Candidate amplifications of the test, that are not applied yet
      */
-    protected Stream<CtMethod<?>> inputAmplifyTest(CtMethod<?> test, int i) {
+    protected Stream<AmplificationCandidate> inputAmplifyTest(CtMethod<?> test, int i) {
         return this.amplifiers.parallelStream()
-                .flatMap(amplifier -> amplifier.amplify(test, i));
+                .flatMap(amplifier -> amplifier.candidates(test, i));
     }
 
     /**
@@ -49,14 +50,17 @@ public class RandomInputAmplDistributor extends AbstractInputAmplDistributor {
     @Override
     public List<CtMethod<?>> inputAmplify(List<CtMethod<?>> testMethods, int i) {
         LOGGER.info("Amplification of inputs...");
-        List<CtMethod<?>> inputAmplifiedTests = testMethods.parallelStream()
+        List<AmplificationCandidate> inputAmplifiedTests = testMethods.parallelStream()
                 .flatMap(test -> {
-                    final Stream<CtMethod<?>> inputAmplifiedTestMethods = inputAmplifyTest(test, i);
+                    final Stream<AmplificationCandidate> inputAmplifiedTestMethods = inputAmplifyTest(test, i);
                     DSpotUtils.printProgress(testMethods.indexOf(test), testMethods.size());
                     return inputAmplifiedTestMethods;
                 }).collect(Collectors.toList());
         LOGGER.info("{} new tests generated", inputAmplifiedTests.size());
-        return reduce(inputAmplifiedTests);
+        // only the selected candidates are applied, i.e. only the selected test methods are cloned
+        return reduce(inputAmplifiedTests).stream()
+                .map(AmplificationCandidate::apply)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -66,8 +70,8 @@ public class RandomInputAmplDistributor extends AbstractInputAmplDistributor {
      * @return A subset of the input tests
      */
 
-    public List<CtMethod<?>> reduce(List<CtMethod<?>> tests) {
-        final List<CtMethod<?>> reducedTests = new ArrayList<>();
+    public <T> List<T> reduce(List<T> tests) {
+        final List<T> reducedTests = new ArrayList<>();
 
         final int testsSize = tests.size();
         if (testsSize > maxNumTests) {
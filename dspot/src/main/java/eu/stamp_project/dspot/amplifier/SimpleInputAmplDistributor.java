@@ -1,5 +1,6 @@
 package eu.stamp_project.dspot.amplifier;
 
+import eu.stamp_project.dspot.amplifier.amplifiers.AmplificationCandidate;
 import eu.stamp_project.dspot.amplifier.amplifiers.Amplifier;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
 import eu.stamp_project.dspot.amplifier.amplifiers.utils.RandomHelper;
@@ -44,11 +45,12 @@ public class SimpleInputAmplDistributor extends AbstractInputAmplDistributor {
         final ArrayList<CtMethod<?>> testMethodsToBeAmplified = new ArrayList<>(testMethods);
         // Amplify all method using all amplifiers
         long time = System.currentTimeMillis();
-        final Map<Amplifier, Map<CtMethod<?>, List<CtMethod<?>>>> amplifiedTestMethodPerAmplifierPerTestMethod =
+        final Map<Amplifier, Map<CtMethod<?>, List<AmplificationCandidate>>> amplifiedTestMethodPerAmplifierPerTestMethod =
                 amplify(amplifiers, testMethodsToBeAmplified, iteration);
         LOGGER.info("Time to amplify: {}ms", System.currentTimeMillis() - time);
 
-        final List<CtMethod<?>> amplifiedTestMethods = new ArrayList<>();
+        // the candidates are applied, i.e. the test methods are cloned, only once they have been selected
+        final List<AmplificationCandidate> amplifiedTestMethods = new ArrayList<>();
         while (totalBudget > 0 && !amplifiedTestMethodPerAmplifierPerTestMethod.isEmpty()) {
             DSpotUtils.printProgress(budget - totalBudget, budget);
             final int nbAmplifierRemaining = amplifiedTestMethodPerAmplifierPerTestMethod.size();
@@ -68,17 +70,19 @@ public class SimpleInputAmplDistributor extends AbstractInputAmplDistributor {
             amplifiedTestMethodPerAmplifierPerTestMethod.entrySet().removeIf(entry -> entry.getValue().isEmpty());
         }
         LOGGER.info("{} new tests generated", amplifiedTestMethods.size());
-        return amplifiedTestMethods;
+        return amplifiedTestMethods.stream()
+                .map(AmplificationCandidate::apply)
+                .collect(Collectors.toList());
     }
 
-    private Map<Amplifier, Map<CtMethod<?>, List<CtMethod<?>>>> amplify(List<Amplifier> amplifiers,
+    private Map<Amplifier, Map<CtMethod<?>, List<AmplificationCandidate>>> amplify(List<Amplifier> amplifiers,
                                                                         ArrayList<CtMethod<?>> testMethodsToBeAmplified,
                                                                         int iteration) {
-        Map<Amplifier, Map<CtMethod<?>, List<CtMethod<?>>>> amplifiedTestMethodPerAmplifierPerTestMethod = new HashMap<>();
+        Map<Amplifier, Map<CtMethod<?>, List<AmplificationCandidate>>> amplifiedTestMethodPerAmplifierPerTestMethod = new HashMap<>();
         for (Amplifier amplifier : amplifiers) {
             amplifiedTestMethodPerAmplifierPerTestMethod.put(amplifier, new HashMap<>());
             for (CtMethod<?> testMethod : testMethodsToBeAmplified) {
-                final List<CtMethod<?>> amplification = amplifier.amplify(testMethod, 0).collect(Collectors.toList());
+                final List<AmplificationCandidate> amplification = amplifier.candidates(testMethod, 0).collect(Collectors.toList());
                 Collections.shuffle(amplification, RandomHelper.getRandom());
                 amplifiedTestMethodPerAmplifierPerTestMethod.get(amplifier).put(testMethod, amplification);
             }
@@ -87,11 +91,11 @@ public class SimpleInputAmplDistributor extends AbstractInputAmplDistributor {
     }
 
     private int selectAndAddAmplifiedTestMethods(int totalBudget,
-                                                 Map<Amplifier, Map<CtMethod<?>, List<CtMethod<?>>>> amplifiedTestMethodPerAmplifierPerTestMethod,
-                                                 List<CtMethod<?>> amplifiedTestMethods,
+                                                 Map<Amplifier, Map<CtMethod<?>, List<AmplificationCandidate>>> amplifiedTestMethodPerAmplifierPerTestMethod,
+                                                 List<AmplificationCandidate> amplifiedTestMethods,
                                                  int budgetPerAmplifier,
                                                  Amplifier amplifier) {
-        final Map<CtMethod<?>, List<CtMethod<?>>> amplificationPerTestMethod = amplifiedTestMethodPerAmplifierPerTestMethod.get(amplifier);
+        final Map<CtMethod<?>, List<AmplificationCandidate>> amplificationPerTestMethod = amplifiedTestMethodPerAmplifierPerTestMethod.get(amplifier);
         // in case there is less budget per amplifier than methods, we take the correct upper bound
         int upperBound = Math.min(amplificationPerTestMethod.size(), budgetPerAmplifier);
         int budgetPerAmplifierPerTestMethod = Math.max(1, budgetPerAmplifier / upperBound);
@@ -103,23 +107,23 @@ public class SimpleInputAmplDistributor extends AbstractInputAmplDistributor {
     }
 
     private int selectAndAddAmplifiedTestMethodsFromAnOriginalTestMethod(int totalBudget,
-                                                                         List<CtMethod<?>> amplifiedTestMethods,
-                                                                         Map<CtMethod<?>, List<CtMethod<?>>> amplificationPerTestMethod,
+                                                                         List<AmplificationCandidate> amplifiedTestMethods,
+                                                                         Map<CtMethod<?>, List<AmplificationCandidate>> amplificationPerTestMethod,
                                                                          int budgetPerAmplifierPerTestMethod,
                                                                          CtMethod<?> ctMethod) {
-        final List<CtMethod<?>> candidate = amplificationPerTestMethod.get(ctMethod);
+        final List<AmplificationCandidate> candidate = amplificationPerTestMethod.get(ctMethod);
         int minSize = Math.min(budgetPerAmplifierPerTestMethod, candidate.size());
         totalBudget = totalBudget - minSize; // decrease the budget
-        final List<CtMethod<?>> selectedAmplifiedTestMethods = candidate.subList(0, minSize);
+        final List<AmplificationCandidate> selectedAmplifiedTestMethods = candidate.subList(0, minSize);
         amplifiedTestMethods.addAll(selectedAmplifiedTestMethods); // adding all selected method to the list
-        candidate.removeAll(selectedAmplifiedTestMethods);
+        selectedAmplifiedTestMethods.clear();
         return totalBudget;
     }
 
-    private List<CtMethod<?>> getLastAmplifiedMethods(int totalBudget,
-                                                      Map<Amplifier, Map<CtMethod<?>, List<CtMethod<?>>>>
+    private List<AmplificationCandidate> getLastAmplifiedMethods(int totalBudget,
+                                                      Map<Amplifier, Map<CtMethod<?>, List<AmplificationCandidate>>>
                                                               amplifiedTestMethodPerAmplifierPerTestMethod) {
-        final List<CtMethod<?>> allAmplifiedTestMethods = amplifiedTestMethodPerAmplifierPerTestMethod.keySet()
+        final List<AmplificationCandidate> allAmplifiedTestMethods = amplifiedTestMethodPerAmplifierPerTestMethod.keySet()
                 .stream()
                 .flatMap(amplifier ->
                         amplifiedTestMethodPerAmplifierPerTestMethod.get(amplifier).keySet()
@@ -128,7 +132,7 @@ public class SimpleInputAmplDistributor extends AbstractInputAmplDistributor {
                                         amplifiedTestMethodPerAmplifierPerTestMethod.get(amplifier).get(ctMethod).stream()
                                 )
                 ).collect(Collectors.toList());
-        List<CtMethod<?>> lastAmplifiedTestMethods = new ArrayList<>();
+        List<AmplificationCandidate> lastAmplifiedTestMethods = new ArrayList<>();
         while (totalBudget > 0) {
             lastAmplifiedTestMethods.add(
                     allAmplifiedTestMethods.get(RandomHelper.getRandom().nextInt(allAmplifiedTestMethods.size())));
@@ -88,6 +88,15 @@ public abstract class AbstractAmplifier<T extends CtElement> implements Amplifie
 
     @Override
     public Stream<CtMethod<?>> amplify(CtMethod<?> testMethod, int iteration) {
+        return this.candidates(testMethod, iteration).map(AmplificationCandidate::apply);
+    }
+
+    /**
+     * The candidates hold the original elements and their amplified elements,
+     * the test method is cloned when a candidate is applied.
+     */
+    @Override
+    public Stream<AmplificationCandidate> candidates(CtMethod<?> testMethod, int iteration) {
         List<T> originals = this.getOriginals(testMethod);
         List<T> reducedOriginals = this.reduceAlreadyAmplifiedElements(originals);
         return reducedOriginals.stream()
@@ -97,7 +106,7 @@ public abstract class AbstractAmplifier<T extends CtElement> implements Amplifie
                 ).flatMap(original ->
                         this.amplify(original, testMethod)
                                 .stream()
-                                .map(amplified -> this.replace(original, amplified, testMethod))
+                                .map(amplified -> new AmplificationCandidate(() -> this.replace(original, amplified, testMethod)))
                 );
     }
 }
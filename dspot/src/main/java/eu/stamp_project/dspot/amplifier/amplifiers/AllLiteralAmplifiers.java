@@ -30,6 +30,11 @@ public class AllLiteralAmplifiers implements Amplifier {
         return this.literalAmplifiers.stream().flatMap(amplifier -> amplifier.amplify(testMethod, 0));
     }
 
+    @Override
+    public Stream<AmplificationCandidate> candidates(CtMethod<?> testMethod, int iteration) {
+        return this.literalAmplifiers.stream().flatMap(amplifier -> amplifier.candidates(testMethod, 0));
+    }
+
     @Override
     public void reset(CtType testClass) {
         this.literalAmplifiers.forEach(amplifier -> amplifier.reset(testClass));
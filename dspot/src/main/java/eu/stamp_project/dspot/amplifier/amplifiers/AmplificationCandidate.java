@@ -0,0 +1,52 @@
+package eu.stamp_project.dspot.amplifier.amplifiers;
+
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.function.Supplier;
+
+/**
+ * An input amplification of a test method that has not been applied yet.
+ *
+ * A candidate only describes the amplification, <i>e.g.</i> the element to be replaced and its replacement.
+ * The amplified test method, <i>i.e.</i> the clone of the test method, is built when {@link #apply()} is called,
+ * and it is built only once: calling {@link #apply()} again returns the same amplified test method.
+ */
+public class AmplificationCandidate {
+
+    private Supplier<CtMethod<?>> amplification;
+
+    private CtMethod<?> amplifiedTestMethod;
+
+    /**
+     * @param amplification builds the amplified test method, it is called at most once
+     */
+    public AmplificationCandidate(Supplier<CtMethod<?>> amplification) {
+        this.amplification = amplification;
+    }
+
+    /**
+     * @param amplifiedTestMethod a test method that has already been amplified
+     * @return an applied candidate, that returns the given test method
+     */
+    public static AmplificationCandidate of(CtMethod<?> amplifiedTestMethod) {
+        final AmplificationCandidate candidate = new AmplificationCandidate(null);
+        candidate.amplifiedTestMethod = amplifiedTestMethod;
+        return candidate;
+    }
+
+    /**
+     * @return the amplified test method, built at the first call
+     */
+    public synchronized CtMethod<?> apply() {
+        if (this.amplification != null) {
+            this.amplifiedTestMethod = this.amplification.get();
+            // the description of the amplification is not needed anymore
+            this.amplification = null;
+        }
+        return this.amplifiedTestMethod;
+    }
+
+    public synchronized boolean isApplied() {
+        return this.amplification == null;
+    }
+}
@@ -22,6 +22,19 @@ public interface Amplifier {
      */
     Stream<CtMethod<?>> amplify(CtMethod<?> testMethod, int iteration);
 
+    /**
+     * Describes the input amplifications of the given test method, without applying them.
+     * The amplified test methods are built only for the candidates that are applied, see {@link AmplificationCandidate#apply()}.
+     * By default, the candidates are the test methods amplified by {@link #amplify(CtMethod, int)},
+     * amplifiers should override this method to defer the cloning of the test method.
+     * @param testMethod to be amplified
+     * @param iteration of the main loop of DSpot
+     * @return all the candidate input amplifications of the given test method
+     */
+    default Stream<AmplificationCandidate> candidates(CtMethod<?> testMethod, int iteration) {
+        return this.amplify(testMethod, iteration).map(AmplificationCandidate::of);
+    }
+
     void reset(CtType<?> testClass);
 
 }
@@ -2,6 +2,7 @@
 
 package eu.stamp_project.dspot.amplifier.amplifiers;
 
+import eu.stamp_project.dspot.common.configuration.DSpotCache;
 import eu.stamp_project.dspot.common.test_framework.TestFramework;
 import eu.stamp_project.dspot.amplifier.amplifiers.utils.AmplificationChecker;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
@@ -22,15 +23,8 @@ import java.util.stream.Stream;
  * */
 public class FastLiteralAmplifier implements Amplifier {
 
-
-	private Map<CtType, Set<Object>> literalByClass;
-
 	private Map<Class<?>, List<Object>> literals;
 
-	public FastLiteralAmplifier() {
-		this.literalByClass = new HashMap<>();
-	}
-
 	private class LiteralToBeMutedFilter extends TypeFilter<CtLiteral> {
 		public LiteralToBeMutedFilter() {
 			super(CtLiteral.class);
@@ -43,7 +37,12 @@ public class FastLiteralAmplifier implements Amplifier {
 	}
 
 	public Stream<CtMethod<?>> amplify(CtMethod<?> method, int iteration) {
-		List<CtMethod<?>> methods = new ArrayList<>();
+		return this.candidates(method, iteration).map(AmplificationCandidate::apply);
+	}
+
+	@Override
+	public Stream<AmplificationCandidate> candidates(CtMethod<?> method, int iteration) {
+		List<AmplificationCandidate> methods = new ArrayList<>();
 		//get the list of literals in the method
 		List<CtLiteral> literals = Query.getElements(method.getBody(), new LiteralToBeMutedFilter());
 		//this index serves to replace ith literal is replaced by zero in the ith clone of the method
@@ -58,7 +57,7 @@ public class FastLiteralAmplifier implements Amplifier {
 						methods.addAll(createAllStringMutant(method, lit, lit_index));
 					}
 					if (lit.getValue() instanceof Boolean) {
-						methods.add(createBooleanMutant(method, lit));
+						methods.add(new AmplificationCandidate(() -> createBooleanMutant(method, lit)));
 					}
 					if (lit.getValue() instanceof Character) {
 						methods.addAll(createAllCharacterMutant(method, lit, lit_index));
@@ -74,10 +73,15 @@ public class FastLiteralAmplifier implements Amplifier {
 
 	public void reset(CtType testClass) {
 		AmplificationHelper.reset();
-		Set<CtType> codeFragmentsProvide = AmplificationHelper.computeClassProvider(testClass);
-		literals = getLiterals(codeFragmentsProvide).stream()
-				.filter(lit -> lit != null)
-				.collect(Collectors.groupingBy(lit -> lit.getClass()));
+		// the literal pool is made of the literals of the types of the package of the test class,
+		// thus it is computed once per package, see DSpotCache,
+		// and computed again once a type or a method is added to or removed from the package, see TestFrameworkChangeListener
+		literals = DSpotCache.getLiteralCache().computeIfAbsent(testClass.getPackage().getQualifiedName(), packageName -> {
+			Set<CtType> codeFragmentsProvide = AmplificationHelper.computeClassProvider(testClass);
+			return getLiterals(codeFragmentsProvide).stream()
+					.filter(lit -> lit != null)
+					.collect(Collectors.groupingBy(lit -> lit.getClass()));
+		});
 	}
 
 	private CtMethod<?> createNumberMutant(CtMethod<?> method, int original_lit_index, Number newValue) {
@@ -115,16 +119,16 @@ public class FastLiteralAmplifier implements Amplifier {
 		return cloned_method;
 	}
 
-	private List<CtMethod<?>> createAllNumberMutant(CtMethod<?> method, CtLiteral literal, int lit_index) {
+	private List<AmplificationCandidate> createAllNumberMutant(CtMethod<?> method, CtLiteral literal, int lit_index) {
 		return numberMutated(literal).stream()
-				.map(newValue -> createNumberMutant(method, lit_index, newValue))
+				.map(newValue -> new AmplificationCandidate(() -> createNumberMutant(method, lit_index, newValue)))
 				.collect(Collectors.toList());
 	}
 
 
-	private List<CtMethod<?>> createAllStringMutant(CtMethod<?> method, CtLiteral literal, int original_lit_index) {
+	private List<AmplificationCandidate> createAllStringMutant(CtMethod<?> method, CtLiteral literal, int original_lit_index) {
 		return stringMutated(literal).stream()
-				.map(literalMutated -> createStringMutant(method, original_lit_index, literalMutated))
+				.map(literalMutated -> new AmplificationCandidate(() -> createStringMutant(method, original_lit_index, literalMutated)))
 				.collect(Collectors.toList());
 	}
 
@@ -139,9 +143,9 @@ public class FastLiteralAmplifier implements Amplifier {
 		return cloned_method;
 	}
 
-	private List<CtMethod<?>> createAllCharacterMutant(CtMethod method, CtLiteral lit, int original_lit_index) {
+	private List<AmplificationCandidate> createAllCharacterMutant(CtMethod method, CtLiteral lit, int original_lit_index) {
 		return characterMutated(lit).stream()
-				.map(character -> createCharacterMutant(method, original_lit_index, character))
+				.map(character -> new AmplificationCandidate(() -> createCharacterMutant(method, original_lit_index, character)))
 				.collect(Collectors.toList());
 	}
 
@@ -237,14 +241,9 @@ public class FastLiteralAmplifier implements Amplifier {
 	}
 
 	private Set<Object> getLiterals(CtType type) {
-		if (!literalByClass.containsKey(type)) {
-			Set<Object> set = (Set<Object>) Query.getElements(type, new TypeFilter(CtLiteral.class)).stream()
-					.map(literal -> ((CtLiteral) literal).getValue())
-					.distinct()
-					.collect(Collectors.toSet());
-			literalByClass.put(type, set);
-		}
-		return literalByClass.get(type);
+		return (Set<Object>) Query.getElements(type, new TypeFilter(CtLiteral.class)).stream()
+				.map(literal -> ((CtLiteral) literal).getValue())
+				.collect(Collectors.toSet());
 	}
 
 	private void addComment(CtElement element, String kind, Object oldValue, Object newValue) {
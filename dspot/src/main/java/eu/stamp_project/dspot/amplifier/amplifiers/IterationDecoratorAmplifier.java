@@ -33,4 +33,13 @@ public class IterationDecoratorAmplifier extends DecoratorAmplifier {
             return Stream.empty();
         }
     }
+
+    @Override
+    public Stream<AmplificationCandidate> candidates(CtMethod<?> testMethod, int iteration) {
+        if (iteration % this.frequency == 0) {
+            return super.candidates(testMethod, iteration);
+        } else {
+            return Stream.empty();
+        }
+    }
 }
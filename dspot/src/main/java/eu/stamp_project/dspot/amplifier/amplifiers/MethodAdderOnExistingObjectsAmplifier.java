@@ -24,6 +24,15 @@ public class MethodAdderOnExistingObjectsAmplifier implements Amplifier {
 
     @Override
     public Stream<CtMethod<?>> amplify(CtMethod<?> testMethod, int iteration) {
+        return this.candidates(testMethod, iteration).map(AmplificationCandidate::apply);
+    }
+
+    /**
+     * The candidates hold the existing objects and the methods to be called on them,
+     * the test method is cloned when a candidate is applied.
+     */
+    @Override
+    public Stream<AmplificationCandidate> candidates(CtMethod<?> testMethod, int iteration) {
         List<CtLocalVariable<?>> existingObjects = getExistingObjects(testMethod);
         return existingObjects.stream()
                 .flatMap(existingObject -> AmplifierHelper.findMethodsWithTargetType(existingObject.getType()).stream()
@@ -35,17 +44,16 @@ public class MethodAdderOnExistingObjectsAmplifier implements Amplifier {
                                 .stream()
                                 .map(CtParameter::getType)
                                 .allMatch(ValueCreatorHelper::canGenerateAValueForType)
-                        ).map(methodToBeAdd ->
-                                AmplifierHelper.addInvocation(testMethod,
-                                        methodToBeAdd,
-                                        AmplifierHelper.createLocalVarRef(existingObject),
-                                        existingObject,
-                                        "_mg",
-                                        "MethodAdderOnExistingObjectsAmplifier: added method on existing object")
-                        ).map(amplifiedTestMethod -> {
+                        ).map(methodToBeAdd -> new AmplificationCandidate(() -> {
+                                    final CtMethod<?> amplifiedTestMethod = AmplifierHelper.addInvocation(testMethod,
+                                            methodToBeAdd,
+                                            AmplifierHelper.createLocalVarRef(existingObject),
+                                            existingObject,
+                                            "_mg",
+                                            "MethodAdderOnExistingObjectsAmplifier: added method on existing object");
                                     Counter.updateInputOf(amplifiedTestMethod, 1);
                                     return amplifiedTestMethod;
-                                }
+                                })
                         )
                         .collect(Collectors.toList()).stream()
                 );
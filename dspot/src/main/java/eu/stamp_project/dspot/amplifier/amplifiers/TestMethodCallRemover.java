@@ -21,6 +21,11 @@ import java.util.stream.Stream;
 public class TestMethodCallRemover implements Amplifier {
 
     public Stream<CtMethod<?>> amplify(CtMethod<?> method, int iteration) {
+        return this.candidates(method, iteration).map(AmplificationCandidate::apply);
+    }
+
+    @Override
+    public Stream<AmplificationCandidate> candidates(CtMethod<?> method, int iteration) {
         if (method.getDeclaringType() != null) {
             final List<CtInvocation<?>> invocations = method.getElements(new TypeFilter<CtInvocation<?>>(CtInvocation.class) {
                 @Override
@@ -31,7 +36,7 @@ public class TestMethodCallRemover implements Amplifier {
                             && !containsIteratorNext(invocation);
                 }
             });
-            return invocations.stream().map(invocation -> apply(method, invocation));
+            return invocations.stream().map(invocation -> new AmplificationCandidate(() -> apply(method, invocation)));
         } else {
             return Stream.empty();
         }
@@ -13,15 +13,41 @@ import java.util.stream.IntStream;
  */
 public class RandomHelper {
 
-    private static Random random = new Random(23L);
+    private static long seed = 23L;
 
+    private static Random random = new Random(seed);
+
+    // the random of the current thread, if it has its own, see #setRandomOfCurrentThread()
+    private static final ThreadLocal<Random> randomOfCurrentThread = new ThreadLocal<>();
 
     public static void setSeedRandom(long seed) {
+        RandomHelper.seed = seed;
+        random = new Random(seed);
+    }
+
+    /**
+     * Restarts the random from the last given seed, see {@link #setSeedRandom(long)}.
+     */
+    public static void resetRandom() {
         random = new Random(seed);
     }
 
+    /**
+     * Gives its own random, started from the last given seed, to the current thread,
+     * e.g. to a worker that amplifies a test class concurrently with other workers,
+     * so that the amplification of the test class does not depend on the interleaving of the workers.
+     */
+    public static void setRandomOfCurrentThread() {
+        randomOfCurrentThread.set(new Random(seed));
+    }
+
+    public static void removeRandomOfCurrentThread() {
+        randomOfCurrentThread.remove();
+    }
+
     public static Random getRandom() {
-        return random;
+        final Random randomOfCurrentThread = RandomHelper.randomOfCurrentThread.get();
+        return randomOfCurrentThread == null ? random : randomOfCurrentThread;
     }
 
     public static String getRandomString(int length) {
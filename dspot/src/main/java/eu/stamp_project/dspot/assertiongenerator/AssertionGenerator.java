@@ -1,5 +1,6 @@
 package eu.stamp_project.dspot.assertiongenerator;
 
+import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.AssertionRemover;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.MethodReconstructor;
@@ -42,12 +43,31 @@ public class AssertionGenerator {
 
     private TestCompiler testCompiler;
 
+    private boolean singlePassObservation;
+
+    private int numberOfObservationReruns;
+
     public AssertionGenerator(double delta, DSpotCompiler compiler, TestCompiler testCompiler) {
+        this(delta, compiler, testCompiler, false, 0);
+    }
+
+    /**
+     * @param singlePassObservation     run each instrumented test once, and run again only the tests that have values to assert,
+     *                                  see {@link eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.Observer}
+     * @param numberOfObservationReruns the maximum number of times the tests are run again to check the determinism of the observed values
+     */
+    public AssertionGenerator(double delta,
+                              DSpotCompiler compiler,
+                              TestCompiler testCompiler,
+                              boolean singlePassObservation,
+                              int numberOfObservationReruns) {
         this.delta = delta;
         this.compiler = compiler;
         this.assertionRemover = new AssertionRemover();
         this.tryCatchFailGenerator = new TryCatchFailGenerator();
         this.testCompiler = testCompiler;
+        this.singlePassObservation = singlePassObservation;
+        this.numberOfObservationReruns = numberOfObservationReruns;
     }
 
     /**
@@ -63,7 +83,7 @@ public class AssertionGenerator {
             return tests;
         }
         CtType cloneClass = testClass.clone();
-        testClass.getPackage().addType(cloneClass);
+        AmplificationHelper.addToPackageOf(testClass, cloneClass);
         List<CtMethod<?>> testsWithoutAssertions = removeAssertions(tests, cloneClass);
 
         // set up methodReconstructor for use in assertPassingAndFailingTests
@@ -72,7 +92,9 @@ public class AssertionGenerator {
                 testClass,
                 compiler,
                 this.assertionRemover.getVariableAssertedPerTestMethod(),
-                this.testCompiler
+                this.testCompiler,
+                this.singlePassObservation,
+                this.numberOfObservationReruns
         );
         final List<CtMethod<?>> amplifiedTestsWithAssertions =
                 this.assertPassingAndFailingTests(cloneClass, testsWithoutAssertions);
@@ -3,14 +3,16 @@ package eu.stamp_project.dspot.assertiongenerator.assertiongenerator;
 import eu.stamp_project.dspot.common.test_framework.TestFramework;
 import eu.stamp_project.dspot.common.miscellaneous.CloneHelper;
 import spoon.reflect.code.*;
+import spoon.reflect.declaration.CtElement;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.reference.CtVariableReference;
+import spoon.reflect.visitor.CtScanner;
 import spoon.reflect.visitor.filter.TypeFilter;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Created by Benjamin DANGLOT
@@ -31,38 +33,76 @@ public class AssertionRemover {
     /**
      * Removes all assertions from a test.
      *
+     * The test method is scanned once, see {@link TestMethodScanner}, to find its assertions, its try blocks and its
+     * local variables. Then, each statement list that contains assertions is rewritten once: the arguments of the
+     * assertions are extracted as statements and the assertions are removed, see {@link #removeAssertion(CtInvocation)}.
+     * At last, each statement list that contains try blocks is rewritten once: the body of each try block is inserted
+     * before it, and the try blocks of the body of the test method are removed.
+     * Thus, the time spent to remove the assertions is linear in the size of the test method.
+     *
      * @param testMethod Test method
      * @return Test's clone without any assertion
      */
     public CtMethod<?> removeAssertion(CtMethod<?> testMethod) {
         CtMethod<?> testWithoutAssertion = CloneHelper.cloneTestMethodNoAmp(testMethod);
-        variableAssertedPerTestMethod.put(testWithoutAssertion,
-                testWithoutAssertion
-                        .getElements(TestFramework.ASSERTIONS_FILTER)
-                        .stream()
-                        .filter(invocation -> !(invocation.getParent() instanceof CtRHSReceiver)) // it means that the return type is used in the test.
-                        .flatMap(invocation -> this.removeAssertion(invocation).stream())
-                        .collect(Collectors.toList())
-        );
-
-        testWithoutAssertion.getElements(new TypeFilter<CtTry>(CtTry.class) {
-            @Override
-            public boolean matches(CtTry element) {
-                return !(element instanceof CtTryWithResource);
+        final TestMethodScanner scanner = new TestMethodScanner();
+        scanner.scan(testWithoutAssertion.getBody());
+
+        final List<CtLocalVariable<?>> variablesAsserted = new ArrayList<>();
+        final Map<CtStatement, List<CtStatement>> statementsToInsertBefore = new IdentityHashMap<>();
+        final Set<CtStatement> statementsToRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CtInvocation<?> assertion : scanner.assertions) {
+            if (assertion.getParent() instanceof CtStatementList) {
+                final List<CtStatement> extractedStatements = new ArrayList<>();
+                variablesAsserted.addAll(extractArguments(assertion, extractedStatements,
+                        name -> scanner.getLocalVariable(name, assertion.getParent(CtBlock.class)))
+                );
+                // the try blocks of the extracted statements, e.g. the bodies of the lambdas, are removed as well
+                extractedStatements.forEach(scanner::scanTryBlocks);
+                statementsToInsertBefore.put(assertion, extractedStatements);
+                statementsToRemove.add(assertion);
+            } else {
+                // the assertion is not directly in a statement list, e.g. in an if without block
+                variablesAsserted.addAll(this.removeAssertion(assertion));
             }
-        }).forEach(ctTry -> ctTry.insertBefore((CtStatement) ctTry.getBody().clone()));
-        testWithoutAssertion.getElements(
-                new TypeFilter<CtTry>(CtTry.class) {
-                    @Override
-                    public boolean matches(CtTry element) {
-                        return !(element instanceof CtTryWithResource);
-                    }
+        }
+        rewrite(statementsToInsertBefore, statementsToRemove);
+        variableAssertedPerTestMethod.put(testWithoutAssertion, variablesAsserted);
+
+        statementsToInsertBefore.clear();
+        statementsToRemove.clear();
+        for (CtTry ctTry : scanner.tryBlocks) {
+            if (ctTry.getParent() instanceof CtStatementList) {
+                statementsToInsertBefore.put(ctTry, Collections.singletonList(ctTry.getBody().clone()));
+                // only the try blocks of the body of the test method are removed
+                if (ctTry.getParent() == testWithoutAssertion.getBody()) {
+                    statementsToRemove.add(ctTry);
                 }
-        ).forEach(testWithoutAssertion.getBody()::removeStatement);
+            } else {
+                ctTry.insertBefore((CtStatement) ctTry.getBody().clone());
+            }
+        }
+        rewrite(statementsToInsertBefore, statementsToRemove);
 
         return testWithoutAssertion;
     }
 
+    // rewrites once each statement list that contains the given statements
+    private static void rewrite(Map<CtStatement, List<CtStatement>> statementsToInsertBefore, Set<CtStatement> statementsToRemove) {
+        final Set<CtStatementList> statementLists = Collections.newSetFromMap(new IdentityHashMap<>());
+        statementsToInsertBefore.keySet().forEach(statement -> statementLists.add((CtStatementList) statement.getParent()));
+        for (CtStatementList statementList : statementLists) {
+            final List<CtStatement> statements = new ArrayList<>();
+            for (CtStatement statement : statementList.getStatements()) {
+                statements.addAll(statementsToInsertBefore.getOrDefault(statement, Collections.emptyList()));
+                if (!statementsToRemove.contains(statement)) {
+                    statements.add(statement);
+                }
+            }
+            statementList.setStatements(statements);
+        }
+    }
+
     /**
      * Replaces an invocation with its arguments.
      *
@@ -70,7 +110,6 @@ public class AssertionRemover {
      * @return the list of local variables extracted from assertions
      */
     public List<CtLocalVariable<?>> removeAssertion(CtInvocation<?> invocation) {
-        List<CtLocalVariable<?>> variableReadsAsserted = new ArrayList<>();
         final Factory factory = invocation.getFactory();
         final TypeFilter<CtStatement> statementTypeFilter = new TypeFilter<CtStatement>(CtStatement.class) {
             @Override
@@ -78,6 +117,41 @@ public class AssertionRemover {
                 return element.equals(invocation);
             }
         };
+        final List<CtStatement> extractedStatements = new ArrayList<>();
+        final List<CtLocalVariable<?>> variableReadsAsserted = extractArguments(invocation, extractedStatements, name -> {
+            final List<CtLocalVariable> assertedVariables = invocation.getParent(CtBlock.class).getElements(
+                    localVariable -> localVariable.getSimpleName().equals(name)
+                    // here, we match the simple name
+                    // since the type cannot match with generated elements
+                    // for instance, if the original element is a primitive char,
+                    // the generated element can be a Character
+                    // and thus, the localVariable.getReference().equals(variable) returns false
+                    // the contract on name holds since we control it, i.e. variables in
+                    // assertions are extracted by us.
+            );
+            return assertedVariables.isEmpty() ? null : assertedVariables.get(0);
+        });
+        if (!extractedStatements.isEmpty()) {
+            final CtStatementList statementList = factory.Core().createStatementList();
+            statementList.setStatements(extractedStatements);
+            invocation.getParent(CtStatementList.class).insertBefore(statementTypeFilter, statementList);
+        }
+        // must find the first statement list to remove the invocation from it, e.g. the block that contains the assertions
+        // the assertion can be inside other stuff, than directly in the block
+        CtStatement topStatement = AssertionGeneratorUtils.getTopStatement(invocation);
+        ((CtStatementList) topStatement.getParent()).removeStatement(topStatement);
+        return variableReadsAsserted;
+    }
+
+    /*
+        Adds to the given list the statements extracted from the arguments of the given assertion, to be inserted before it.
+        Returns the local variables read by the assertion, found by their name with the given function.
+     */
+    private List<CtLocalVariable<?>> extractArguments(CtInvocation<?> invocation,
+                                                      List<CtStatement> extractedStatements,
+                                                      Function<String, CtLocalVariable<?>> getLocalVariable) {
+        List<CtLocalVariable<?>> variableReadsAsserted = new ArrayList<>();
+        final Factory factory = invocation.getFactory();
         if (!(invocation.getMetadata(AssertionGeneratorUtils.METADATA_ASSERT_AMPLIFICATION) != null &&
                 (boolean) invocation.getMetadata(AssertionGeneratorUtils.METADATA_ASSERT_AMPLIFICATION))) {
             for (CtExpression<?> argument : invocation.getArguments()) {
@@ -88,10 +162,10 @@ public class AssertionRemover {
                 }
                 if (clone instanceof CtLambda) {
                     CtLambda lambda = ((CtLambda) clone);
+                    // the extracted statements must not have a parent yet, since they are added to a statement list at once
                     if (lambda.getBody() != null) {
-                        invocation.getParent(CtStatementList.class).insertBefore(
-                                statementTypeFilter,
-                                factory.createStatementList(lambda.getBody())
+                        ((List<CtStatement>) lambda.getBody().getStatements()).forEach(statement ->
+                                extractedStatements.add(statement.clone())
                         );
                     } else {
                         // in case of we have something like () -> "string"
@@ -99,14 +173,10 @@ public class AssertionRemover {
                             continue;
                         }
                         // TODO check that we support all cases by casting into CtInvocation
-                        final CtBlock block = factory.createBlock();
-                        block.setStatements(Collections.singletonList((CtInvocation)lambda.getExpression().clone()));
-                        invocation.getParent(CtStatementList.class).insertBefore(
-                                statementTypeFilter, factory.createStatementList(block)
-                        );
+                        extractedStatements.add((CtInvocation) lambda.getExpression().clone());
                     }
                 } else if (clone instanceof CtStatement) {
-                    invocation.getParent(CtStatementList.class).insertBefore(statementTypeFilter, (CtStatement) clone);
+                    extractedStatements.add((CtStatement) clone);
                     clone.putMetadata(AssertionGeneratorUtils.METADATA_WAS_IN_ASSERTION, true);
                 } else if (!(clone instanceof CtLiteral || clone instanceof CtVariableRead)) {
                     // TODO EXPLAIN
@@ -119,31 +189,18 @@ public class AssertionRemover {
                             toCorrectJavaIdentifier(typeOfParameter.getSimpleName()) + "_" + counter[0]++,
                             clone
                     );
-                    invocation.getParent(CtStatementList.class).insertBefore(statementTypeFilter, localVariable);
+                    extractedStatements.add(localVariable);
                     localVariable.putMetadata(AssertionGeneratorUtils.METADATA_WAS_IN_ASSERTION, true);
                 } else if (clone instanceof CtVariableRead && !(clone instanceof CtFieldRead)) {
                     final CtVariableReference variable = ((CtVariableRead) clone).getVariable();
-                    final List<CtLocalVariable> assertedVariables = invocation.getParent(CtBlock.class).getElements(
-                            localVariable -> localVariable.getSimpleName().equals(variable.getSimpleName())
-                            // here, we match the simple name
-                            // since the type cannot match with generated elements
-                            // for instance, if the original element is a primitive char,
-                            // the generated element can be a Character
-                            // and thus, the localVariable.getReference().equals(variable) returns false
-                            // the contract on name holds since we control it, i.e. variables in
-                            // assertions are extracted by us.
-                    );
                     // TODO, we can maybe make a precondition on the invocation, and its parents to avoid to this.
-                    if (!assertedVariables.isEmpty()) {
-                        variableReadsAsserted.add(assertedVariables.get(0));
+                    final CtLocalVariable<?> assertedVariable = getLocalVariable.apply(variable.getSimpleName());
+                    if (assertedVariable != null) {
+                        variableReadsAsserted.add(assertedVariable);
                     }
                 }
             }
         }
-        // must find the first statement list to remove the invocation from it, e.g. the block that contains the assertions
-        // the assertion can be inside other stuff, than directly in the block
-        CtStatement topStatement = AssertionGeneratorUtils.getTopStatement(invocation);
-        ((CtStatementList) topStatement.getParent()).removeStatement(topStatement);
         return variableReadsAsserted;
     }
 
@@ -159,4 +216,67 @@ public class AssertionRemover {
         }
         return result.toString();
     }
+
+    /**
+     * Collects, in a single traversal of a test method, its assertions, its try blocks, without the try-with-resources,
+     * and its local variables by name.
+     * It does not go through the assertions, since they are removed with their arguments.
+     * The assertions whose returned value is used, e.g. <code>String s = verify("s");</code>, are not collected.
+     */
+    private static class TestMethodScanner extends CtScanner {
+
+        private final List<CtInvocation<?>> assertions = new ArrayList<>();
+
+        private final List<CtTry> tryBlocks = new ArrayList<>();
+
+        private final Map<String, List<CtLocalVariable<?>>> localVariablesByName = new HashMap<>();
+
+        private boolean shouldCollectOnlyTryBlocks = false;
+
+        @Override
+        public <T> void visitCtInvocation(CtInvocation<T> invocation) {
+            if (!this.shouldCollectOnlyTryBlocks &&
+                    TestFramework.get().isAssert(invocation) &&
+                    !(invocation.getParent() instanceof CtRHSReceiver)) { // it means that the return type is used in the test.
+                this.assertions.add(invocation);
+            } else {
+                super.visitCtInvocation(invocation);
+            }
+        }
+
+        @Override
+        public void visitCtTry(CtTry tryBlock) {
+            this.tryBlocks.add(tryBlock);
+            super.visitCtTry(tryBlock);
+        }
+
+        @Override
+        public <T> void visitCtLocalVariable(CtLocalVariable<T> localVariable) {
+            if (!this.shouldCollectOnlyTryBlocks) {
+                this.localVariablesByName.computeIfAbsent(localVariable.getSimpleName(), name -> new ArrayList<>())
+                        .add(localVariable);
+            }
+            super.visitCtLocalVariable(localVariable);
+        }
+
+        private void scanTryBlocks(CtStatement statement) {
+            this.shouldCollectOnlyTryBlocks = true;
+            scan(statement);
+            this.shouldCollectOnlyTryBlocks = false;
+        }
+
+        // the first local variable of the given name declared in the given block, or in its sub blocks
+        private CtLocalVariable<?> getLocalVariable(String name, CtBlock<?> block) {
+            for (CtLocalVariable<?> localVariable : this.localVariablesByName.getOrDefault(name, Collections.emptyList())) {
+                CtElement current = localVariable;
+                while (current != null && current != block) {
+                    current = current.isParentInitialized() ? current.getParent() : null;
+                }
+                if (current == block) {
+                    return localVariable;
+                }
+            }
+            return null;
+        }
+    }
 }
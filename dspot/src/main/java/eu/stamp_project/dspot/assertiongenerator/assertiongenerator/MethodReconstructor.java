@@ -1,13 +1,16 @@
 package eu.stamp_project.dspot.assertiongenerator.assertiongenerator;
 
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.Observation;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.ObservationCodec;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.AssertionSyntaxBuilder;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.assertionsyntaxbuilder.Translator;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.Observer;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.CloneHelper;
 import eu.stamp_project.dspot.common.miscellaneous.Counter;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
+import eu.stamp_project.dspot.common.miscellaneous.StructuralHash;
 import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
 
 import eu.stamp_project.dspot.common.compilation.TestCompiler;
@@ -36,6 +39,8 @@ public class MethodReconstructor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodReconstructor.class);
 
+    private static final String ADD_ASSERTION_COMMENT = "AssertionGenerator: add assertion";
+
     private Factory factory;
 
     private Observer observer;
@@ -47,13 +52,25 @@ public class MethodReconstructor {
                                DSpotCompiler compiler,
                                Map<CtMethod<?>, List<CtLocalVariable<?>>> variableReadsAsserted,
                                TestCompiler testCompiler) {
+        this(delta, originalClass, compiler, variableReadsAsserted, testCompiler, false, 0);
+    }
+
+    public MethodReconstructor(double delta,
+                               CtType originalClass,
+                               DSpotCompiler compiler,
+                               Map<CtMethod<?>, List<CtLocalVariable<?>>> variableReadsAsserted,
+                               TestCompiler testCompiler,
+                               boolean singlePassObservation,
+                               int numberOfObservationReruns) {
         this.delta = delta;
         this.factory = compiler.getFactory();
         this.observer = new Observer(
                 originalClass,
                 compiler,
                 variableReadsAsserted,
-                testCompiler
+                testCompiler,
+                singlePassObservation,
+                numberOfObservationReruns
         );
     }
 
@@ -64,28 +81,45 @@ public class MethodReconstructor {
      * Details in {@link Observer#getObservations(CtType, List)}.
      *
      * Details of the assertion generation in {@link #buildTestWithAssert(CtMethod, Map)}.
+     * The assertions are built on the thread that owns the Spoon model, since the model is not thread-safe.
      *
      * @param testClass Test class
      * @param testCases Passing test methods
      * @return New tests with new assertions generated from observation points values
      */
     public List<CtMethod<?>> addAssertions(CtType<?> testClass, List<CtMethod<?>> testCases) {
-        Map<String, Observation> observations;
+        // the observations are given test method by test method, thus we index the test methods by name
+        final Map<String, List<CtMethod<?>>> testCasesByName = testCases.stream()
+                .collect(Collectors.groupingBy(CtMethod::getSimpleName));
+        final Map<CtMethod<?>, CtMethod<?>> testsWithAssert = new IdentityHashMap<>();
         try {
-            observations = observer.getObservations(testClass, testCases);
+            observer.forEachTestObservations(testClass, testCases,
+                    (testName, observationsOfTest) -> buildEachTest(
+                            testCasesByName.getOrDefault(testName, Collections.emptyList()),
+                            observationsOfTest,
+                            testsWithAssert
+                    )
+            );
+            // the tests without any observation
+            return testCases.stream()
+                    .map(ctMethod -> testsWithAssert.containsKey(ctMethod) ?
+                            testsWithAssert.get(ctMethod) :
+                            this.buildTestWithAssert(ctMethod, Collections.emptyMap())
+                    ).collect(Collectors.toList());
         } catch (AmplificationException e) {
             e.printStackTrace();
             return Collections.emptyList();
         }
-        return buildEachTest(testCases,observations);
     }
 
-    // add assertions to each test with values retrieved from logs
-    private List<CtMethod<?>> buildEachTest(List<CtMethod<?>> testCases,Map<String, Observation> observations) {
-        LOGGER.info("Generating assertions...");
-        return testCases.stream()
-                .map(ctMethod -> this.buildTestWithAssert(ctMethod, observations))
-                .collect(Collectors.toList());
+    // add assertions to the tests of the given name with values retrieved from logs, as soon as these values are read
+    private void buildEachTest(List<CtMethod<?>> testCasesOfName,
+                               Map<String, Observation> observationsOfTest,
+                               Map<CtMethod<?>, CtMethod<?>> testsWithAssert) {
+        if (testsWithAssert.isEmpty()) {
+            LOGGER.info("Generating assertions...");
+        }
+        testCasesOfName.forEach(ctMethod -> testsWithAssert.put(ctMethod, this.buildTestWithAssert(ctMethod, observationsOfTest)));
     }
 
     /**
@@ -93,7 +127,7 @@ public class MethodReconstructor {
      *
      * Details of constructing the syntax for the assertions in {@link AssertionSyntaxBuilder#buildAssert(CtMethod, Set, Map, Double)}.
      * @param test         Test method
-     * @param observations Observation points of the test suite
+     * @param observations Observation points of the test method
      * @return Test with new assertions
      */
     @SuppressWarnings("unchecked")
@@ -101,40 +135,57 @@ public class MethodReconstructor {
         CtMethod testWithAssert = CloneHelper.cloneTestMethodForAmp(test, "");
         Integer numberOfAddedAssertion = 0;
         List<CtStatement> statements = Query.getElements(testWithAssert, new TypeFilter(CtStatement.class));
+        CtStatement lastStatement = null;
+        int hashOfLastStatement = 0;
+        // the observation keys of the test method share their prefixes, see Translator
+        final Translator translator = new Translator(test.getFactory());
 
         // for every observation, create an assertion
-        for (String id : observations.keySet()) {
-            if (!id.split("__")[0].equals(testWithAssert.getSimpleName())) {
-                continue;
-            }
+        for (Map.Entry<String, Observation> observation : observations.entrySet()) {
+            final String id = observation.getKey();
             final List<CtStatement> assertStatements = AssertionSyntaxBuilder.buildAssert(
                     test,
-                    observations.get(id).getNotDeterministValues(),
-                    observations.get(id).getObservationValues(),
-                    this.delta
+                    observation.getValue().getNotDeterministValues(),
+                    observation.getValue().getObservationValues(),
+                    this.delta,
+                    translator
             );
 
             /* skip the current observation if it leads to
             an assertion identical to the last assertion put into the test method */
-            if (assertStatements.stream()
-                    .map(Object::toString)
-                    .map("// AssertionGenerator: add assertion\n"::concat)
-                    .anyMatch(testWithAssert.getBody().getLastStatement().toString()::equals)) {
-                continue;
+            if (lastStatement != testWithAssert.getBody().getLastStatement()) {
+                lastStatement = testWithAssert.getBody().getLastStatement();
+                hashOfLastStatement = isAddedAssertion(lastStatement) ? StructuralHash.of(lastStatement) : 0;
+            }
+            if (hashOfLastStatement != 0) {
+                final int hashOfLastAssertion = hashOfLastStatement;
+                if (assertStatements.stream().mapToInt(StructuralHash::of).anyMatch(hash -> hash == hashOfLastAssertion)) {
+                    continue;
+                }
             }
-            numberOfAddedAssertion = goThroughAssertionStatements(assertStatements,id,statements,numberOfAddedAssertion);
+            numberOfAddedAssertion = goThroughAssertionStatements(assertStatements,
+                    id,
+                    ObservationCodec.getStatementIndex(id),
+                    statements,
+                    numberOfAddedAssertion
+            );
         }
         Counter.updateAssertionOf(testWithAssert, numberOfAddedAssertion);
         return decideReturn(testWithAssert,test);
     }
 
-    private int goThroughAssertionStatements(List<CtStatement> assertStatements,String id,
+    private static boolean isAddedAssertion(CtStatement statement) {
+        return statement != null && statement.getComments()
+                .stream()
+                .anyMatch(comment -> ADD_ASSERTION_COMMENT.equals(comment.getContent()));
+    }
+
+    private int goThroughAssertionStatements(List<CtStatement> assertStatements,String id,int line,
                                                List<CtStatement> statements, int numberOfAddedAssertion){
-        int line = Integer.parseInt(id.split("__")[1]);
         CtStatement lastStmt = null;
         for (CtStatement assertStatement : assertStatements) {
             DSpotUtils.addComment(assertStatement,
-                    "AssertionGenerator: add assertion",
+                    ADD_ASSERTION_COMMENT,
                     CtComment.CommentType.INLINE);
             try {
                 CtStatement statementToBeAsserted = statements.get(line);
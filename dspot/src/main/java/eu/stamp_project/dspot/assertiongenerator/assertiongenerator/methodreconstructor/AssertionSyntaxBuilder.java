@@ -44,12 +44,32 @@ public class AssertionSyntaxBuilder {
                                                 Set<String> notDeterministValues,
                                                 Map<String, Object> observations,
                                                 Double delta) {
+        return buildAssert(testMethod, notDeterministValues, observations, delta, new Translator(testMethod.getFactory()));
+    }
+
+    /**
+     * Builds the syntax for assert statements, with the given translator of the observation keys.
+     * The translator keeps the keys already translated, thus it should be shared by the observations of a test method,
+     * since their keys share their prefixes.
+     *
+     * @param testMethod Test method
+     * @param notDeterministValues notDeterministValues
+     * @param observations Observation point values
+     * @param delta Precision for floating type assertions
+     * @param translator translator of the observation keys
+     * @return Assert statements
+     */
+    public static List<CtStatement> buildAssert(CtMethod<?> testMethod,
+                                                Set<String> notDeterministValues,
+                                                Map<String, Object> observations,
+                                                Double delta,
+                                                Translator translator) {
         final Factory factory = testMethod.getFactory();
         final List<CtStatement> invocations = new ArrayList<>();
         for (String observationKey : observations.keySet()) {
             if (!notDeterministValues.contains(observationKey)) {
                 Object value = observations.get(observationKey);
-                final CtExpression variableRead = translate(observationKey,factory);
+                final CtExpression variableRead = translate(observationKey,factory,translator);
                 if (value == null) {
                     nullValue(invocations,testMethod,variableRead,factory);
                 } else {
@@ -60,7 +80,7 @@ public class AssertionSyntaxBuilder {
                     } else if (TypeUtils.isPrimitiveCollection(value)) {
 
                         // Primitive collection
-                        addPrimitiveCollection(invocations,testMethod,value,variableRead,factory,observationKey);
+                        addPrimitiveCollection(invocations,testMethod,value,variableRead,factory,observationKey,translator);
                     } else if (TypeUtils.isArray(value)) {
 
                         // Array
@@ -68,7 +88,7 @@ public class AssertionSyntaxBuilder {
                     } else if (TypeUtils.isPrimitiveMap(value)) {//TODO
 
                         // Primitive map
-                        addPrimitiveMap(invocations,testMethod,value,variableRead,factory,observationKey);
+                        addPrimitiveMap(invocations,testMethod,value,variableRead,factory,observationKey,translator);
                     } else {
 
                         // Other types
@@ -81,8 +101,7 @@ public class AssertionSyntaxBuilder {
         return invocations;
     }
 
-    private static CtExpression translate(String observationKey,Factory factory) {
-        final Translator translator = new Translator(factory);
+    private static CtExpression translate(String observationKey,Factory factory,Translator translator) {
         if (observationKey.contains("[")) {
             return factory.createCodeSnippetExpression(observationKey);
         } else {
@@ -110,11 +129,12 @@ public class AssertionSyntaxBuilder {
     }
 
     private static void addPrimitiveCollection(List<CtStatement> invocations,CtMethod<?> testMethod,
-                                               Object value,CtExpression variableRead,Factory factory,String observationKey) {
+                                               Object value,CtExpression variableRead,Factory factory,String observationKey,
+                                               Translator translator) {
         Collection valueCollection = (Collection) value;
         if (valueCollection.isEmpty()) {
             final CtInvocation<?> isEmpty = factory.createInvocation(variableRead,
-                    factory.Type().get(Collection.class).getMethodsByName("isEmpty").get(0).getReference()
+                    translator.getCtType(Collection.class).getMethodsByName("isEmpty").get(0).getReference()
             );
             invocations.add(
                     TestFramework.get().buildInvocationToAssertion(testMethod, AssertEnum.ASSERT_TRUE,
@@ -122,7 +142,7 @@ public class AssertionSyntaxBuilder {
                     )
             );
         } else {
-            invocations.addAll(buildSnippetAssertCollection(factory, testMethod, observationKey, (Collection) value));
+            invocations.addAll(buildSnippetAssertCollection(factory, testMethod, observationKey, (Collection) value, translator));
         }
     }
 
@@ -144,11 +164,12 @@ public class AssertionSyntaxBuilder {
     }
 
     private static void addPrimitiveMap(List<CtStatement> invocations,CtMethod<?> testMethod,
-                                        Object value,CtExpression variableRead,Factory factory,String observationKey) {
+                                        Object value,CtExpression variableRead,Factory factory,String observationKey,
+                                        Translator translator) {
         Map valueCollection = (Map) value;
         if (valueCollection.isEmpty()) {
             final CtInvocation<?> isEmpty = factory.createInvocation(variableRead,
-                    factory.Type().get(Map.class).getMethodsByName("isEmpty").get(0).getReference()
+                    translator.getCtType(Map.class).getMethodsByName("isEmpty").get(0).getReference()
             );
             invocations.add(TestFramework.get().buildInvocationToAssertion(
                     testMethod,
@@ -157,16 +178,17 @@ public class AssertionSyntaxBuilder {
                     )
             );
         } else {
-            invocations.addAll(buildSnippetAssertMap(factory, testMethod, observationKey, (Map) value));
+            invocations.addAll(buildSnippetAssertMap(factory, testMethod, observationKey, (Map) value, translator));
         }
     }
 
     // TODO we need maybe limit assertion on a limited number of elements
     @SuppressWarnings("unchecked")
-    private static List<CtInvocation<?>> buildSnippetAssertCollection(Factory factory, CtMethod<?> testMethod, String expression, Collection value) {
-        final CtExpression variableRead =  new Translator(factory).translate(expression);
+    private static List<CtInvocation<?>> buildSnippetAssertCollection(Factory factory, CtMethod<?> testMethod, String expression, Collection value,
+                                                                      Translator translator) {
+        final CtExpression variableRead =  translator.translate(expression);
 
-        final CtExecutableReference contains = factory.Type().get(Collection.class).getMethodsByName("contains").get(0).getReference();
+        final CtExecutableReference contains = translator.getCtType(Collection.class).getMethodsByName("contains").get(0).getReference();
         return (List<CtInvocation<?>>) value.stream()
                 .limit(Math.min(value.size(), MAX_NUMBER_OF_CHECKED_ELEMENT_IN_LIST))
                 .map(factory::createLiteral)
@@ -187,10 +209,11 @@ public class AssertionSyntaxBuilder {
 
     // TODO we need maybe limit assertion on a limited number of elements
     @SuppressWarnings("unchecked")
-    private static List<CtInvocation<?>> buildSnippetAssertMap(Factory factory, CtMethod<?> testMethod, String expression, Map value) {
-        final CtExpression variableRead =  new Translator(factory).translate(expression);
-        final CtExecutableReference containsKey = factory.Type().get(Map.class).getMethodsByName("containsKey").get(0).getReference();
-        final CtExecutableReference get = factory.Type().get(Map.class).getMethodsByName("get").get(0).getReference();
+    private static List<CtInvocation<?>> buildSnippetAssertMap(Factory factory, CtMethod<?> testMethod, String expression, Map value,
+                                                               Translator translator) {
+        final CtExpression variableRead =  translator.translate(expression);
+        final CtExecutableReference containsKey = translator.getCtType(Map.class).getMethodsByName("containsKey").get(0).getReference();
+        final CtExecutableReference get = translator.getCtType(Map.class).getMethodsByName("get").get(0).getReference();
         return (List<CtInvocation<?>>) value.keySet().stream()
                 .flatMap(key ->
                         Arrays.stream(new CtInvocation<?>[]{
@@ -1,7 +1,9 @@
 package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor;
 
+import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.ObjectLog;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.Observation;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.ObservationCodec;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.TestWithLogGenerator;
 import eu.stamp_project.dspot.common.test_framework.TestFramework;
@@ -16,8 +18,10 @@ import spoon.reflect.code.CtLocalVariable;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -38,14 +42,35 @@ public class Observer {
 
     private TestCompiler testCompiler;
 
+    private boolean singlePassObservation;
+
+    private int numberOfObservationReruns;
+
     public Observer(CtType originalClass,
                     DSpotCompiler compiler,
                     Map<CtMethod<?>, List<CtLocalVariable<?>>> variableReadsAsserted,
                     TestCompiler testCompiler) {
+        this(originalClass, compiler, variableReadsAsserted, testCompiler, false, 0);
+    }
+
+    /**
+     * @param singlePassObservation     if true, each instrumented test is run once,
+     *                                  then only the tests that have values to assert are run again to check that these values are deterministic.
+     *                                  Otherwise, each instrumented test is copied three times in the test class, and all of them are run once.
+     * @param numberOfObservationReruns the maximum number of times the tests are run again, when singlePassObservation is true
+     */
+    public Observer(CtType originalClass,
+                    DSpotCompiler compiler,
+                    Map<CtMethod<?>, List<CtLocalVariable<?>>> variableReadsAsserted,
+                    TestCompiler testCompiler,
+                    boolean singlePassObservation,
+                    int numberOfObservationReruns) {
         this.originalClass = originalClass;
         this.compiler = compiler;
         this.variableReadsAsserted = variableReadsAsserted;
         this.testCompiler = testCompiler;
+        this.singlePassObservation = singlePassObservation;
+        this.numberOfObservationReruns = numberOfObservationReruns;
     }
 
     /**
@@ -59,14 +84,38 @@ public class Observer {
      * @throws AmplificationException when something wrong happens
      */
     public Map<String, Observation>  getObservations(CtType<?> testClass, List<CtMethod<?>> testCases) throws AmplificationException {
+        final Map<String, Observation> observations = new LinkedHashMap<>();
+        this.forEachTestObservations(testClass, testCases, (testName, observationsOfTest) -> observations.putAll(observationsOfTest));
+        return observations;
+    }
+
+    /**
+     * Same as {@link #getObservations(CtType, List)}, but gives the observation point values test method by test method,
+     * as soon as they are read, see {@link ObjectLog#forEachTest(BiConsumer)}.
+     *
+     * @param testClass Test class
+     * @param testCases Passing test methods
+     * @param consumer  accepts the name of a test method and its observation point values by id
+     * @throws AmplificationException when something wrong happens
+     */
+    public void forEachTestObservations(CtType<?> testClass,
+                                        List<CtMethod<?>> testCases,
+                                        BiConsumer<String, Map<String, Observation>> consumer) throws AmplificationException {
         CtType clone = testClass.clone();
-        testClass.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(testClass, clone);
         LOGGER.info("Add observations points in passing tests.");
         LOGGER.info("Instrumentation...");
         final List<CtMethod<?>> testCasesWithLogs;
         testCasesWithLogs = addLogs(testCases);
-        final List<CtMethod<?>> testsToRun = setupTests(testCasesWithLogs,clone);
-        return compileRunTests(clone,testsToRun);
+        if (this.singlePassObservation) {
+            final List<CtMethod<?>> testsToRun = setupTests(testCasesWithLogs, clone, 1);
+            compileRunTests(clone, testsToRun);
+            ObservationCodec.groupByTest(rerunTests(clone, testsToRun, ObjectLog.getObservations(clone.getQualifiedName()))).forEach(consumer);
+            return;
+        }
+        final List<CtMethod<?>> testsToRun = setupTests(testCasesWithLogs, clone, 3);
+        compileRunTests(clone,testsToRun);
+        ObjectLog.forEachTest(clone.getQualifiedName(), consumer);
     }
 
     // add logs in tests to observe state of tested program
@@ -90,9 +139,9 @@ public class Observer {
     }
 
     // clone and set up tests with logs
-    private List<CtMethod<?>> setupTests(List<CtMethod<?>> testCasesWithLogs, CtType clone){
+    private List<CtMethod<?>> setupTests(List<CtMethod<?>> testCasesWithLogs, CtType clone, int numberOfCopies){
         final List<CtMethod<?>> testsToRun = new ArrayList<>();
-        IntStream.range(0, 3).forEach(i -> testsToRun.addAll(
+        IntStream.range(0, numberOfCopies).forEach(i -> testsToRun.addAll(
                 testCasesWithLogs.stream()
 
                         //Optimization: Tracking cloned test methods using AmplificationHelper as candidates
@@ -107,16 +156,75 @@ public class Observer {
     }
 
     // compile and run tests with logs
-    private Map<String, Observation> compileRunTests(CtType clone, final List<CtMethod<?>> testsToRun) throws AmplificationException{
+    private void compileRunTests(CtType clone, final List<CtMethod<?>> testsToRun) throws AmplificationException{
         LOGGER.info("Run instrumented tests. ({})", testsToRun.size());
         TestFramework.get().generateAfterClassToSaveObservations(clone, testsToRun);
+        // the observations are saved by the JVM that executes the tests, thus all the tests must be executed in the same JVM
         final TestResult result = this.testCompiler.compileAndRun(clone,
                 this.compiler,
-                testsToRun
+                testsToRun,
+                false
         );
         if (!result.getFailingTests().isEmpty()) {
             LOGGER.warn("Some instrumented test failed!");
         }
-        return ObjectLog.getObservations();
+    }
+
+    /*
+        Run again, without compiling them again, the tests that still have values that could be asserted,
+        in order to flag the values that are not deterministic.
+        A test is not run anymore as soon as all its values are known to be not deterministic.
+     */
+    private Map<String, Observation> rerunTests(CtType clone,
+                                                List<CtMethod<?>> testsToRun,
+                                                Map<String, Observation> observations) {
+        final Map<String, Observation> mergedObservations = new LinkedHashMap<>(observations);
+        for (int i = 0; i < this.numberOfObservationReruns; i++) {
+            final List<CtMethod<?>> testsToRerun = testsToRun.stream()
+                    .filter(ctMethod -> hasValueToAssert(ctMethod, mergedObservations))
+                    .collect(Collectors.toList());
+            if (testsToRerun.isEmpty()) {
+                break;
+            }
+            LOGGER.info("Run again instrumented tests to check their determinism. ({})", testsToRerun.size());
+            ObjectLog.reset();
+            try {
+                final TestResult result = this.testCompiler.run(clone, this.compiler, testsToRerun, false);
+                if (!result.getFailingTests().isEmpty()) {
+                    LOGGER.warn("Some instrumented test failed!");
+                }
+                merge(mergedObservations, ObjectLog.getObservations(clone.getQualifiedName()));
+            } catch (Exception e) {
+                // we keep the observations of the previous runs
+                LOGGER.warn("Could not run again instrumented tests: {}", e.getMessage());
+                break;
+            }
+        }
+        return mergedObservations;
+    }
+
+    // the ids of the observations of a test method are prefixed by the name of the original test method
+    private static boolean hasValueToAssert(CtMethod<?> testToRun, Map<String, Observation> observations) {
+        final String name = testToRun.getSimpleName();
+        final String prefix = name.substring(0, Math.max(0, name.lastIndexOf("_withlog"))) + "__";
+        return observations.entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .map(Map.Entry::getValue)
+                .anyMatch(observation -> !observation.getNotDeterministValues()
+                        .containsAll(observation.getObservationValues().keySet())
+                );
+    }
+
+    private static void merge(Map<String, Observation> observations, Map<String, Observation> newObservations) {
+        newObservations.forEach((id, newObservation) -> {
+            final Observation observation = observations.get(id);
+            if (observation == null) {
+                observations.put(id, newObservation);
+            } else {
+                observation.getNotDeterministValues().addAll(newObservation.getNotDeterministValues());
+                newObservation.getObservationValues().forEach(observation::add);
+            }
+        });
     }
 }
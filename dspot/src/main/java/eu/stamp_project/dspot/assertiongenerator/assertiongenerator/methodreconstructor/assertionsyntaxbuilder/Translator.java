@@ -5,17 +5,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtInvocation;
-import spoon.reflect.code.CtVariableAccess;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.factory.Factory;
 import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtLocalVariableReference;
 import spoon.reflect.reference.CtTypeReference;
-import spoon.reflect.reference.CtVariableReference;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Benjamin DANGLOT
@@ -26,15 +26,37 @@ import java.util.Map;
  * In fact, values provided by the observations are strings.
  * Here, we want to keep the semantic of the instruction
  *
+ * The observation keys of a test method share their prefixes, e.g. <code>((A)o_test__12).getFoo()</code> is the target of
+ * <code>((B)((A)o_test__12).getFoo()).getBar()</code>. Thus, the translated keys are kept in a trie of invocations:
+ * the spoon node of each prefix is built once, and cloned for each key that starts with it.
+ * A translator is meant to be used for the observation keys of one test method.
+ * The types found by their qualified name are cached for all the translators of the same factory, i.e. of the same run.
  */
 public class Translator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Translator.class);
 
+    // the types of the last factory used, the types of the previous factories are not kept since the types reference their factory
+    private static volatile TypeCache typeCache;
+
     private final Factory factory;
 
+    private final Map<String, CtType<?>> typesByQualifiedName;
+
+    // the roots of the trie, i.e. the variable reads, by the name of the variable
+    private final Map<String, Node> variables = new HashMap<>();
+
+    // the node of the trie of each translated invocation, by its string
+    private final Map<String, Node> nodesByInvocation = new HashMap<>();
+
     public Translator(Factory factory) {
         this.factory = factory;
+        TypeCache typeCache = Translator.typeCache;
+        if (typeCache == null || typeCache.factory != factory) {
+            typeCache = new TypeCache(factory);
+            Translator.typeCache = typeCache;
+        }
+        this.typesByQualifiedName = typeCache.typesByQualifiedName;
     }
 
     /**
@@ -49,16 +71,19 @@ public class Translator {
      */
     public CtExpression<?> translate(String stringToBeTranslated) {
         if (!stringToBeTranslated.contains("()")) { // this is not an invocation, it is a invocation.
-            final CtVariableReference<?> variable = factory.createLocalVariableReference();
-            variable.setSimpleName(stringToBeTranslated);
-            return factory.createVariableRead(variable, false);
+            return getVariable(stringToBeTranslated).expression.clone();
         } else {
             return buildInvocationFromString(stringToBeTranslated);
         }
     }
 
     public CtExpression<?> buildInvocationFromString(String invocationAsString) {
-        final CtExpression<?> invocation = this.buildInvocationFromString(invocationAsString, null);
+        Node node = this.nodesByInvocation.get(invocationAsString);
+        if (node == null) {
+            node = this.buildInvocationFromString(invocationAsString, null);
+            this.nodesByInvocation.put(invocationAsString, node);
+        }
+        final CtExpression<?> invocation = node.expression.clone();
         if (invocation instanceof CtInvocation<?> &&
                 "isEmpty".equals(((CtInvocation) invocation).getExecutable().getSimpleName())) {
             // TODO check if this block is used
@@ -67,8 +92,7 @@ public class Translator {
         }
         if (invocationAsString.endsWith("isEmpty()")) {
             addTypeCastToCollectionIfNeeded(invocation);
-            final CtType<?> listCtType = factory.Type()
-                    .get(java.util.List.class);
+            final CtType<?> listCtType = getCtType(java.util.List.class);
             final CtMethod<?> isEmpty = listCtType.getMethodsByName("isEmpty").get(0);
             return factory.createInvocation(
                     invocation,
@@ -99,34 +123,54 @@ public class Translator {
         }
     }
 
-    private CtExpression<?> buildInvocationFromString(String invocationAsString, CtInvocation<?> subInvocation) {
-        CtInvocation invocation = factory.createInvocation();
+    // the node of the given invocation, in which the variable read and each chained invocation is a node of the trie.
+    // It parses the invocation from the variable read, i.e. from the innermost invocation to the outermost one
+    private Node buildInvocationFromString(String invocationAsString, Node subInvocation) {
         int end = invocationAsString.indexOf("()");
         int start = findMatchingIndex(invocationAsString, '.', end);
         final String executableName = invocationAsString.substring(start + 1, end);
+        final Node target;
         if (subInvocation == null) {
             end = start - 1; // i.e. the closing parenthesis
             start = findMatchingIndex(invocationAsString, ')', end);
             if (start == -1) {
-                return buildTargetFromString(invocationAsString);
+                return getVariable(invocationAsString.split("\\.")[0]);
             }
-            final CtLocalVariableReference<?> localVariableReference = factory.createLocalVariableReference();
-            localVariableReference.setSimpleName(invocationAsString.substring(start + 1, end));
-            final CtVariableAccess<?> variableRead = factory.createVariableRead(localVariableReference, false);
-            invocation.setTarget(variableRead);
+            target = getVariable(invocationAsString.substring(start + 1, end));
             end = start;
         } else {
-            invocation.setTarget(subInvocation);
+            target = subInvocation;
             end = start - 1;
         }
         start = findMatchingIndex(invocationAsString, '(', end);
-        String fullQualifiedName = invocationAsString.substring(start + 1, end);
-        CtType<?> ctType = getCtType(fullQualifiedName, factory);
+        final Node invocation = target.getInvocation(invocationAsString.substring(start + 1, end), executableName);
+        if (start != 1) {
+            final String substringToBeRemove = invocationAsString.substring(start - 2, invocationAsString.indexOf("()") + 2);
+            invocationAsString = invocationAsString.replace(substringToBeRemove, "");
+            return buildInvocationFromString(invocationAsString, invocation);
+        } else {
+            return invocation;
+        }
+    }
+
+    private Node getVariable(String name) {
+        return this.variables.computeIfAbsent(name, key -> {
+            final CtLocalVariableReference<?> localVariableReference = factory.createLocalVariableReference();
+            localVariableReference.setSimpleName(name);
+            return new Node(factory.createVariableRead(localVariableReference, false));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private CtInvocation<?> buildInvocation(CtExpression<?> target, String fullQualifiedName, String executableName) {
+        CtInvocation invocation = factory.createInvocation();
+        invocation.setTarget(target.clone());
+        CtType<?> ctType = getCtType(fullQualifiedName);
         // handling inner types
         while(ctType == null) {
             final int lastIndexOf = fullQualifiedName.lastIndexOf(".");
             fullQualifiedName = fullQualifiedName.substring(0, lastIndexOf) + "$" + fullQualifiedName.substring(lastIndexOf + 1, fullQualifiedName.length());
-            ctType = getCtType(fullQualifiedName, factory);
+            ctType = getCtType(fullQualifiedName);
         }
         final CtTypeReference<?> reference = ctType.getReference();
         invocation.getTarget().addTypeCast(reference);
@@ -134,23 +178,23 @@ public class Translator {
         referenceToGetter.setSimpleName(executableName);
         referenceToGetter.setDeclaringType(ctType.getReference());
         invocation.setExecutable(referenceToGetter);
-        if (start != 1) {
-            final String substringToBeRemove = invocationAsString.substring(start - 2, invocationAsString.indexOf("()") + 2);
-            invocationAsString = invocationAsString.replace(substringToBeRemove, "");
-            return buildInvocationFromString(invocationAsString, invocation);
-        } else {
-            return invocation;
-        }
+        return invocation;
     }
 
-    private CtExpression<?> buildTargetFromString(String invocationAsString) {
-        final CtLocalVariableReference<?> localVariableReference = factory.createLocalVariableReference();
-        localVariableReference.setSimpleName(invocationAsString.split("\\.")[0]);
-        return factory.createVariableRead(localVariableReference, false);
+    /**
+     * @param clazz a class, e.g. {@link Collection}
+     * @return the spoon type of the given class, from the cache of the factory of this translator
+     */
+    public CtType<?> getCtType(Class<?> clazz) {
+        return this.typesByQualifiedName.computeIfAbsent(clazz.getName(), name -> factory.Type().get(clazz));
     }
 
-    private CtType<?> getCtType(String fullQualifiedName, Factory factory) {
-        CtType<?> ctType = factory.Type().get(fullQualifiedName);
+    private CtType<?> getCtType(String fullQualifiedName) {
+        CtType<?> ctType = this.typesByQualifiedName.get(fullQualifiedName);
+        if (ctType != null) {
+            return ctType;
+        }
+        ctType = factory.Type().get(fullQualifiedName);
         if (ctType == null) {
             try {
                 ctType = factory.Type().get(
@@ -160,6 +204,9 @@ public class Translator {
 
             }
         }
+        if (ctType != null) {
+            this.typesByQualifiedName.put(fullQualifiedName, ctType);
+        }
         return ctType;
     }
 
@@ -171,4 +218,37 @@ public class Translator {
         return start;
     }
 
+    private static class TypeCache {
+
+        private final Factory factory;
+
+        private final Map<String, CtType<?>> typesByQualifiedName = new ConcurrentHashMap<>();
+
+        private TypeCache(Factory factory) {
+            this.factory = factory;
+        }
+    }
+
+    /**
+     * A node of the trie: a variable read, or an invocation whose target is the expression of the parent node.
+     * Its expression is never inserted in a test method, it is cloned instead.
+     */
+    private class Node {
+
+        private final CtExpression<?> expression;
+
+        // the invocations whose target is this node, by the type cast of the target and the name of the executable
+        private final Map<String, Node> invocations = new HashMap<>();
+
+        private Node(CtExpression<?> expression) {
+            this.expression = expression;
+        }
+
+        private Node getInvocation(String fullQualifiedName, String executableName) {
+            return this.invocations.computeIfAbsent(fullQualifiedName + "#" + executableName,
+                    key -> new Node(buildInvocation(this.expression, fullQualifiedName, executableName))
+            );
+        }
+    }
+
 }
@@ -2,18 +2,23 @@ package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodrecon
 
 
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.FailToObserveException;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.MethodInvoker;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.MethodsHandler;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.Observation;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.ObservationCodec;
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.ObjectLogUtils;
+import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.ValueClassifier;
 import eu.stamp_project.testrunner.EntryPoint;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -22,10 +27,8 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
 
 /**
  * User: Simon
@@ -34,30 +37,51 @@ import java.util.concurrent.TimeUnit;
  */
 public class ObjectLog {
 
-    private static ObjectLog singleton;
+    /*
+        Each thread that runs instrumented tests observes the values in its own buffer, i.e. its own instance of ObjectLog,
+        so the observation does not need any lock. The buffers are merged when the observations are read or saved.
+        Resetting the ObjectLog starts a new generation of buffers: the buffers of the previous generations are ignored.
+     */
+    private static final List<ObjectLog> buffers = new CopyOnWriteArrayList<>();
+
+    private static final ThreadLocal<ObjectLog> localBuffer = new ThreadLocal<>();
+
+    private static volatile int generation;
+
+    private final int generationOfBuffer;
 
     private Map<String, Observation> observations;
     private MethodsHandler methodsHandler;
+    private MethodInvoker methodInvoker;
     private int maxDeep = 3;
 
-    private ObjectLog() {
+    private ObjectLog(int generationOfBuffer) {
+        this.generationOfBuffer = generationOfBuffer;
         this.observations = new LinkedHashMap<>();
         this.methodsHandler = new MethodsHandler();
+        this.methodInvoker = new MethodInvoker(MethodHandles.lookup());
     }
 
-    private static ObjectLog getSingleton() {
-        if (singleton == null) {
-            singleton = new ObjectLog();
+    private static ObjectLog getLocalBuffer() {
+        ObjectLog buffer = localBuffer.get();
+        if (buffer == null || buffer.generationOfBuffer != generation) {
+            synchronized (ObjectLog.class) {
+                buffer = new ObjectLog(generation);
+                buffers.add(buffer);
+            }
+            localBuffer.set(buffer);
         }
-        return singleton;
+        return buffer;
     }
 
     public static synchronized void reset() {
-        singleton = new ObjectLog();
+        buffers.forEach(buffer -> buffer.methodInvoker.shutdown());
+        buffers.clear();
+        generation++;
     }
 
-    public static synchronized void log(Object objectToObserve, String objectObservedAsString, String id) {
-        getSingleton()._log(
+    public static void log(Object objectToObserve, String objectObservedAsString, String id) {
+        getLocalBuffer()._log(
                 objectToObserve,
                 objectToObserve,
                 null,
@@ -68,7 +92,7 @@ public class ObjectLog {
         );
     }
 
-    private synchronized void _log(Object startingObject,
+    private void _log(Object startingObject,
                       Object objectToObserve,
                       Class<?> currentObservedClass,
                       String observedObjectAsString,
@@ -113,62 +137,32 @@ public class ObjectLog {
         }
     }
 
+    /**
+     * @param candidate the value to be saved
+     * @return true if the candidate can be serialized, see {@link ValueClassifier}
+     */
     public static boolean isSerializable(Object candidate) {
-        try {
-            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(candidate);
-            return true;
-        } catch (IOException e) {
-            return false;
-        }
+        return ValueClassifier.isSerializable(candidate);
     }
 
-    private synchronized void addObservation(String id, String observedObjectAsString, Object actualValue) {
-        if (isSerializable(actualValue)) {
-            if (actualValue instanceof String &&
-                    // we forbid absolute paths
-                    // we allow relative paths
-                    // but it can be error-prone
-                    // watch out
-                    new File((String)actualValue).isAbsolute()) {
-                return;
-            }
-            if (!observations.containsKey(id)) {
-                observations.put(id, new Observation());
-            }
-            observations.get(id).add(observedObjectAsString, actualValue);
+    // the given value must be serializable, it is serialized only when the observations are saved
+    private void addObservation(String id, String observedObjectAsString, Object actualValue) {
+        if (actualValue instanceof String &&
+                // we forbid absolute paths
+                // we allow relative paths
+                // but it can be error-prone
+                // watch out
+                new File((String)actualValue).isAbsolute()) {
+            return;
         }
+        if (!observations.containsKey(id)) {
+            observations.put(id, new Observation());
+        }
+        observations.get(id).add(observedObjectAsString, actualValue);
     }
 
-    private synchronized Object chainInvocationOfMethods(List<Method> methodsToInvoke, Object startingObject) throws FailToObserveException {
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        FutureTask task = null;
-        Object currentObject = null;
-        try {
-            try {
-                task = new FutureTask<>(() -> methodsToInvoke.get(0).invoke(startingObject));
-                executor.execute(task);
-                currentObject = task.get(1, TimeUnit.SECONDS);
-            } catch (Exception e) {
-                throw new FailToObserveException();
-            }
-            for (int i = 1; i < methodsToInvoke.size(); i++) {
-                Method method = methodsToInvoke.get(i);
-                try {
-                    final Object finalCurrentObject = currentObject;
-                    task = new FutureTask<>(() -> method.invoke(finalCurrentObject));
-                    executor.execute(task);
-                    currentObject = task.get(1, TimeUnit.SECONDS);
-                } catch (Exception e) {
-                    throw new FailToObserveException();
-                }
-            }
-        } finally {
-            if (task != null) {
-                task.cancel(true);
-            }
-            executor.shutdown();
-        }
-        return currentObject;
+    private Object chainInvocationOfMethods(List<Method> methodsToInvoke, Object startingObject) throws FailToObserveException {
+        return this.methodInvoker.invokeChain(methodsToInvoke, startingObject);
     }
 
     private ArrayList<Integer> createDimensionList(Object startingObject) {
@@ -298,7 +292,7 @@ public class ObjectLog {
         return observedObjectAsString;
     }
 
-    private synchronized String getVisibleClass(Class<?> currentObservedClass) {
+    private String getVisibleClass(Class<?> currentObservedClass) {
         if (currentObservedClass == null || currentObservedClass == Object.class) {
             return "";
         } else if (Modifier.isPrivate(currentObservedClass.getModifiers()) ||
@@ -310,29 +304,77 @@ public class ObjectLog {
     }
 
     public synchronized static Map<String, Observation> getObservations() {
-        if (getSingleton().observations.isEmpty()) {
-            return load();
+        return getObservations(null);
+    }
+
+    /**
+     * @param testClassName the name of the test class that has saved the observations, see {@link #save(String)}
+     * @return the observations
+     */
+    public synchronized static Map<String, Observation> getObservations(String testClassName) {
+        final Map<String, Observation> observations = mergeBuffers();
+        if (observations.isEmpty()) {
+            return load(testClassName);
         } else {
-            return getSingleton().observations;
+            return observations;
+        }
+    }
+
+    // the values of the same id observed by several threads are merged, in order to detect the non-deterministic values
+    private static Map<String, Observation> mergeBuffers() {
+        if (buffers.size() == 1) {
+            return buffers.get(0).observations;
+        }
+        final Map<String, Observation> mergedObservations = new LinkedHashMap<>();
+        for (ObjectLog buffer : buffers) {
+            buffer.observations.forEach((id, observation) -> {
+                final Observation mergedObservation = mergedObservations.computeIfAbsent(id, key -> new Observation());
+                mergedObservation.getNotDeterministValues().addAll(observation.getNotDeterministValues());
+                observation.getObservationValues().forEach(mergedObservation::add);
+            });
         }
+        return mergedObservations;
     }
 
-    private static final String OBSERVATIONS_PATH_FILE_NAME = "target/dspot/observations.ser";
+    private static final String OBSERVATIONS_PATH_FILE_NAME = "target/dspot/observations";
+
+    private static final String OBSERVATIONS_FILE_EXTENSION = ".bin";
+
+    // the test classes that are amplified concurrently save their observations in different files
+    private static String getObservationsFileName(String testClassName) {
+        return OBSERVATIONS_PATH_FILE_NAME +
+                (testClassName == null ? "" : "_" + testClassName) +
+                OBSERVATIONS_FILE_EXTENSION;
+    }
 
     public synchronized static void save() {
-        final File file = new File(OBSERVATIONS_PATH_FILE_NAME);
-        getSingleton().observations.values().forEach(Observation::purify);
-        try (FileOutputStream fout = new FileOutputStream(OBSERVATIONS_PATH_FILE_NAME)) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(fout)) {
-                oos.writeObject(getSingleton().observations);
-                System.out.println(
-                        String.format("File saved to the following path: %s",
-                                file.getAbsolutePath())
-                );
-            } catch (Exception e) {
-                e.printStackTrace();
-                throw new RuntimeException(e);
-            }
+        save(null);
+    }
+
+    /**
+     * Saves the observations in a file that is specific to the given test class.
+     *
+     * @param testClassName the name of the test class that has been executed
+     */
+    public synchronized static void save(String testClassName) {
+        final File file = new File(getObservationsFileName(testClassName));
+        final Map<String, Observation> observations = mergeBuffers();
+        observations.values().forEach(Observation::purify);
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+            ObservationCodec.write(observations, output);
+            System.out.println(
+                    String.format("File saved to the following path: %s",
+                            file.getAbsolutePath())
+            );
+            System.out.println(
+                    String.format("Observation of the objects by %d thread(s): %d invocations, %d timeouts, %d failures, %d ms",
+                            buffers.size(),
+                            buffers.stream().mapToLong(buffer -> buffer.methodInvoker.getNumberOfInvocations()).sum(),
+                            buffers.stream().mapToLong(buffer -> buffer.methodInvoker.getNumberOfTimeouts()).sum(),
+                            buffers.stream().mapToLong(buffer -> buffer.methodInvoker.getNumberOfFailures()).sum(),
+                            buffers.stream().mapToLong(buffer -> buffer.methodInvoker.getTimeSpentInMs()).sum()
+                    )
+            );
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException(e);
@@ -340,18 +382,56 @@ public class ObjectLog {
     }
 
     public synchronized static Map<String, Observation> load() {
-        try (FileInputStream fi = new FileInputStream(new File(
-                (EntryPoint.workingDirectory != null ? // in case we modified the working directory
-                        EntryPoint.workingDirectory.getAbsolutePath() + "/" : "") +
-                        OBSERVATIONS_PATH_FILE_NAME))) {
-            try (ObjectInputStream oi = new ObjectInputStream(fi)) {
-                return (Map) oi.readObject();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        return load(null);
+    }
+
+    public synchronized static Map<String, Observation> load(String testClassName) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(getObservationsFile(testClassName)))) {
+            return ObservationCodec.read(input);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Give the observations to the given consumer, test method by test method.
+     * If the observations have been saved in a file, they are read one test method at the time,
+     * and the consumer is called before reading the observations of the next test method.
+     *
+     * @param consumer accepts the name of the test method, and its observations by id
+     */
+    public synchronized static void forEachTest(BiConsumer<String, Map<String, Observation>> consumer) {
+        forEachTest(null, consumer);
+    }
+
+    /**
+     * Same as {@link #forEachTest(BiConsumer)}, for the observations saved by the given test class.
+     *
+     * @param testClassName the name of the test class that has saved the observations, see {@link #save(String)}
+     * @param consumer      accepts the name of the test method, and its observations by id
+     */
+    public synchronized static void forEachTest(String testClassName, BiConsumer<String, Map<String, Observation>> consumer) {
+        final Map<String, Observation> observations = mergeBuffers();
+        if (!observations.isEmpty()) {
+            ObservationCodec.groupByTest(observations).forEach(consumer);
+            return;
+        }
+        try (ObservationCodec.Reader reader = new ObservationCodec.Reader(
+                new BufferedInputStream(new FileInputStream(getObservationsFile(testClassName))))) {
+            Map<String, Observation> observationsOfTest;
+            while ((observationsOfTest = reader.readNextTest()) != null) {
+                consumer.accept(reader.getCurrentTestName(), observationsOfTest);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static File getObservationsFile(String testClassName) {
+        return new File(
+                (EntryPoint.workingDirectory != null ? // in case we modified the working directory
+                        EntryPoint.workingDirectory.getAbsolutePath() + "/" : "") +
+                        getObservationsFileName(testClassName));
+    }
+
 }
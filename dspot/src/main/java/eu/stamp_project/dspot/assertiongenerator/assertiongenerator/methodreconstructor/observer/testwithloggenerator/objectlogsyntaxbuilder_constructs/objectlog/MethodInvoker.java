@@ -0,0 +1,167 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invokes the chains of methods used to observe objects, with a timeout on each invocation.
+ *
+ * All the invocations are executed by one reusable daemon thread, instead of one new thread per chain.
+ * A new thread is created only when an invocation times out, since the blocked thread cannot be reused.
+ * The {@link MethodHandle} of each {@link Method} is computed once, with the access of the given lookup:
+ * the lookup of ObjectLog gives access to the classes of its package, as {@link Method#invoke(Object, Object...)}
+ * called from ObjectLog does.
+ */
+public class MethodInvoker {
+
+    private static final long TIMEOUT_IN_MS = 1000L;
+
+    private static final Object NO_HANDLE = new Object();
+
+    private final MethodHandles.Lookup lookup;
+
+    private final Map<Method, Object> handles = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private final AtomicLong numberOfInvocations = new AtomicLong();
+
+    private final AtomicLong numberOfTimeouts = new AtomicLong();
+
+    private final AtomicLong numberOfFailures = new AtomicLong();
+
+    private final AtomicLong timeSpentInNs = new AtomicLong();
+
+    public MethodInvoker() {
+        this(MethodHandles.publicLookup());
+    }
+
+    /**
+     * @param lookup the lookup used to access the methods to invoke
+     */
+    public MethodInvoker(MethodHandles.Lookup lookup) {
+        this.lookup = lookup;
+        this.executor = newExecutor();
+    }
+
+    /**
+     * Invoke the given methods one after the other, starting on the given object, and then on the result of the previous invocation.
+     *
+     * @param methodsToInvoke the chain of methods to invoke, they must not have any parameter
+     * @param startingObject  the object on which the first method is invoked
+     * @return the result of the last invocation
+     * @throws FailToObserveException if one of the invocations failed or timed out
+     */
+    public synchronized Object invokeChain(List<Method> methodsToInvoke, Object startingObject) throws FailToObserveException {
+        final long start = System.nanoTime();
+        try {
+            Object currentObject = startingObject;
+            for (Method method : methodsToInvoke) {
+                currentObject = invokeWithTimeout(method, currentObject);
+            }
+            return currentObject;
+        } finally {
+            this.timeSpentInNs.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private Object invokeWithTimeout(Method method, Object target) throws FailToObserveException {
+        this.numberOfInvocations.incrementAndGet();
+        final Future<Object> future = this.executor.submit(() -> invoke(method, target));
+        try {
+            return future.get(TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            this.numberOfTimeouts.incrementAndGet();
+            future.cancel(true);
+            // the thread might be blocked forever, we give up on it
+            this.executor.shutdownNow();
+            this.executor = newExecutor();
+            throw new FailToObserveException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new FailToObserveException();
+        } catch (Exception e) {
+            this.numberOfFailures.incrementAndGet();
+            throw new FailToObserveException();
+        }
+    }
+
+    private Object invoke(Method method, Object target) throws Exception {
+        final Object handle = this.handles.computeIfAbsent(method, this::toHandle);
+        if (handle == NO_HANDLE) {
+            // e.g. the declaring class is not accessible, we use the same mechanism as before
+            return method.invoke(target);
+        }
+        try {
+            return (Object) ((MethodHandle) handle).invokeExact(target);
+        } catch (Exception e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    private Object toHandle(Method method) {
+        try {
+            return this.lookup
+                    .unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (Exception e) {
+            return NO_HANDLE;
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "dspot-object-log-invoker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stop the thread used to invoke the methods.
+     */
+    public synchronized void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    public long getNumberOfInvocations() {
+        return numberOfInvocations.get();
+    }
+
+    public long getNumberOfTimeouts() {
+        return numberOfTimeouts.get();
+    }
+
+    public long getNumberOfFailures() {
+        return numberOfFailures.get();
+    }
+
+    public long getTimeSpentInMs() {
+        return TimeUnit.NANOSECONDS.toMillis(timeSpentInNs.get());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d invocations, %d timeouts, %d failures, %d ms",
+                getNumberOfInvocations(),
+                getNumberOfTimeouts(),
+                getNumberOfFailures(),
+                getTimeSpentInMs()
+        );
+    }
+}
@@ -0,0 +1,385 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary format of the observations, that can be read test method by test method.
+ *
+ * The format is the following:
+ * <ul>
+ * <li>a header: a magic number and the version of the format;</li>
+ * <li>the table of the observation keys, e.g. <code>((MyClass)o).getSize()</code>,
+ * that are written once and then referred by their index;</li>
+ * <li>the number of test methods, then, for each test method, its name and the number of its ids,
+ * then for each id, the id and the length-prefixed record of its {@link Observation},
+ * i.e. the keys of its non-deterministic values and its values, encoded by type.</li>
+ * </ul>
+ * The ids of the observations are grouped by test method, i.e. by the prefix of the id before the first "__".
+ * Values that are not primitives, strings or arrays of primitives, i.e. collections and maps, are encoded with the Java serialization.
+ */
+public class ObservationCodec {
+
+    private static final int MAGIC_NUMBER = 0x4453504F; // DSPO
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte BYTE = 2;
+    private static final byte SHORT = 3;
+    private static final byte CHAR = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte STRING = 9;
+    private static final byte ARRAY = 10;
+    private static final byte SERIALIZED = 11;
+
+    private static final Map<Class<?>, Byte> TAG_BY_COMPONENT_TYPE = new HashMap<>();
+
+    private static final Map<Byte, Class<?>> PRIMITIVE_COMPONENT_TYPE_BY_TAG = new HashMap<>();
+
+    private static final Map<Byte, Class<?>> BOXED_COMPONENT_TYPE_BY_TAG = new HashMap<>();
+
+    static {
+        registerComponentType(BOOLEAN, boolean.class, Boolean.class);
+        registerComponentType(BYTE, byte.class, Byte.class);
+        registerComponentType(SHORT, short.class, Short.class);
+        registerComponentType(CHAR, char.class, Character.class);
+        registerComponentType(INT, int.class, Integer.class);
+        registerComponentType(LONG, long.class, Long.class);
+        registerComponentType(FLOAT, float.class, Float.class);
+        registerComponentType(DOUBLE, double.class, Double.class);
+    }
+
+    private static void registerComponentType(byte tag, Class<?> primitiveType, Class<?> boxedType) {
+        TAG_BY_COMPONENT_TYPE.put(primitiveType, tag);
+        TAG_BY_COMPONENT_TYPE.put(boxedType, tag);
+        PRIMITIVE_COMPONENT_TYPE_BY_TAG.put(tag, primitiveType);
+        BOXED_COMPONENT_TYPE_BY_TAG.put(tag, boxedType);
+    }
+
+    /**
+     * @param id the id of an observation, i.e. the name of the test method, "__", and the index of the observed statement,
+     *           followed by "___end" for the observations made at the end of the test method
+     * @return the name of the test method of the given id
+     */
+    public static String getTestName(String id) {
+        final int indexOfSeparator = id.indexOf("__");
+        return indexOfSeparator < 0 ? id : id.substring(0, indexOfSeparator);
+    }
+
+    /**
+     * @param id the id of an observation, see {@link #getTestName(String)}
+     * @return the index of the observed statement of the given id
+     */
+    public static int getStatementIndex(String id) {
+        final int startOfIndex = id.indexOf("__") + 2;
+        int endOfIndex = startOfIndex;
+        while (endOfIndex < id.length() && Character.isDigit(id.charAt(endOfIndex))) {
+            endOfIndex++;
+        }
+        return Integer.parseInt(id.substring(startOfIndex, endOfIndex));
+    }
+
+    /**
+     * Group the given observations by test method, keeping the order of the ids.
+     */
+    public static Map<String, Map<String, Observation>> groupByTest(Map<String, Observation> observations) {
+        final Map<String, Map<String, Observation>> observationsByTest = new LinkedHashMap<>();
+        observations.forEach((id, observation) ->
+                observationsByTest.computeIfAbsent(getTestName(id), testName -> new LinkedHashMap<>()).put(id, observation)
+        );
+        return observationsByTest;
+    }
+
+    public static void write(Map<String, Observation> observations, OutputStream outputStream) throws IOException {
+        final DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC_NUMBER);
+        output.writeByte(VERSION);
+        // table of keys
+        final Map<String, Integer> indexOfKeys = new LinkedHashMap<>();
+        for (Observation observation : observations.values()) {
+            observation.getObservationValues().keySet().forEach(key -> indexOfKeys.putIfAbsent(key, indexOfKeys.size()));
+            observation.getNotDeterministValues().forEach(key -> indexOfKeys.putIfAbsent(key, indexOfKeys.size()));
+        }
+        output.writeInt(indexOfKeys.size());
+        for (String key : indexOfKeys.keySet()) {
+            writeString(output, key);
+        }
+        // records, grouped by test method
+        final Map<String, Map<String, Observation>> observationsByTest = groupByTest(observations);
+        output.writeInt(observationsByTest.size());
+        final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+        final DataOutputStream record = new DataOutputStream(recordBuffer);
+        for (Map.Entry<String, Map<String, Observation>> observationsOfTest : observationsByTest.entrySet()) {
+            writeString(output, observationsOfTest.getKey());
+            output.writeInt(observationsOfTest.getValue().size());
+            for (Map.Entry<String, Observation> observation : observationsOfTest.getValue().entrySet()) {
+                writeString(output, observation.getKey());
+                recordBuffer.reset();
+                writeObservation(record, observation.getValue(), indexOfKeys);
+                record.flush();
+                output.writeInt(recordBuffer.size());
+                recordBuffer.writeTo(output);
+            }
+        }
+        output.flush();
+    }
+
+    private static void writeObservation(DataOutputStream output,
+                                         Observation observation,
+                                         Map<String, Integer> indexOfKeys) throws IOException {
+        output.writeInt(observation.getNotDeterministValues().size());
+        for (String key : observation.getNotDeterministValues()) {
+            output.writeInt(indexOfKeys.get(key));
+        }
+        // a value that cannot be serialized is not saved, as a value that has not been classified as serializable,
+        // the other values of the observation are saved
+        final ByteArrayOutputStream valuesBuffer = new ByteArrayOutputStream();
+        final DataOutputStream values = new DataOutputStream(valuesBuffer);
+        final ByteArrayOutputStream valueBuffer = new ByteArrayOutputStream();
+        final DataOutputStream encodedValue = new DataOutputStream(valueBuffer);
+        int numberOfValues = 0;
+        for (Map.Entry<String, Object> value : observation.getObservationValues().entrySet()) {
+            valueBuffer.reset();
+            try {
+                writeValue(encodedValue, value.getValue());
+                encodedValue.flush();
+            } catch (IOException | RuntimeException e) {
+                continue;
+            }
+            values.writeInt(indexOfKeys.get(value.getKey()));
+            valueBuffer.writeTo(values);
+            numberOfValues++;
+        }
+        values.flush();
+        output.writeInt(numberOfValues);
+        valuesBuffer.writeTo(output);
+    }
+
+    private static void writeValue(DataOutputStream output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) value);
+        } else if (TAG_BY_COMPONENT_TYPE.containsKey(value.getClass())) {
+            writePrimitive(output, TAG_BY_COMPONENT_TYPE.get(value.getClass()), value);
+        } else if (value.getClass().isArray() && TAG_BY_COMPONENT_TYPE.containsKey(value.getClass().getComponentType())) {
+            final Class<?> componentType = value.getClass().getComponentType();
+            output.writeByte(ARRAY);
+            output.writeByte(TAG_BY_COMPONENT_TYPE.get(componentType));
+            output.writeBoolean(componentType.isPrimitive());
+            final int length = Array.getLength(value);
+            output.writeInt(length);
+            for (int i = 0; i < length; i++) {
+                writeValue(output, Array.get(value, i));
+            }
+        } else {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+                objectOutput.writeObject(value);
+            }
+            output.writeByte(SERIALIZED);
+            output.writeInt(bytes.size());
+            bytes.writeTo(output);
+        }
+    }
+
+    private static void writePrimitive(DataOutputStream output, byte tag, Object value) throws IOException {
+        output.writeByte(tag);
+        switch (tag) {
+            case BOOLEAN:
+                output.writeBoolean((Boolean) value);
+                break;
+            case BYTE:
+                output.writeByte((Byte) value);
+                break;
+            case SHORT:
+                output.writeShort((Short) value);
+                break;
+            case CHAR:
+                output.writeChar((Character) value);
+                break;
+            case INT:
+                output.writeInt((Integer) value);
+                break;
+            case LONG:
+                output.writeLong((Long) value);
+                break;
+            case FLOAT:
+                output.writeFloat((Float) value);
+                break;
+            case DOUBLE:
+                output.writeDouble((Double) value);
+                break;
+            default:
+                throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Read all the observations of the given stream.
+     */
+    public static Map<String, Observation> read(InputStream inputStream) throws IOException {
+        final Map<String, Observation> observations = new LinkedHashMap<>();
+        try (Reader reader = new Reader(inputStream)) {
+            Map<String, Observation> observationsOfTest;
+            while ((observationsOfTest = reader.readNextTest()) != null) {
+                observations.putAll(observationsOfTest);
+            }
+        }
+        return observations;
+    }
+
+    /**
+     * Reads the observations test method by test method, only the observations of one test method are in memory at the time.
+     */
+    public static class Reader implements Closeable {
+
+        private final DataInputStream input;
+
+        private final String[] keys;
+
+        private int numberOfRemainingTests;
+
+        private String currentTestName;
+
+        public Reader(InputStream inputStream) throws IOException {
+            this.input = new DataInputStream(inputStream);
+            if (this.input.readInt() != MAGIC_NUMBER) {
+                throw new IOException("This is not a file of observations.");
+            }
+            final byte version = this.input.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version of the file of observations: " + version);
+            }
+            this.keys = new String[this.input.readInt()];
+            for (int i = 0; i < this.keys.length; i++) {
+                this.keys[i] = readString(this.input);
+            }
+            this.numberOfRemainingTests = this.input.readInt();
+        }
+
+        /**
+         * @return the observations of the next test method, by id, or null if there is no more test method
+         */
+        public Map<String, Observation> readNextTest() throws IOException {
+            if (this.numberOfRemainingTests <= 0) {
+                this.currentTestName = null;
+                return null;
+            }
+            this.numberOfRemainingTests--;
+            this.currentTestName = readString(this.input);
+            final int numberOfIds = this.input.readInt();
+            final Map<String, Observation> observations = new LinkedHashMap<>();
+            for (int i = 0; i < numberOfIds; i++) {
+                final String id = readString(this.input);
+                final byte[] record = new byte[this.input.readInt()];
+                this.input.readFully(record);
+                observations.put(id, readObservation(new DataInputStream(new ByteArrayInputStream(record))));
+            }
+            return observations;
+        }
+
+        /**
+         * @return the name of the test method returned by the last call to {@link #readNextTest()}
+         */
+        public String getCurrentTestName() {
+            return this.currentTestName;
+        }
+
+        private Observation readObservation(DataInputStream record) throws IOException {
+            final Observation observation = new Observation();
+            final int numberOfNotDeterministValues = record.readInt();
+            for (int i = 0; i < numberOfNotDeterministValues; i++) {
+                observation.getNotDeterministValues().add(this.keys[record.readInt()]);
+            }
+            final int numberOfValues = record.readInt();
+            for (int i = 0; i < numberOfValues; i++) {
+                final String key = this.keys[record.readInt()];
+                observation.getObservationValues().put(key, readValue(record));
+            }
+            return observation;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.input.close();
+        }
+    }
+
+    private static Object readValue(DataInputStream input) throws IOException {
+        final byte tag = input.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return input.readBoolean();
+            case BYTE:
+                return input.readByte();
+            case SHORT:
+                return input.readShort();
+            case CHAR:
+                return input.readChar();
+            case INT:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case FLOAT:
+                return input.readFloat();
+            case DOUBLE:
+                return input.readDouble();
+            case STRING:
+                return readString(input);
+            case ARRAY:
+                final byte componentTag = input.readByte();
+                final Class<?> componentType = input.readBoolean() ?
+                        PRIMITIVE_COMPONENT_TYPE_BY_TAG.get(componentTag) : BOXED_COMPONENT_TYPE_BY_TAG.get(componentTag);
+                final int length = input.readInt();
+                final Object array = Array.newInstance(componentType, length);
+                for (int i = 0; i < length; i++) {
+                    Array.set(array, i, readValue(input));
+                }
+                return array;
+            case SERIALIZED:
+                final byte[] bytes = new byte[input.readInt()];
+                input.readFully(bytes);
+                try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return objectInput.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            default:
+                throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
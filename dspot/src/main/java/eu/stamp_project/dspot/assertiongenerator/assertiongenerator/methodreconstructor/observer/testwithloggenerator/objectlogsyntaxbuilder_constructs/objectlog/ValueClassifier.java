@@ -0,0 +1,105 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells if an observed value can be saved, i.e. serialized, without serializing it.
+ *
+ * The classification is computed once per class. A serialization is attempted only once per class of collection or map,
+ * the first time one of its instances contains only primitive values.
+ * Thus, another instance of the same class might not be serializable, e.g. a sorted map with a lambda as comparator:
+ * such a value is not saved by the {@link ObservationCodec}.
+ */
+public class ValueClassifier {
+
+    public enum Kind {
+        BOXED,
+        STRING,
+        PRIMITIVE_ARRAY,
+        COLLECTION_OF_PRIMITIVES,
+        UNSUPPORTED
+    }
+
+    private static final Map<Class<?>, Kind> KIND_BY_CLASS = new ConcurrentHashMap<>();
+
+    /**
+     * @param value the value to be classified
+     * @return the kind of the given value, null if the given value is null
+     */
+    public static Kind classify(Object value) {
+        if (value == null) {
+            return null;
+        }
+        final Class<?> valueClass = value.getClass();
+        final Kind kind = KIND_BY_CLASS.get(valueClass);
+        if (kind == null) {
+            return classifyNewClass(value);
+        } else if (kind == Kind.COLLECTION_OF_PRIMITIVES) {
+            return containsOnlyPrimitives(value) ? kind : Kind.UNSUPPORTED;
+        }
+        return kind;
+    }
+
+    /**
+     * @param value the value to be saved
+     * @return true if the given value can be serialized, i.e. it is null or its kind is not {@link Kind#UNSUPPORTED}
+     */
+    public static boolean isSerializable(Object value) {
+        return value == null || classify(value) != Kind.UNSUPPORTED;
+    }
+
+    private static Kind classifyNewClass(Object value) {
+        final Class<?> valueClass = value.getClass();
+        final Kind kind;
+        if (ObjectLogUtils.isWrapperType(valueClass)) {
+            kind = Kind.BOXED;
+        } else if (String.class.equals(valueClass)) {
+            kind = Kind.STRING;
+        } else if (ObjectLogUtils.isPrimitiveArray(value)) {
+            kind = Kind.PRIMITIVE_ARRAY;
+        } else if ((value instanceof Collection || value instanceof Map) && value instanceof Serializable) {
+            // the serializability of the collection depends on its elements
+            // we try to serialize only collections of primitives, and we remember the result for the class of the collection
+            if (!containsOnlyPrimitives(value)) {
+                return Kind.UNSUPPORTED;
+            }
+            kind = canBeSerialized(value) ? Kind.COLLECTION_OF_PRIMITIVES : Kind.UNSUPPORTED;
+        } else {
+            kind = Kind.UNSUPPORTED;
+        }
+        KIND_BY_CLASS.put(valueClass, kind);
+        return kind;
+    }
+
+    private static boolean containsOnlyPrimitives(Object collectionOrMap) {
+        try {
+            if (collectionOrMap instanceof Map) {
+                return containsOnlyPrimitives(((Map<?, ?>) collectionOrMap).keySet()) &&
+                        containsOnlyPrimitives(((Map<?, ?>) collectionOrMap).values());
+            }
+            for (Object element : (Collection<?>) collectionOrMap) {
+                if (element != null && !ObjectLogUtils.isPrimitive(element)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean canBeSerialized(Object value) {
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(value);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
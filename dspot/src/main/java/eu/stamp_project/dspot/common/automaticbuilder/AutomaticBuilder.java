@@ -2,6 +2,8 @@ package eu.stamp_project.dspot.common.automaticbuilder;
 
 import spoon.reflect.declaration.CtType;
 
+import java.util.Collection;
+
 /**
  * Created by Benjamin DANGLOT
  * benjamin.danglot@inria.fr
@@ -21,6 +23,14 @@ public interface AutomaticBuilder {
 
     void runPit(CtType<?>... testClasses);
 
+    /**
+     * Runs PIT on the mutants of the given classes only, instead of the classes targeted by the configuration.
+     *
+     * @param targetClasses the full qualified names of the classes to be mutated, all the targeted classes if empty
+     * @param testClasses   the test classes to be run against the mutants, all the test classes if empty
+     */
+    void runPit(Collection<String> targetClasses, CtType<?>... testClasses);
+
     void runPit();
 
     String getOutputDirectoryPit();
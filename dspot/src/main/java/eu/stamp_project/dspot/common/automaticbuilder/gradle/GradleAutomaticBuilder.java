@@ -10,6 +10,8 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Scanner;
 import java.util.stream.Collectors;
 
@@ -98,9 +100,14 @@ public class GradleAutomaticBuilder implements AutomaticBuilder {
 
     @Override
     public void runPit(CtType<?>... testClasses) {
+        runPit(Collections.emptyList(), testClasses);
+    }
+
+    @Override
+    public void runPit(Collection<String> targetClasses, CtType<?>... testClasses) {
         try {
             LOGGER.info("Injecting  Gradle task to run Pit...");
-            this.gradleInjector.injectPitTask(this.absolutePathToProjectRoot, testClasses);
+            this.gradleInjector.injectPitTask(this.absolutePathToProjectRoot, targetClasses, testClasses);
             LOGGER.info("Running Pit...");
             runTasks(true, "clean", CMD_PIT_MUTATION_COVERAGE);
         } catch (Exception e) {
@@ -12,6 +12,8 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.*;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.stream.Collectors;
 
 import static eu.stamp_project.dspot.common.automaticbuilder.gradle.GradlePitTaskAndOptions.*;
@@ -86,10 +88,14 @@ public class GradleInjector {
     }
 
     void injectPitTask(String pathToRootOfProject, CtType<?>... testClasses) throws IOException {
+        injectPitTask(pathToRootOfProject, Collections.emptyList(), testClasses);
+    }
+
+    void injectPitTask(String pathToRootOfProject, Collection<String> targetClasses, CtType<?>... testClasses) throws IOException {
         String originalGradleBuildFilename = pathToRootOfProject + File.separator + GRADLE_BUILD_FILE;
         File gradleBuildFile = new File(originalGradleBuildFilename);
         makeBackup(gradleBuildFile);
-        String pitTask = getPitTask(testClasses);
+        String pitTask = getPitTask(targetClasses, testClasses);
         Files.write(Paths.get(originalGradleBuildFilename), pitTask.getBytes(), StandardOpenOption.WRITE);
     }
 
@@ -153,6 +159,15 @@ public class GradleInjector {
 
 
     public String getPitTask(CtType<?>... testClasses) {
+        return getPitTask(Collections.emptyList(), testClasses);
+    }
+
+    /**
+     * @param targetClasses the full qualified names of the classes to be mutated, instead of the filter, if not empty
+     * @param testClasses   the test classes to be run against the mutants
+     * @return the content of the build file, with the task to run PIT
+     */
+    public String getPitTask(Collection<String> targetClasses, CtType<?>... testClasses) {
         final String contentOfOriginalGradle =
                 "plugins {" + AmplificationHelper.LINE_SEPARATOR +
                         "    id 'info.solidsoft.pitest' version '1.5.1'" + AmplificationHelper.LINE_SEPARATOR +
@@ -161,7 +176,7 @@ public class GradleInjector {
         return contentOfOriginalGradle +
                 AmplificationHelper.LINE_SEPARATOR + AmplificationHelper.LINE_SEPARATOR +
                 getApplyPluginPit() +
-                getPitTaskOptions(testClasses);
+                getPitTaskOptions(targetClasses, testClasses);
     }
 
     public static String getContentOfGivenSectionFromGivenString(String sectionName, String content) {
@@ -194,9 +209,11 @@ public class GradleInjector {
         return "\'" + option + "\'";
     }
 
-    private String getPitTaskOptions(CtType<?>... testClasses) {
+    private String getPitTaskOptions(Collection<String> targetClasses, CtType<?>... testClasses) {
         return AmplificationHelper.LINE_SEPARATOR + "pitest {" + AmplificationHelper.LINE_SEPARATOR +
-                (this.filter != null && !this.filter.isEmpty() ?
+                (!targetClasses.isEmpty() ?
+                "    " + OPT_TARGET_CLASSES + "['" + String.join("','", targetClasses) + "']" + AmplificationHelper.LINE_SEPARATOR :
+                this.filter != null && !this.filter.isEmpty() ?
                 "    " + OPT_TARGET_CLASSES + "['" + this.filter + "']" + AmplificationHelper.LINE_SEPARATOR : "" ) +
                 "    " + OPT_WITH_HISTORY + "true" + AmplificationHelper.LINE_SEPARATOR +
                 "    " + OPT_VALUE_REPORT_DIR + AmplificationHelper.LINE_SEPARATOR +
@@ -417,6 +417,8 @@ public class DSpotPOMCreator {
 
     private static final String ID = "id";
 
+    private static final String PROPERTIES = "properties";
+
     public static final String PROFILE_ID = "id-descartes-for-dspot";
 
     private Element createProfile(Document document) {
@@ -425,6 +427,14 @@ public class DSpotPOMCreator {
 
         id.setTextContent(PROFILE_ID);
         profile.appendChild(id);
+        if (this.filter != null &&
+                !this.filter.isEmpty()) {
+            final Element properties = document.createElement(PROPERTIES);
+            final Element targetClasses = document.createElement(TARGET_CLASSES);
+            targetClasses.setTextContent(this.filter);
+            properties.appendChild(targetClasses);
+            profile.appendChild(properties);
+        }
         final Element build = createBuild(document);
         profile.appendChild(build);
 
@@ -604,8 +614,9 @@ public class DSpotPOMCreator {
 
         if (this.filter != null &&
                 !this.filter.isEmpty()) {
+            // the filter is given as a property of the profile, in order to be overridden from the command line
             final Element targetClasses = document.createElement(TARGET_CLASSES);
-            targetClasses.setTextContent(this.filter);
+            targetClasses.setTextContent("${" + TARGET_CLASSES + "}");
             configuration.appendChild(targetClasses);
         }
 
@@ -19,6 +19,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
 import java.util.Properties;
@@ -37,6 +38,8 @@ public class MavenAutomaticBuilder implements AutomaticBuilder {
 
     public static final String OPT_TARGET_TESTS = "-DtargetTests=";
 
+    public static final String OPT_TARGET_CLASSES = "-DtargetClasses=";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(MavenAutomaticBuilder.class);
 
     private String classpath = null;
@@ -135,6 +138,11 @@ public class MavenAutomaticBuilder implements AutomaticBuilder {
 
     @Override
     public void runPit(CtType<?>... testClasses) {
+        this.runPit(Collections.emptyList(), testClasses);
+    }
+
+    @Override
+    public void runPit(Collection<String> targetClasses, CtType<?>... testClasses) {
         try {
             FileUtils.deleteDirectory(new File(this.absolutePathToProjectRoot + "/target/pit-reports"));
         } catch (Exception ignored) {
@@ -147,7 +155,9 @@ public class MavenAutomaticBuilder implements AutomaticBuilder {
                             OPT_TARGET_TESTS + Arrays.stream(testClasses)
                                     .map(DSpotUtils::ctTypeToFullQualifiedName)
                                     .collect(Collectors.joining(",")) :
-                            "" //
+                            "", //
+                    // overrides the filter, see DSpotPOMCreator
+                    targetClasses.isEmpty() ? "" : OPT_TARGET_CLASSES + String.join(",", targetClasses)
             };
             if (this.runGoals(true, goals) != 0) {
                 throw new RuntimeException("Maven build failed! Enable verbose mode for more information (--verbose)");
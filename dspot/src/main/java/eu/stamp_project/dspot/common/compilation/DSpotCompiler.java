@@ -5,6 +5,7 @@ import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
 import eu.stamp_project.dspot.common.configuration.DSpotState;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import spoon.Launcher;
@@ -16,12 +17,16 @@ import spoon.compiler.builder.ClasspathOptions;
 import spoon.compiler.builder.ComplianceOptions;
 import spoon.compiler.builder.JDTBuilderImpl;
 import spoon.compiler.builder.SourceOptions;
+import spoon.reflect.declaration.CtType;
+import spoon.support.compiler.FileSystemFile;
 import spoon.support.compiler.FileSystemFolder;
 import spoon.support.compiler.jdt.JDTBasedSpoonCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper.PATH_SEPARATOR;
@@ -43,17 +48,46 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 				+ PATH_SEPARATOR +
 				configuration.getAbsolutePathToTestSourceCode();
 		Launcher launcher = getSpoonModelOf(pathToSources, pathToDependencies);
-		return new DSpotCompiler(launcher, configuration, pathToDependencies);
+		return new DSpotCompiler(launcher,
+				pathToDependencies,
+				new File(configuration.getAbsolutePathToTestClasses()),
+				new File(getPathToAmplifiedTestSrc()),
+				configuration.shouldUseIncrementalCompilation()
+		);
 	}
 
-	private DSpotCompiler(Launcher launcher, UserInput configuration, String pathToDependencies) {
+	/**
+	 * Creates a compiler for a test class that is amplified concurrently with other test classes.
+	 * The created compiler shares the Spoon model, the dependencies and the binary output directory of this compiler,
+	 * but it prints the amplified test classes in its own source output directory.
+	 * The amplified test classes of two different test classes have different names,
+	 * thus their binaries do not overwrite each other.
+	 *
+	 * @param index the index of the worker that uses the created compiler
+	 * @return a new compiler, that has its own source output directory
+	 */
+	public DSpotCompiler createWorkerCompiler(int index) {
+		return new DSpotCompiler(this.launcher,
+				this.dependencies,
+				this.binaryOutputDirectory,
+				new File(getPathToAmplifiedTestSrcOfWorker(index)),
+				this.incremental
+		);
+	}
+
+	private DSpotCompiler(Launcher launcher,
+						  String pathToDependencies,
+						  File binaryOutputDirectory,
+						  File sourceOutputDirectory,
+						  boolean incremental) {
 		super(launcher.getFactory());
 		this.dependencies = pathToDependencies;
 		this.launcher = launcher;
-		this.binaryOutputDirectory = new File(configuration.getAbsolutePathToTestClasses());
-		this.sourceOutputDirectory = new File(getPathToAmplifiedTestSrc());
+		this.binaryOutputDirectory = binaryOutputDirectory;
+		this.incremental = incremental;
+		this.sourceOutputDirectory = sourceOutputDirectory;
 		if (!this.sourceOutputDirectory.exists()) {
-			this.sourceOutputDirectory.mkdir();
+			this.sourceOutputDirectory.mkdirs();
 		} else {
 			try {
 				FileUtils.deleteDirectory(this.sourceOutputDirectory);
@@ -68,21 +102,100 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 			this.factory = this.launcher.getFactory();
 		}
 		javaCompliance = factory.getEnvironment().getComplianceLevel();
+		// the batch compilation writes new binaries, the listings cached by the name environment are not up to date anymore
+		this.resetWarmEnvironment();
 		DSpotJDTBatchCompiler compiler = new DSpotJDTBatchCompiler(this, null);//environment);
 		final SourceOptions sourcesOptions = new SourceOptions();
 		sourcesOptions.sources((new FileSystemFolder(this.sourceOutputDirectory).getAllJavaFiles()));
 
 		this.reportProblems(this.factory.getEnvironment());
+		this.numberOfPreviousProblems = getProblems().size();
+
+		final String[] finalArgs = buildArguments(sourcesOptions, pathToAdditionalDependencies);
+
+		LOGGER.info("Compiling with {}", String.join(" ", finalArgs));
+
+		compiler.compile(finalArgs);
+		environment = compiler.getEnvironment();
+
+		return compiler.globalErrorsCount == 0;
+	}
+
+	/**
+	 * Compile only the given type, from the given source, in the persistent compilation mode.
+	 * The source is given to the JDT compiler directly from the memory.
+	 * The name environment of JDT, i.e. the resolved classpath, is kept between two calls of this method
+	 * that compile the same type, with the same additional dependencies.
+	 * The name environment caches the content of the directories of the classpath, including {@link #getSourceOutputDirectory()},
+	 * thus it is cleaned up and rebuilt as soon as a new type is compiled, i.e. a new file has been printed.
+	 * The other sources of {@link #getSourceOutputDirectory()} are not recompiled.
+	 *
+	 * @param type                         the type to be compiled
+	 * @param source                       the source of the type, printed in {@link #getSourceOutputDirectory()}
+	 * @param pathToAdditionalDependencies additional dependencies such as external jars. Paths mut be separated by the path separator, e.g. : on Linux
+	 * @return the compilation problems of the given type
+	 */
+	public List<CategorizedProblem> compileIncrementally(CtType<?> type, String source, String pathToAdditionalDependencies) {
+		if (this.factory == null) {
+			this.factory = this.launcher.getFactory();
+		}
+		javaCompliance = factory.getEnvironment().getComplianceLevel();
+		final File javaFile = new File(this.sourceOutputDirectory,
+				type.getQualifiedName().replace('.', File.separatorChar) + ".java"
+		);
+		String canonicalPath;
+		try {
+			canonicalPath = javaFile.getCanonicalPath();
+		} catch (IOException e) {
+			canonicalPath = javaFile.getAbsolutePath();
+		}
+		final String warmEnvironmentKey = String.join(PATH_SEPARATOR,
+				canonicalPath,
+				this.binaryOutputDirectory.getAbsolutePath(),
+				pathToAdditionalDependencies
+		);
+		if (!warmEnvironmentKey.equals(this.warmEnvironmentKey)) {
+			this.resetWarmEnvironment();
+			this.warmEnvironmentKey = warmEnvironmentKey;
+		}
+		final DSpotJDTBatchCompiler compiler = new DSpotJDTBatchCompiler(this,
+				this.warmEnvironment,
+				Collections.singletonMap(canonicalPath, source.toCharArray())
+		);
+		final SourceOptions sourcesOptions = new SourceOptions();
+		sourcesOptions.sources(Collections.singletonList(new FileSystemFile(javaFile)));
 
-		String[] sourcesArray = this.sourceOutputDirectory.getAbsolutePath().split(PATH_SEPARATOR);
-		String[] classpath = (this.dependencies + PATH_SEPARATOR + pathToAdditionalDependencies).split(PATH_SEPARATOR);
-		String[] finalClasspath = new String[sourcesArray.length + classpath.length];
-		System.arraycopy(sourcesArray, 0, finalClasspath, 0, sourcesArray.length);
-		System.arraycopy(classpath, 0, finalClasspath, sourcesArray.length, classpath.length);
+		final String[] finalArgs = buildArguments(sourcesOptions, pathToAdditionalDependencies);
+		LOGGER.debug("Compiling incrementally {}", type.getQualifiedName());
 
+		final int numberOfPreviousProblems = getProblems().size();
+		compiler.compile(finalArgs);
+		this.warmEnvironment = compiler.getEnvironment();
+		environment = this.warmEnvironment;
+
+		final List<CategorizedProblem> problems = new ArrayList<>();
+		final List<CategorizedProblem> allProblems = getProblems();
+		for (int i = numberOfPreviousProblems; i < allProblems.size(); i++) {
+			final CategorizedProblem problem = allProblems.get(i);
+			if (problem != null && canonicalPath.equals(new String(problem.getOriginatingFileName()))) {
+				problems.add(problem);
+			}
+		}
+		return problems;
+	}
+
+	private void resetWarmEnvironment() {
+		if (this.warmEnvironment != null) {
+			this.warmEnvironment.cleanup();
+		}
+		this.warmEnvironment = null;
+		this.warmEnvironmentKey = null;
+	}
+
+	private String[] buildArguments(SourceOptions sourcesOptions, String pathToAdditionalDependencies) {
 		final ClasspathOptions classpathOptions = new ClasspathOptions()
 				.encoding(getEnvironment().getEncoding().displayName())
-				.classpath(finalClasspath)
+				.classpath(getClasspath(pathToAdditionalDependencies))
 				.binaries(getBinaryOutputDirectory());
 
 		final String[] args = new JDTBuilderImpl() //
@@ -96,13 +209,21 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 		final String[] finalArgs = new String[args.length + 1];
 		finalArgs[0] = "-proceedOnError";
 		System.arraycopy(args, 0, finalArgs, 1, args.length);
+		return finalArgs;
+	}
 
-		LOGGER.info("Compiling with {}", String.join(" ", finalArgs));
-
-		compiler.compile(finalArgs);
-		environment = compiler.getEnvironment();
-
-		return compiler.globalErrorsCount == 0;
+	// the classpath is the same from one compilation to another, we build it only when the dependencies change
+	private String[] getClasspath(String pathToAdditionalDependencies) {
+		if (this.classpath == null || !pathToAdditionalDependencies.equals(this.classpathAdditionalDependencies)) {
+			String[] sourcesArray = this.sourceOutputDirectory.getAbsolutePath().split(PATH_SEPARATOR);
+			String[] classpath = (this.dependencies + PATH_SEPARATOR + pathToAdditionalDependencies).split(PATH_SEPARATOR);
+			String[] finalClasspath = new String[sourcesArray.length + classpath.length];
+			System.arraycopy(sourcesArray, 0, finalClasspath, 0, sourcesArray.length);
+			System.arraycopy(classpath, 0, finalClasspath, sourcesArray.length, classpath.length);
+			this.classpath = finalClasspath;
+			this.classpathAdditionalDependencies = pathToAdditionalDependencies;
+		}
+		return this.classpath;
 	}
 
 	public static Launcher getSpoonModelOf(String pathToSources, String pathToDependencies) {
@@ -141,12 +262,14 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 
 	/**
 	 * this method call {@link #compile(String)} and return the potential problems of the compilation.
+	 * The problems reported by the previous compilations are not returned.
 	 * @param pathToAdditionalDependencies additional dependencies such as external jars. Paths mut be separated by the path separator, e.g. : on Linux
 	 * @return a list that contains compilation problems
 	 */
 	public List<CategorizedProblem> compileAndReturnProblems(String pathToAdditionalDependencies) {
 		this.compile(pathToAdditionalDependencies);
-		return getProblems();
+		final List<CategorizedProblem> problems = getProblems();
+		return new ArrayList<>(problems.subList(Math.min(this.numberOfPreviousProblems, problems.size()), problems.size()));
 	}
 
 	/**
@@ -161,6 +284,12 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 		return absolutePathToProjectRoot + PATH_TO_AMPLIFIED_TEST_SRC;
 	}
 
+	private static final String PATH_TO_WORKERS = "target/dspot/workers/";
+
+	public static String getPathToAmplifiedTestSrcOfWorker(int index) {
+		return absolutePathToProjectRoot + PATH_TO_WORKERS + index + "/tmp_test_sources";
+	}
+
 	private Launcher launcher;
 
 	private File binaryOutputDirectory;
@@ -169,6 +298,20 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 
 	private File sourceOutputDirectory;
 
+	private boolean incremental;
+
+	// number of problems reported before the last compilation, used to return only the problems of the last compilation
+	private int numberOfPreviousProblems;
+
+	private String[] classpath;
+
+	private String classpathAdditionalDependencies;
+
+	private FileSystem warmEnvironment;
+
+	// the compiled file, the binary output directory and the additional dependencies of the warm environment
+	private String warmEnvironmentKey;
+
 	public File getBinaryOutputDirectory() {
 		return binaryOutputDirectory;
 	}
@@ -185,4 +328,16 @@ public class DSpotCompiler extends JDTBasedSpoonCompiler {
 		return launcher;
 	}
 
+	/**
+	 * @return true if the test classes must be compiled with {@link #compileIncrementally(CtType, String, String)}
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	public DSpotCompiler setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		return this;
+	}
+
 }
@@ -11,6 +11,8 @@ import spoon.support.compiler.jdt.JDTBatchCompiler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
 
 
 /**
@@ -22,9 +24,17 @@ public class DSpotJDTBatchCompiler extends JDTBatchCompiler {
 
     private FileSystem environment;
 
+    // canonical path of a source file -> its content, used instead of reading the file from the disk
+    private Map<String, char[]> contentsInMemory;
+
     public DSpotJDTBatchCompiler(JDTBasedSpoonCompiler jdtCompiler, FileSystem environment ) {
+        this(jdtCompiler, environment, Collections.emptyMap());
+    }
+
+    public DSpotJDTBatchCompiler(JDTBasedSpoonCompiler jdtCompiler, FileSystem environment, Map<String, char[]> contentsInMemory) {
         super(jdtCompiler);
         this.environment = environment;
+        this.contentsInMemory = contentsInMemory;
     }
 
     @Override
@@ -88,7 +98,7 @@ public class DSpotJDTBatchCompiler extends JDTBatchCompiler {
             } catch (IOException var10) {
                 fileName = this.filenames[i];
             }
-            units[i] = new CompilationUnit((char[])null, fileName, encoding, this.destinationPaths[i], false, null);
+            units[i] = new CompilationUnit(this.contentsInMemory.get(fileName), fileName, encoding, this.destinationPaths[i], false, null);
         }
         return units;
     }
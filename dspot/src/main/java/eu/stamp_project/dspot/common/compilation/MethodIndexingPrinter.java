@@ -0,0 +1,135 @@
+package eu.stamp_project.dspot.common.compilation;
+
+import spoon.compiler.Environment;
+import spoon.reflect.declaration.CtCompilationUnit;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.DefaultJavaPrettyPrinter;
+import spoon.reflect.visitor.PrettyPrinter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Pretty-printer that records, while printing a test class, the lines on which each of its methods is printed.
+ * The recorded lines are turned into character ranges of the printed source, see {@link SourcePositionIndex}.
+ * It prints exactly as the printer given by {@link Environment#createPrettyPrinterAutoImport()},
+ * thus it can be given to a {@link spoon.support.JavaOutputProcessor}.
+ */
+public class MethodIndexingPrinter extends DefaultJavaPrettyPrinter {
+
+    private CtType<?> printedType;
+
+    private CtMethod<?> currentMethod;
+
+    private int currentMethodStartLine;
+
+    private final List<int[]> lineRanges = new ArrayList<>();
+
+    private final List<CtMethod<?>> methods = new ArrayList<>();
+
+    public MethodIndexingPrinter(Environment environment) {
+        super(environment);
+        // use the same configuration than the printer used to output the amplified test classes
+        final PrettyPrinter reference = environment.createPrettyPrinterAutoImport();
+        if (reference instanceof DefaultJavaPrettyPrinter) {
+            this.setPreprocessors(((DefaultJavaPrettyPrinter) reference).getPreprocessors());
+        }
+        this.setIgnoreImplicit(false);
+    }
+
+    /**
+     * Print the given type and index its methods.
+     *
+     * @param type the type to be printed
+     * @return the printed source with the character range of each method of the given type
+     */
+    public SourcePositionIndex printAndIndex(CtType<?> type) {
+        this.calculate(type.getFactory().CompilationUnit().getOrCreate(type), Collections.singletonList(type));
+        return this.getIndex();
+    }
+
+    /**
+     * Used by the {@link spoon.support.JavaOutputProcessor}, that prints the compilation unit of the given types.
+     * The methods of the type are indexed only if a single type is printed.
+     */
+    @Override
+    public void calculate(CtCompilationUnit sourceCompilationUnit, List<CtType<?>> types) {
+        this.printedType = types.size() == 1 ? types.get(0) : null;
+        this.lineRanges.clear();
+        this.methods.clear();
+        super.calculate(sourceCompilationUnit, types);
+    }
+
+    /**
+     * @return the index of the methods of the last printed type, see {@link #calculate(CtCompilationUnit, List)}
+     */
+    public SourcePositionIndex getIndex() {
+        final String source = this.getResult();
+        final int[] lineStarts = computeLineStarts(source);
+        final TreeMap<Integer, SourcePositionIndex.MethodRange> rangesByStart = new TreeMap<>();
+        for (int i = 0; i < this.methods.size(); i++) {
+            final int[] lines = this.lineRanges.get(i);
+            final int start = lineStarts[Math.max(1, Math.min(lines[0], lineStarts.length)) - 1];
+            final int end = lines[1] < lineStarts.length ? lineStarts[lines[1]] - 1 : source.length();
+            rangesByStart.put(start, new SourcePositionIndex.MethodRange(end, this.methods.get(i)));
+        }
+        return new SourcePositionIndex(source, rangesByStart);
+    }
+
+    @Override
+    public DefaultJavaPrettyPrinter scan(CtElement element) {
+        if (this.currentMethod == null &&
+                this.printedType != null &&
+                element instanceof CtMethod &&
+                element.getParent() == this.printedType) {
+            this.currentMethod = (CtMethod<?>) element;
+            this.currentMethodStartLine = this.getCurrentLine();
+            try {
+                super.scan(element);
+            } finally {
+                this.lineRanges.add(new int[]{
+                        this.currentMethodStartLine,
+                        this.getCurrentLine()
+                });
+                this.methods.add(this.currentMethod);
+                this.currentMethod = null;
+            }
+            return this;
+        }
+        return super.scan(element);
+    }
+
+    // the line being printed, counted from 1. PrinterHelper does not expose its own counter
+    private int getCurrentLine() {
+        final String printed = this.getPrinterTokenWriter().getPrinterHelper().toString();
+        int line = 1;
+        for (int i = 0; i < printed.length(); i++) {
+            if (printed.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    // lineStarts[i] is the offset of the first character of the line i + 1
+    private static int[] computeLineStarts(String source) {
+        int numberOfLines = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                numberOfLines++;
+            }
+        }
+        final int[] lineStarts = new int[numberOfLines];
+        int currentLine = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') {
+                lineStarts[currentLine++] = i + 1;
+            }
+        }
+        return lineStarts;
+    }
+}
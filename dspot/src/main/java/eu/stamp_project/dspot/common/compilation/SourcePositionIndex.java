@@ -0,0 +1,79 @@
+package eu.stamp_project.dspot.common.compilation;
+
+import org.eclipse.jdt.core.compiler.CategorizedProblem;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Result of the printing of a test class by the {@link MethodIndexingPrinter}.
+ * It contains the printed source code and the character range of each method of the printed class,
+ * in order to map compilation problems back to the {@link CtMethod} of the model that has been printed,
+ * without building a new Spoon model of the printed file.
+ */
+public class SourcePositionIndex {
+
+    public static final SourcePositionIndex EMPTY = new SourcePositionIndex("", new TreeMap<>());
+
+    private final String source;
+
+    // start of the range -> method range, ranges do not overlap
+    private final TreeMap<Integer, MethodRange> rangesByStart;
+
+    SourcePositionIndex(String source, TreeMap<Integer, MethodRange> rangesByStart) {
+        this.source = source;
+        this.rangesByStart = rangesByStart;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isEmpty() {
+        return this.rangesByStart.isEmpty();
+    }
+
+    /**
+     * @param sourceStart the start of a range in the printed source, as given by {@link CategorizedProblem#getSourceStart()}
+     * @param sourceEnd   the end of a range in the printed source, as given by {@link CategorizedProblem#getSourceEnd()}
+     * @return the method that contains the whole given range, or null if the range is not in a method
+     */
+    public CtMethod<?> getMethodAt(int sourceStart, int sourceEnd) {
+        final Map.Entry<Integer, MethodRange> candidate = this.rangesByStart.floorEntry(sourceStart);
+        if (candidate == null || candidate.getValue().end < sourceEnd) {
+            return null;
+        }
+        return candidate.getValue().method;
+    }
+
+    /**
+     * @param problems compilation problems reported on the printed source
+     * @return the methods that contain at least one of the given problems
+     */
+    public Set<CtMethod<?>> getMethodsOf(List<CategorizedProblem> problems) {
+        final Set<CtMethod<?>> methods = new HashSet<>();
+        for (CategorizedProblem problem : problems) {
+            final CtMethod<?> method = this.getMethodAt(problem.getSourceStart(), problem.getSourceEnd());
+            if (method != null) {
+                methods.add(method);
+            }
+        }
+        return methods;
+    }
+
+    static class MethodRange {
+
+        final int end;
+
+        final CtMethod<?> method;
+
+        MethodRange(int end, CtMethod<?> method) {
+            this.end = end;
+            this.method = method;
+        }
+    }
+}
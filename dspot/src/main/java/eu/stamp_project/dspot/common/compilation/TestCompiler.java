@@ -4,7 +4,6 @@ import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
 import eu.stamp_project.dspot.common.test_framework.TestFramework;
 import eu.stamp_project.testrunner.listener.TestResult;
 import eu.stamp_project.dspot.common.execution.TestRunner;
-import eu.stamp_project.testrunner.EntryPoint;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.CloneHelper;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
@@ -18,6 +17,7 @@ import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.declaration.ModifierKind;
 
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -115,6 +115,19 @@ public class TestCompiler {
     public TestResult compileAndRun(CtType<?> testClass,
                                              DSpotCompiler compiler,
                                              List<CtMethod<?>> testsToRun) throws AmplificationException {
+        return this.compileAndRun(testClass, compiler, testsToRun, true);
+    }
+
+    /**
+     * Same as {@link #compileAndRun(CtType, DSpotCompiler, List)}.
+     *
+     * @param allowSharding false if the test methods must be executed in the same JVM,
+     *                      see {@link TestRunner#runGivenTestMethods(CtType, List, String, boolean)}
+     */
+    public TestResult compileAndRun(CtType<?> testClass,
+                                    DSpotCompiler compiler,
+                                    List<CtMethod<?>> testsToRun,
+                                    boolean allowSharding) throws AmplificationException {
         final String classPath =  DSpotUtils.createPath(
                         classpathClassesProject,
                         compiler.getBinaryOutputDirectory().getAbsolutePath(),
@@ -152,11 +165,35 @@ public class TestCompiler {
         }
 
         testsToRun = this.compileAndDiscardUncompilableMethods(compiler, testClass, testsToRun);
-        EntryPoint.timeoutInMs = 1000 + (timeoutInMs * testsToRun.size());
+        return this.run(testClass, compiler, testsToRun, allowSharding);
+    }
+
+    /**
+     * Run the given test methods of the given test class, that must have been compiled before,
+     * e.g. using {@link #compileAndRun(CtType, DSpotCompiler, List, boolean)}.
+     *
+     * @param testClass     the test class, already compiled
+     * @param compiler      the compiler used to compile the test class
+     * @param testsToRun    the test methods to be run, should be in testClass
+     * @param allowSharding false if the test methods must be executed in the same JVM,
+     *                      see {@link TestRunner#runGivenTestMethods(CtType, List, String, boolean)}
+     * @return an instance of {@link eu.stamp_project.testrunner.listener.TestResult}
+     * @throws AmplificationException in case a timeout has been thrown.
+     */
+    public TestResult run(CtType<?> testClass,
+                          DSpotCompiler compiler,
+                          List<CtMethod<?>> testsToRun,
+                          boolean allowSharding) throws AmplificationException {
+        final String classPath =  DSpotUtils.createPath(
+                classpathClassesProject,
+                compiler.getBinaryOutputDirectory().getAbsolutePath(),
+                compiler.getDependencies()
+        );
+        this.testRunner.setTimeoutInMs(1000 + (timeoutInMs * testsToRun.size()));
         if (testClass.getModifiers().contains(ModifierKind.ABSTRACT)) { // if the test class is abstract, we use one of its implementation
             return testRunner.runSubClassesForAbstractTestClass(testClass, testsToRun, classPath);
         } else {
-            return testRunner.runGivenTestMethods(testClass, testsToRun, classPath);
+            return testRunner.runGivenTestMethods(testClass, testsToRun, classPath, allowSharding);
         }
     }
 
@@ -188,8 +225,13 @@ public class TestCompiler {
                                                                           CtType<?> testClassToBeCompiled,
                                                                           int numberOfTry) {
 
-        printJavaFileAndDeleteClassFile(compiler, testClassToBeCompiled);
-        final List<CategorizedProblem> problems = compiler.compileAndReturnProblems(classpathToCompile)
+        // the index of the printed methods is used to map the compilation problems to the methods of the given model
+        final SourcePositionIndex index = printJavaFileAndDeleteClassFile(compiler, testClassToBeCompiled);
+        // if the printing failed, the index has no source: the printed file is compiled from the disk
+        final List<CategorizedProblem> compilationProblems = compiler.isIncremental() && index != SourcePositionIndex.EMPTY ?
+                compiler.compileIncrementally(testClassToBeCompiled, index.getSource(), classpathToCompile) :
+                compiler.compileAndReturnProblems(classpathToCompile);
+        final List<CategorizedProblem> problems = compilationProblems
                 .stream()
                 .filter(IProblem::isError)
                 .collect(Collectors.toList());
@@ -203,15 +245,9 @@ public class TestCompiler {
             int maxNumber = problems.size() > 20 ? 20 : problems.size();
             LOGGER.error("Error(s) during compilation:");
             problems.subList(0, maxNumber).forEach(categorizedProblem -> LOGGER.error("{}", categorizedProblem));
-            // Here, we compute the spoon model of the compiled test class,
-            // since it does not match with the model given in parameter.
-            // TODO report this to Spoon ?
-            final CtClass<?> newModelCtClass = getNewModelCtClass(compiler.getSourceOutputDirectory().getAbsolutePath(), testClassToBeCompiled.getQualifiedName());
-            final HashSet<CtMethod<?>> methodsToRemove = getMethodToRemove(problems, newModelCtClass);
-            final List<CtMethod<?>> methodsToRemoveInOriginalModel = methodsToRemove.stream()
-                    .map(CtMethod::getSimpleName)
-                    .map(methodName -> (CtMethod<?>) testClassToBeCompiled.getMethodsByName(methodName).get(0))
-                    .collect(Collectors.toList());
+            final List<CtMethod<?>> methodsToRemoveInOriginalModel = index == SourcePositionIndex.EMPTY ?
+                    getMethodsToRemoveUsingANewModel(compiler, testClassToBeCompiled, problems) :
+                    getMethodsToRemoveUsingTheIndex(index, testClassToBeCompiled, problems);
 
             // TODO can't remember why I did that
             /*final List<CtMethod<?>> methodToKeep = newModelCtClass.getMethods().stream()
@@ -233,6 +269,33 @@ public class TestCompiler {
         }
     }
 
+    // the printed methods are the methods of the given model, there is no need to build a new model
+    private static List<CtMethod<?>> getMethodsToRemoveUsingTheIndex(SourcePositionIndex index,
+                                                                     CtType<?> testClassToBeCompiled,
+                                                                     List<CategorizedProblem> problems) {
+        final String pathOfPrintedFile = testClassToBeCompiled.getQualifiedName().replace('.', File.separatorChar) + ".java";
+        return new ArrayList<>(index.getMethodsOf(
+                problems.stream()
+                        .filter(problem -> problem.getOriginatingFileName() != null &&
+                                new String(problem.getOriginatingFileName()).endsWith(pathOfPrintedFile))
+                        .collect(Collectors.toList())
+        ));
+    }
+
+    // the test class has not been printed by Spoon, e.g. it has been printed using its toString(), thus there is no index.
+    // Here, we compute the spoon model of the compiled test class,
+    // since it does not match with the model given in parameter.
+    private static List<CtMethod<?>> getMethodsToRemoveUsingANewModel(DSpotCompiler compiler,
+                                                                      CtType<?> testClassToBeCompiled,
+                                                                      List<CategorizedProblem> problems) {
+        final CtClass<?> newModelCtClass = getNewModelCtClass(compiler.getSourceOutputDirectory().getAbsolutePath(), testClassToBeCompiled.getQualifiedName());
+        final HashSet<CtMethod<?>> methodsToRemove = getMethodToRemove(problems, newModelCtClass);
+        return methodsToRemove.stream()
+                .map(CtMethod::getSimpleName)
+                .map(methodName -> (CtMethod<?>) testClassToBeCompiled.getMethodsByName(methodName).get(0))
+                .collect(Collectors.toList());
+    }
+
     // compute the CtMethod in the new model to remove according to the given compilation problems
     private static HashSet<CtMethod<?>> getMethodToRemove(List<CategorizedProblem> problems, CtClass<?> newModelCtClass) {
         return problems.stream()
@@ -258,18 +321,16 @@ public class TestCompiler {
         return launcher.getFactory().Class().get(fullQualifiedName);
     }
 
-    // output the .java of the test class to be compiled
+    // output the .java of the test class to be compiled, and index the position of its methods
     // this method delete also the old .class, i.e. the old compiled file of the same test class, if exists
-    private static void printJavaFileAndDeleteClassFile(DSpotCompiler compiler, CtType<?> classTest) {
-        try {
-//            final String pathToJavaFile =
-//                    compiler.getSourceOutputDirectory().getAbsolutePath() + "/"
-//                            + classTest.getQualifiedName().replaceAll("\\.", "/") + ".java";
-//            forceDelete(pathToJavaFile);
-            DSpotUtils.printCtTypeToGivenDirectory(classTest, compiler.getSourceOutputDirectory());
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    private static SourcePositionIndex printJavaFileAndDeleteClassFile(DSpotCompiler compiler, CtType<?> classTest) {
+        final SourcePositionIndex index = DSpotUtils.printCtTypeAndIndexToGivenDirectory(classTest, compiler.getSourceOutputDirectory());
+        deleteClassFile(compiler, classTest);
+        return index;
+    }
+
+    // delete the old .class, i.e. the old compiled file of the same test class, if exists
+    private static void deleteClassFile(DSpotCompiler compiler, CtType<?> classTest) {
         final String pathToDotClass =
                 compiler.getBinaryOutputDirectory().getAbsolutePath() + "/"
                         + classTest.getQualifiedName().replaceAll("\\.", "/") + ".class";
@@ -280,6 +341,10 @@ public class TestCompiler {
         }
     }
 
+    public TestRunner getTestRunner() {
+        return testRunner;
+    }
+
     public static void setTimeoutInMs(int timeoutInMs) {
         timeoutInMs = timeoutInMs;
     }
@@ -63,7 +63,11 @@ public class AmplificationSetup {
         final boolean jUnit5 = TestFramework.isJUnit5(testMethodsToBeAmplified.get(0));
         EntryPoint.jUnit5Mode = jUnit5;
         DSpotPOMCreator.isCurrentlyJUnit5 = jUnit5;
-        Counter.reset();
+        dSpotState.getTestCompiler().getTestRunner().setJUnit5Mode(jUnit5);
+        // the counts of the test classes that are amplified concurrently are kept until the end
+        if (!dSpotState.shouldAmplifyTestClassesConcurrently()) {
+            Counter.reset();
+        }
         if (dSpotState.shouldGenerateAmplifiedTestClass()) {
             testClassToBeAmplified = AmplificationHelper.renameTestClassUnderAmplification(testClassToBeAmplified);
         }
@@ -72,7 +76,7 @@ public class AmplificationSetup {
         return tuple;
     }
 
-    public void postAmplification(CtType<?> testClassToBeAmplified,List<CtMethod<?>> amplifiedTestMethods){
+    public CtType<?> postAmplification(CtType<?> testClassToBeAmplified,List<CtMethod<?>> amplifiedTestMethods){
         final long elapsedTime = System.currentTimeMillis() - time;
         LOGGER.info("elapsedTime {}", elapsedTime);
         this.output.addClassTimeJSON(testClassToBeAmplified.getQualifiedName(), elapsedTime);
@@ -90,7 +94,9 @@ public class AmplificationSetup {
         }
         final CtType<?> amplifiedTestClass = this.output.output(testClassToBeAmplified, amplifiedTestMethods);
         amplifiedTestClasses.add(amplifiedTestClass);
+        AmplificationHelper.removeAmpTestParents(amplifiedTestMethods);
         cleanAfterAmplificationOfOneTestClass(dSpotState.getCompiler(), testClassToBeAmplified);
+        return amplifiedTestClass;
     }
 
     private void cleanAfterAmplificationOfOneTestClass(DSpotCompiler compiler, CtType<?> testClassToBeAmplified) {
@@ -174,6 +180,7 @@ public class AmplificationSetup {
         final long elapsedTime = System.currentTimeMillis() - dSpotState.getStartTime();
         dSpotState.getLogger().info("Elapsed time {} ms", elapsedTime);
         DSpotState.GLOBAL_REPORT.output(dSpotState.getUserInput().getOutputDirectory());
+        DSpotCache.getRegions().forEach(region -> dSpotState.getLogger().info("Cache {}", region));
         DSpotCache.reset();
         DSpotState.GLOBAL_REPORT.reset();
         AmplificationHelper.reset();
@@ -1,48 +1,81 @@
 package eu.stamp_project.dspot.common.configuration;
 
-import org.ehcache.Cache;
-import org.ehcache.CacheManager;
-import org.ehcache.config.builders.CacheConfigurationBuilder;
-import org.ehcache.config.builders.CacheManagerBuilder;
-import org.ehcache.config.builders.ResourcePoolsBuilder;
-
 import eu.stamp_project.dspot.common.test_framework.TestFrameworkSupport;
+import eu.stamp_project.dspot.common.test_framework.assertions.IsAssertInvocationFilter;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * The memory cache of DSpot, made of one {@link LRUCache} per kind of entries.
+ * Each region holds at most the number of entries given by the command line option <code>--cache-size</code>.
+ *
+ * The statistics of the regions, see {@link #getRegions()}, are logged at the end of the amplification.
+ */
 public class DSpotCache {
 
+	private final LRUCache<String, TestFrameworkSupport> frameworkCache;
+
+	private final LRUCache<String, Map<String, IsAssertInvocationFilter.Status[]>> assertionCache;
+
+	private final LRUCache<String, Map<Class<?>, List<Object>>> literalCache;
+
+	private final LRUCache<CtMethod<?>, Long> fingerprintCache;
+
 	private DSpotCache(long cacheSize) {
-		CacheManager cacheManager = CacheManagerBuilder.newCacheManagerBuilder()
-				.withCache("frameworkCache",
-						CacheConfigurationBuilder.newCacheConfigurationBuilder(
-								String.class,
-								TestFrameworkSupport.class,
-								ResourcePoolsBuilder.heap(cacheSize).build()
-						)
-				)
-				.build(true);
-		frameworkCache = cacheManager.getCache("frameworkCache", String.class, TestFrameworkSupport.class);
+		this.frameworkCache = new LRUCache<>("test framework support", cacheSize);
+		this.assertionCache = new LRUCache<>("assertion detection", cacheSize);
+		this.literalCache = new LRUCache<>("literal pool", cacheSize);
+		this.fingerprintCache = LRUCache.byWeakIdentity("test method fingerprint", cacheSize);
 	}
 
 	public static void init(long cacheSize) {
 		_instance = new DSpotCache(cacheSize);
 	}
-	private Cache<String, TestFrameworkSupport> frameworkCache;
 
-	private static DSpotCache _instance;
+	// the cache is usable before init(long) is called, e.g. in unit tests, with the default size of --cache-size
+	private static DSpotCache _instance = new DSpotCache(10000L);
 
-	public static Cache<String, TestFrameworkSupport> getTestFrameworkCache() {
-		if (_instance == null) {
-			System.err.println("Must use at least one time init(long) method");
-			return null;
-		}
+	/**
+	 * @return the test framework support of each test method, by its qualified name
+	 */
+	public static LRUCache<String, TestFrameworkSupport> getTestFrameworkCache() {
 		return _instance.frameworkCache;
 	}
 
+	/**
+	 * @return the status of the executables of each declaring type, per {@link IsAssertInvocationFilter}
+	 */
+	public static LRUCache<String, Map<String, IsAssertInvocationFilter.Status[]>> getAssertionCache() {
+		return _instance.assertionCache;
+	}
+
+	/**
+	 * @return the literals of the types of each package, grouped by their class, used by the literal amplifiers
+	 */
+	public static LRUCache<String, Map<Class<?>, List<Object>>> getLiteralCache() {
+		return _instance.literalCache;
+	}
+
+	/**
+	 * @return the fingerprint of each test method, compared by identity.
+	 * The test methods are weakly referenced, the cache does not keep the discarded test methods in memory.
+	 */
+	public static LRUCache<CtMethod<?>, Long> getFingerprintCache() {
+		return _instance.fingerprintCache;
+	}
+
+	public static List<LRUCache<?, ?>> getRegions() {
+		return Arrays.asList(_instance.frameworkCache,
+				_instance.assertionCache,
+				_instance.literalCache,
+				_instance.fingerprintCache
+		);
+	}
+
 	public static void reset() {
-		if (_instance == null) {
-			System.err.println("Must use at least one time init(long) method");
-		} else {
-			_instance.frameworkCache.clear();
-		}
+		getRegions().forEach(LRUCache::clear);
 	}
 }
@@ -3,6 +3,7 @@ package eu.stamp_project.dspot.common.configuration;
 import eu.stamp_project.dspot.common.automaticbuilder.AutomaticBuilder;
 import eu.stamp_project.dspot.DSpot;
 import eu.stamp_project.dspot.assertiongenerator.AssertionGenerator;
+import eu.stamp_project.dspot.amplifier.AmplifiedTestDeduplicator;
 import eu.stamp_project.dspot.amplifier.InputAmplDistributor;
 import eu.stamp_project.dspot.selector.TestSelector;
 import eu.stamp_project.dspot.common.collector.Collector;
@@ -34,6 +35,7 @@ public class DSpotState {
     private List<String> testMethodsToBeAmplifiedNames;
     private TestSelector testSelector;
     private InputAmplDistributor inputAmplDistributor;
+    private AmplifiedTestDeduplicator amplifiedTestDeduplicator;
     private boolean onlyInputAmplification;
     private Output output;
     private Collector collector;
@@ -63,7 +65,23 @@ public class DSpotState {
      * it is cleared before iterating again for next test class.
      */
     public void clearData(){
-        this.assertionGenerator = new AssertionGenerator(delta, this.compiler, this.testCompiler);
+        this.assertionGenerator = new AssertionGenerator(
+                delta,
+                this.compiler,
+                this.testCompiler,
+                this.userInput.shouldUseSinglePassObservation(),
+                this.userInput.getNumberOfObservationReruns()
+        );
+    }
+
+    /**
+     * @return true if the test classes are amplified concurrently, i.e. if several test classes are to be amplified
+     * and the user asked for more than one test class in parallel
+     */
+    public boolean shouldAmplifyTestClassesConcurrently() {
+        return this.userInput.getNumberOfParallelTestClasses() > 1 &&
+                this.testClassesToBeAmplified != null &&
+                this.testClassesToBeAmplified.size() > 1;
     }
 
     public boolean isOnlyInputAmplification() {
@@ -122,6 +140,17 @@ public class DSpotState {
         this.inputAmplDistributor = inputAmplDistributor;
     }
 
+    /**
+     * @return the deduplicator of the amplified test methods, null if the amplified test methods are not deduplicated
+     */
+    public AmplifiedTestDeduplicator getAmplifiedTestDeduplicator() {
+        return amplifiedTestDeduplicator;
+    }
+
+    public void setAmplifiedTestDeduplicator(AmplifiedTestDeduplicator amplifiedTestDeduplicator) {
+        this.amplifiedTestDeduplicator = amplifiedTestDeduplicator;
+    }
+
     public Output getOutput() {
         return output;
     }
@@ -1,5 +1,7 @@
 package eu.stamp_project.dspot.common.configuration;
 
+import eu.stamp_project.dspot.amplifier.AmplifiedTestDeduplicator;
+import eu.stamp_project.dspot.amplifier.InputAmplDistributor;
 import eu.stamp_project.dspot.amplifier.amplifiers.utils.RandomHelper;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.CloneHelper;
@@ -13,10 +15,15 @@ import eu.stamp_project.dspot.common.collector.CollectorFactory;
 import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
 import eu.stamp_project.dspot.common.compilation.TestCompiler;
 import eu.stamp_project.dspot.common.configuration.options.AmplifierEnum;
+import eu.stamp_project.dspot.common.execution.daemon.TestRunnerDaemonClient;
+import eu.stamp_project.dspot.common.execution.daemon.TestRunnerPool;
 import eu.stamp_project.dspot.common.configuration.check.Checker;
 import eu.stamp_project.dspot.common.report.output.Output;
 import eu.stamp_project.dspot.common.collector.smtp.EmailSender;
 import eu.stamp_project.dspot.common.configuration.test_finder.TestFinder;
+import eu.stamp_project.dspot.selector.AbstractTestSelector;
+import eu.stamp_project.dspot.selector.PitMutantScoreSelector;
+import eu.stamp_project.dspot.selector.TestSelector;
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
@@ -26,6 +33,7 @@ import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class InitializeDSpot {
@@ -53,15 +61,7 @@ public class InitializeDSpot {
         ));
         userInput.setFactory(DSpotState.getCompiler().getLauncher().getFactory());
         initHelpers(userInput);
-        DSpotState.setTestCompiler(new TestCompiler(
-                userInput.getNumberParallelExecutionProcessors(),
-                userInput.shouldExecuteTestsInParallel(),
-                userInput.getAbsolutePathToProjectRoot(),
-                userInput.getClasspathClassesProject(),
-                userInput.getTimeOutInMs(),
-                userInput.getPreGoalsTestExecution(),
-                userInput.shouldUseMavenToExecuteTest()
-        ));
+        DSpotState.setTestCompiler(createTestCompiler(userInput));
         final EmailSender emailSender = new EmailSender(
                 userInput.getSmtpUsername(),
                 userInput.getSmtpPassword(),
@@ -86,22 +86,17 @@ public class InitializeDSpot {
             DSpotState.getTestMethodsToBeAmplifiedNames().clear();
         }
         DSpotState.setTestSelector(userInput.getSelector().buildSelector(DSpotState.getAutomaticBuilder(), userInput));
-        final List<Amplifier> amplifiers = userInput
-                .getAmplifiers()
-                .stream()
-                .map(AmplifierEnum::getAmplifier)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        DSpotState.setInputAmplDistributor(userInput
-                .getInputAmplDistributor()
-                .getInputAmplDistributor(userInput.getMaxTestAmplified(), amplifiers));
+        DSpotState.setInputAmplDistributor(createInputAmplDistributor(userInput, AmplifierEnum::getAmplifier));
+        if (userInput.shouldDeduplicateAmplifiedTests()) {
+            DSpotState.setAmplifiedTestDeduplicator(new AmplifiedTestDeduplicator());
+        }
         DSpotState.setOutput(new Output(
                 userInput.getAbsolutePathToProjectRoot(),
                 userInput.getOutputDirectory(),
                 DSpotState.getCollector()
 
         ));
-        DSpotState.setAssertionGenerator(new AssertionGenerator(userInput.getDelta(), DSpotState.getCompiler(), DSpotState.getTestCompiler()));
+        DSpotState.setAssertionGenerator(createAssertionGenerator(userInput, DSpotState));
         Checker.postChecking(userInput);
         DSpotState.setCollectData(true);
         DSpotState.setDelta(userInput.getDelta());
@@ -109,6 +104,106 @@ public class InitializeDSpot {
         DSpotState.verbose = userInput.isVerbose();
     }
 
+    /**
+     * Initializes the state of a worker, that amplifies test classes concurrently with the other workers.
+     * The worker shares the Spoon model, the automatic builder, the reports and the output of the given state,
+     * but it has its own compiler, test runner, test selector, amplifiers and assertion generator,
+     * since they keep a state about the test class under amplification.
+     *
+     * @param sharedState the state initialized by {@link #init(UserInput)}
+     * @param index       the index of the worker
+     * @return the state of the worker
+     */
+    public DSpotState initWorker(DSpotState sharedState, int index) {
+        final UserInput userInput = sharedState.getUserInput();
+        final DSpotState workerState = new DSpotState();
+        workerState.setUserInput(userInput);
+        workerState.setOnlyInputAmplification(sharedState.isOnlyInputAmplification());
+        workerState.setStartTime(sharedState.getStartTime());
+        workerState.setTestFinder(sharedState.getTestFinder());
+        workerState.setAutomaticBuilder(sharedState.getAutomaticBuilder());
+        workerState.setCompiler(sharedState.getCompiler().createWorkerCompiler(index));
+        workerState.setTestCompiler(createTestCompiler(userInput));
+        workerState.setCollector(sharedState.getCollector());
+        workerState.setTestClassesToBeAmplified(sharedState.getTestClassesToBeAmplified());
+        workerState.setTestMethodsToBeAmplifiedNames(sharedState.getTestMethodsToBeAmplifiedNames());
+        workerState.setTestSelector(createWorkerTestSelector(sharedState, index));
+        workerState.setInputAmplDistributor(createInputAmplDistributor(userInput, AmplifierEnum::createAmplifier));
+        workerState.setAmplifiedTestDeduplicator(sharedState.getAmplifiedTestDeduplicator());
+        workerState.setOutput(sharedState.getOutput());
+        workerState.setAssertionGenerator(createAssertionGenerator(userInput, workerState));
+        workerState.setCollectData(sharedState.isCollectData());
+        workerState.setDelta(sharedState.getDelta());
+        workerState.setNbIteration(sharedState.getNbIteration());
+        return workerState;
+    }
+
+    // the results of PIT on the original test suite are computed once, by the selector of the shared state
+    private TestSelector createWorkerTestSelector(DSpotState sharedState, int index) {
+        final UserInput userInput = sharedState.getUserInput();
+        final TestSelector testSelector;
+        if (sharedState.getTestSelector() instanceof PitMutantScoreSelector) {
+            testSelector = ((PitMutantScoreSelector) sharedState.getTestSelector()).createWorkerSelector(userInput);
+        } else {
+            testSelector = userInput.getSelector().buildSelector(sharedState.getAutomaticBuilder(), userInput);
+        }
+        if (testSelector instanceof AbstractTestSelector) {
+            ((AbstractTestSelector) testSelector).setPathToAmplifiedTestSrc(DSpotCompiler.getPathToAmplifiedTestSrcOfWorker(index));
+        }
+        return testSelector;
+    }
+
+    private TestCompiler createTestCompiler(UserInput userInput) {
+        final TestCompiler testCompiler = new TestCompiler(
+                userInput.getNumberParallelExecutionProcessors(),
+                userInput.shouldExecuteTestsInParallel(),
+                userInput.getAbsolutePathToProjectRoot(),
+                userInput.getClasspathClassesProject(),
+                userInput.getTimeOutInMs(),
+                userInput.getPreGoalsTestExecution(),
+                userInput.shouldUseMavenToExecuteTest()
+        );
+        if (userInput.shouldUseTestRunnerDaemon()) {
+            testCompiler.getTestRunner().useDaemon(new TestRunnerDaemonClient(
+                    DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                    userInput.getOutputDirectory(),
+                    userInput.getAbsolutePathToTestClasses()
+            ));
+        }
+        if (userInput.getNumberOfTestRunnerJVMs() > 1) {
+            testCompiler.getTestRunner().usePool(new TestRunnerPool(
+                    userInput.getNumberOfTestRunnerJVMs(),
+                    DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                    userInput.getOutputDirectory(),
+                    userInput.getAbsolutePathToTestClasses()
+            ));
+        }
+        return testCompiler;
+    }
+
+    private InputAmplDistributor createInputAmplDistributor(UserInput userInput,
+                                                            Function<AmplifierEnum, Amplifier> amplifierProvider) {
+        final List<Amplifier> amplifiers = userInput
+                .getAmplifiers()
+                .stream()
+                .map(amplifierProvider)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return userInput
+                .getInputAmplDistributor()
+                .getInputAmplDistributor(userInput.getMaxTestAmplified(), amplifiers);
+    }
+
+    private AssertionGenerator createAssertionGenerator(UserInput userInput, DSpotState state) {
+        return new AssertionGenerator(
+                userInput.getDelta(),
+                state.getCompiler(),
+                state.getTestCompiler(),
+                userInput.shouldUseSinglePassObservation(),
+                userInput.getNumberOfObservationReruns()
+        );
+    }
+
     public void initHelpers(UserInput configuration) {
         TestFramework.init(configuration.getFactory());
         AmplificationHelper.init(
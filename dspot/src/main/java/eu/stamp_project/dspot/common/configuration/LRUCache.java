@@ -0,0 +1,204 @@
+package eu.stamp_project.dspot.common.configuration;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A bounded cache, that evicts its least recently used entry when it is full, used as a region of {@link DSpotCache}.
+ *
+ * It is thread-safe, and counts its hits, misses and evictions, to check whether the size given by the command line
+ * option <code>--cache-size</code> is right for a given project.
+ * The keys are compared either with {@link Object#equals(Object)}, or by identity, see {@link #byWeakIdentity(String, long)}.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class LRUCache<K, V> {
+
+    private final String name;
+
+    private final long maximumSize;
+
+    private final boolean compareKeysByWeakIdentity;
+
+    // the keys compared by identity that have been garbage collected, their entries are removed
+    private final ReferenceQueue<Object> collectedKeys = new ReferenceQueue<>();
+
+    private final LinkedHashMap<Object, V> entries;
+
+    private long numberOfHits;
+
+    private long numberOfMisses;
+
+    private long numberOfEvictions;
+
+    /**
+     * @param name        the name of the cache, used in its statistics
+     * @param maximumSize the maximum number of entries of the cache
+     */
+    public LRUCache(String name, long maximumSize) {
+        this(name, maximumSize, false);
+    }
+
+    private LRUCache(String name, long maximumSize, boolean compareKeysByWeakIdentity) {
+        this.name = name;
+        this.maximumSize = Math.max(1L, maximumSize);
+        this.compareKeysByWeakIdentity = compareKeysByWeakIdentity;
+        this.entries = new LinkedHashMap<Object, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, V> eldest) {
+                if (size() > LRUCache.this.maximumSize) {
+                    numberOfEvictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return a cache whose keys are compared by identity, e.g. for the elements of the Spoon model,
+     * whose {@link Object#equals(Object)} compares their structure.
+     * The keys are weakly referenced: the cache does not keep them in memory,
+     * and the entry of a key is removed once the key has been garbage collected.
+     */
+    public static <K, V> LRUCache<K, V> byWeakIdentity(String name, long maximumSize) {
+        return new LRUCache<>(name, maximumSize, true);
+    }
+
+    /**
+     * @return the value of the given key, or null if the cache does not contain it
+     */
+    public synchronized V get(K key) {
+        removeCollectedKeys();
+        final V value = this.entries.get(lookupKeyOf(key));
+        if (value == null) {
+            this.numberOfMisses++;
+        } else {
+            this.numberOfHits++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        removeCollectedKeys();
+        this.entries.put(this.compareKeysByWeakIdentity ? new WeakIdentityKey(key, this.collectedKeys) : key, value);
+    }
+
+    /**
+     * Returns the value of the given key, and computes it if the cache does not contain it.
+     * The value is computed outside of the lock of the cache, thus it can be computed more than once
+     * by concurrent threads, and the last one computed is kept.
+     *
+     * @param key      the key
+     * @param function computes the value of the key, it must not return null
+     * @return the value of the given key
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        final V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        final V computedValue = function.apply(key);
+        put(key, computedValue);
+        return computedValue;
+    }
+
+    public synchronized void remove(K key) {
+        removeCollectedKeys();
+        this.entries.remove(lookupKeyOf(key));
+    }
+
+    public synchronized void clear() {
+        removeCollectedKeys();
+        this.entries.clear();
+    }
+
+    public synchronized int size() {
+        removeCollectedKeys();
+        return this.entries.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        removeCollectedKeys();
+        return this.entries.isEmpty();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized long getNumberOfHits() {
+        return numberOfHits;
+    }
+
+    public synchronized long getNumberOfMisses() {
+        return numberOfMisses;
+    }
+
+    public synchronized long getNumberOfEvictions() {
+        return numberOfEvictions;
+    }
+
+    /**
+     * @return the fraction of the lookups that found their key, between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        final long numberOfLookups = this.numberOfHits + this.numberOfMisses;
+        return numberOfLookups == 0 ? 0.0D : (double) this.numberOfHits / numberOfLookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d/%d entries, hit rate %.2f%% (%d hit(s), %d miss(es)), %d eviction(s)",
+                this.name, this.entries.size(), this.maximumSize, 100 * getHitRate(),
+                this.numberOfHits, this.numberOfMisses, this.numberOfEvictions
+        );
+    }
+
+    private Object lookupKeyOf(K key) {
+        return this.compareKeysByWeakIdentity ? new WeakIdentityKey(key, null) : key;
+    }
+
+    private void removeCollectedKeys() {
+        Reference<?> collectedKey;
+        while ((collectedKey = this.collectedKeys.poll()) != null) {
+            this.entries.remove(collectedKey);
+        }
+    }
+
+    private static final class WeakIdentityKey extends WeakReference<Object> {
+
+        private final int hashCode;
+
+        private WeakIdentityKey(Object key, ReferenceQueue<Object> collectedKeys) {
+            super(key, collectedKeys);
+            this.hashCode = System.identityHashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WeakIdentityKey)) {
+                return false;
+            }
+            final Object key = this.get();
+            return key != null && key == ((WeakIdentityKey) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
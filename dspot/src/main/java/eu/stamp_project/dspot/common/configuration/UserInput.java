@@ -313,7 +313,8 @@ public class UserInput {
     @CommandLine.Option(
             names = "--cache-size",
             defaultValue = "10000",
-            description = "Specify the size of the memory cache in terms of the number of store entries" +
+            description = "Specify the size of the memory cache in terms of the number of store entries, per region of the cache." +
+                    " The number of entries, the hit rate and the number of evictions of each region are logged at the end of the amplification." +
                     " Default value: ${DEFAULT-VALUE}"
     )
     private Long cacheSize = 10000L;
@@ -362,6 +363,110 @@ public class UserInput {
     )
     private boolean executeTestsInParallel;
 
+    @CommandLine.Option(
+            names = "--use-test-runner-daemon",
+            defaultValue = "false",
+            description = "If enabled, DSpot executes the test methods in a long-lived JVM, that keeps the classes of the project loaded, " +
+                    "instead of starting a new JVM for each execution. Test classes are re-loaded for each execution. " +
+                    "If the daemon crashes or times out, it is restarted. After 3 failures, DSpot reports an error " +
+                    "and falls back to a new JVM for each execution. The output of the daemon is in the output directory. " +
+                    "This option is ignored for JUnit5 and when --use-maven-to-exe-test is enabled." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private boolean useTestRunnerDaemon;
+
+    @CommandLine.Option(
+            names = "--collect-coverage-in-daemon",
+            defaultValue = "false",
+            description = "If enabled, the selector JacocoCoverageSelector collects the coverage of the test methods " +
+                    "in a long-lived JVM, instead of starting a new JVM that instruments all the classes of the project for each execution. " +
+                    "The classes are instrumented once, when they are loaded, and the instrumented classes are cached in the output directory, " +
+                    "by hash of their class file. The coverage of each test method is collected by resetting the probes between two test methods. " +
+                    "If the daemon crashes or times out, it is restarted. After 3 failures, DSpot reports an error " +
+                    "and falls back to a new JVM for each execution. " +
+                    "This option is ignored for JUnit5." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private boolean collectCoverageInDaemon;
+
+    @CommandLine.Option(
+            names = "--nb-test-runner-jvms",
+            defaultValue = "1",
+            description = "Specify the number of JVMs used to execute the test methods of a test class. " +
+                    "If greater than 1, the test methods are split in shards of balanced durations, that are executed at the same time, " +
+                    "each test method still being executed alone in its JVM. " +
+                    "This option is ignored for JUnit5, when --use-maven-to-exe-test is enabled, and when running the instrumented test methods." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private int numberOfTestRunnerJVMs = 1;
+
+    @CommandLine.Option(
+            names = "--incremental-compilation",
+            defaultValue = "false",
+            description = "If enabled, DSpot compiles the amplified test classes in memory, one at the time, " +
+                    "and keeps the resolved classpath of the compiler between two compilations, " +
+                    "instead of compiling all the amplified test sources in a new compiler each time." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private boolean incrementalCompilation;
+
+    @CommandLine.Option(
+            names = "--deduplicate-amplified-tests",
+            defaultValue = "false",
+            description = "If enabled, DSpot discards the amplified test methods that are identical, " +
+                    "apart from their names, the names of their local variables and their comments, " +
+                    "to a test method already amplified or generated, before compiling them. " +
+                    "The test methods are remembered across iterations and test classes." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private boolean deduplicateAmplifiedTests;
+
+    @CommandLine.Option(
+            names = "--single-pass-observation",
+            defaultValue = "false",
+            description = "If enabled, DSpot runs each instrumented test method once to observe the values to assert, " +
+                    "then runs again only the test methods that have values to assert, in order to check that these values are deterministic, " +
+                    "instead of running three copies of each instrumented test method. See --nb-observation-reruns." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private boolean singlePassObservation;
+
+    @CommandLine.Option(
+            names = "--nb-observation-reruns",
+            defaultValue = "2",
+            description = "Specify the maximum number of times the instrumented test methods are run again, " +
+                    "when --single-pass-observation is enabled. " +
+                    "A test method is not run again as soon as all its observed values are known to be not deterministic." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private int numberOfObservationReruns = 2;
+
+    @CommandLine.Option(
+            names = "--nb-parallel-test-classes",
+            defaultValue = "1",
+            description = "Specify the number of test classes that are amplified concurrently. " +
+                    "Each of them is amplified in its own context, with its own working directories and its own test runner. " +
+                    "The amplification, the printing and the compilation of the test methods use the model of the project " +
+                    "one test class at a time, while the executions of tests of the other test classes go on. " +
+                    "The executions of tests that share the static configuration of the test runner, " +
+                    "i.e. that do not use the test runner daemon nor the pool of test runners, are done one at a time, " +
+                    "as are the executions of PIT." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private int numberOfParallelTestClasses = 1;
+
+    @CommandLine.Option(
+            names = "--pipeline-capacity",
+            defaultValue = "1",
+            description = "Specify the maximum number of batches of test methods that are in the amplification pipeline at the same time. " +
+                    "A batch is the amplification of one test method at one iteration. " +
+                    "With a capacity greater than 1, the input amplification of a batch overlaps the compilation, " +
+                    "the execution and the selection of the other batches. " +
+                    "With a capacity of 1, the iterations are run one after the other." +
+                    " Default value: ${DEFAULT-VALUE}"
+    )
+    private int pipelineCapacity = 1;
+
     @CommandLine.Option(
             names = "--nb-parallel-exe-processors",
             defaultValue = "0",
@@ -958,6 +1063,87 @@ public class UserInput {
         return executeTestsInParallel;
     }
 
+    public boolean shouldUseTestRunnerDaemon() {
+        return useTestRunnerDaemon;
+    }
+
+    public UserInput setUseTestRunnerDaemon(boolean useTestRunnerDaemon) {
+        this.useTestRunnerDaemon = useTestRunnerDaemon;
+        return this;
+    }
+
+    public boolean shouldCollectCoverageInDaemon() {
+        return collectCoverageInDaemon;
+    }
+
+    public UserInput setCollectCoverageInDaemon(boolean collectCoverageInDaemon) {
+        this.collectCoverageInDaemon = collectCoverageInDaemon;
+        return this;
+    }
+
+    public boolean shouldDeduplicateAmplifiedTests() {
+        return deduplicateAmplifiedTests;
+    }
+
+    public UserInput setDeduplicateAmplifiedTests(boolean deduplicateAmplifiedTests) {
+        this.deduplicateAmplifiedTests = deduplicateAmplifiedTests;
+        return this;
+    }
+
+    public boolean shouldUseSinglePassObservation() {
+        return singlePassObservation;
+    }
+
+    public UserInput setSinglePassObservation(boolean singlePassObservation) {
+        this.singlePassObservation = singlePassObservation;
+        return this;
+    }
+
+    public int getNumberOfObservationReruns() {
+        return numberOfObservationReruns;
+    }
+
+    public UserInput setNumberOfObservationReruns(int numberOfObservationReruns) {
+        this.numberOfObservationReruns = numberOfObservationReruns;
+        return this;
+    }
+
+    public int getNumberOfParallelTestClasses() {
+        return numberOfParallelTestClasses;
+    }
+
+    public UserInput setNumberOfParallelTestClasses(int numberOfParallelTestClasses) {
+        this.numberOfParallelTestClasses = numberOfParallelTestClasses;
+        return this;
+    }
+
+    public int getPipelineCapacity() {
+        return pipelineCapacity;
+    }
+
+    public UserInput setPipelineCapacity(int pipelineCapacity) {
+        this.pipelineCapacity = pipelineCapacity;
+        return this;
+    }
+
+    public int getNumberOfTestRunnerJVMs() {
+        return numberOfTestRunnerJVMs;
+    }
+
+    public UserInput setNumberOfTestRunnerJVMs(int numberOfTestRunnerJVMs) {
+        this.numberOfTestRunnerJVMs = numberOfTestRunnerJVMs;
+        return this;
+    }
+
+    public boolean shouldUseIncrementalCompilation() {
+        return incrementalCompilation;
+    }
+
+    public UserInput setIncrementalCompilation(boolean incrementalCompilation) {
+        this.incrementalCompilation = incrementalCompilation;
+        return this;
+    }
+
     public int getNumberParallelExecutionProcessors() {
         if (this.numberParallelExecutionProcessors == 0) {
             this.numberParallelExecutionProcessors = Runtime.getRuntime().availableProcessors();
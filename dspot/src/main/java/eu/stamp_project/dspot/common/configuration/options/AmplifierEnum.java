@@ -2,30 +2,45 @@ package eu.stamp_project.dspot.common.configuration.options;
 
 import eu.stamp_project.dspot.amplifier.amplifiers.*;
 
+import java.util.function.Supplier;
+
 public enum AmplifierEnum {
 
-    MethodDuplicationAmplifier(new MethodDuplicationAmplifier()),
-    MethodRemove(new TestMethodCallRemover()),
-    FastLiteralAmplifier(new FastLiteralAmplifier()),
-    MethodAdderOnExistingObjectsAmplifier(new MethodAdderOnExistingObjectsAmplifier()),
-    ReturnValueAmplifier(new ReturnValueAmplifier()),
-    StringLiteralAmplifier(new StringLiteralAmplifier()),
-    NumberLiteralAmplifier(new NumberLiteralAmplifier()),
-    BooleanLiteralAmplifier(new BooleanLiteralAmplifier()),
-    CharLiteralAmplifier(new CharLiteralAmplifier()),
-    AllLiteralAmplifiers(new AllLiteralAmplifiers()),
-//    ReplacementAmplifier(new ReplacementAmplifier()),
-    NullifierAmplifier(new NullifierAmplifier()),
-    ArrayAmplifier(new ArrayLiteralAmplifier()),
-    None(null);
+    MethodDuplicationAmplifier(MethodDuplicationAmplifier::new),
+    MethodRemove(TestMethodCallRemover::new),
+    FastLiteralAmplifier(FastLiteralAmplifier::new),
+    MethodAdderOnExistingObjectsAmplifier(MethodAdderOnExistingObjectsAmplifier::new),
+    ReturnValueAmplifier(ReturnValueAmplifier::new),
+    StringLiteralAmplifier(StringLiteralAmplifier::new),
+    NumberLiteralAmplifier(NumberLiteralAmplifier::new),
+    BooleanLiteralAmplifier(BooleanLiteralAmplifier::new),
+    CharLiteralAmplifier(CharLiteralAmplifier::new),
+    AllLiteralAmplifiers(AllLiteralAmplifiers::new),
+//    ReplacementAmplifier(ReplacementAmplifier::new),
+    NullifierAmplifier(NullifierAmplifier::new),
+    ArrayAmplifier(ArrayLiteralAmplifier::new),
+    None(() -> null);
 
     private final Amplifier amplifier;
 
+    private final Supplier<Amplifier> amplifierSupplier;
+
     public Amplifier getAmplifier() {
         return this.amplifier;
     }
 
-    AmplifierEnum(Amplifier amplifier) {
-        this.amplifier = amplifier;
+    /**
+     * The amplifiers keep a state about the test class under amplification, <i>e.g.</i> its literals.
+     * Thus, each test class that is amplified concurrently with other test classes uses its own amplifiers.
+     *
+     * @return a new instance of the amplifier
+     */
+    public Amplifier createAmplifier() {
+        return this.amplifierSupplier.get();
+    }
+
+    AmplifierEnum(Supplier<Amplifier> amplifierSupplier) {
+        this.amplifierSupplier = amplifierSupplier;
+        this.amplifier = amplifierSupplier.get();
     }
 }
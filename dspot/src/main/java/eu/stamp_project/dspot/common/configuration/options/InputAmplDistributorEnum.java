@@ -1,5 +1,6 @@
 package eu.stamp_project.dspot.common.configuration.options;
 
+import eu.stamp_project.dspot.amplifier.MinHashInputAmplDistributor;
 import eu.stamp_project.dspot.amplifier.SimpleInputAmplDistributor;
 import eu.stamp_project.dspot.amplifier.TextualDistanceInputAmplDistributor;
 import eu.stamp_project.dspot.amplifier.amplifiers.Amplifier;
@@ -32,6 +33,12 @@ public enum InputAmplDistributorEnum {
         public InputAmplDistributor getInputAmplDistributor(int maxNumTest, List<Amplifier> amplifiers) {
             return new SimpleInputAmplDistributor(maxNumTest, amplifiers);
         }
+    },
+    MinHashInputAmplDistributor {
+        @Override
+        public InputAmplDistributor getInputAmplDistributor(int maxNumTest, List<Amplifier> amplifiers) {
+            return new MinHashInputAmplDistributor(maxNumTest, amplifiers);
+        }
     };
 
     public abstract InputAmplDistributor getInputAmplDistributor(int maxNumTest, List<Amplifier> amplifiers);
@@ -1,11 +1,14 @@
 package eu.stamp_project.dspot.common.execution;
 
 import eu.stamp_project.dspot.common.automaticbuilder.maven.DSpotPOMCreator;
+import eu.stamp_project.dspot.common.execution.daemon.TestRunnerDaemonClient;
+import eu.stamp_project.dspot.common.execution.daemon.TestRunnerPool;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationException;
 import eu.stamp_project.testrunner.listener.TestResult;
 import eu.stamp_project.testrunner.EntryPoint;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
+import eu.stamp_project.dspot.common.miscellaneous.ModelLock;
 
 import eu.stamp_project.dspot.common.configuration.DSpotState;
 import org.slf4j.Logger;
@@ -30,17 +33,75 @@ public class TestRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestRunner.class);
 
+    /**
+     * The configuration of EntryPoint is static, e.g. its timeout and its JUnit5 mode.
+     * Thus, when several test classes are amplified concurrently, each with its own test runner,
+     * the executions that depend on this configuration are done one at a time, holding this lock.
+     */
+    public static final Object ENTRY_POINT_LOCK = new Object();
+
     private String absolutePathToProjectRoot;
 
     private String preGoals;
 
     private boolean shouldUseMavenToExecuteTest;
 
+    private TestRunnerDaemonClient daemon;
+
+    private TestRunnerPool pool;
+
+    private int timeoutInMs = EntryPoint.timeoutInMs;
+
+    private boolean jUnit5Mode;
+
     public TestRunner(String absolutePathToProjectRoot, String preGoals, boolean shouldUseMavenToExecuteTest) {
         this.absolutePathToProjectRoot = absolutePathToProjectRoot;
         this.preGoals = preGoals;
         this.shouldUseMavenToExecuteTest = shouldUseMavenToExecuteTest;
         EntryPoint.verbose = DSpotState.verbose;
+        // the working directory is only changed to execute the tests through Maven, it must not leak from a previous run
+        EntryPoint.workingDirectory = null;
+    }
+
+    /**
+     * Run the test methods in the given long-lived JVM, when possible, instead of forking a new JVM each time.
+     * JUnit5 test classes, and executions through Maven, are still executed in a forked JVM.
+     *
+     * @param daemon the client of the daemon to be used
+     */
+    public void useDaemon(TestRunnerDaemonClient daemon) {
+        this.daemon = daemon;
+    }
+
+    /**
+     * Shard the test methods of a test class across the given pool of JVMs, when possible.
+     * JUnit5 test classes, and executions through Maven, are still executed in one forked JVM.
+     *
+     * @param pool the pool of JVMs to be used
+     */
+    public void usePool(TestRunnerPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param timeoutInMs the timeout of the next executions of test methods
+     */
+    public void setTimeoutInMs(int timeoutInMs) {
+        this.timeoutInMs = timeoutInMs;
+    }
+
+    /**
+     * @param jUnit5Mode true if the test classes to be executed are JUnit5 test classes
+     */
+    public void setJUnit5Mode(boolean jUnit5Mode) {
+        this.jUnit5Mode = jUnit5Mode;
+    }
+
+    // must be called holding ENTRY_POINT_LOCK
+    private void configureEntryPoint() {
+        EntryPoint.timeoutInMs = this.timeoutInMs;
+        EntryPoint.jUnit5Mode = this.jUnit5Mode;
+        DSpotPOMCreator.isCurrentlyJUnit5 = this.jUnit5Mode;
     }
 
     public TestResult runSubClassesForAbstractTestClass(CtType<?> testClass, List<CtMethod<?>> testsToRun, String classPath) throws AmplificationException {
@@ -51,13 +112,19 @@ public class TestRunner {
                     .filter(ctType -> ctType.getSuperclass() != null && testClass.getReference().equals(ctType.getSuperclass()))
                     .map(CtType::getQualifiedName)
                     .map(testClassName -> {
+                        final String[] testMethodNames = testsToRun.stream()
+                                .map(CtMethod::getSimpleName)
+                                .toArray(String[]::new);
                         try {
-                            return EntryPoint.runTests(
-                                    classPath + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies(),
-                                    testClassName,
-                                    testsToRun.stream()
-                                            .map(CtMethod::getSimpleName)
-                                            .toArray(String[]::new));
+                            return ModelLock.releaseWhile(() -> {
+                                synchronized (ENTRY_POINT_LOCK) {
+                                    this.configureEntryPoint();
+                                    return EntryPoint.runTests(
+                                            classPath + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                                            testClassName,
+                                            testMethodNames);
+                                }
+                            });
                         } catch (TimeoutException e) {
                             throw new RuntimeException(e);
                         }
@@ -75,7 +142,37 @@ public class TestRunner {
     }
 
     public TestResult runGivenTestMethods(CtType<?> testClass, List<CtMethod<?>> testsToRun, String classPath) throws AmplificationException {
+        return this.runGivenTestMethods(testClass, testsToRun, classPath, true);
+    }
+
+    /**
+     * @param allowSharding false if the test methods must be executed in the same JVM,
+     *                      e.g. because they share a state that is saved after all of them, such as the observations
+     */
+    public TestResult runGivenTestMethods(CtType<?> testClass,
+                                          List<CtMethod<?>> testsToRun,
+                                          String classPath,
+                                          boolean allowSharding) throws AmplificationException {
         try {
+            if (allowSharding && this.canShard(testsToRun.size())) {
+                final String[] testMethodNames = testsToRun.stream()
+                        .map(CtMethod::getSimpleName)
+                        .toArray(String[]::new);
+                try {
+                    return ModelLock.releaseWhile(() ->
+                            this.pool.run(classPath + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                                    testClass.getQualifiedName(),
+                                    testMethodNames,
+                                    this.timeoutInMs
+                            )
+                    );
+                } catch (Exception e) {
+                    LOGGER.warn("The pool of test runners could not run {} ({}), DSpot executes it in a single JVM.",
+                            testClass.getQualifiedName(),
+                            e.getMessage()
+                    );
+                }
+            }
             return this.run(classPath + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies(),
                     absolutePathToProjectRoot,
                     testClass.getQualifiedName(),
@@ -94,23 +191,54 @@ public class TestRunner {
         }
     }
 
+    private boolean canShard(int numberOfTestMethods) {
+        return this.pool != null &&
+                numberOfTestMethods > 1 &&
+                !shouldUseMavenToExecuteTest &&
+                !this.jUnit5Mode &&
+                this.pool.isAvailable();
+    }
+
+    /**
+     * Runs the given test methods, that must have been compiled, in another JVM.
+     * The Spoon model is not used meanwhile, see {@link ModelLock#releaseWhile(ModelLock.Execution)}.
+     */
     public TestResult run(String classpath, String rootPath, String fullQualifiedName, String... testToRun) throws TimeoutException {
+        return ModelLock.releaseWhile(() -> this.execute(classpath, rootPath, fullQualifiedName, testToRun));
+    }
+
+    private TestResult execute(String classpath, String rootPath, String fullQualifiedName, String... testToRun) throws TimeoutException {
         if (shouldUseMavenToExecuteTest) {
-            EntryPoint.workingDirectory = new File(rootPath);
-            eu.stamp_project.testrunner.maven.EntryPoint.preGoals = preGoals;
-            return eu.stamp_project.testrunner.maven.EntryPoint.runTestsSpecificPom(
-                    rootPath,
-                    fullQualifiedName,
-                    DSpotPOMCreator.getPOMName(),
-                    testToRun
-            );
+            synchronized (ENTRY_POINT_LOCK) {
+                this.configureEntryPoint();
+                EntryPoint.workingDirectory = new File(rootPath);
+                eu.stamp_project.testrunner.maven.EntryPoint.preGoals = preGoals;
+                return eu.stamp_project.testrunner.maven.EntryPoint.runTestsSpecificPom(
+                        rootPath,
+                        fullQualifiedName,
+                        DSpotPOMCreator.getPOMName(),
+                        testToRun
+                );
+            }
         } else {
-            return EntryPoint.runTests(
-                    classpath,
-                    fullQualifiedName,
-                    testToRun
-
-            );
+            if (this.daemon != null && this.daemon.isAvailable() && !this.jUnit5Mode) {
+                try {
+                    return this.daemon.run(classpath, fullQualifiedName, testToRun, this.timeoutInMs);
+                } catch (Exception e) {
+                    LOGGER.warn("The test runner daemon could not run {} ({}), DSpot executes it in a forked JVM.",
+                            fullQualifiedName,
+                            e.getMessage()
+                    );
+                }
+            }
+            synchronized (ENTRY_POINT_LOCK) {
+                this.configureEntryPoint();
+                return EntryPoint.runTests(
+                        classpath,
+                        fullQualifiedName,
+                        testToRun
+                );
+            }
         }
     }
 
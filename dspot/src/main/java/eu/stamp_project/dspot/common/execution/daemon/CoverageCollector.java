@@ -0,0 +1,484 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.IMethodCoverage;
+import org.jacoco.core.analysis.ISourceNode;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.IExecutionDataAccessorGenerator;
+import org.jacoco.core.runtime.RuntimeData;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the instruction coverage of test methods in the JVM of the {@link TestRunnerDaemon}.
+ *
+ * The classes of the target folders are instrumented by JaCoCo when they are loaded, and the instrumented bytecode
+ * is cached on disk, by hash of the original class file. Thus, a class is instrumented once, whatever the number of
+ * executions, of daemons and of runs of DSpot, as long as its class file does not change.
+ * The classes of the target folders that are not reloaded, i.e. the classes of the project, are loaded once per daemon,
+ * by a class loader that is kept between two requests. The coverage of each test method is the execution data collected
+ * between its start and its end: the probes are reset before each test method.
+ * Since the classes of the project stay loaded, their static initializers are covered by the first request only,
+ * except for the requests of the coverage of a whole test class, that use a new class loader.
+ *
+ * The request is: the target folders, the folder of the cache, the classpath to be reloaded,
+ * the full qualified name of the test class and the names of the test methods.
+ * The answer is a {@link Response}, that contains the coverage of the whole execution and of each test method.
+ * The coverage is given as the probes of the executed classes, that are set if the corresponding instructions have been executed.
+ *
+ * This class is executed in the JVM of the project, see {@link TestRunnerDaemon}. It also depends on JaCoCo.
+ */
+public class CoverageCollector {
+
+    private static final String DAEMON_PACKAGE = CoverageCollector.class.getPackage().getName() + ".";
+
+    private final Instrumenter instrumenter = new Instrumenter(new CoverageRuntime.AccessGenerator());
+
+    // number of instructions of the class files, by hash
+    private final Map<String, Integer> numberOfInstructionsPerClassFile = new ConcurrentHashMap<>();
+
+    private File cacheDirectory;
+
+    private List<String> targetEntriesOfProject;
+
+    private InstrumentingClassLoader classLoaderOfProject;
+
+    private int numberOfInstructionsOfProject;
+
+    Serializable run(String[] request) throws Exception {
+        this.cacheDirectory = new File(request[1], JaCoCo.VERSION);
+        final Set<String> reloadableEntries = new HashSet<>();
+        for (String entry : request[2].split(File.pathSeparator)) {
+            reloadableEntries.add(new File(entry).getAbsolutePath());
+        }
+        final List<String> targetEntriesOfProject = new ArrayList<>();
+        final Set<String> reloadableTargetEntries = new HashSet<>();
+        for (String entry : request[0].split(File.pathSeparator)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            final String absoluteEntry = new File(entry).getAbsolutePath();
+            if (reloadableEntries.contains(absoluteEntry)) {
+                reloadableTargetEntries.add(absoluteEntry);
+            } else {
+                targetEntriesOfProject.add(absoluteEntry);
+            }
+        }
+        if (!targetEntriesOfProject.equals(this.targetEntriesOfProject)) {
+            if (this.classLoaderOfProject != null) {
+                this.classLoaderOfProject.close();
+            }
+            this.classLoaderOfProject = createClassLoaderOfProject(targetEntriesOfProject);
+            this.numberOfInstructionsOfProject = getNumberOfInstructions(targetEntriesOfProject);
+            this.targetEntriesOfProject = targetEntriesOfProject;
+        }
+        final int numberOfInstructions = this.numberOfInstructionsOfProject + getNumberOfInstructions(reloadableTargetEntries);
+        final String[] testMethodNames = Arrays.copyOfRange(request, 4, request.length);
+        // the coverage of the whole test class is collected as in a new JVM, i.e. with the static initializers,
+        // the instrumented classes of the project are then loaded again, from the cache
+        final InstrumentingClassLoader classLoaderOfProject = testMethodNames.length == 0 ?
+                createClassLoaderOfProject(targetEntriesOfProject) : this.classLoaderOfProject;
+        try (InstrumentingClassLoader classLoader = new InstrumentingClassLoader(
+                TestRunnerDaemon.toURLs(request[2].split(File.pathSeparator)),
+                reloadableTargetEntries,
+                classLoaderOfProject)) {
+            final CoverageListener listener = new CoverageListener();
+            CoverageRuntime.DATA.reset();
+            final TestRunnerDaemon.Response response = TestRunnerDaemon.runTests(classLoader,
+                    request[3],
+                    testMethodNames,
+                    listener
+            );
+            listener.collect(listener.executionData);
+            final HashMap<String, Result> coveragePerTestMethod = new HashMap<>();
+            for (Map.Entry<String, ExecutionDataStore> entry : listener.executionDataPerTestMethod.entrySet()) {
+                coveragePerTestMethod.put(entry.getKey(), analyze(entry.getValue(), numberOfInstructions, classLoader));
+            }
+            return new Response(response,
+                    analyze(listener.executionData, numberOfInstructions, classLoader),
+                    coveragePerTestMethod
+            );
+        } finally {
+            if (classLoaderOfProject != this.classLoaderOfProject) {
+                classLoaderOfProject.close();
+            }
+        }
+    }
+
+    private InstrumentingClassLoader createClassLoaderOfProject(List<String> targetEntriesOfProject) throws IOException {
+        return new InstrumentingClassLoader(
+                TestRunnerDaemon.toURLs(targetEntriesOfProject.toArray(new String[0])),
+                new HashSet<>(targetEntriesOfProject),
+                TestRunnerDaemon.class.getClassLoader()
+        );
+    }
+
+    private Result analyze(ExecutionDataStore executionData,
+                           int numberOfInstructions,
+                           InstrumentingClassLoader classLoader) throws IOException {
+        final CoverageBuilder coverageBuilder = new CoverageBuilder();
+        final Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
+        final HashMap<String, boolean[]> probesPerClass = new HashMap<>();
+        for (ExecutionData data : executionData.getContents()) {
+            final byte[] classFile = classLoader.getOriginalClassFile(data.getName());
+            if (classFile != null) {
+                analyzer.analyzeClass(classFile, data.getName());
+                probesPerClass.put(data.getName(), data.getProbes().clone());
+            }
+        }
+        int instructionsCovered = 0;
+        for (IClassCoverage coverage : coverageBuilder.getClasses()) {
+            for (ICounter instructions : getInstructionsPerLine(coverage)) {
+                instructionsCovered += instructions.getCoveredCount();
+            }
+        }
+        return new Result(instructionsCovered, numberOfInstructions, probesPerClass);
+    }
+
+    /*
+        The instructions of each line of each method, except the static initializer, as the test runner counts them:
+        the lines of a class that are not in a method are not counted, and the lines shared by two methods,
+        e.g. a field initialized in the declaration, are counted once per method.
+     */
+    private static List<ICounter> getInstructionsPerLine(IClassCoverage coverage) {
+        final List<ICounter> instructionsPerLine = new ArrayList<>();
+        for (IMethodCoverage method : coverage.getMethods()) {
+            if ("<clinit>".equals(method.getName()) || method.getFirstLine() == ISourceNode.UNKNOWN_LINE) {
+                continue;
+            }
+            for (int line = method.getFirstLine(); line <= method.getLastLine(); line++) {
+                instructionsPerLine.add(method.getLine(line).getInstructionCounter());
+            }
+        }
+        return instructionsPerLine;
+    }
+
+    private int getNumberOfInstructions(Iterable<String> entries) throws IOException {
+        int numberOfInstructions = 0;
+        for (String entry : entries) {
+            numberOfInstructions += getNumberOfInstructions(new File(entry));
+        }
+        return numberOfInstructions;
+    }
+
+    private int getNumberOfInstructions(File file) throws IOException {
+        if (file.isDirectory()) {
+            int numberOfInstructions = 0;
+            final File[] children = file.listFiles();
+            if (children != null) {
+                for (File child : children) {
+                    numberOfInstructions += getNumberOfInstructions(child);
+                }
+            }
+            return numberOfInstructions;
+        }
+        if (!file.getName().endsWith(".class")) {
+            return 0;
+        }
+        final byte[] classFile = Files.readAllBytes(file.toPath());
+        final String hash = hash(classFile);
+        final Integer numberOfInstructions = this.numberOfInstructionsPerClassFile.get(hash);
+        if (numberOfInstructions != null) {
+            return numberOfInstructions;
+        }
+        final CoverageBuilder coverageBuilder = new CoverageBuilder();
+        new Analyzer(new ExecutionDataStore(), coverageBuilder).analyzeClass(classFile, file.getPath());
+        final int total = coverageBuilder.getClasses()
+                .stream()
+                .map(CoverageCollector::getInstructionsPerLine)
+                .flatMap(List::stream)
+                .mapToInt(ICounter::getTotalCount)
+                .sum();
+        this.numberOfInstructionsPerClassFile.put(hash, total);
+        return total;
+    }
+
+    // returns the instrumented class file, from the cache if the same class file has already been instrumented
+    private byte[] instrument(byte[] classFile, String className) throws IOException {
+        final File instrumentedClassFile = new File(this.cacheDirectory, hash(classFile) + ".class");
+        if (instrumentedClassFile.isFile()) {
+            return Files.readAllBytes(instrumentedClassFile.toPath());
+        }
+        final byte[] instrumented = this.instrumenter.instrument(classFile, className);
+        // other daemons might use the cache at the same time: the class file is written in a temporary file first
+        this.cacheDirectory.mkdirs();
+        final File temporaryFile = File.createTempFile("instrumented", ".tmp", this.cacheDirectory);
+        try {
+            Files.write(temporaryFile.toPath(), instrumented);
+            Files.move(temporaryFile.toPath(), instrumentedClassFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the output of the daemon is in its log, see TestRunnerDaemonClient
+            System.err.println("WARN The instrumented class file of " + className +
+                    " could not be written in the cache " + this.cacheDirectory + ": " + e);
+            temporaryFile.delete();
+        }
+        return instrumented;
+    }
+
+    private static String hash(byte[] classFile) {
+        try {
+            final StringBuilder hash = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(classFile)) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * The runtime called by the instrumented classes to get their probes.
+     */
+    public static class CoverageRuntime {
+
+        static final RuntimeData DATA = new RuntimeData();
+
+        public static boolean[] getProbes(long classId, String className, int probeCount) {
+            return DATA.getExecutionData(classId, className, probeCount).getProbes();
+        }
+
+        /**
+         * Generates the call to {@link #getProbes(long, String, int)} in the instrumented classes,
+         * as JaCoCo's OfflineInstrumentationAccessGenerator does for its own runtime.
+         */
+        static class AccessGenerator implements IExecutionDataAccessorGenerator {
+
+            @Override
+            public int generateDataAccessor(long classId, String className, int probeCount, MethodVisitor methodVisitor) {
+                methodVisitor.visitLdcInsn(classId);
+                methodVisitor.visitLdcInsn(className);
+                methodVisitor.visitLdcInsn(probeCount);
+                methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC,
+                        CoverageRuntime.class.getName().replace('.', '/'),
+                        "getProbes",
+                        "(JLjava/lang/String;I)[Z",
+                        false
+                );
+                // the long, the string and the int on the stack
+                return 4;
+            }
+        }
+    }
+
+    /**
+     * The instruction coverage of an execution: the numbers of covered and of total instructions,
+     * and either the execution path, as given by the test runner, or the probes of JaCoCo, as collected by the daemon.
+     */
+    public static class Result implements Serializable {
+
+        private static final long serialVersionUID = 2L;
+
+        private final int instructionsCovered;
+
+        private final int instructionsTotal;
+
+        private final String executionPath;
+
+        private final HashMap<String, boolean[]> probesPerClass;
+
+        /**
+         * @param executionPath the execution path given by the test runner
+         */
+        public Result(int instructionsCovered, int instructionsTotal, String executionPath) {
+            this.instructionsCovered = instructionsCovered;
+            this.instructionsTotal = instructionsTotal;
+            this.executionPath = executionPath;
+            this.probesPerClass = null;
+        }
+
+        /**
+         * @param probesPerClass the probes of JaCoCo of each executed class, by VM name
+         */
+        public Result(int instructionsCovered, int instructionsTotal, HashMap<String, boolean[]> probesPerClass) {
+            this.instructionsCovered = instructionsCovered;
+            this.instructionsTotal = instructionsTotal;
+            this.executionPath = null;
+            this.probesPerClass = probesPerClass;
+        }
+
+        public int getInstructionsCovered() {
+            return instructionsCovered;
+        }
+
+        public int getInstructionsTotal() {
+            return instructionsTotal;
+        }
+
+        /**
+         * @return the execution path given by the test runner, or null if the coverage has been collected by the daemon
+         */
+        public String getExecutionPath() {
+            return executionPath;
+        }
+
+        /**
+         * @return the probes of each executed class, or null if the coverage has been collected by the test runner
+         */
+        public Map<String, boolean[]> getProbesPerClass() {
+            return probesPerClass;
+        }
+    }
+
+    /**
+     * The answer to a coverage request: the result of the test methods, the coverage of the whole execution,
+     * and the coverage of each test method, the instances of a parametrized test method being merged.
+     */
+    public static class Response extends TestRunnerDaemon.Response {
+
+        private static final long serialVersionUID = 1L;
+
+        public final Result coverage;
+
+        public final HashMap<String, Result> coveragePerTestMethod;
+
+        Response(TestRunnerDaemon.Response response, Result coverage, HashMap<String, Result> coveragePerTestMethod) {
+            super(response.testResult, response.durationsInMs);
+            this.coverage = coverage;
+            this.coveragePerTestMethod = coveragePerTestMethod;
+        }
+    }
+
+    /**
+     * Collects the execution data of each test method, and of the whole execution.
+     */
+    static class CoverageListener extends RunListener {
+
+        private final ExecutionDataStore executionData = new ExecutionDataStore();
+
+        private final Map<String, ExecutionDataStore> executionDataPerTestMethod = new HashMap<>();
+
+        @Override
+        public void testStarted(Description description) {
+            // what has been executed since the end of the previous test method, e.g. in a @BeforeClass
+            collect(this.executionData);
+        }
+
+        @Override
+        public void testFinished(Description description) {
+            if (description.getMethodName() == null) {
+                return;
+            }
+            collect(this.executionData, this.executionDataPerTestMethod.computeIfAbsent(
+                    TestRunnerDaemon.MethodNameFilter.removeParameters(description.getMethodName()),
+                    methodName -> new ExecutionDataStore()
+            ));
+        }
+
+        // adds the execution data since the last collect to the given stores, and resets the probes
+        private void collect(ExecutionDataStore... stores) {
+            CoverageRuntime.DATA.collect(data -> {
+                if (data.hasHits()) {
+                    for (ExecutionDataStore store : stores) {
+                        store.visitClassExecution(new ExecutionData(data.getId(), data.getName(), data.getProbes().clone()));
+                    }
+                }
+            }, sessionInfo -> {
+            }, true);
+        }
+    }
+
+    /**
+     * Loads the instrumented version of the classes of the given target entries.
+     * The classes of the daemon, such as the {@link CoverageRuntime}, are always loaded by the parent class loader,
+     * in order to share the same execution data.
+     */
+    class InstrumentingClassLoader extends TestRunnerDaemon.ChildFirstClassLoader {
+
+        private final Set<String> targetEntries;
+
+        // the original class files of the instrumented classes, by VM name
+        private final Map<String, byte[]> originalClassFiles = new ConcurrentHashMap<>();
+
+        InstrumentingClassLoader(URL[] urls, Set<String> targetEntries, ClassLoader parent) {
+            super(urls, parent);
+            this.targetEntries = targetEntries;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.startsWith(DAEMON_PACKAGE)) {
+                return getParent().loadClass(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            final String vmName = name.replace('.', '/');
+            final URL resource = findResource(vmName + ".class");
+            if (resource == null || !isInstrumented(resource)) {
+                return super.findClass(name);
+            }
+            try (InputStream stream = resource.openStream()) {
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                int readBytes;
+                while ((readBytes = stream.read(buffer)) > 0) {
+                    output.write(buffer, 0, readBytes);
+                }
+                final byte[] classFile = output.toByteArray();
+                final byte[] instrumented = instrument(classFile, vmName);
+                this.originalClassFiles.put(vmName, classFile);
+                final int indexOfPackage = name.lastIndexOf('.');
+                if (indexOfPackage > 0 && getPackage(name.substring(0, indexOfPackage)) == null) {
+                    definePackage(name.substring(0, indexOfPackage), null, null, null, null, null, null, null);
+                }
+                return defineClass(name, instrumented, 0, instrumented.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        private boolean isInstrumented(URL resource) {
+            if (!"file".equals(resource.getProtocol())) {
+                return false;
+            }
+            final String path;
+            try {
+                path = new File(resource.toURI()).getAbsolutePath();
+            } catch (URISyntaxException e) {
+                return false;
+            }
+            return this.targetEntries.stream().anyMatch(entry -> path.startsWith(entry + File.separator));
+        }
+
+        // looks for the class file in this class loader first, then in its parent
+        private byte[] getOriginalClassFile(String vmName) {
+            final byte[] classFile = this.originalClassFiles.get(vmName);
+            if (classFile == null && getParent() instanceof InstrumentingClassLoader) {
+                return ((InstrumentingClassLoader) getParent()).getOriginalClassFile(vmName);
+            }
+            return classFile;
+        }
+    }
+}
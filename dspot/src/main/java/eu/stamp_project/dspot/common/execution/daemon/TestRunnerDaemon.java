@@ -0,0 +1,248 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.notification.RunListener;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.InetAddress;
+import java.net.MalformedURLException;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Long-lived JVM that runs test methods on demand of {@link TestRunnerDaemonClient}.
+ * The classpath of this JVM contains the classes and the dependencies of the project, which are loaded once.
+ * The test classes, that are modified by DSpot, are loaded for each request by a new child class loader.
+ *
+ * This class is executed in the JVM of the project, and thus it is copied, compiled,
+ * in the dspot dependencies folder of the project. It must only depend on JUnit and on the test runner.
+ *
+ * The protocol is the following: the daemon connects to the given port on the loopback address, then it reads requests
+ * as String arrays: the classpath to be reloaded, the full qualified name of the test class and the names of the test methods to run.
+ * It answers each request with a {@link Response}, i.e. the {@link eu.stamp_project.testrunner.listener.TestResult}
+ * and the duration of each test method, or with a String describing the error.
+ * A request that starts with {@link #COVERAGE_REQUEST} also collects the coverage of the test methods, see {@link CoverageCollector}.
+ * An empty request, or the end of the stream, stops the daemon.
+ */
+public class TestRunnerDaemon {
+
+    /**
+     * The first element of a request that asks for the coverage of the test methods, see {@link CoverageCollector}.
+     */
+    public static final String COVERAGE_REQUEST = "--coverage";
+
+    // created on the first coverage request, since it needs JaCoCo
+    private static CoverageCollector coverageCollector;
+
+    public static void main(String[] args) throws Exception {
+        final int port = Integer.parseInt(args[0]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            final ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+            output.flush();
+            final ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+            while (true) {
+                final String[] request;
+                try {
+                    request = (String[]) input.readObject();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (request.length == 0) {
+                    return;
+                }
+                Object response;
+                try {
+                    response = run(request);
+                } catch (Throwable e) {
+                    response = e.toString();
+                }
+                output.writeObject(response);
+                output.flush();
+                output.reset();
+            }
+        }
+    }
+
+    private static Serializable run(String[] request) throws Exception {
+        if (COVERAGE_REQUEST.equals(request[0])) {
+            if (coverageCollector == null) {
+                coverageCollector = new CoverageCollector();
+            }
+            return coverageCollector.run(Arrays.copyOfRange(request, 1, request.length));
+        }
+        try (ChildFirstClassLoader classLoader = new ChildFirstClassLoader(
+                toURLs(request[0].split(File.pathSeparator)),
+                TestRunnerDaemon.class.getClassLoader())) {
+            return runTests(classLoader, request[1], Arrays.copyOfRange(request, 2, request.length));
+        }
+    }
+
+    /**
+     * Run the given test methods, the classes being loaded by the given class loader.
+     *
+     * @param classLoader     the class loader of the test class
+     * @param testClassName   the full qualified name of the test class
+     * @param testMethodNames the names of the test methods to be run, all the test methods if empty
+     * @param listeners       additional listeners of the execution
+     * @return the result of the test methods, and the time spent in each of them
+     */
+    static Response runTests(ClassLoader classLoader,
+                             String testClassName,
+                             String[] testMethodNames,
+                             RunListener... listeners) throws Exception {
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+        try {
+            currentThread.setContextClassLoader(classLoader);
+            final Class<?> testClass = classLoader.loadClass(testClassName);
+            final JUnit4TestResult result = new JUnit4TestResult();
+            final DurationListener durations = new DurationListener();
+            final JUnitCore core = new JUnitCore();
+            core.addListener(result);
+            core.addListener(durations);
+            for (RunListener listener : listeners) {
+                core.addListener(listener);
+            }
+            Request junitRequest = Request.aClass(testClass);
+            if (testMethodNames.length > 0) {
+                junitRequest = junitRequest.filterWith(new MethodNameFilter(new HashSet<>(Arrays.asList(testMethodNames))));
+            }
+            core.run(junitRequest);
+            return new Response(result, durations.durationsInMs);
+        } finally {
+            currentThread.setContextClassLoader(previousContextClassLoader);
+        }
+    }
+
+    static URL[] toURLs(String[] classpath) throws MalformedURLException {
+        final URL[] urls = new URL[classpath.length];
+        for (int i = 0; i < classpath.length; i++) {
+            urls[i] = new File(classpath[i]).toURI().toURL();
+        }
+        return urls;
+    }
+
+    /**
+     * The answer to a request: the result of the test methods, and the time spent in each of them.
+     */
+    public static class Response implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public final Serializable testResult;
+
+        public final HashMap<String, Long> durationsInMs;
+
+        Response(Serializable testResult, HashMap<String, Long> durationsInMs) {
+            this.testResult = testResult;
+            this.durationsInMs = durationsInMs;
+        }
+    }
+
+    /**
+     * Measures the time spent in each test method, the instances of a parametrized test method are summed up.
+     */
+    static class DurationListener extends RunListener {
+
+        private final HashMap<String, Long> durationsInMs = new HashMap<>();
+
+        private final Map<Description, Long> startTimes = new HashMap<>();
+
+        @Override
+        public void testStarted(Description description) {
+            this.startTimes.put(description, System.currentTimeMillis());
+        }
+
+        @Override
+        public void testFinished(Description description) {
+            final Long startTime = this.startTimes.remove(description);
+            if (startTime != null && description.getMethodName() != null) {
+                this.durationsInMs.merge(
+                        MethodNameFilter.removeParameters(description.getMethodName()),
+                        System.currentTimeMillis() - startTime,
+                        Long::sum
+                );
+            }
+        }
+    }
+
+    /**
+     * Loads the classes of its own classpath before asking its parent,
+     * in order to load a fresh version of the test classes and of the DSpot's classes for each request.
+     */
+    static class ChildFirstClassLoader extends URLClassLoader {
+
+        ChildFirstClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass == null) {
+                    try {
+                        loadedClass = findClass(name);
+                    } catch (ClassNotFoundException e) {
+                        return super.loadClass(name, resolve);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(loadedClass);
+                }
+                return loadedClass;
+            }
+        }
+    }
+
+    /**
+     * Keeps only the given test methods, and their parametrized instances, e.g. test[0]
+     */
+    static class MethodNameFilter extends Filter {
+
+        private final Set<String> testMethodNames;
+
+        MethodNameFilter(Set<String> testMethodNames) {
+            this.testMethodNames = testMethodNames;
+        }
+
+        @Override
+        public boolean shouldRun(Description description) {
+            final String methodName = description.getMethodName();
+            if (methodName == null) {
+                for (Description child : description.getChildren()) {
+                    if (shouldRun(child)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            return this.testMethodNames.contains(methodName) ||
+                    this.testMethodNames.contains(removeParameters(methodName));
+        }
+
+        static String removeParameters(String methodName) {
+            final int indexOfParameters = methodName.indexOf('[');
+            return indexOfParameters > 0 ? methodName.substring(0, indexOfParameters) : methodName;
+        }
+
+        @Override
+        public String describe() {
+            return "Methods " + String.join(",", this.testMethodNames);
+        }
+    }
+}
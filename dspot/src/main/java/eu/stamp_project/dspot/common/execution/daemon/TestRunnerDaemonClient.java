@@ -0,0 +1,328 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
+import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.listener.TestResult;
+import org.jacoco.core.JaCoCo;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.commons.AnalyzerAdapter;
+import org.objectweb.asm.tree.ClassNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Starts and talks to a {@link TestRunnerDaemon}, in order to pay the start of the JVM and the loading of the classes
+ * of the project once, instead of once per execution of test methods.
+ *
+ * The daemon is started lazily, and re-started if the classpath of the project changes, or if it crashed or timed out.
+ * After {@link #MAXIMUM_NUMBER_OF_FAILURES} failures, the daemon is not used anymore,
+ * see {@link #isAvailable()}, and the test methods must be executed in a new forked JVM, as usual.
+ */
+public class TestRunnerDaemonClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestRunnerDaemonClient.class);
+
+    public static final int MAXIMUM_NUMBER_OF_FAILURES = 3;
+
+    private static final int TIMEOUT_TO_CONNECT_IN_MS = 30000;
+
+    private static final String INSTRUMENTED_CLASSES_FOLDER = "instrumented-classes";
+
+    private static final String DAEMON_LOG = "test-runner-daemon.log";
+
+    private final Set<String> reloadableClasspathEntries;
+
+    private final String absolutePathToDSpotDependencies;
+
+    private final File instrumentedClassesFolder;
+
+    private final File log;
+
+    private int numberOfFailures;
+
+    private String classpathOfDaemon;
+
+    private Process process;
+
+    private Socket socket;
+
+    private ObjectOutputStream output;
+
+    private ObjectInputStream input;
+
+    // stops the daemon if DSpot exits without stopping it, registered only while the daemon is running
+    private Thread shutdownHook;
+
+    private Map<String, Long> durationsOfLastRun = Collections.emptyMap();
+
+    /**
+     * @param absolutePathToDSpotDependencies the folder that contains the classes of DSpot copied in the project, including the daemon
+     * @param outputDirectory                 the output directory of DSpot, that contains the output of the daemon
+     *                                        and the cache of the instrumented classes
+     * @param reloadableClasspathEntries      the entries of the classpath that are modified during the amplification, i.e. the test classes
+     */
+    public TestRunnerDaemonClient(String absolutePathToDSpotDependencies,
+                                  String outputDirectory,
+                                  String... reloadableClasspathEntries) {
+        this.absolutePathToDSpotDependencies = absolutePathToDSpotDependencies;
+        this.instrumentedClassesFolder = new File(outputDirectory, INSTRUMENTED_CLASSES_FOLDER).getAbsoluteFile();
+        this.log = new File(outputDirectory, DAEMON_LOG).getAbsoluteFile();
+        this.reloadableClasspathEntries = Arrays.stream(reloadableClasspathEntries)
+                .map(TestRunnerDaemonClient::normalize)
+                .collect(Collectors.toCollection(HashSet::new));
+        this.reloadableClasspathEntries.add(normalize(absolutePathToDSpotDependencies));
+    }
+
+    public boolean isAvailable() {
+        return this.numberOfFailures < MAXIMUM_NUMBER_OF_FAILURES;
+    }
+
+    /**
+     * Run the given test methods in the daemon.
+     *
+     * @param classpath         the full classpath, as given to {@link EntryPoint#runTests(String, String, String...)}
+     * @param fullQualifiedName the full qualified name of the test class
+     * @param testMethodNames   the names of the test methods to be run, all the test methods if empty
+     * @param timeoutInMs       the maximum time to wait for the result
+     * @return the result of the execution of the test methods
+     * @throws TimeoutException if the daemon did not answer in time, the daemon is then killed
+     * @throws IOException      if the daemon crashed or failed to run the test methods
+     */
+    public synchronized TestResult run(String classpath,
+                                       String fullQualifiedName,
+                                       String[] testMethodNames,
+                                       int timeoutInMs) throws TimeoutException, IOException {
+        return (TestResult) this.send(classpath, new String[0], fullQualifiedName, testMethodNames, timeoutInMs).testResult;
+    }
+
+    /**
+     * Run the given test methods in the daemon, and collect their instruction coverage, see {@link CoverageCollector}.
+     * The classes of the given target entries are instrumented once, and cached in the output directory.
+     *
+     * @param classpath         the full classpath, that contains the target entries
+     * @param targetClasses     the folder of the classes of the project then the folder of the test classes, separated by
+     *                          the path separator, as given to {@link EntryPoint#runCoverage(String, String, String)}.
+     *                          As the test runner does, the coverage of the classes of the project only is collected
+     * @param fullQualifiedName the full qualified name of the test class
+     * @param testMethodNames   the names of the test methods to be run, all the test methods if empty
+     * @param timeoutInMs       the maximum time to wait for the result
+     * @return the coverage of the whole execution and of each test method
+     * @throws TimeoutException if the daemon did not answer in time, the daemon is then killed
+     * @throws IOException      if the daemon crashed or failed to run the test methods
+     */
+    public synchronized CoverageCollector.Response runCoverage(String classpath,
+                                                               String targetClasses,
+                                                               String fullQualifiedName,
+                                                               String[] testMethodNames,
+                                                               int timeoutInMs) throws TimeoutException, IOException {
+        final TestRunnerDaemon.Response response = this.send(classpath,
+                new String[]{
+                        TestRunnerDaemon.COVERAGE_REQUEST,
+                        targetClasses.split(AmplificationHelper.PATH_SEPARATOR)[0],
+                        this.instrumentedClassesFolder.getAbsolutePath()
+                },
+                fullQualifiedName,
+                testMethodNames,
+                timeoutInMs
+        );
+        if (response instanceof CoverageCollector.Response) {
+            return (CoverageCollector.Response) response;
+        }
+        throw new IOException("The test runner daemon did not collect the coverage of " + fullQualifiedName);
+    }
+
+    private TestRunnerDaemon.Response send(String classpath,
+                                           String[] header,
+                                           String fullQualifiedName,
+                                           String[] testMethodNames,
+                                           int timeoutInMs) throws TimeoutException, IOException {
+        final List<String> reloadableClasspath = new ArrayList<>();
+        final List<String> classpathOfProject = new ArrayList<>();
+        for (String entry : classpath.split(AmplificationHelper.PATH_SEPARATOR)) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            if (this.reloadableClasspathEntries.contains(normalize(entry))) {
+                reloadableClasspath.add(entry);
+            } else {
+                classpathOfProject.add(entry);
+            }
+        }
+        final String classpathOfDaemon = String.join(AmplificationHelper.PATH_SEPARATOR, classpathOfProject);
+        this.durationsOfLastRun = Collections.emptyMap();
+        try {
+            if (this.process == null || !this.process.isAlive() || !classpathOfDaemon.equals(this.classpathOfDaemon)) {
+                this.stop();
+                this.start(classpathOfDaemon);
+            }
+            final String[] request = new String[header.length + testMethodNames.length + 2];
+            System.arraycopy(header, 0, request, 0, header.length);
+            request[header.length] = String.join(AmplificationHelper.PATH_SEPARATOR, reloadableClasspath);
+            request[header.length + 1] = fullQualifiedName;
+            System.arraycopy(testMethodNames, 0, request, header.length + 2, testMethodNames.length);
+            this.socket.setSoTimeout(timeoutInMs);
+            this.output.writeObject(request);
+            this.output.flush();
+            this.output.reset();
+            final Object response = this.input.readObject();
+            if (response instanceof TestRunnerDaemon.Response &&
+                    ((TestRunnerDaemon.Response) response).testResult instanceof TestResult) {
+                this.durationsOfLastRun = ((TestRunnerDaemon.Response) response).durationsInMs;
+                return (TestRunnerDaemon.Response) response;
+            }
+            // the daemon is fine, but it could not run the test methods, e.g. the class was not found
+            throw new IOException(String.valueOf(response));
+        } catch (SocketTimeoutException e) {
+            final TimeoutException timeoutException =
+                    new TimeoutException("The test runner daemon did not answer in " + timeoutInMs + " ms.");
+            this.fail(timeoutException);
+            throw timeoutException;
+        } catch (ClassNotFoundException | IOException e) {
+            this.fail(e);
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        }
+    }
+
+    /**
+     * @return the time spent in each test method during the last call to {@link #run(String, String, String[], int)},
+     * by name of test method
+     */
+    public synchronized Map<String, Long> getDurationsOfLastRun() {
+        return this.durationsOfLastRun;
+    }
+
+    private void fail(Exception cause) {
+        this.numberOfFailures++;
+        this.stop();
+        if (this.isAvailable()) {
+            LOGGER.warn("The test runner daemon failed ({}), it will be restarted. See {} for its output.",
+                    cause.getMessage(),
+                    this.log
+            );
+        } else {
+            LOGGER.error("The test runner daemon failed {} times, the last time because of: {}. " +
+                            "DSpot will not use it anymore, the test methods are executed in forked JVMs, which is slower. " +
+                            "See {} for the output of the daemon.",
+                    this.numberOfFailures,
+                    cause.getMessage(),
+                    this.log
+            );
+        }
+    }
+
+    private void start(String classpathOfProject) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout(TIMEOUT_TO_CONNECT_IN_MS);
+            final List<String> command = new ArrayList<>();
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            if (EntryPoint.JVMArgs != null && !EntryPoint.JVMArgs.isEmpty()) {
+                command.addAll(Arrays.asList(EntryPoint.JVMArgs.split(" ")));
+            }
+            command.add("-cp");
+            command.add(String.join(AmplificationHelper.PATH_SEPARATOR,
+                    classpathOfProject,
+                    this.absolutePathToDSpotDependencies,
+                    getPathToJarOf(EntryPoint.class),
+                    // JaCoCo and ASM, used by the CoverageCollector
+                    getPathToJarOf(JaCoCo.class),
+                    getPathToJarOf(ClassReader.class),
+                    getPathToJarOf(AnalyzerAdapter.class),
+                    getPathToJarOf(ClassNode.class))
+            );
+            command.add(TestRunnerDaemon.class.getName());
+            command.add(Integer.toString(serverSocket.getLocalPort()));
+            this.log.getParentFile().mkdirs();
+            // the tests save files, e.g. the observations, relatively to the working directory of the forked JVMs
+            this.process = new ProcessBuilder(command)
+                    .directory(EntryPoint.workingDirectory)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(this.log))
+                    .start();
+            this.shutdownHook = new Thread(this::stop);
+            Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+            this.socket = serverSocket.accept();
+            this.output = new ObjectOutputStream(this.socket.getOutputStream());
+            this.output.flush();
+            this.input = new ObjectInputStream(this.socket.getInputStream());
+            this.classpathOfDaemon = classpathOfProject;
+            LOGGER.info("Test runner daemon started, see {} for its output.", this.log);
+        } catch (IOException e) {
+            this.stop();
+            throw e;
+        }
+    }
+
+    /**
+     * Stop the daemon, if it is running.
+     */
+    public synchronized void stop() {
+        try {
+            if (this.output != null) {
+                this.output.writeObject(new String[0]);
+                this.output.flush();
+            }
+        } catch (IOException ignored) {
+            // the daemon is already dead
+        }
+        try {
+            if (this.socket != null) {
+                this.socket.close();
+            }
+        } catch (IOException ignored) {
+            // ignored
+        }
+        if (this.process != null) {
+            try {
+                if (!this.process.waitFor(1, TimeUnit.SECONDS)) {
+                    this.process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                this.process.destroyForcibly();
+            }
+        }
+        if (this.shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // the JVM is shutting down, this hook may be the caller
+            }
+        }
+        this.shutdownHook = null;
+        this.process = null;
+        this.socket = null;
+        this.output = null;
+        this.input = null;
+        this.classpathOfDaemon = null;
+    }
+
+    private static String getPathToJarOf(Class<?> clazz) {
+        try {
+            return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String normalize(String entry) {
+        return new File(entry).getAbsolutePath();
+    }
+}
@@ -0,0 +1,184 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Pool of isolated {@link TestRunnerDaemon}s.
+ * The test methods of a test class are split in shards, one per JVM of the pool, that are executed at the same time.
+ * Each test method is still executed alone in its JVM, so there is no shared static state between concurrent test methods.
+ *
+ * The shards are balanced using the durations of the test methods observed during the previous executions
+ * of the same test class: the durations are forgotten when the pool runs another test class.
+ * Test methods that have never been executed are assumed to last as long as the average of the known ones.
+ * A JVM that failed too many times, see {@link TestRunnerDaemonClient#isAvailable()}, is not used anymore,
+ * the test methods are sharded across the remaining ones.
+ */
+public class TestRunnerPool {
+
+    private final List<TestRunnerDaemonClient> runners;
+
+    private final ExecutorService executor;
+
+    private final Map<String, Long> durationsInMs = new ConcurrentHashMap<>();
+
+    // the test class of the durations that are kept
+    private String testClassOfDurations;
+
+    /**
+     * @param numberOfJVMs                    the number of JVMs of the pool, it should not exceed the number of available processors
+     * @param absolutePathToDSpotDependencies the folder that contains the classes of DSpot copied in the project, including the daemon
+     * @param outputDirectory                 the output directory of DSpot, see {@link TestRunnerDaemonClient}
+     * @param reloadableClasspathEntries      the entries of the classpath that are modified during the amplification, i.e. the test classes
+     */
+    public TestRunnerPool(int numberOfJVMs,
+                          String absolutePathToDSpotDependencies,
+                          String outputDirectory,
+                          String... reloadableClasspathEntries) {
+        this(createRunners(numberOfJVMs, absolutePathToDSpotDependencies, outputDirectory, reloadableClasspathEntries));
+    }
+
+    TestRunnerPool(List<TestRunnerDaemonClient> runners) {
+        this.runners = runners;
+        this.executor = Executors.newFixedThreadPool(runners.size(), runnable -> {
+            final Thread thread = new Thread(runnable, "dspot-test-runner-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static List<TestRunnerDaemonClient> createRunners(int numberOfJVMs,
+                                                              String absolutePathToDSpotDependencies,
+                                                              String outputDirectory,
+                                                              String... reloadableClasspathEntries) {
+        final List<TestRunnerDaemonClient> runners = new ArrayList<>(numberOfJVMs);
+        for (int i = 0; i < numberOfJVMs; i++) {
+            runners.add(new TestRunnerDaemonClient(absolutePathToDSpotDependencies, outputDirectory, reloadableClasspathEntries));
+        }
+        return runners;
+    }
+
+    public int size() {
+        return this.runners.size();
+    }
+
+    /**
+     * @return true if at least one JVM of the pool can still be used
+     */
+    public boolean isAvailable() {
+        return this.runners.stream().anyMatch(TestRunnerDaemonClient::isAvailable);
+    }
+
+    /**
+     * Run the given test methods, sharded across the available JVMs of the pool, and merge the results.
+     *
+     * @param classpath         the full classpath, as given to {@link eu.stamp_project.testrunner.EntryPoint#runTests(String, String, String...)}
+     * @param fullQualifiedName the full qualified name of the test class
+     * @param testMethodNames   the names of the test methods to be run, it must not be empty
+     * @param timeoutInMs       the maximum time to wait for the result of one shard
+     * @return the aggregation of the results of all the shards
+     * @throws TimeoutException if one of the shards timed out
+     * @throws IOException      if one of the shards failed
+     */
+    public TestResult run(String classpath,
+                          String fullQualifiedName,
+                          String[] testMethodNames,
+                          int timeoutInMs) throws TimeoutException, IOException {
+        final List<TestRunnerDaemonClient> availableRunners = this.runners.stream()
+                .filter(TestRunnerDaemonClient::isAvailable)
+                .collect(Collectors.toList());
+        if (availableRunners.isEmpty()) {
+            throw new IOException("None of the test runners of the pool is available anymore.");
+        }
+        if (!fullQualifiedName.equals(this.testClassOfDurations)) {
+            this.durationsInMs.clear();
+            this.testClassOfDurations = fullQualifiedName;
+        }
+        final List<List<String>> shards = shard(fullQualifiedName, testMethodNames, availableRunners.size(), this.durationsInMs);
+        final List<Future<TestResult>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final TestRunnerDaemonClient runner = availableRunners.get(i);
+            final String[] shard = shards.get(i).toArray(new String[0]);
+            futures.add(this.executor.submit(() -> {
+                final TestResult result = runner.run(classpath, fullQualifiedName, shard, timeoutInMs);
+                runner.getDurationsOfLastRun().forEach((testMethodName, duration) ->
+                        this.durationsInMs.put(key(fullQualifiedName, testMethodName), duration)
+                );
+                return result;
+            }));
+        }
+        TestResult result = null;
+        for (Future<TestResult> future : futures) {
+            final TestResult resultOfShard;
+            try {
+                resultOfShard = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof TimeoutException) {
+                    throw (TimeoutException) e.getCause();
+                }
+                throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            }
+            result = result == null ? resultOfShard : result.aggregate(resultOfShard);
+        }
+        return result;
+    }
+
+    /**
+     * Split the given test methods in at most numberOfShards shards of balanced durations,
+     * using the longest-processing-time-first rule: the longest test methods are assigned first, to the least loaded shard.
+     * Empty shards are not returned.
+     */
+    static List<List<String>> shard(String fullQualifiedName,
+                                    String[] testMethodNames,
+                                    int numberOfShards,
+                                    Map<String, Long> durationsInMs) {
+        final List<Long> knownDurations = Arrays.stream(testMethodNames)
+                .map(testMethodName -> durationsInMs.get(key(fullQualifiedName, testMethodName)))
+                .filter(duration -> duration != null)
+                .collect(Collectors.toList());
+        final long defaultDuration = knownDurations.isEmpty() ? 1L :
+                Math.max(1L, knownDurations.stream().mapToLong(Long::longValue).sum() / knownDurations.size());
+        final List<String> sortedTestMethodNames = Arrays.stream(testMethodNames)
+                .sorted(Comparator.comparingLong((String testMethodName) ->
+                        durationsInMs.getOrDefault(key(fullQualifiedName, testMethodName), defaultDuration)
+                ).reversed())
+                .collect(Collectors.toList());
+        final List<List<String>> shards = new ArrayList<>();
+        final long[] loads = new long[Math.max(1, numberOfShards)];
+        for (int i = 0; i < loads.length; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String testMethodName : sortedTestMethodNames) {
+            int leastLoaded = 0;
+            for (int i = 1; i < loads.length; i++) {
+                if (loads[i] < loads[leastLoaded]) {
+                    leastLoaded = i;
+                }
+            }
+            shards.get(leastLoaded).add(testMethodName);
+            loads[leastLoaded] += Math.max(1L, durationsInMs.getOrDefault(key(fullQualifiedName, testMethodName), defaultDuration));
+        }
+        shards.removeIf(List::isEmpty);
+        return shards;
+    }
+
+    private static String key(String fullQualifiedName, String testMethodName) {
+        return fullQualifiedName + "#" + testMethodName;
+    }
+}
@@ -69,7 +69,25 @@ public class AmplificationHelper {
     @Deprecated
     private static Map<CtType, Set<CtType>> importByClass = new HashMap<>();
 
+    private static boolean amplifyingTestClassesConcurrently;
+
+    /**
+     * While test classes are amplified concurrently, the amplified test methods of one test class must keep their parents,
+     * and their names must stay unique, when another test class starts to be amplified.
+     * Thus, {@link #reset()} does nothing until the concurrent amplification is over,
+     * and the parents of the amplified test methods of a test class are removed once it has been output,
+     * see {@link #removeAmpTestParents(List)}.
+     *
+     * @param amplifyingTestClassesConcurrently true if test classes are being amplified concurrently
+     */
+    public static void setAmplifyingTestClassesConcurrently(boolean amplifyingTestClassesConcurrently) {
+        AmplificationHelper.amplifyingTestClassesConcurrently = amplifyingTestClassesConcurrently;
+    }
+
     public static void reset() {
+        if (amplifyingTestClassesConcurrently) {
+            return;
+        }
         CloneHelper.reset();
         ampTestToParent.clear();
         importByClass.clear();
@@ -80,7 +98,7 @@ public class AmplificationHelper {
         final Stream<CtMethod<?>> methodToAdd;
         methodToAdd = ampTest.stream();
         final CtType<?> currentTestClass = classTest.clone();
-        classTest.getPackage().addType(currentTestClass);
+        addToPackageOf(classTest, currentTestClass);
         methodToAdd.forEach(currentTestClass::addMethod);
         // keep original test methods
         if (!shouldKeepOriginalTestMethods) {
@@ -116,10 +134,22 @@ public class AmplificationHelper {
                     stringCtLiteral.setValue(((String) stringCtLiteral.getValue()).replaceAll(classTest.getSimpleName(), amplifiedName))
             );
         }
-        classTest.getPackage().addType(currentTestClass);
+        addToPackageOf(classTest, currentTestClass);
         return currentTestClass;
     }
 
+    /**
+     * Adds the given type, e.g. a clone of the given test class, to the package of the given test class.
+     * The packages are shared by the test classes that are amplified concurrently,
+     * which hold the {@link ModelLock} while they modify the model.
+     *
+     * @param classTest the test class
+     * @param typeToAdd the type to be added to the package of the test class
+     */
+    public static void addToPackageOf(CtType<?> classTest, CtType<?> typeToAdd) {
+        classTest.getPackage().addType(typeToAdd);
+    }
+
     private static String getAmplifiedName(CtType<?> classTest) {
         return classTest.getSimpleName().startsWith("Test") ?
                 classTest.getSimpleName() + "Ampl" :
@@ -134,6 +164,22 @@ public class AmplificationHelper {
         return ampTestToParent.remove(amplifiedTest);
     }
 
+    /**
+     * Removes the parents of the given amplified test methods, and the parents of their parents,
+     * once their test class has been output.
+     *
+     * @param amplifiedTestMethods the amplified test methods of one test class
+     */
+    public static void removeAmpTestParents(List<CtMethod<?>> amplifiedTestMethods) {
+        for (CtMethod<?> amplifiedTestMethod : amplifiedTestMethods) {
+            CtMethod current = amplifiedTestMethod;
+            CtMethod parent;
+            while ((parent = ampTestToParent.remove(current)) != null) {
+                current = parent;
+            }
+        }
+    }
+
     public static void addTestBindingToOriginal(CtMethod clonedTest, CtMethod fromTest) {
         CtMethod originalTest = fromTest;
         if (originalTestBindings.containsKey(fromTest)) {
@@ -8,6 +8,7 @@ import spoon.reflect.factory.Factory;
 
 import java.lang.annotation.Annotation;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.googlecode.junittoolbox.ParallelRunner;
 
@@ -18,10 +19,10 @@ import com.googlecode.junittoolbox.ParallelRunner;
  */
 public class CloneHelper {
 
-    private static int cloneNumber = 1;
+    private static final AtomicInteger cloneNumber = new AtomicInteger(1);
 
     public static void reset() {
-        cloneNumber = 1;
+        cloneNumber.set(1);
     }
 
     private static boolean shouldExecuteTestsInParallel;
@@ -102,7 +103,7 @@ public class CloneHelper {
      */
     public static CtType cloneTestClassAndAddGivenTest(CtType original, List<CtMethod<?>> methods) {
         CtType clone = original.clone();
-        original.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(original, clone);
         methods.forEach(clone::addMethod);
         return clone;
     }
@@ -142,8 +143,8 @@ public class CloneHelper {
         CtMethod cloned_method = cloneMethod(method);
 
         //rename the clone
-        cloned_method.setSimpleName(method.getSimpleName() + (suffix.isEmpty() ? "" : suffix + cloneNumber));
-        cloneNumber++;
+        final int number = cloneNumber.getAndIncrement();
+        cloned_method.setSimpleName(method.getSimpleName() + (suffix.isEmpty() ? "" : suffix + number));
 
         CtAnnotation toRemove = cloned_method.getAnnotations().stream()
                 .filter(annotation -> annotation.toString().contains("Override"))
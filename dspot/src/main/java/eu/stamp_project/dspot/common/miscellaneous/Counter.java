@@ -2,8 +2,8 @@ package eu.stamp_project.dspot.common.miscellaneous;
 
 import spoon.reflect.declaration.CtMethod;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by Benjamin DANGLOT
@@ -19,11 +19,12 @@ public class Counter {
     private Map<String, Integer> numberOfInputAdded;
 
     private Counter() {
-        this.numberOfAssertionAdded = new HashMap<>();
-        this.numberOfInputAdded = new HashMap<>();
+        // the amplified test methods have unique names, even when several test classes are amplified concurrently
+        this.numberOfAssertionAdded = new ConcurrentHashMap<>();
+        this.numberOfInputAdded = new ConcurrentHashMap<>();
     }
 
-    private static Counter getInstance() {
+    private synchronized static Counter getInstance() {
         if (_instance == null) {
             _instance = new Counter();
         }
@@ -2,6 +2,8 @@ package eu.stamp_project.dspot.common.miscellaneous;
 
 import eu.stamp_project.dspot.common.collector.Collector;
 import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
+import eu.stamp_project.dspot.common.compilation.MethodIndexingPrinter;
+import eu.stamp_project.dspot.common.compilation.SourcePositionIndex;
 import eu.stamp_project.dspot.common.configuration.DSpotState;
 import eu.stamp_project.dspot.common.report.error.Error;
 import eu.stamp_project.dspot.common.report.error.ErrorEnum;
@@ -91,6 +93,32 @@ public class DSpotUtils {
         }
     }
 
+    /**
+     * Print the given type in the given directory, as {@link #printCtTypeToGivenDirectory(CtType, File)} does,
+     * and index the position of its methods in the printed file, using a {@link MethodIndexingPrinter}.
+     *
+     * @param type      the type to be printed
+     * @param directory the root directory of the printed sources
+     * @return the index of the methods in the printed source, {@link SourcePositionIndex#EMPTY} if the printing failed
+     */
+    public static SourcePositionIndex printCtTypeAndIndexToGivenDirectory(CtType<?> type, File directory) {
+        Environment env = type.getFactory().getEnvironment();
+        try {
+            env.setAutoImports(false);
+            env.setNoClasspath(true);
+            env.setCommentEnabled(DSpotUtils.withComment);
+            final MethodIndexingPrinter printer = new MethodIndexingPrinter(env);
+            JavaOutputProcessor processor = new JavaOutputProcessor(printer);
+            processor.setFactory(type.getFactory());
+            processor.getEnvironment().setSourceOutputDirectory(directory);
+            processor.createJavaFile(type);
+            return printer.getIndex();
+        } catch (Exception e) {
+            printCtTypUsingToStringToGivenDirectory(type, directory);
+            return SourcePositionIndex.EMPTY;
+        }
+    }
+
     static void printCtTypUsingToStringToGivenDirectory(CtType<?> type, File directory) {
         LOGGER.warn("Something bad happened when trying to output {} in {}", type.getQualifiedName(), directory.getAbsolutePath());
         LOGGER.warn("DSpot will now print the toString() in the given file instead of using Spoon...");
@@ -170,7 +198,7 @@ public class DSpotUtils {
         CtClass<Object> objectCtClass = launcher.getFactory().Class().get(type.getQualifiedName());
         if (objectCtClass == null) {
             objectCtClass = launcher.getFactory().Class().get(type.getSimpleName());
-            type.getPackage().addType(objectCtClass.clone());
+            AmplificationHelper.addToPackageOf(type, objectCtClass.clone());
         }
         return objectCtClass;
 
@@ -204,30 +232,52 @@ public class DSpotUtils {
     private static final String COMPONENTS_FOLDER = "objectlog/";
 
     private static final String[] DSPOT_CLASSES = new String[]{COMPONENTS_FOLDER +"MethodsHandler", "ObjectLog",
-            COMPONENTS_FOLDER +"Observation", COMPONENTS_FOLDER +"ObjectLogUtils", COMPONENTS_FOLDER +"FailToObserveException"};
+            COMPONENTS_FOLDER +"Observation", COMPONENTS_FOLDER +"ObjectLogUtils", COMPONENTS_FOLDER +"FailToObserveException",
+            COMPONENTS_FOLDER +"MethodInvoker", COMPONENTS_FOLDER +"ValueClassifier", COMPONENTS_FOLDER +"ValueClassifier$Kind",
+            COMPONENTS_FOLDER +"ObservationCodec", COMPONENTS_FOLDER +"ObservationCodec$Reader"};
+
+    private static final String DAEMON_PACKAGE_PATH = "eu/stamp_project/dspot/common/execution/daemon/";
+
+    private static final String[] DAEMON_CLASSES = new String[]{"TestRunnerDaemon",
+            "TestRunnerDaemon$ChildFirstClassLoader", "TestRunnerDaemon$MethodNameFilter",
+            "TestRunnerDaemon$Response", "TestRunnerDaemon$DurationListener",
+            "CoverageCollector", "CoverageCollector$CoverageRuntime", "CoverageCollector$CoverageRuntime$AccessGenerator",
+            "CoverageCollector$Result",
+            "CoverageCollector$Response", "CoverageCollector$CoverageListener", "CoverageCollector$InstrumentingClassLoader"};
 
     public static String getAbsolutePathToDSpotDependencies() {
         return DSpotUtils.shouldAddSeparator.apply(DSpotUtils.shouldAddSeparator.apply(DSpotUtils.absolutePathToProjectRoot) + PATH_TO_DSPOT_DEPENDENCIES);
     }
 
     public static void copyPackageFromResources() {
-
         final String pathToTestClassesDirectory = DSpotUtils.getAbsolutePathToDSpotDependencies() + PACKAGE_PATH;
         try {
             FileUtils.forceMkdir(new File(pathToTestClassesDirectory + COMPONENTS_FOLDER));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        Arrays.stream(DSPOT_CLASSES).forEach(file -> {
+        copyClassesFromResources(PACKAGE_NAME + "/", pathToTestClassesDirectory, DSPOT_CLASSES);
+        final String pathToDaemonDirectory = DSpotUtils.getAbsolutePathToDSpotDependencies() + DAEMON_PACKAGE_PATH;
+        try {
+            FileUtils.forceMkdir(new File(pathToDaemonDirectory));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // the classes of the daemon are compiled with DSpot, for Java 8, see the pom
+        copyClassesFromResources(DAEMON_PACKAGE_PATH, pathToDaemonDirectory, DAEMON_CLASSES);
+    }
+
+    private static void copyClassesFromResources(String pathInResources, String pathToDestinationDirectory, String[] classes) {
+        Arrays.stream(classes).forEach(file -> {
             try {
                 InputStream stream = Thread.currentThread().getContextClassLoader()
-                        .getResourceAsStream(PACKAGE_NAME + "/" + file + ".class");
+                        .getResourceAsStream(pathInResources + file + ".class");
                 // try this for Jenkins
                 if (stream == null) {
                     stream = DSpotUtils.class.getClassLoader()
-                            .getResourceAsStream(PACKAGE_NAME + "/" + file + ".class");
+                            .getResourceAsStream(pathInResources + file + ".class");
                 }
-                final OutputStream resStreamOut = new FileOutputStream(pathToTestClassesDirectory + file + ".class");
+                final OutputStream resStreamOut = new FileOutputStream(pathToDestinationDirectory + file + ".class");
 
                 int readBytes;
                 byte[] buffer = new byte[4096];
@@ -0,0 +1,126 @@
+package eu.stamp_project.dspot.common.miscellaneous;
+
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.Arrays;
+
+/**
+ * Computes a MinHash sketch of the body of a test method, in order to estimate cheaply how similar two test methods are.
+ *
+ * The body is seen as the set of its shingles, <i>i.e.</i> the sequences of {@link #SHINGLE_SIZE} consecutive tokens
+ * of its tree, the tokens being the ones of the {@link TestMethodFingerprint}, except that the end of an element
+ * is marked with the kind of this element.
+ * The sketch is computed with one permutation: each shingle is hashed into one of the {@link #NUMBER_OF_BINS} bins,
+ * and each bin keeps the minimum hash of its shingles.
+ * The bins that are left empty, e.g. for a small body, are filled from the next non-empty bin (densification),
+ * otherwise the empty bins would be equal in the sketches of any two small bodies.
+ * The fraction of the bins that have the same minimum in two sketches estimates the Jaccard similarity of the two bodies.
+ */
+public class MinHashSketch extends TestMethodFingerprint {
+
+    public static final int NUMBER_OF_BINS = 64;
+
+    private static final int SHINGLE_SIZE = 4;
+
+    private static final long EMPTY_BIN = Long.MAX_VALUE;
+
+    private final long[] bins;
+
+    private final int[] lastTokens = new int[SHINGLE_SIZE];
+
+    private int numberOfTokens = 0;
+
+    private MinHashSketch() {
+        this.bins = new long[NUMBER_OF_BINS];
+        Arrays.fill(this.bins, EMPTY_BIN);
+    }
+
+    /**
+     * @param testMethod the test method to sketch
+     * @return the sketch of the body of the given test method
+     */
+    public static long[] sketch(CtMethod<?> testMethod) {
+        final MinHashSketch minHashSketch = new MinHashSketch();
+        minHashSketch.compute(testMethod.getBody());
+        if (minHashSketch.numberOfTokens < SHINGLE_SIZE) {
+            // the body is too small to have a complete shingle
+            minHashSketch.addShingle(minHashSketch.numberOfTokens);
+        }
+        minHashSketch.densify();
+        return minHashSketch.bins;
+    }
+
+    /**
+     * @return the estimated Jaccard similarity of the two given sketches, between 0 and 1
+     */
+    public static double similarity(long[] sketch, long[] otherSketch) {
+        int numberOfNonEmptyBins = 0;
+        int numberOfEqualBins = 0;
+        for (int i = 0; i < NUMBER_OF_BINS; i++) {
+            if (sketch[i] == EMPTY_BIN && otherSketch[i] == EMPTY_BIN) {
+                continue;
+            }
+            numberOfNonEmptyBins++;
+            if (sketch[i] == otherSketch[i]) {
+                numberOfEqualBins++;
+            }
+        }
+        return numberOfNonEmptyBins == 0 ? 1.0D : (double) numberOfEqualBins / numberOfNonEmptyBins;
+    }
+
+    // the end of an element is marked with its kind: otherwise, the ends of the last elements of any two bodies
+    // would make the same shingles, e.g. a sequence of ends only, and these bodies would look similar
+    @Override
+    protected void exit(CtElement element) {
+        combine(~element.getClass().getName().hashCode());
+    }
+
+    @Override
+    protected void combine(int value) {
+        this.lastTokens[this.numberOfTokens % SHINGLE_SIZE] = value;
+        this.numberOfTokens++;
+        if (this.numberOfTokens >= SHINGLE_SIZE) {
+            addShingle(SHINGLE_SIZE);
+        }
+    }
+
+    private void addShingle(int size) {
+        long shingle = 1L;
+        for (int i = this.numberOfTokens - size; i < this.numberOfTokens; i++) {
+            shingle = shingle * 31 + this.lastTokens[i % SHINGLE_SIZE];
+        }
+        final long hash = mix(shingle);
+        // the highest bits select the bin, the hash is the value to be minimized in this bin
+        final int bin = (int) (hash >>> (Long.SIZE - 6));
+        if (hash < this.bins[bin]) {
+            this.bins[bin] = hash;
+        }
+    }
+
+    // an empty bin takes the minimum of the next non-empty bin, mixed with its distance to this bin,
+    // thus two sketches have the same value in an empty bin only if they have the same minimum in the bin it comes from
+    private void densify() {
+        final long[] minimums = this.bins.clone();
+        for (int bin = 0; bin < NUMBER_OF_BINS; bin++) {
+            if (minimums[bin] != EMPTY_BIN) {
+                continue;
+            }
+            for (int distance = 1; distance < NUMBER_OF_BINS; distance++) {
+                final long minimum = minimums[(bin + distance) % NUMBER_OF_BINS];
+                if (minimum != EMPTY_BIN) {
+                    this.bins[bin] = mix(minimum + distance);
+                    break;
+                }
+            }
+        }
+    }
+
+    // finalizer of SplitMix64, to spread the bits of the shingles
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
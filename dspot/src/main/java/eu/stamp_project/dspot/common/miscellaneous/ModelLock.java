@@ -0,0 +1,69 @@
+package eu.stamp_project.dspot.common.miscellaneous;
+
+import eu.stamp_project.dspot.common.execution.TestRunner;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The lock of the Spoon model, that is not thread-safe.
+ *
+ * When several threads use the model, i.e. the workers that amplify test classes concurrently,
+ * or the threads of the stages of an {@link eu.stamp_project.dspot.pipeline.AmplificationPipeline},
+ * each of them holds this lock while it reads or modifies the model, e.g. to amplify, print or compile test methods.
+ * The lock is released while test methods are executed in another JVM, see {@link #releaseWhile(Execution)},
+ * which is where most of the time is spent.
+ *
+ * A thread must not wait for this lock while it holds {@link TestRunner#ENTRY_POINT_LOCK}: the lock is not released
+ * while the current thread holds {@link TestRunner#ENTRY_POINT_LOCK}.
+ */
+public class ModelLock {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    @FunctionalInterface
+    public interface Execution<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /**
+     * Runs the given execution holding the lock of the model.
+     *
+     * @param execution the execution that uses the model
+     * @return the result of the execution
+     * @throws E if the execution fails
+     */
+    public static <T, E extends Exception> T holding(Execution<T, E> execution) throws E {
+        LOCK.lock();
+        try {
+            return execution.run();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Runs the given execution without holding the lock of the model, if the current thread holds it,
+     * and takes the lock back afterwards, as many times as it was held.
+     * The given execution must not use the model, e.g. it executes test methods that have already been compiled.
+     *
+     * @param execution the execution that does not use the model
+     * @return the result of the execution
+     * @throws E if the execution fails
+     */
+    public static <T, E extends Exception> T releaseWhile(Execution<T, E> execution) throws E {
+        final int holdCount = LOCK.getHoldCount();
+        if (holdCount == 0 || Thread.holdsLock(TestRunner.ENTRY_POINT_LOCK)) {
+            return execution.run();
+        }
+        for (int i = 0; i < holdCount; i++) {
+            LOCK.unlock();
+        }
+        try {
+            return execution.run();
+        } finally {
+            for (int i = 0; i < holdCount; i++) {
+                LOCK.lock();
+            }
+        }
+    }
+}
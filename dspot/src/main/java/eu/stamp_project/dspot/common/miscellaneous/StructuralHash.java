@@ -0,0 +1,106 @@
+package eu.stamp_project.dspot.common.miscellaneous;
+
+import spoon.reflect.code.CtBinaryOperator;
+import spoon.reflect.code.CtCodeSnippetExpression;
+import spoon.reflect.code.CtCodeSnippetStatement;
+import spoon.reflect.code.CtComment;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.code.CtOperatorAssignment;
+import spoon.reflect.code.CtUnaryOperator;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtNamedElement;
+import spoon.reflect.reference.CtReference;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.CtScanner;
+
+import java.util.Objects;
+
+/**
+ * Computes a hash of the structure of a Spoon element, without printing it.
+ *
+ * The hash is computed from the kind of each element of the tree, in the order of the scan,
+ * and from the names, the values of the literals and the snippets, and the kinds of the operators.
+ * The comments are ignored: two elements that print the same code, apart from their comments, have the same hash.
+ */
+public class StructuralHash extends CtScanner {
+
+    private static final int END_OF_ELEMENT = 0x5EED;
+
+    private static final long PRIME = 0x100000001B3L;
+
+    private long hash = 1L;
+
+    /**
+     * @param element the element to hash
+     * @return the structural hash of the given element
+     */
+    public static int of(CtElement element) {
+        return Long.hashCode(new StructuralHash().compute(element));
+    }
+
+    /**
+     * @param element the element to hash
+     * @return the structural hash of the given element, on 64 bits
+     */
+    public long compute(CtElement element) {
+        this.hash = 1L;
+        scan(element);
+        return this.hash;
+    }
+
+    @Override
+    public void scan(CtElement element) {
+        if (element == null || element instanceof CtComment) {
+            return;
+        }
+        enter(element, labelOf(element));
+        super.scan(element);
+        exit(element);
+    }
+
+    /**
+     * Called before scanning the children of the given element, with its label, see {@link #labelOf(CtElement)}.
+     */
+    protected void enter(CtElement element, String label) {
+        combine(31 * element.getClass().getName().hashCode() + Objects.hashCode(label));
+    }
+
+    /**
+     * Called after scanning the children of the given element.
+     */
+    protected void exit(CtElement element) {
+        // marks the end of the children of the element, in order to distinguish the shapes of the trees
+        combine(END_OF_ELEMENT);
+    }
+
+    /**
+     * Combines the given token, i.e. the kind and the label of an element or the end of an element, into the hash.
+     */
+    protected void combine(int value) {
+        this.hash = this.hash * PRIME + value;
+    }
+
+    protected String labelOf(CtElement element) {
+        if (element instanceof CtLiteral) {
+            final Object value = ((CtLiteral<?>) element).getValue();
+            return value == null ? null : value.getClass().getName() + value;
+        } else if (element instanceof CtCodeSnippetExpression) {
+            return ((CtCodeSnippetExpression<?>) element).getValue();
+        } else if (element instanceof CtCodeSnippetStatement) {
+            return ((CtCodeSnippetStatement) element).getValue();
+        } else if (element instanceof CtBinaryOperator) {
+            return String.valueOf(((CtBinaryOperator<?>) element).getKind());
+        } else if (element instanceof CtUnaryOperator) {
+            return String.valueOf(((CtUnaryOperator<?>) element).getKind());
+        } else if (element instanceof CtOperatorAssignment) {
+            return String.valueOf(((CtOperatorAssignment<?, ?>) element).getKind());
+        } else if (element instanceof CtTypeReference) {
+            return ((CtTypeReference<?>) element).getQualifiedName();
+        } else if (element instanceof CtReference) {
+            return ((CtReference) element).getSimpleName();
+        } else if (element instanceof CtNamedElement) {
+            return ((CtNamedElement) element).getSimpleName();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,100 @@
+package eu.stamp_project.dspot.common.miscellaneous;
+
+import spoon.reflect.code.CtCatchVariable;
+import spoon.reflect.code.CtLocalVariable;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtVariable;
+import spoon.reflect.reference.CtCatchVariableReference;
+import spoon.reflect.reference.CtLocalVariableReference;
+import spoon.reflect.reference.CtVariableReference;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Computes a fingerprint of the body of a test method, that does not depend on the names given during the amplification.
+ *
+ * The fingerprint is the structural hash of the body, see {@link StructuralHash},
+ * in which the local variables are identified by their order of declaration instead of their names.
+ * Thus, two test methods that differ only by their names, the names of their local variables or their comments,
+ * e.g. the comments added by DSpot, have the same fingerprint.
+ * Since two different bodies might have the same fingerprint, {@link #secondFingerprint(CtMethod)} gives another hash
+ * of the same normalized body, computed independently: two different bodies that have the same fingerprints
+ * on 128 bits are not expected in practice.
+ */
+public class TestMethodFingerprint extends StructuralHash {
+
+    private static final long SECOND_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    private static final long SECOND_PRIME = 0x9E3779B97F4A7C15L;
+
+    private static final int END_OF_STRING_TOKEN = Character.MAX_VALUE + 1;
+
+    private static final int NULL_TOKEN = Character.MAX_VALUE + 2;
+
+    private static final int END_OF_ELEMENT_TOKEN = Character.MAX_VALUE + 3;
+
+    private final Map<String, Integer> indexOfLocalVariables = new HashMap<>();
+
+    private int numberOfLocalVariables = 0;
+
+    /**
+     * @param testMethod the test method to fingerprint
+     * @return the fingerprint of the body of the given test method
+     */
+    public static long fingerprint(CtMethod<?> testMethod) {
+        return new TestMethodFingerprint().compute(testMethod.getBody());
+    }
+
+    /**
+     * @param testMethod the test method to fingerprint
+     * @return a second fingerprint of the body of the given test method, independent of {@link #fingerprint(CtMethod)}:
+     * the kind and the label of each element are hashed character by character, with another function
+     */
+    public static long secondFingerprint(CtMethod<?> testMethod) {
+        final long[] hash = {SECOND_OFFSET_BASIS};
+        new TestMethodFingerprint() {
+            @Override
+            protected void enter(CtElement element, String label) {
+                hash[0] = mix(mix(hash[0], element.getClass().getName()), label);
+            }
+
+            @Override
+            protected void exit(CtElement element) {
+                hash[0] = mix(hash[0], END_OF_ELEMENT_TOKEN);
+            }
+        }.compute(testMethod.getBody());
+        return hash[0];
+    }
+
+    // the tokens that end a string, a null string and an element cannot be characters, thus the encoding is not ambiguous
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, NULL_TOKEN);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return mix(hash, END_OF_STRING_TOKEN);
+    }
+
+    private static long mix(long hash, int token) {
+        return (hash ^ token) * SECOND_PRIME;
+    }
+
+    @Override
+    protected String labelOf(CtElement element) {
+        if (element instanceof CtLocalVariable || element instanceof CtCatchVariable) {
+            final int index = this.numberOfLocalVariables++;
+            this.indexOfLocalVariables.put(((CtVariable<?>) element).getSimpleName(), index);
+            return "#" + index;
+        } else if (element instanceof CtLocalVariableReference || element instanceof CtCatchVariableReference) {
+            final Integer index = this.indexOfLocalVariables.get(((CtVariableReference<?>) element).getSimpleName());
+            if (index != null) {
+                return "#" + index;
+            }
+        }
+        return super.labelOf(element);
+    }
+}
@@ -13,6 +13,8 @@ import java.util.List;
  * created by Benjamin DANGLOT
  * benjamin.danglot@inria.fr
  * on 29/10/18
+ *
+ * The global report is shared by the test classes that are amplified concurrently, thus its methods are synchronized.
  */
 public class GlobalReport implements Report, ErrorReport, OutputReport, TestSelectorReport {
 
@@ -31,14 +33,14 @@ public class GlobalReport implements Report, ErrorReport, OutputReport, TestSele
     /* REPORT METHODS */
 
     @Override
-    public void output(String outputDirectory) {
+    public synchronized void output(String outputDirectory) {
         this.testSelectorReport.output(outputDirectory);
         this.errorReport.output(outputDirectory);
         this.outputReport.output(outputDirectory);
     }
 
     @Override
-    public void reset() {
+    public synchronized void reset() {
         this.testSelectorReport.reset();
         this.errorReport.reset();
         this.outputReport.reset();
@@ -47,41 +49,41 @@ public class GlobalReport implements Report, ErrorReport, OutputReport, TestSele
     /* ERROR REPORT METHODS */
 
     @Override
-    public void addInputError(Error error) {
+    public synchronized void addInputError(Error error) {
         this.errorReport.addInputError(error);
     }
 
     @Override
-    public void addError(Error error) {
+    public synchronized void addError(Error error) {
         this.errorReport.addError(error);
     }
 
     @Override
-    public List<Error> getErrors() {
+    public synchronized List<Error> getErrors() {
         return this.errorReport.getErrors();
     }
 
     @Override
-    public List<Error> getInputError() {
+    public synchronized List<Error> getInputError() {
         return this.errorReport.getInputError();
     }
 
     /* TEST SELECTOR REPORT METHODS */
 
     @Override
-    public void addTestSelectorReportForTestClass(CtType<?> testClass, TestSelectorElementReport report) {
+    public synchronized void addTestSelectorReportForTestClass(CtType<?> testClass, TestSelectorElementReport report) {
         this.testSelectorReport.addTestSelectorReportForTestClass(testClass, report);
     }
 
     /* OUTPUT REPORT METHODS */
 
     @Override
-    public void addNumberAmplifiedTestMethodsToTotal(int numberOfAmplifiedTestMethods) {
+    public synchronized void addNumberAmplifiedTestMethodsToTotal(int numberOfAmplifiedTestMethods) {
         this.outputReport.addNumberAmplifiedTestMethodsToTotal(numberOfAmplifiedTestMethods);
     }
 
     @Override
-    public void addPrintedTestClasses(String line) {
+    public synchronized void addPrintedTestClasses(String line) {
         this.outputReport.addPrintedTestClasses(line);
     }
 }
@@ -54,7 +54,7 @@ public class Output {
 
     public CtType<?> output(CtType<?> testClassToBeAmplified, List<CtMethod<?>> amplifiedTestMethods) {
         final CtType clone = testClassToBeAmplified.clone();
-        testClassToBeAmplified.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(testClassToBeAmplified, clone);
         final CtType<?> amplification = AmplificationHelper.createAmplifiedTest(amplifiedTestMethods, clone);
         final File outputDirectory = new File(this.outputPathDirectory);
         if (!amplifiedTestMethods.isEmpty()) {
@@ -82,7 +82,7 @@ public class Output {
     private void outputSeedTestClassWithSuccessTestMethods(CtType<?> testClassToBeAmplified,
                                                            List<CtMethod<?>> amplifiedTestMethods) {
         final CtType<?> clone = testClassToBeAmplified.clone();
-        testClassToBeAmplified.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(testClassToBeAmplified, clone);
         clone.getMethods().stream()
                 .filter(TestFramework.get()::isTest)
                 .forEach(clone::removeMethod);
@@ -101,7 +101,7 @@ public class Output {
         DSpotUtils.printCtTypeToGivenDirectory(clone, outputDirectory, true);
     }
 
-    private void writeProjectTimeJSON() {
+    private synchronized void writeProjectTimeJSON() {
         final File file1 = new File(this.outputPathDirectory);
         if (!file1.exists()) {
             file1.mkdir();
@@ -115,7 +115,7 @@ public class Output {
         }
     }
 
-    public void addClassTimeJSON(String qualifiedName, long elapsedTime) {
+    public synchronized void addClassTimeJSON(String qualifiedName, long elapsedTime) {
         this.projectTimeJSON.add(new ClassTimeJSON(qualifiedName, elapsedTime));
     }
 
@@ -6,9 +6,14 @@ import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
 import spoon.reflect.declaration.CtType;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 /**
  * created by Benjamin DANGLOT
@@ -23,13 +28,14 @@ public class TestSelectorElementReportImpl implements TestSelectorElementReport
 
     private TestClassJSON testClassJSON;
 
-    private List<String> testCriterionReports;
+    // the reports, compressed with gzip, they are published uncompressed
+    private List<File> testCriterionReports;
 
     private String extension;
 
     public TestSelectorElementReportImpl(String textualReport,
                                          TestClassJSON testClassJSON,
-                                         List<String> testCriterionReports,
+                                         List<File> testCriterionReports,
                                          String extension) {
         this.textualReport = textualReport;
         this.testClassJSON = testClassJSON;
@@ -62,15 +68,16 @@ public class TestSelectorElementReportImpl implements TestSelectorElementReport
         final String reportPathName = DSpotUtils.shouldAddSeparator
                 .apply(outputDirectory) + testClass.getQualifiedName().replaceAll("\\.", "_")
                 + "_test_criterion_report_";
-        testCriterionReports.forEach(testCriterionReportContent -> {
-                    try (FileWriter writer =
-                                 new FileWriter(reportPathName + testCriterionReports.indexOf(testCriterionReportContent) + this.extension, false)) {
-                        writer.write(testCriterionReportContent);
-                    } catch (Exception e) {
-                        //ignored
-                    }
-                }
-        );
+        for (int i = 0; i < testCriterionReports.size(); i++) {
+            try (InputStream input = new GZIPInputStream(new FileInputStream(testCriterionReports.get(i)))) {
+                Files.copy(input,
+                        new File(reportPathName + i + this.extension).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING
+                );
+            } catch (Exception e) {
+                //ignored
+            }
+        }
         // 3 return the textual report for this test classTestClassJSON
         return this.textualReport;
     }
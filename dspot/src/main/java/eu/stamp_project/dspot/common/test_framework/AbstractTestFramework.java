@@ -24,12 +24,23 @@ public abstract class AbstractTestFramework implements TestFrameworkSupport {
 
     protected final String qualifiedNameOfAssertClass;
 
+    // the index of the model, if any, see TestFramework
+    protected TestFrameworkIndex index;
+
     public AbstractTestFramework(String... qualifiedNameOfAssertClasses) {
         this.qualifiedNameOfAssertClasses = Arrays.asList(qualifiedNameOfAssertClasses);
         this.qualifiedNameOfAssertClass = this.qualifiedNameOfAssertClasses.get(0);
         this.filter = new IsAssertInvocationFilter(this.qualifiedNameOfAssertClasses);
     }
 
+    public void setIndex(TestFrameworkIndex index) {
+        this.index = index;
+    }
+
+    public IsAssertInvocationFilter getIsAssertInvocationFilter() {
+        return this.filter;
+    }
+
     @Override
     public boolean isAssert(CtInvocation<?> invocation) {
         return this.filter.isAssert(invocation);
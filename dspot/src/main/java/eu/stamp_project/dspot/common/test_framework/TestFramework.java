@@ -22,7 +22,6 @@ import spoon.reflect.factory.Factory;
 import spoon.reflect.visitor.filter.TypeFilter;
 
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -50,6 +49,8 @@ public class TestFramework implements TestFrameworkSupport {
 
     private Factory factory;
 
+    private final TestFrameworkIndex index;
+
     private TestFramework(Factory factory) {
         this.factory = factory;
         this.testFrameworkSupportList = new ArrayList<>();
@@ -58,6 +59,20 @@ public class TestFramework implements TestFrameworkSupport {
         this.testFrameworkSupportList.add(new JUnit5Support());
         this.testFrameworkSupportList.add(new GoogleTruthTestFramework());
         this.testFrameworkSupportList.add(new AssertJTestFramework());
+        this.index = new TestFrameworkIndex();
+        this.testFrameworkSupportList.stream()
+                .filter(AbstractTestFramework.class::isInstance)
+                .forEach(testFrameworkSupport -> ((AbstractTestFramework) testFrameworkSupport).setIndex(this.index));
+        // the detection of the tests and of the assertions is memoized, until the methods and types are modified
+        if (factory != null) {
+            new TestFrameworkChangeListener(this.testFrameworkSupportList.stream()
+                    .filter(AbstractTestFramework.class::isInstance)
+                    .map(testFrameworkSupport -> ((AbstractTestFramework) testFrameworkSupport).getIsAssertInvocationFilter())
+                    .collect(Collectors.toList()),
+                    this.index
+            ).attachTo(factory.getEnvironment());
+            this.index.build(factory, this::isTestForOneTestFrameworkSupport);
+        }
     }
 
     /**
@@ -117,6 +132,10 @@ public class TestFramework implements TestFrameworkSupport {
 
     @Override
     public boolean isTest(CtMethod<?> candidate) {
+        return candidate != null && this.index.isTest(candidate, this::isTestForOneTestFrameworkSupport);
+    }
+
+    private boolean isTestForOneTestFrameworkSupport(CtMethod<?> candidate) {
         for (TestFrameworkSupport testFrameworkSupport : this.testFrameworkSupportList) {
             if (testFrameworkSupport.isTest(candidate)) {
                 return true;
@@ -159,14 +178,16 @@ public class TestFramework implements TestFrameworkSupport {
     // i.e. if the developer used JUnit4, we should generate JUnit4 assertions
     // We determine is by taking the most common assertion type in the given test method.
     private TestFrameworkSupport getTestFrameworkImpl(CtMethod<?> testMethod) {
-        final Map<TestFrameworkSupport, Long> numberOfCallsToAssertionPerTestFramework = this.testFrameworkSupportList.stream()
-                .collect(Collectors.toMap(Function.identity(),
-                        testFrameworkSupport ->
-                                testMethod.getElements(new TypeFilter<>(CtStatement.class))
-                                        .stream()
-                                        .filter(testFrameworkSupport::isAssert)
-                                        .count()
-                ));
+        // the invocations of the test method are visited once for all the test framework supports
+        final Map<TestFrameworkSupport, Long> numberOfCallsToAssertionPerTestFramework = new HashMap<>();
+        this.testFrameworkSupportList.forEach(testFrameworkSupport -> numberOfCallsToAssertionPerTestFramework.put(testFrameworkSupport, 0L));
+        for (CtInvocation<?> invocation : testMethod.getElements(new TypeFilter<CtInvocation<?>>(CtInvocation.class))) {
+            for (TestFrameworkSupport testFrameworkSupport : this.testFrameworkSupportList) {
+                if (testFrameworkSupport.isAssert(invocation)) {
+                    numberOfCallsToAssertionPerTestFramework.merge(testFrameworkSupport, 1L, Long::sum);
+                }
+            }
+        }
         if (numberOfCallsToAssertionPerTestFramework.values().stream().allMatch(aLong -> aLong == 0L)) {
             TestFrameworkSupport testFrameworkSupport = getTestFrameworkSupportFromIsTest(testMethod);
             if (testFrameworkSupport != null) {
@@ -206,11 +227,7 @@ public class TestFramework implements TestFrameworkSupport {
         return _instance.factory.Type()
                 .getAll()
                 .stream()
-                .filter(ctType ->
-                        ctType.getMethods()
-                                .stream()
-                                .anyMatch(TestFramework.get()::isTest)
-                );
+                .filter(ctType -> _instance.index.isTestClass(ctType, _instance::isTest));
     }
 
     /**
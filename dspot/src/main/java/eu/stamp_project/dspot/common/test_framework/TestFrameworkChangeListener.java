@@ -0,0 +1,96 @@
+package eu.stamp_project.dspot.common.test_framework;
+
+import eu.stamp_project.dspot.common.configuration.DSpotCache;
+import eu.stamp_project.dspot.common.configuration.LRUCache;
+import eu.stamp_project.dspot.common.test_framework.assertions.IsAssertInvocationFilter;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ParentNotInitializedException;
+import spoon.reflect.path.CtRole;
+import spoon.support.modelobs.ChangeCollector;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listens to the modifications of the model, to remove from the {@link TestFrameworkIndex} the entries of the modified
+ * methods and types, and from the given {@link IsAssertInvocationFilter} the status of the executables of the modified types,
+ * and of their enclosing types. The fingerprints of the modified methods are also removed from {@link DSpotCache},
+ * as well as the literal pool of a package when a type or a method is added to it or removed from it.
+ *
+ * It is attached to the environment of the factory with {@link ChangeCollector#attachTo(spoon.compiler.Environment)}.
+ * The changes are not recorded.
+ */
+public class TestFrameworkChangeListener extends ChangeCollector {
+
+    private final List<IsAssertInvocationFilter> filters;
+
+    private final TestFrameworkIndex index;
+
+    public TestFrameworkChangeListener(List<IsAssertInvocationFilter> filters, TestFrameworkIndex index) {
+        this.filters = filters;
+        this.index = index;
+    }
+
+    @Override
+    protected void onChange(CtElement currentElement, CtRole role) {
+        this.index.remove(currentElement);
+        removeFingerprints(currentElement);
+        removeLiterals(currentElement, role);
+        if (this.filters.stream().allMatch(IsAssertInvocationFilter::isEmpty)) {
+            return;
+        }
+        try {
+            CtType<?> modifiedType = currentElement instanceof CtType ?
+                    (CtType<?>) currentElement : currentElement.getParent(CtType.class);
+            while (modifiedType != null) {
+                final String qualifiedName = modifiedType.getQualifiedName();
+                this.filters.forEach(filter -> filter.invalidate(qualifiedName));
+                modifiedType = modifiedType.getParent(CtType.class);
+            }
+        } catch (ParentNotInitializedException ignored) {
+            // the modified element is not in the model yet, e.g. it is being cloned
+        }
+    }
+
+    // the literal pool of a package is made of the literals of its types, see FastLiteralAmplifier,
+    // e.g. the amplified test classes added with AmplificationHelper.addToPackageOf()
+    private void removeLiterals(CtElement modifiedElement, CtRole role) {
+        if (role != CtRole.TYPE && role != CtRole.TYPE_MEMBER && role != CtRole.METHOD) {
+            return;
+        }
+        final LRUCache<String, Map<Class<?>, List<Object>>> literalCache = DSpotCache.getLiteralCache();
+        if (literalCache.isEmpty()) {
+            return;
+        }
+        try {
+            final CtPackage modifiedPackage = modifiedElement instanceof CtPackage ?
+                    (CtPackage) modifiedElement : modifiedElement.getParent(CtPackage.class);
+            if (modifiedPackage != null) {
+                literalCache.remove(modifiedPackage.getQualifiedName());
+            }
+        } catch (ParentNotInitializedException ignored) {
+            // the modified element is not in the model yet, e.g. it is being cloned
+        }
+    }
+
+    private void removeFingerprints(CtElement modifiedElement) {
+        final LRUCache<CtMethod<?>, Long> fingerprintCache = DSpotCache.getFingerprintCache();
+        if (fingerprintCache.isEmpty()) {
+            return;
+        }
+        try {
+            CtElement current = modifiedElement;
+            while (current != null && !(current instanceof CtPackage)) {
+                if (current instanceof CtMethod) {
+                    fingerprintCache.remove((CtMethod<?>) current);
+                }
+                current = current.isParentInitialized() ? current.getParent() : null;
+            }
+        } catch (ParentNotInitializedException ignored) {
+            // the modified element is not in the model yet, e.g. it is being cloned
+        }
+    }
+}
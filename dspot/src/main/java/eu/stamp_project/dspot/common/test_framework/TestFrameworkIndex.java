@@ -0,0 +1,200 @@
+package eu.stamp_project.dspot.common.test_framework;
+
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtElement;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.declaration.ParentNotInitializedException;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.CtScanner;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Indexes, for each method of the model, the qualified names of its annotations and whether it is a test method,
+ * and for each type, the qualified names of its super classes and whether it is a test class.
+ *
+ * The index is built in one pass over the model, when the {@link TestFramework} is initialized.
+ * The entries are stored in the metadata of the methods and types, thus they are collected with them.
+ * The entry of a method that is cloned, or that is created, is built on its first lookup.
+ * The entry of a method, or of a type, that is modified is removed by {@link TestFrameworkChangeListener}.
+ */
+public class TestFrameworkIndex {
+
+    private static final String METADATA_KEY = "TestFrameworkIndex";
+
+    /*
+        The entries are serializable since the metadata are serialized with the model,
+        e.g. by SerializationUtils.clone() in ArrayLiteralAmplifier. Their elements are transient:
+        a deserialized entry is not valid anymore, and the deserialized element is indexed again on its first lookup.
+     */
+    private static class MethodEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        // the metadata are copied with the element when it is cloned, the entry is only valid for the indexed method
+        private final transient CtMethod<?> method;
+
+        // a method that is moved to another type, e.g. an amplified test method added to a test class, is indexed again
+        private final transient CtElement parent;
+
+        private final Set<String> annotations;
+
+        private volatile Boolean isTest;
+
+        private MethodEntry(CtMethod<?> method) {
+            this.method = method;
+            this.parent = getParent(method);
+            final Set<String> annotations = new HashSet<>();
+            for (CtAnnotation<?> annotation : method.getAnnotations()) {
+                annotations.add(annotation.getAnnotationType().getQualifiedName());
+            }
+            this.annotations = annotations;
+        }
+    }
+
+    private static class TypeEntry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CtType<?> type;
+
+        private final List<String> superClasses;
+
+        private volatile Boolean isTestClass;
+
+        private TypeEntry(CtType<?> type) {
+            this.type = type;
+            final List<String> superClasses = new ArrayList<>();
+            CtTypeReference<?> current = type.getReference();
+            while (current != null && current.getSuperclass() != null) {
+                superClasses.add(current.getQualifiedName());
+                current = current.getSuperclass();
+            }
+            this.superClasses = superClasses;
+        }
+    }
+
+    /**
+     * Indexes all the methods and types of the model of the given factory.
+     *
+     * @param factory the factory of the model to be indexed
+     * @param isTest  computes whether a method is a test method
+     */
+    public void build(Factory factory, Predicate<CtMethod<?>> isTest) {
+        new CtScanner() {
+            @Override
+            public <T> void visitCtMethod(CtMethod<T> m) {
+                getEntry(m).isTest = isTest.test(m);
+                super.visitCtMethod(m);
+            }
+
+            @Override
+            public void scan(CtElement element) {
+                if (element instanceof CtType) {
+                    getEntry((CtType<?>) element);
+                }
+                super.scan(element);
+            }
+        }.scan(factory.getModel().getRootPackage());
+    }
+
+    /**
+     * @param method the method
+     * @return the qualified names of the annotations of the given method
+     */
+    public Set<String> getAnnotations(CtMethod<?> method) {
+        return Collections.unmodifiableSet(getEntry(method).annotations);
+    }
+
+    /**
+     * @param type the type
+     * @return the qualified names of the given type and of its super classes, except the ones that have no super class,
+     * <i>e.g.</i> java.lang.Object
+     */
+    public List<String> getSuperClasses(CtType<?> type) {
+        return Collections.unmodifiableList(getEntry(type).superClasses);
+    }
+
+    /**
+     * @param method the method
+     * @param isTest computes whether the given method is a test method, if it is not indexed yet
+     * @return true if the given method is a test method
+     */
+    public boolean isTest(CtMethod<?> method, Predicate<CtMethod<?>> isTest) {
+        final MethodEntry entry = getEntry(method);
+        if (entry.isTest == null) {
+            entry.isTest = isTest.test(method);
+        }
+        return entry.isTest;
+    }
+
+    /**
+     * @param type   the type
+     * @param isTest computes whether a method is a test method, if it is not indexed yet
+     * @return true if at least one method of the given type is a test method
+     */
+    public boolean isTestClass(CtType<?> type, Predicate<CtMethod<?>> isTest) {
+        final TypeEntry entry = getEntry(type);
+        if (entry.isTestClass == null) {
+            entry.isTestClass = type.getMethods()
+                    .stream()
+                    .anyMatch(method -> isTest(method, isTest));
+        }
+        return entry.isTestClass;
+    }
+
+    /**
+     * Removes the entries of the given modified element, of its enclosing methods and of its enclosing types.
+     *
+     * @param modifiedElement an element that has been modified
+     */
+    public void remove(CtElement modifiedElement) {
+        try {
+            CtElement current = modifiedElement;
+            while (current != null && !(current instanceof CtPackage)) {
+                if ((current instanceof CtMethod || current instanceof CtType) &&
+                        current.getMetadata(METADATA_KEY) != null) {
+                    current.putMetadata(METADATA_KEY, null);
+                }
+                current = current.isParentInitialized() ? current.getParent() : null;
+            }
+        } catch (ParentNotInitializedException ignored) {
+            // the modified element is not in the model yet, e.g. it is being cloned
+        }
+    }
+
+    private MethodEntry getEntry(CtMethod<?> method) {
+        final Object entry = method.getMetadata(METADATA_KEY);
+        if (entry instanceof MethodEntry &&
+                ((MethodEntry) entry).method == method &&
+                ((MethodEntry) entry).parent == getParent(method)) {
+            return (MethodEntry) entry;
+        }
+        final MethodEntry newEntry = new MethodEntry(method);
+        method.putMetadata(METADATA_KEY, newEntry);
+        return newEntry;
+    }
+
+    private TypeEntry getEntry(CtType<?> type) {
+        final Object entry = type.getMetadata(METADATA_KEY);
+        if (entry instanceof TypeEntry && ((TypeEntry) entry).type == type) {
+            return (TypeEntry) entry;
+        }
+        final TypeEntry newEntry = new TypeEntry(type);
+        type.putMetadata(METADATA_KEY, newEntry);
+        return newEntry;
+    }
+
+    private static CtElement getParent(CtElement element) {
+        return element.isParentInitialized() ? element.getParent() : null;
+    }
+}
@@ -85,7 +85,7 @@ public interface TestFrameworkSupport {
     public CtMethod<?> generateExpectedExceptionsBlock(CtMethod<?> test, Failure failure, int numberOfFail);
 
     /**
-     * This method is responsible to add to the test class that will be run a method that will call {@link ObjectLog#save()}.
+     * This method is responsible to add to the test class that will be run a method that will call {@link ObjectLog#save(String)}.
      * The test methods in the given test class should have calls to {@link ObjectLog#log(Object, String, String)}.
      * @param testClass the test class that contains test method with logs. This testClass reference will be directly modified.
      * @param testsToRun the list of instrumented test methods to be run
@@ -1,13 +1,25 @@
 package eu.stamp_project.dspot.common.test_framework.assertions;
 
+import eu.stamp_project.dspot.common.configuration.DSpotCache;
 import spoon.reflect.code.CtInvocation;
 import spoon.reflect.code.CtStatement;
+import spoon.reflect.declaration.CtExecutable;
 import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtTypeReference;
 import spoon.reflect.visitor.filter.TypeFilter;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * created by Benjamin DANGLOT
@@ -16,7 +28,15 @@ import java.util.regex.Pattern;
  */
 public class IsAssertInvocationFilter {
 
-    private final List<String> assertionClassesName;
+    /**
+     * The status of an executable: either it is an assertion, or it contains, directly or through a chain of method calls,
+     * an invocation to an assertion, or neither.
+     */
+    public enum Status {ASSERT, CONTAINS_ASSERT, NEITHER}
+
+    private static final AtomicInteger NUMBER_OF_FILTERS = new AtomicInteger();
+
+    private final List<Pattern> assertionClassesPattern;
 
     /**
      * This field represent the number of method call to explore to find any assertion.
@@ -25,12 +45,25 @@ public class IsAssertInvocationFilter {
      */
     private final int depth;
 
+    // whether the executables of the declaring type of the given qualified name are assertions
+    private final Map<String, Boolean> isAssertionClass = new ConcurrentHashMap<>();
+
+    // for each declaring type, the status of each of its executables, per number of method calls left to explore,
+    // is stored in DSpotCache.getAssertionCache(), with the qualified name of the declaring type prefixed by this prefix.
+    // Since the status of an executable depends on its body, it is removed when its declaring type is modified
+    private final String prefixOfCacheKeys = NUMBER_OF_FILTERS.incrementAndGet() + "#";
+
+    // the declaring types whose status of executables have been stored in the cache
+    private final Set<String> typesInCache = ConcurrentHashMap.newKeySet();
+
+    // for each declaring type, the types whose status of executables depend on the executables of this declaring type
+    private final Map<String, Set<String>> dependentTypes = new ConcurrentHashMap<>();
+
     /**
      * @param assertionClassesName the name of the classes of the assertions used, e.g. org.junit.Assert.
      */
     public IsAssertInvocationFilter(List<String> assertionClassesName) {
-        this.assertionClassesName = assertionClassesName;
-        this.depth = 3;
+        this(assertionClassesName, 3);
     }
 
     /**
@@ -38,7 +71,9 @@ public class IsAssertInvocationFilter {
      * @param depth the number of method chained to find an assertion
      */
     public IsAssertInvocationFilter(List<String>  assertionClassesName, int depth) {
-        this.assertionClassesName = assertionClassesName;
+        this.assertionClassesPattern = assertionClassesName.stream()
+                .map(Pattern::compile)
+                .collect(Collectors.toList());
         this.depth = depth;
     }
 
@@ -56,67 +91,149 @@ public class IsAssertInvocationFilter {
      * @return true if the candidate is an assertion or call a method that contains assertions.
      */
     public boolean isAssert(CtInvocation<?> invocation) {
-        return _isAssert(invocation) ||
-                (invocation.getExecutable().getDeclaration() != null &&
-                        !invocation.getExecutable()
-                                .getDeclaration()
-                                .getElements(new HasAssertInvocationFilter(this.depth))
-                                .isEmpty()
-                );
+        return getStatus(invocation) != Status.NEITHER;
     }
 
-    private class HasAssertInvocationFilter extends TypeFilter<CtInvocation<?>> {
+    /**
+     * @param invocation the invocation to check
+     * @return {@link Status#ASSERT} if the invocation is an assertion call, {@link Status#CONTAINS_ASSERT} if it is an
+     * invocation to a method that contains assertion calls, {@link Status#NEITHER} otherwise.
+     */
+    public Status getStatus(CtInvocation<?> invocation) {
+        if (_isAssert(invocation)) {
+            return Status.ASSERT;
+        }
+        if (invocation.getExecutable() == null) {
+            return Status.NEITHER;
+        }
+        final CtExecutable<?> declaration = invocation.getExecutable().getDeclaration();
+        return declaration != null && containsAssertion(declaration, this.depth) ? Status.CONTAINS_ASSERT : Status.NEITHER;
+    }
 
-        int deep;
+    /**
+     * Removes the status of the executables of the given type, and of the types that depend on them.
+     * It must be called when the given type is modified, see {@link eu.stamp_project.dspot.common.test_framework.TestFrameworkChangeListener}.
+     *
+     * @param qualifiedNameOfType the qualified name of the modified type
+     */
+    public void invalidate(String qualifiedNameOfType) {
+        if (this.typesInCache.isEmpty()) {
+            return;
+        }
+        final Set<String> invalidatedTypes = new HashSet<>();
+        final Deque<String> typesToInvalidate = new ArrayDeque<>();
+        typesToInvalidate.push(qualifiedNameOfType);
+        while (!typesToInvalidate.isEmpty()) {
+            final String type = typesToInvalidate.pop();
+            if (invalidatedTypes.add(type)) {
+                if (this.typesInCache.remove(type)) {
+                    DSpotCache.getAssertionCache().remove(this.prefixOfCacheKeys + type);
+                }
+                final Set<String> dependentTypesOfType = this.dependentTypes.remove(type);
+                if (dependentTypesOfType != null) {
+                    typesToInvalidate.addAll(dependentTypesOfType);
+                }
+            }
+        }
+    }
 
-        HasAssertInvocationFilter(int deep) {
-            super(CtInvocation.class);
-            this.deep = deep;
+    public boolean isEmpty() {
+        return this.typesInCache.isEmpty();
+    }
+
+    // true if the given executable contains an assertion call, or a chain of at most deep method calls to an assertion
+    private boolean containsAssertion(CtExecutable<?> executable, int deep) {
+        if (deep < 0) {
+            return false;
+        }
+        final CtType<?> declaringType = executable.getParent(CtType.class);
+        if (declaringType == null) {
+            return computeContainsAssertion(executable, deep, null);
+        }
+        final String qualifiedNameOfDeclaringType = declaringType.getQualifiedName();
+        this.typesInCache.add(qualifiedNameOfDeclaringType);
+        final Status[] statusPerDepth = DSpotCache.getAssertionCache()
+                .computeIfAbsent(this.prefixOfCacheKeys + qualifiedNameOfDeclaringType, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(executable.getSignature(), signature -> new Status[this.depth + 1]);
+        if (statusPerDepth[deep] == null) {
+            statusPerDepth[deep] = computeContainsAssertion(executable, deep, qualifiedNameOfDeclaringType) ?
+                    Status.CONTAINS_ASSERT : Status.NEITHER;
         }
+        return statusPerDepth[deep] == Status.CONTAINS_ASSERT;
+    }
 
-        @Override
-        public boolean matches(CtInvocation<?> element) {
-            return deep >= 0 &&
-                    (_isAssert(element) || containsMethodCallToAssertion(element, this.deep));
+    private boolean computeContainsAssertion(CtExecutable<?> executable, int deep, String qualifiedNameOfDeclaringType) {
+        for (CtInvocation<?> invocation : executable.getElements(new TypeFilter<CtInvocation<?>>(CtInvocation.class))) {
+            if (_isAssert(invocation)) {
+                return true;
+            }
+            final CtMethod<?> method = getCalledMethod(invocation);
+            if (method == null) {
+                continue;
+            }
+            final CtType<?> declaringTypeOfMethod = method.getDeclaringType();
+            if (qualifiedNameOfDeclaringType != null && declaringTypeOfMethod != null &&
+                    !qualifiedNameOfDeclaringType.equals(declaringTypeOfMethod.getQualifiedName())) {
+                this.dependentTypes
+                        .computeIfAbsent(declaringTypeOfMethod.getQualifiedName(), type -> ConcurrentHashMap.newKeySet())
+                        .add(qualifiedNameOfDeclaringType);
+            }
+            if (containsAssertion(method, deep - 1)) {
+                return true;
+            }
         }
+        return false;
     }
 
     private boolean _isAssert(CtInvocation<?> invocation) {
         // We rely on the package of the declaring type of the invocation
         // in this case, we will match it
-        final String qualifiedNameOfDeclaringType;
         // TODO should make these checks?
         if (invocation == null ||
                 invocation.getExecutable() == null ||
-                invocation.getExecutable().getDeclaringType() == null ||
-                invocation.getExecutable().getDeclaringType().getTypeDeclaration() == null) {
+                invocation.getExecutable().getDeclaringType() == null) {
             return false;
         }
-        if (invocation.getExecutable().getDeclaringType().getPackage() == null) {
-            if (invocation.getExecutable().getDeclaringType().getTopLevelType() != null) {
-                qualifiedNameOfDeclaringType = invocation.getExecutable().getDeclaringType().getTopLevelType().getQualifiedName();
+        final CtTypeReference<?> declaringType = invocation.getExecutable().getDeclaringType();
+        final Boolean isAssertionClass = this.isAssertionClass.get(declaringType.getQualifiedName());
+        if (isAssertionClass != null) {
+            return isAssertionClass;
+        }
+        final boolean isAssert = _isAssert(declaringType);
+        this.isAssertionClass.put(declaringType.getQualifiedName(), isAssert);
+        return isAssert;
+    }
+
+    private boolean _isAssert(CtTypeReference<?> declaringType) {
+        final String qualifiedNameOfDeclaringType;
+        if (declaringType.getTypeDeclaration() == null) {
+            return false;
+        }
+        if (declaringType.getPackage() == null) {
+            if (declaringType.getTopLevelType() != null) {
+                qualifiedNameOfDeclaringType = declaringType.getTopLevelType().getQualifiedName();
             } else {
                 return false;
             }
         } else {
-            qualifiedNameOfDeclaringType = invocation.getExecutable().getDeclaringType().getQualifiedName();
+            qualifiedNameOfDeclaringType = declaringType.getQualifiedName();
         }
-        return this.assertionClassesName.stream().anyMatch(
-                assertionClassName -> Pattern.compile(assertionClassName).matcher(qualifiedNameOfDeclaringType).matches()
+        return this.assertionClassesPattern.stream().anyMatch(
+                assertionClassPattern -> assertionClassPattern.matcher(qualifiedNameOfDeclaringType).matches()
         );
     }
 
-    private boolean containsMethodCallToAssertion(CtInvocation<?> invocation, int deep) {
-        if (invocation.getExecutable() == null ||
-                invocation.getExecutable().getDeclaringType() == null ||
-                invocation.getExecutable().getDeclaringType().getTypeDeclaration() == null) {
-            return false;
+    private CtMethod<?> getCalledMethod(CtInvocation<?> invocation) {
+        final CtExecutableReference<?> executable = invocation.getExecutable();
+        if (executable == null ||
+                executable.getDeclaringType() == null ||
+                executable.getDeclaringType().getTypeDeclaration() == null) {
+            return null;
         }
-        final CtMethod<?> method = invocation.getExecutable().getDeclaringType().getTypeDeclaration().getMethod(
-                invocation.getExecutable().getType(),
-                invocation.getExecutable().getSimpleName(),
-                invocation.getExecutable().getParameters().toArray(new CtTypeReference[0])
+        return executable.getDeclaringType().getTypeDeclaration().getMethod(
+                executable.getType(),
+                executable.getSimpleName(),
+                executable.getParameters().toArray(new CtTypeReference[0])
         );
-        return method != null && !method.getElements(new HasAssertInvocationFilter(deep - 1)).isEmpty();
     }
 }
@@ -57,7 +57,10 @@ public class JUnit3Support extends JUnitSupport {
         if (testClass == null) {
             return false;
         }
-        return matchOneSuperClassToAssertClass(testClass.getReference()) &&
+        final boolean inheritsFromTestCase = this.index == null ?
+                matchOneSuperClassToAssertClass(testClass.getReference()) :
+                this.index.getSuperClasses(testClass).contains(this.qualifiedNameOfAssertClass);
+        return inheritsFromTestCase &&
                 //candidate.getAnnotations().isEmpty() && TODO checks if needed
                 candidate.getSimpleName().startsWith("test");
     }
@@ -119,7 +122,7 @@ public class JUnit3Support extends JUnitSupport {
         tearDown.setSimpleName("tearDown");
         tearDown.addThrownType(factory.createCtTypeReference(Exception.class));
         tearDown.setType(factory.Type().VOID_PRIMITIVE);
-        createCallToSaveAndInsertAtTheEnd(factory, tearDown);
+        createCallToSaveAndInsertAtTheEnd(factory, tearDown, testClass.getQualifiedName());
         // add tearDown method to the anonymous TestSetup Class
         testSetupNewClass.getAnonymousClass().addMethod(tearDown);
 
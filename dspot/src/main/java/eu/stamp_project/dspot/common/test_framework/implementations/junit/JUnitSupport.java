@@ -73,6 +73,9 @@ public abstract class JUnitSupport extends AbstractTestFramework {
     }
 
     private boolean hasAnnotation(String fullQualifiedNameOfAnnotation, CtElement candidate) {
+        if (this.index != null && candidate instanceof CtMethod) {
+            return this.index.getAnnotations((CtMethod<?>) candidate).contains(fullQualifiedNameOfAnnotation);
+        }
         return candidate.getAnnotations()
                 .stream()
                 .anyMatch(ctAnnotation -> ctAnnotation.getAnnotationType().getQualifiedName()
@@ -205,25 +208,30 @@ public abstract class JUnitSupport extends AbstractTestFramework {
                                 )
                 ).findFirst()
                 .orElse(initAfterClassMethod(factory));
-        createCallToSaveAndInsertAtTheEnd(factory, afterClassMethod);
+        createCallToSaveAndInsertAtTheEnd(factory, afterClassMethod, testClass.getQualifiedName());
         testClass.addMethod(afterClassMethod);
     }
 
-    protected void createCallToSaveAndInsertAtTheEnd(Factory factory, CtMethod<?> afterClassMethod) {
+    // the observations are saved in a file specific to the test class, see ObjectLog#save(String)
+    protected void createCallToSaveAndInsertAtTheEnd(Factory factory, CtMethod<?> afterClassMethod, String testClassName) {
         final CtTypeReference<?> ctTypeReference = factory.createCtTypeReference(ObjectLog.class);
         final CtExecutableReference<?> reference = ctTypeReference
                 .getTypeDeclaration()
                 .getMethodsByName("save")
-                .get(0)
+                .stream()
+                .filter(method -> method.getParameters().size() == 1)
+                .findFirst()
+                .get()
                 .getReference();
+        final CtInvocation<?> callToSave = factory.createInvocation(
+                factory.createTypeAccess(ctTypeReference),
+                reference,
+                factory.createLiteral(testClassName)
+        );
         if (afterClassMethod.getBody() == null) {
-            afterClassMethod.setBody(
-                    factory.createInvocation(factory.createTypeAccess(ctTypeReference), reference)
-            );
+            afterClassMethod.setBody(callToSave);
         } else {
-            afterClassMethod.getBody().insertEnd(
-                    factory.createInvocation(factory.createTypeAccess(ctTypeReference), reference)
-            );
+            afterClassMethod.getBody().insertEnd(callToSave);
         }
     }
 
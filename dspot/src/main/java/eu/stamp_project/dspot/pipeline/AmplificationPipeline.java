@@ -0,0 +1,263 @@
+package eu.stamp_project.dspot.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the iterations of the amplification of several test methods as a pipeline.
+ *
+ * A batch is the amplification of one test method at one iteration. It goes through three stages, each one run by
+ * its own thread and fed by its own bounded queue:
+ * <ol>
+ * <li>the input amplification, that generates new test methods;</li>
+ * <li>the assertion amplification, that compiles and runs the new test methods to observe them and to add assertions;</li>
+ * <li>the selection, that keeps the test methods that improve the test suite, and selects the test methods
+ * to be amplified at the next iteration, if any. The batch of the next iteration goes back to the first stage.</li>
+ * </ol>
+ * The iterations of one test method are run one after the other, but the batches of different test methods overlap:
+ * the input amplification of a batch is done while the test methods of another batch are compiled and run.
+ *
+ * The number of batches in the pipeline is bounded by its capacity, thus a queue never holds more batches than the capacity.
+ * The assertion amplification and the selection both print, compile and run the test class under amplification,
+ * in the same directories, thus they are never run at the same time.
+ * The pipeline does not protect the model shared by the stages: the given stages must do it, e.g. with a lock
+ * that is released while the test methods are run.
+ *
+ * @param <T> the type of the test methods
+ */
+public class AmplificationPipeline<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AmplificationPipeline.class);
+
+    /**
+     * A stage of the pipeline. A stage that throws an exception ends the amplification of the test method of the batch.
+     * A stage that throws an error ends the whole run of the pipeline, that throws it.
+     *
+     * @param <T> the type of the test methods
+     */
+    @FunctionalInterface
+    public interface Stage<T> {
+        List<T> apply(List<T> testMethods, int iteration) throws Exception;
+    }
+
+    private final int numberOfIterations;
+
+    private final int capacity;
+
+    private final Stage<T> preSelection;
+
+    private final Stage<T> inputAmplification;
+
+    private final Stage<T> assertionAmplification;
+
+    private final Stage<T> selection;
+
+    private final StageStatistics preSelectionStatistics = new StageStatistics("pre-selection");
+
+    private final StageStatistics inputAmplificationStatistics = new StageStatistics("input amplification");
+
+    private final StageStatistics assertionAmplificationStatistics = new StageStatistics("assertion amplification");
+
+    private final StageStatistics selectionStatistics = new StageStatistics("selection");
+
+    private final Object executionLock = new Object();
+
+    private long elapsedTimeInMs;
+
+    /**
+     * @param numberOfIterations     the number of iterations of each test method
+     * @param capacity               the maximum number of batches in the pipeline
+     * @param preSelection           selects, among the test methods of an iteration, the ones to be amplified
+     * @param inputAmplification     generates new test methods from the selected test methods
+     * @param assertionAmplification adds assertions to the new test methods, it returns the test methods of the next iteration
+     * @param selection              returns the test methods to keep
+     */
+    public AmplificationPipeline(int numberOfIterations,
+                                 int capacity,
+                                 Stage<T> preSelection,
+                                 Stage<T> inputAmplification,
+                                 Stage<T> assertionAmplification,
+                                 Stage<T> selection) {
+        this.numberOfIterations = numberOfIterations;
+        this.capacity = Math.max(1, capacity);
+        this.preSelection = preSelection;
+        this.inputAmplification = inputAmplification;
+        this.assertionAmplification = assertionAmplification;
+        this.selection = selection;
+    }
+
+    /**
+     * Amplifies the given test methods, during the given number of iterations.
+     *
+     * @param testMethods the test methods to be amplified
+     * @return for each given test method, in the same order, the amplified test methods to keep
+     */
+    public List<List<T>> run(List<T> testMethods) {
+        final List<List<T>> testMethodsToKeep = new ArrayList<>();
+        testMethods.forEach(testMethod -> testMethodsToKeep.add(new ArrayList<>()));
+        final BlockingQueue<Batch<T>> toInputAmplification = new ArrayBlockingQueue<>(this.capacity);
+        final BlockingQueue<Batch<T>> toAssertionAmplification = new ArrayBlockingQueue<>(this.capacity);
+        final BlockingQueue<Batch<T>> toSelection = new ArrayBlockingQueue<>(this.capacity);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final long start = System.currentTimeMillis();
+        executor.execute(() -> runStage(this.inputAmplification, this.inputAmplificationStatistics,
+                toInputAmplification, toAssertionAmplification, false)
+        );
+        executor.execute(() -> runStage(this.assertionAmplification, this.assertionAmplificationStatistics,
+                toAssertionAmplification, toSelection, true)
+        );
+        try {
+            int nextTestMethod = 0;
+            int numberOfBatchesInPipeline = 0;
+            while (nextTestMethod < testMethods.size() || numberOfBatchesInPipeline > 0) {
+                if (nextTestMethod < testMethods.size() && numberOfBatchesInPipeline < this.capacity) {
+                    final Batch<T> batch = new Batch<>(nextTestMethod,
+                            0,
+                            Collections.singletonList(testMethods.get(nextTestMethod))
+                    );
+                    nextTestMethod++;
+                    if (schedule(batch, toInputAmplification)) {
+                        numberOfBatchesInPipeline++;
+                    }
+                } else {
+                    final Batch<T> batch = take(toSelection, this.selectionStatistics);
+                    numberOfBatchesInPipeline--;
+                    if (batch.error != null) {
+                        throw batch.error;
+                    }
+                    if (batch.testMethods.isEmpty()) {
+                        continue;
+                    }
+                    final List<T> selectedTestMethods = apply(this.selection, batch, this.selectionStatistics);
+                    if (selectedTestMethods == null) {
+                        continue;
+                    }
+                    testMethodsToKeep.get(batch.index).addAll(selectedTestMethods);
+                    if (batch.iteration + 1 < this.numberOfIterations &&
+                            schedule(new Batch<>(batch.index, batch.iteration + 1, batch.testMethods), toInputAmplification)) {
+                        numberOfBatchesInPipeline++;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+            this.elapsedTimeInMs = System.currentTimeMillis() - start;
+        }
+        getStatistics().forEach(statistics ->
+                LOGGER.info("Pipeline stage {}, utilisation {}%",
+                        statistics,
+                        Math.round(100 * statistics.getUtilisation(this.elapsedTimeInMs))
+                )
+        );
+        return testMethodsToKeep;
+    }
+
+    // selects the test methods to be amplified, and puts the batch in the pipeline if there is any
+    private boolean schedule(Batch<T> batch, BlockingQueue<Batch<T>> toInputAmplification) throws InterruptedException {
+        final List<T> selectedTestMethods = apply(this.preSelection, batch, this.preSelectionStatistics);
+        if (selectedTestMethods == null || selectedTestMethods.isEmpty()) {
+            return false;
+        }
+        batch.testMethods = selectedTestMethods;
+        toInputAmplification.put(batch);
+        return true;
+    }
+
+    // the depth of a queue is sampled in the statistics of the stage that consumes it, including the batch taken
+    private Batch<T> take(BlockingQueue<Batch<T>> input, StageStatistics statistics) throws InterruptedException {
+        final Batch<T> batch = input.take();
+        statistics.addQueueDepth(input.size() + 1);
+        return batch;
+    }
+
+    private void runStage(Stage<T> stage,
+                          StageStatistics statistics,
+                          BlockingQueue<Batch<T>> input,
+                          BlockingQueue<Batch<T>> output,
+                          boolean shouldLockExecution) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Batch<T> batch = take(input, statistics);
+                if (batch.error == null && !batch.testMethods.isEmpty()) {
+                    try {
+                        final List<T> testMethods = apply(stage, batch, statistics, shouldLockExecution);
+                        batch.testMethods = testMethods == null ? Collections.emptyList() : testMethods;
+                    } catch (Error e) {
+                        // the error goes through the next stages up to the thread that runs the pipeline
+                        batch.error = e;
+                    }
+                }
+                output.put(batch);
+            }
+        } catch (InterruptedException ignored) {
+            // the pipeline is over
+        }
+    }
+
+    private List<T> apply(Stage<T> stage, Batch<T> batch, StageStatistics statistics) {
+        return apply(stage, batch, statistics, true);
+    }
+
+    // returns null if the stage failed
+    private List<T> apply(Stage<T> stage, Batch<T> batch, StageStatistics statistics, boolean shouldLockExecution) {
+        final long start = System.currentTimeMillis();
+        try {
+            if (shouldLockExecution) {
+                synchronized (this.executionLock) {
+                    return stage.apply(batch.testMethods, batch.iteration);
+                }
+            } else {
+                return stage.apply(batch.testMethods, batch.iteration);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("The stage {} failed at the iteration {}", statistics.getName(), batch.iteration, e);
+            return null;
+        } finally {
+            statistics.addBatch(System.currentTimeMillis() - start);
+        }
+    }
+
+    public List<StageStatistics> getStatistics() {
+        return Arrays.asList(this.preSelectionStatistics,
+                this.inputAmplificationStatistics,
+                this.assertionAmplificationStatistics,
+                this.selectionStatistics
+        );
+    }
+
+    /**
+     * @return the duration of the last run of the pipeline, see {@link StageStatistics#getUtilisation(long)}
+     */
+    public long getElapsedTimeInMs() {
+        return elapsedTimeInMs;
+    }
+
+    private static class Batch<T> {
+
+        private final int index;
+
+        private final int iteration;
+
+        private List<T> testMethods;
+
+        private Error error;
+
+        private Batch(int index, int iteration, List<T> testMethods) {
+            this.index = index;
+            this.iteration = iteration;
+            this.testMethods = testMethods;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package eu.stamp_project.dspot.pipeline;
+
+/**
+ * Statistics of a stage of the {@link AmplificationPipeline}, used to tune its capacity.
+ *
+ * The depth of the queue of the stage is sampled each time the stage takes a batch from it, this batch included.
+ * The pre-selection, that is run before a batch is put in the pipeline, has no queue.
+ * The utilisation of the stage is the fraction of the duration of the pipeline that the stage spent on batches.
+ */
+public class StageStatistics {
+
+    private final String name;
+
+    private int numberOfBatches;
+
+    private long busyTimeInMs;
+
+    private int maximumQueueDepth;
+
+    private long sumOfQueueDepths;
+
+    private int numberOfQueueDepthSamples;
+
+    public StageStatistics(String name) {
+        this.name = name;
+    }
+
+    synchronized void addBatch(long timeInMs) {
+        this.numberOfBatches++;
+        this.busyTimeInMs += timeInMs;
+    }
+
+    synchronized void addQueueDepth(int queueDepth) {
+        this.maximumQueueDepth = Math.max(this.maximumQueueDepth, queueDepth);
+        this.sumOfQueueDepths += queueDepth;
+        this.numberOfQueueDepthSamples++;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getNumberOfBatches() {
+        return numberOfBatches;
+    }
+
+    public synchronized long getBusyTimeInMs() {
+        return busyTimeInMs;
+    }
+
+    public synchronized int getMaximumQueueDepth() {
+        return maximumQueueDepth;
+    }
+
+    public synchronized double getMeanQueueDepth() {
+        return this.numberOfQueueDepthSamples == 0 ? 0.0D : (double) this.sumOfQueueDepths / this.numberOfQueueDepthSamples;
+    }
+
+    /**
+     * @param elapsedTimeInMs the duration of the pipeline
+     * @return the fraction of the given duration spent by this stage on batches, between 0 and 1
+     */
+    public synchronized double getUtilisation(long elapsedTimeInMs) {
+        return elapsedTimeInMs <= 0 ? 0.0D : Math.min(1.0D, (double) this.busyTimeInMs / elapsedTimeInMs);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d batch(es), %d ms, queue depth %.2f (max %d)",
+                this.name, this.numberOfBatches, this.busyTimeInMs, getMeanQueueDepth(), this.maximumQueueDepth
+        );
+    }
+}
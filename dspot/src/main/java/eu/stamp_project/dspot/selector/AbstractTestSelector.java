@@ -1,6 +1,7 @@
 package eu.stamp_project.dspot.selector;
 
 import eu.stamp_project.dspot.common.automaticbuilder.AutomaticBuilder;
+import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
 import eu.stamp_project.dspot.common.execution.TestRunner;
 import eu.stamp_project.dspot.common.configuration.UserInput;
 
@@ -25,6 +26,8 @@ public abstract class AbstractTestSelector implements TestSelector {
 
     protected String outputDirectory;
 
+    private String pathToAmplifiedTestSrc;
+
     public AbstractTestSelector(AutomaticBuilder automaticBuilder,
                                 UserInput configuration) {
         this.outputDirectory = configuration.getOutputDirectory();
@@ -38,4 +41,17 @@ public abstract class AbstractTestSelector implements TestSelector {
         this.classpath = classpath;
         this.pathToTestClasses = configuration.getPathToTestClasses();
     }
+
+    /**
+     * @param pathToAmplifiedTestSrc the directory in which the amplified test classes are printed in order to be compiled.
+     *                               The workers that amplify test classes concurrently give their own directory,
+     *                               see {@link DSpotCompiler#getPathToAmplifiedTestSrcOfWorker(int)}
+     */
+    public void setPathToAmplifiedTestSrc(String pathToAmplifiedTestSrc) {
+        this.pathToAmplifiedTestSrc = pathToAmplifiedTestSrc;
+    }
+
+    protected String getPathToAmplifiedTestSrc() {
+        return this.pathToAmplifiedTestSrc == null ? DSpotCompiler.getPathToAmplifiedTestSrc() : this.pathToAmplifiedTestSrc;
+    }
 }
@@ -85,25 +85,24 @@ public class ChangeDetectorSelector extends AbstractTestSelector {
             return amplifiedTestToBeKept;
         }
         CtType clone = this.currentClassTestToBeAmplified.clone();
-        this.currentClassTestToBeAmplified.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(this.currentClassTestToBeAmplified, clone);
         this.currentClassTestToBeAmplified.getMethods().stream()
                  .filter(TestFramework.get()::isTest)
                 .forEach(clone::removeMethod);
         amplifiedTestToBeKept.forEach(clone::addMethod);
 
-        DSpotUtils.printCtTypeToGivenDirectory(clone, new File(DSpotCompiler.getPathToAmplifiedTestSrc()));
-        final String pathToAmplifiedTestSrc = DSpotCompiler.getPathToAmplifiedTestSrc();
-
-        this.automaticBuilder.setAbsolutePathToProjectRoot(this.pathToSecondVersionOfProgram);
+        final TestResult results;
+        // the amplified test classes are printed in the directory of the worker, when the test classes are amplified concurrently,
+        // and the test runner is given the root of the second version, the automatic builder shared by the workers is not changed
+        DSpotUtils.printCtTypeToGivenDirectory(clone, new File(getPathToAmplifiedTestSrc()));
         if (!DSpotCompiler.compile(
-                pathToAmplifiedTestSrc,
+                getPathToAmplifiedTestSrc(),
                 this.classpath + AmplificationHelper.PATH_SEPARATOR + this.secondVersionTargetClasses,
                 new File(this.pathToSecondVersionOfProgram + this.pathToTestClasses)
         )) {
             LOGGER.warn("Something went bad during the compilation of the amplified test methods using the second version.");
             // add an error in the Main Global error report
         }
-        final TestResult results;
         try {
             results = this.testRunner.run(
                     this.classpath + AmplificationHelper.PATH_SEPARATOR + this.secondVersionTargetClasses,
@@ -114,8 +113,6 @@ public class ChangeDetectorSelector extends AbstractTestSelector {
                             .toArray(String[]::new));
         } catch (Exception e) {
             throw new RuntimeException(e);
-        } finally {
-            this.automaticBuilder.setAbsolutePathToProjectRoot(this.pathToFirstVersionOfProgram);
         }
         final List<CtMethod<?>> amplifiedThatWillBeKept = new ArrayList<>();
         if (!results.getFailingTests().isEmpty()) {
@@ -0,0 +1,221 @@
+package eu.stamp_project.dspot.selector;
+
+import eu.stamp_project.dspot.common.execution.daemon.CoverageCollector;
+import eu.stamp_project.testrunner.listener.Coverage;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The coverage of an execution, as one bitset per covered class.
+ *
+ * It is built either from the probes of JaCoCo collected by the daemon, see {@link CoverageCollector}:
+ * the i-th bit of a class is set if its i-th probe has been executed;
+ * or from the execution path given by the test runner, <i>i.e.</i> the number of covered instructions per line
+ * of each class: the i-th bit of a class is set if the i-th line of this class, from its first line,
+ * has at least one instruction covered.
+ * The bitsets of the probes and of the lines of a class are kept under different keys, since their bits
+ * do not have the same meaning: they are never compared with each other, which may only happen if DSpot falls back
+ * on the test runner while amplifying.
+ * Comparing, merging and hashing two coverages are done word by word, instead of on their textual execution paths.
+ */
+public class CoverageBitSet {
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    // the key of the probes of a class, that cannot be the name of a class in an execution path, see parse()
+    private static final String PROBES_PREFIX = "probes:";
+
+    private final Map<String, long[]> wordsPerClass;
+
+    private int hashCode;
+
+    private CoverageBitSet(Map<String, long[]> wordsPerClass) {
+        this.wordsPerClass = wordsPerClass;
+    }
+
+    /**
+     * @return an empty coverage, to be completed with {@link #addAll(CoverageBitSet)}
+     */
+    public static CoverageBitSet empty() {
+        return new CoverageBitSet(new HashMap<>());
+    }
+
+    public static CoverageBitSet of(Coverage coverage) {
+        return parse(coverage.getExecutionPath());
+    }
+
+    /**
+     * @param coverage a coverage collected by DSpot
+     * @return the coverage of the probes of the given result if it has been collected by the daemon,
+     * else the coverage of its execution path
+     */
+    public static CoverageBitSet of(CoverageCollector.Result coverage) {
+        return coverage.getProbesPerClass() == null ?
+                parse(coverage.getExecutionPath()) : ofProbes(coverage.getProbesPerClass());
+    }
+
+    /**
+     * @param probesPerClass the probes of JaCoCo of each executed class
+     * @return the coverage of the given probes
+     */
+    public static CoverageBitSet ofProbes(Map<String, boolean[]> probesPerClass) {
+        final Map<String, long[]> wordsPerClass = new HashMap<>();
+        probesPerClass.forEach((className, probes) -> {
+            final long[] words = new long[(probes.length + BITS_PER_WORD - 1) / BITS_PER_WORD];
+            boolean isCovered = false;
+            for (int probe = 0; probe < probes.length; probe++) {
+                if (probes[probe]) {
+                    words[probe / BITS_PER_WORD] |= 1L << (probe % BITS_PER_WORD);
+                    isCovered = true;
+                }
+            }
+            if (isCovered) {
+                wordsPerClass.put(PROBES_PREFIX + className, words);
+            }
+        });
+        return new CoverageBitSet(wordsPerClass);
+    }
+
+    /**
+     * @param executionPath the execution path, <i>e.g.</i> <code>fr/inria/A:0,2,1;fr/inria/B:0,0,3</code>:
+     *                      for each class, its name and the number of covered instructions of each of its lines
+     * @return the coverage of the given execution path
+     */
+    public static CoverageBitSet parse(String executionPath) {
+        final Map<String, long[]> wordsPerClass = new HashMap<>();
+        if (executionPath == null) {
+            return new CoverageBitSet(wordsPerClass);
+        }
+        for (String coverageOfClass : executionPath.split(";")) {
+            final int separator = coverageOfClass.lastIndexOf(':');
+            if (separator < 0) {
+                continue;
+            }
+            final String[] coveredInstructionsPerLine = coverageOfClass.substring(separator + 1).split(",");
+            final long[] words = new long[(coveredInstructionsPerLine.length + BITS_PER_WORD - 1) / BITS_PER_WORD];
+            boolean isCovered = false;
+            for (int line = 0; line < coveredInstructionsPerLine.length; line++) {
+                final String coveredInstructions = coveredInstructionsPerLine[line].trim();
+                if (!coveredInstructions.isEmpty() && !"0".equals(coveredInstructions)) {
+                    words[line / BITS_PER_WORD] |= 1L << (line % BITS_PER_WORD);
+                    isCovered = true;
+                }
+            }
+            // the classes that are not covered at all are not kept, as if they were not in the execution path
+            if (isCovered) {
+                wordsPerClass.put(coverageOfClass.substring(0, separator).trim(), words);
+            }
+        }
+        return new CoverageBitSet(wordsPerClass);
+    }
+
+    /**
+     * @param that another coverage, <i>e.g.</i> the cumulative coverage of a test suite
+     * @return true if this coverage covers at least one probe or line that the given coverage does not cover
+     */
+    public boolean addsCoverageTo(CoverageBitSet that) {
+        for (Map.Entry<String, long[]> entry : this.wordsPerClass.entrySet()) {
+            final long[] words = entry.getValue();
+            final long[] thatWords = that.wordsPerClass.get(entry.getKey());
+            for (int i = 0; i < words.length; i++) {
+                final long thatWord = thatWords != null && i < thatWords.length ? thatWords[i] : 0L;
+                if ((words[i] & ~thatWord) != 0L) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param that another coverage, <i>e.g.</i> the coverage of the parent of an amplified test method
+     * @return true if this coverage covers probes or lines that the given coverage does not cover, or if the given coverage is null
+     */
+    public boolean isBetterThan(CoverageBitSet that) {
+        return that == null || this.addsCoverageTo(that);
+    }
+
+    /**
+     * Adds the probes and lines covered by the given coverage to this coverage.
+     *
+     * @param that the coverage to be added
+     */
+    public void addAll(CoverageBitSet that) {
+        that.wordsPerClass.forEach((className, thatWords) -> {
+            final long[] words = this.wordsPerClass.get(className);
+            if (words == null) {
+                this.wordsPerClass.put(className, thatWords.clone());
+            } else if (words.length < thatWords.length) {
+                final long[] mergedWords = Arrays.copyOf(thatWords, thatWords.length);
+                for (int i = 0; i < words.length; i++) {
+                    mergedWords[i] |= words[i];
+                }
+                this.wordsPerClass.put(className, mergedWords);
+            } else {
+                for (int i = 0; i < thatWords.length; i++) {
+                    words[i] |= thatWords[i];
+                }
+            }
+        });
+        this.hashCode = 0;
+    }
+
+    /**
+     * @return the number of covered lines, or of covered probes for the coverage collected by the daemon
+     */
+    public int getNumberOfCoveredLines() {
+        return this.wordsPerClass.values()
+                .stream()
+                .flatMapToLong(Arrays::stream)
+                .mapToInt(Long::bitCount)
+                .sum();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CoverageBitSet that = (CoverageBitSet) o;
+        if (this.hashCode() != that.hashCode() || !this.wordsPerClass.keySet().equals(that.wordsPerClass.keySet())) {
+            return false;
+        }
+        return this.wordsPerClass.entrySet()
+                .stream()
+                .allMatch(entry -> equals(entry.getValue(), that.wordsPerClass.get(entry.getKey())));
+    }
+
+    // two arrays of words are equal if they differ only by trailing empty words
+    private static boolean equals(long[] words, long[] thatWords) {
+        final int length = Math.max(words.length, thatWords.length);
+        for (int i = 0; i < length; i++) {
+            if ((i < words.length ? words[i] : 0L) != (i < thatWords.length ? thatWords[i] : 0L)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        if (this.hashCode == 0) {
+            int hashCode = 1;
+            for (Map.Entry<String, long[]> entry : this.wordsPerClass.entrySet()) {
+                final long[] words = entry.getValue();
+                int length = words.length;
+                while (length > 0 && words[length - 1] == 0L) {
+                    length--;
+                }
+                // the sum does not depend on the order of the classes in the map
+                hashCode += entry.getKey().hashCode() ^ Arrays.hashCode(Arrays.copyOf(words, length));
+            }
+            this.hashCode = hashCode == 0 ? 1 : hashCode;
+        }
+        return this.hashCode;
+    }
+}
@@ -14,9 +14,16 @@ import eu.stamp_project.testrunner.EntryPoint;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.Counter;
 import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
+import eu.stamp_project.dspot.common.miscellaneous.ModelLock;
 import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
+import eu.stamp_project.dspot.common.execution.TestRunner;
+import eu.stamp_project.dspot.common.execution.daemon.CoverageCollector;
+import eu.stamp_project.dspot.common.execution.daemon.TestRunnerDaemonClient;
+import eu.stamp_project.dspot.common.test_framework.TestFramework;
 
 import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtNamedElement;
 import spoon.reflect.declaration.CtType;
@@ -27,8 +34,12 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -40,17 +51,36 @@ import java.util.stream.Collectors;
  */
 public class JacocoCoverageSelector extends TakeAllSelector {
 
-    private Map<String, Coverage> selectedToBeAmplifiedCoverageResultsMap;
+    private static final Logger LOGGER = LoggerFactory.getLogger(JacocoCoverageSelector.class);
 
-    private Coverage initialCoverage;
+    // the daemon may instrument the classes of the project, and compute their number of instructions, on the first request
+    private static final int TIME_TO_INSTRUMENT_IN_MS = 60000;
 
-    private List<String> pathExecuted = new ArrayList<>();
+    private Map<String, CoverageCollector.Result> selectedToBeAmplifiedCoverageResultsMap;
+
+    private CoverageCollector.Result initialCoverage;
+
+    // the probes or lines covered by the test class under amplification and by the amplified test methods kept so far
+    private CoverageBitSet suiteCoverage;
+
+    private final Map<CoverageCollector.Result, CoverageBitSet> coverageBitSets = new WeakHashMap<>();
 
     private TestSelectorElementReport lastReport;
 
+    private boolean jUnit5Mode;
+
+    private TestRunnerDaemonClient coverageDaemon;
+
     public JacocoCoverageSelector(AutomaticBuilder automaticBuilder,
                                   UserInput configuration) {
         super(automaticBuilder, configuration);
+        if (configuration.shouldCollectCoverageInDaemon()) {
+            this.coverageDaemon = new TestRunnerDaemonClient(
+                    DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                    configuration.getOutputDirectory(),
+                    configuration.getAbsolutePathToTestClasses()
+            );
+        }
     }
 
     @Override
@@ -64,103 +94,167 @@ public class JacocoCoverageSelector extends TakeAllSelector {
     public List<CtMethod<?>> selectToAmplify(CtType<?> classTest, List<CtMethod<?>> testsToBeAmplified) {
         if (this.currentClassTestToBeAmplified == null) {
             this.currentClassTestToBeAmplified = classTest;
+            this.jUnit5Mode = !testsToBeAmplified.isEmpty() && TestFramework.isJUnit5(testsToBeAmplified.get(0));
             try {
-                this.initialCoverage = EntryPoint.runCoverage(
-                        classpath + AmplificationHelper.PATH_SEPARATOR + targetClasses,
-                        this.targetClasses,
-                        this.currentClassTestToBeAmplified.getQualifiedName()
-                );
+                this.initialCoverage = computeCoverage(classpath + AmplificationHelper.PATH_SEPARATOR + targetClasses);
             } catch (TimeoutException e) {
                 throw new RuntimeException(e);
             }
+            this.suiteCoverage = CoverageBitSet.empty();
+            this.suiteCoverage.addAll(coverageBitSetOf(this.initialCoverage));
             this.selectedToBeAmplifiedCoverageResultsMap = null;
             this.selectedAmplifiedTest.clear();
         }
-        final CoveragePerTestMethod coveragePerTestMethod = computeCoverageForGivenTestMethods(testsToBeAmplified);
-        final List<String> pathExecuted = new ArrayList<>();
+        final Map<String, CoverageCollector.Result> coveragePerTestMethod = computeCoverageForGivenTestMethods(testsToBeAmplified);
+        final Set<CoverageBitSet> coveragesExecuted = new HashSet<>();
         final List<CtMethod<?>> filteredTests = testsToBeAmplified.stream()
-                .filter(ctMethod -> ctMethod != null &&
-                        coveragePerTestMethod.getCoverageOf(ctMethod.getSimpleName()) != null)
-                .filter(ctMethod -> {
-                    final String pathByExecInstructions = coveragePerTestMethod.getCoverageOf(ctMethod.getSimpleName()).getExecutionPath();
-                    if (pathExecuted.contains(pathByExecInstructions)) {
-                        return false;
-                    } else {
-                        pathExecuted.add(pathByExecInstructions);
-                        return true;
-                    }
-                }).collect(Collectors.toList());
+                .filter(ctMethod -> ctMethod != null && coveragePerTestMethod.get(ctMethod.getSimpleName()) != null)
+                .filter(ctMethod -> coveragesExecuted.add(coverageBitSetOf(coveragePerTestMethod.get(ctMethod.getSimpleName()))))
+                .collect(Collectors.toList());
         if (this.selectedToBeAmplifiedCoverageResultsMap == null) {
-            final List<String> filteredMethodNames = filteredTests.stream()
-                    .map(CtNamedElement::getSimpleName)
-                    .collect(Collectors.toList());
-            this.selectedToBeAmplifiedCoverageResultsMap = coveragePerTestMethod.getCoverageResultsMap()
-                    .keySet()
-                    .stream()
-                    .filter(filteredMethodNames::contains)
-                    .collect(Collectors.toMap(Function.identity(), coveragePerTestMethod.getCoverageResultsMap()::get));
+            this.selectedToBeAmplifiedCoverageResultsMap = new HashMap<>();
+            filteredTests.forEach(ctMethod -> this.selectedToBeAmplifiedCoverageResultsMap.put(
+                    ctMethod.getSimpleName(), coveragePerTestMethod.get(ctMethod.getSimpleName()))
+            );
         }
         return filteredTests;
     }
 
-    private CoveragePerTestMethod computeCoverageForGivenTestMethods(List<CtMethod<?>> testsToBeAmplified) {
+    // the coverage of the whole test class under amplification
+    private CoverageCollector.Result computeCoverage(String classpath) throws TimeoutException {
+        final String fullQualifiedName = this.currentClassTestToBeAmplified.getQualifiedName();
+        final int numberOfTestMethods = this.currentClassTestToBeAmplified.getMethods().size();
+        return ModelLock.releaseWhile(() -> {
+            final CoverageCollector.Response response = runInDaemon(fullQualifiedName, numberOfTestMethods);
+            if (response != null) {
+                return response.coverage;
+            }
+            synchronized (TestRunner.ENTRY_POINT_LOCK) {
+                EntryPoint.jUnit5Mode = this.jUnit5Mode;
+                return toResult(EntryPoint.runCoverage(
+                        classpath,
+                        this.targetClasses,
+                        fullQualifiedName
+                ));
+            }
+        });
+    }
+
+    private Map<String, CoverageCollector.Result> computeCoverageForGivenTestMethods(List<CtMethod<?>> testsToBeAmplified) {
         final String[] methodNames = testsToBeAmplified.stream().map(CtNamedElement::getSimpleName).toArray(String[]::new);
+        final String fullQualifiedName = this.currentClassTestToBeAmplified.getQualifiedName();
+        final CoverageCollector.Response response =
+                ModelLock.releaseWhile(() -> runInDaemon(fullQualifiedName, methodNames.length, methodNames));
+        if (response != null) {
+            return response.coveragePerTestMethod;
+        }
         try {
-            return EntryPoint.runCoveragePerTestMethods(
+            final CoveragePerTestMethod coveragePerTestMethod = ModelLock.releaseWhile(() -> {
+                synchronized (TestRunner.ENTRY_POINT_LOCK) {
+                    EntryPoint.jUnit5Mode = this.jUnit5Mode;
+                    return EntryPoint.runCoveragePerTestMethods(
+                            this.classpath + AmplificationHelper.PATH_SEPARATOR + this.targetClasses,
+                            this.targetClasses,
+                            fullQualifiedName,
+                            methodNames
+                    );
+                }
+            });
+            final Map<String, CoverageCollector.Result> coverageResults = new HashMap<>();
+            coveragePerTestMethod.getCoverageResultsMap().forEach((methodName, coverage) -> {
+                if (coverage != null) {
+                    coverageResults.put(methodName, toResult(coverage));
+                }
+            });
+            return coverageResults;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // returns null if the coverage must be collected in a new JVM, i.e. if the daemon is not used or failed.
+    // It does not use the Spoon model, since it is called without holding the lock of the model.
+    private CoverageCollector.Response runInDaemon(String fullQualifiedName, int numberOfTestMethods, String... testMethodNames) {
+        if (this.coverageDaemon == null || !this.coverageDaemon.isAvailable() || this.jUnit5Mode) {
+            return null;
+        }
+        try {
+            return this.coverageDaemon.runCoverage(
                     this.classpath + AmplificationHelper.PATH_SEPARATOR + this.targetClasses,
                     this.targetClasses,
-                    this.currentClassTestToBeAmplified.getQualifiedName(),
-                    methodNames
+                    fullQualifiedName,
+                    testMethodNames,
+                    TIME_TO_INSTRUMENT_IN_MS + AmplificationHelper.timeOutInMs * Math.max(1, numberOfTestMethods)
             );
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            LOGGER.warn("The test runner daemon could not collect the coverage of {} ({}), DSpot collects it in a forked JVM.",
+                    fullQualifiedName,
+                    e.getMessage()
+            );
+            return null;
         }
     }
 
+    // the bitsets are not modified, and are kept as long as their coverage is, e.g. in selectedToBeAmplifiedCoverageResultsMap
+    private CoverageBitSet coverageBitSetOf(CoverageCollector.Result coverage) {
+        return this.coverageBitSets.computeIfAbsent(coverage, CoverageBitSet::of);
+    }
+
+    private static CoverageCollector.Result toResult(Coverage coverage) {
+        return new CoverageCollector.Result(
+                coverage.getInstructionsCovered(),
+                coverage.getInstructionsTotal(),
+                coverage.getExecutionPath()
+        );
+    }
+
     @Override
     public List<CtMethod<?>> selectToKeep(List<CtMethod<?>> amplifiedTestToBeKept) {
         if (amplifiedTestToBeKept.isEmpty()) {
             return amplifiedTestToBeKept;
         }
-        final CoveragePerTestMethod coveragePerTestMethod = computeCoverageForGivenTestMethods(amplifiedTestToBeKept);
-        final List<CtMethod<?>> methodsKept = amplifiedTestToBeKept.stream()
-                .filter(ctMethod -> {
-                    final String simpleNameOfFirstParent = getFirstParentThatHasBeenRun(ctMethod).getSimpleName();
-                    return this.selectedToBeAmplifiedCoverageResultsMap.get(simpleNameOfFirstParent) == null ||
-                            coveragePerTestMethod.getCoverageOf(ctMethod.getSimpleName()).isBetterThan(
-                                    this.selectedToBeAmplifiedCoverageResultsMap.get(simpleNameOfFirstParent));
-                })
-                .filter(ctMethod -> {
-                    final String pathByExecInstructions = coveragePerTestMethod.getCoverageOf(ctMethod.getSimpleName()).getExecutionPath();
-                    if (pathExecuted.contains(pathByExecInstructions)) {
-                        return false;
-                    } else {
-                        pathExecuted.add(pathByExecInstructions);
-                        return true;
-                    }
-                }).collect(Collectors.toList());
-
-        this.selectedToBeAmplifiedCoverageResultsMap.putAll(methodsKept.stream()
-                .map(CtNamedElement::getSimpleName)
-                .collect(
-                        Collectors.toMap(Function.identity(), coveragePerTestMethod.getCoverageResultsMap()::get)
-                )
+        final Map<String, CoverageCollector.Result> coveragePerTestMethod = computeCoverageForGivenTestMethods(amplifiedTestToBeKept);
+        final List<CtMethod<?>> methodsKept = selectTestsThatAddCoverage(
+                amplifiedTestToBeKept,
+                coveragePerTestMethod,
+                this::coverageBitSetOf,
+                this.suiteCoverage
+        );
+        methodsKept.forEach(ctMethod -> this.selectedToBeAmplifiedCoverageResultsMap.put(
+                ctMethod.getSimpleName(), coveragePerTestMethod.get(ctMethod.getSimpleName()))
         );
-
         this.selectedAmplifiedTest.addAll(new ArrayList<>(methodsKept));
         return methodsKept;
     }
 
-    protected CtMethod<?> getFirstParentThatHasBeenRun(CtMethod<?> test) {
-        CtMethod<?> currentParent = AmplificationHelper.getAmpTestParent(test);
-        while (AmplificationHelper.getAmpTestParent(currentParent) != null) {
-            if (this.selectedToBeAmplifiedCoverageResultsMap.get(currentParent.getSimpleName()) != null) {
-                return currentParent;
-            } else {
-                currentParent = AmplificationHelper.getAmpTestParent(currentParent);
+    /**
+     * Selects the amplified test methods that cover at least one line that neither the test class nor the amplified
+     * test methods kept so far cover. Thus, a test method kept cannot have the same coverage as a test method kept before.
+     *
+     * @param amplifiedTests        the amplified test methods, in the order in which they are selected
+     * @param coveragePerTestMethod the coverage of each amplified test method, by its name
+     * @param coverageBitSetOf      gives the bitset of a coverage, see {@link CoverageBitSet#of(CoverageCollector.Result)}
+     * @param suiteCoverage         the lines covered by the test class and the amplified test methods kept so far,
+     *                              the lines covered by the selected test methods are added to it
+     * @return the selected test methods
+     */
+    static List<CtMethod<?>> selectTestsThatAddCoverage(List<CtMethod<?>> amplifiedTests,
+                                                        Map<String, CoverageCollector.Result> coveragePerTestMethod,
+                                                        Function<CoverageCollector.Result, CoverageBitSet> coverageBitSetOf,
+                                                        CoverageBitSet suiteCoverage) {
+        final List<CtMethod<?>> methodsKept = new ArrayList<>();
+        for (CtMethod<?> ctMethod : amplifiedTests) {
+            final CoverageCollector.Result coverage = coveragePerTestMethod.get(ctMethod.getSimpleName());
+            if (coverage == null) {
+                continue;
+            }
+            final CoverageBitSet coverageBitSet = coverageBitSetOf.apply(coverage);
+            if (coverageBitSet.addsCoverageTo(suiteCoverage)) {
+                methodsKept.add(ctMethod);
+                suiteCoverage.addAll(coverageBitSet);
             }
         }
-        return currentParent;
+        return methodsKept;
     }
 
     @Override
@@ -184,25 +278,21 @@ public class JacocoCoverageSelector extends TakeAllSelector {
 
         // compute the new coverage obtained by the amplification
         final CtType<?> clone = this.currentClassTestToBeAmplified.clone();
-        this.currentClassTestToBeAmplified.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(this.currentClassTestToBeAmplified, clone);
         this.selectedAmplifiedTest.forEach(clone::addMethod);
         try {
-            FileUtils.deleteDirectory(new File(DSpotCompiler.getPathToAmplifiedTestSrc()));
-        } catch (IOException ignored) {
-            //ignored
-        }
-        DSpotUtils.printCtTypeToGivenDirectory(clone, new File(DSpotCompiler.getPathToAmplifiedTestSrc()));
-        DSpotCompiler.compile(
-                DSpotCompiler.getPathToAmplifiedTestSrc(),
-                this.classpath + AmplificationHelper.PATH_SEPARATOR + this.targetClasses,
-                new File(this.pathToTestClasses)
-        );
-        try {
-            final Coverage coverageResults = EntryPoint.runCoverage(
-                    this.classpath,
-                    this.targetClasses,
-                    this.currentClassTestToBeAmplified.getQualifiedName()
+            try {
+                FileUtils.deleteDirectory(new File(getPathToAmplifiedTestSrc()));
+            } catch (IOException ignored) {
+                //ignored
+            }
+            DSpotUtils.printCtTypeToGivenDirectory(clone, new File(getPathToAmplifiedTestSrc()));
+            DSpotCompiler.compile(
+                    getPathToAmplifiedTestSrc(),
+                    this.classpath + AmplificationHelper.PATH_SEPARATOR + this.targetClasses,
+                    new File(this.pathToTestClasses)
             );
+            final CoverageCollector.Result coverageResults = computeCoverage(this.classpath);
             report.append("Amplified instruction coverage: ")
                     .append(coverageResults.getInstructionsCovered())
                     .append(" / ")
@@ -223,7 +313,7 @@ public class JacocoCoverageSelector extends TakeAllSelector {
 
     }
 
-    private TestClassJSON jsonReport(Coverage coverageResults) {
+    private TestClassJSON jsonReport(CoverageCollector.Result coverageResults) {
         TestClassJSON testClassJSON;
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
         final File file = new File(this.outputDirectory + "/" +
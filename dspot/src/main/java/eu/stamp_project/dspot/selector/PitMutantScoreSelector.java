@@ -3,11 +3,13 @@ package eu.stamp_project.dspot.selector;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import eu.stamp_project.dspot.common.automaticbuilder.AutomaticBuilder;
+import eu.stamp_project.dspot.common.automaticbuilder.maven.DSpotPOMCreator;
 import eu.stamp_project.dspot.common.configuration.DSpotState;
 import eu.stamp_project.dspot.common.configuration.UserInput;
 import eu.stamp_project.dspot.selector.pitmutantscoreselector.*;
 import eu.stamp_project.dspot.common.test_framework.TestFramework;
 import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
+import eu.stamp_project.dspot.common.execution.TestRunner;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.miscellaneous.CloneHelper;
 import eu.stamp_project.dspot.common.report.error.Error;
@@ -30,6 +32,15 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 /**
+ * Keeps the amplified test methods that kill mutants that are killed neither by the original test suite,
+ * nor by the amplified test methods kept so far.
+ *
+ * The mutants are computed by PIT, run by the automatic builder of the project, since the version of PIT is configurable.
+ * Each selection prints and compiles the amplified test methods, then runs PIT on them in a new build, restricted to
+ * the classes of the mutants left to kill, see {@link AutomaticBuilder#runPit(Collection, CtType[])}.
+ * Thus, PIT generates the mutants of these classes again each time, and runs against each mutant the amplified
+ * test methods that cover it. The executions of PIT are done one at a time, even when test classes are amplified concurrently.
+ *
  * Created by Benjamin DANGLOT
  * benjamin.danglot@inria.fr
  * on 1/5/17
@@ -42,11 +53,24 @@ public class PitMutantScoreSelector extends TakeAllSelector {
 
     private List<AbstractPitResult> originalKilledMutants;
 
-    private List<AbstractPitResult> baselineKilledMutants;
+    // the sets of mutants are bitsets over the ids of this index, rather than lists of results of PIT
+    private final MutantIndex mutantIndex = new MutantIndex();
+
+    private BitSet originalKilledMutantIds;
+
+    private BitSet baselineKilledMutants;
+
+    // true while the baseline is the set of the mutants killed by the original test suite itself, copied on the first write
+    private boolean isBaselineShared;
 
     private Map<CtMethod, Set<AbstractPitResult>> testThatKilledMutants;
 
-    private List<AbstractPitResult> mutantNotTestedByOriginal;
+    private BitSet mutantNotTestedByOriginal;
+
+    // the mutants that the original test suite covers without killing them, or does not cover
+    private BitSet mutantNotKilledByOriginal;
+
+    private Map<String, Integer> numberOfMutantsPerClass;
 
     private AbstractParser parser;
 
@@ -60,19 +84,25 @@ public class PitMutantScoreSelector extends TakeAllSelector {
 
     private String absolutePathToProjectRoot;
 
-    private List<String> mutationsScoreResults;
+    private static final String PATH_TO_MUTATIONS_REPORTS = "mutations_reports/";
+
+    // the reports of PIT, compressed in the output directory, from the report of the original test suite
+    private List<File> mutationsScoreReports;
+
+    // the selector that computes the results of PIT on the original test suite, for all the workers
+    // that amplify test classes concurrently, see #createWorkerSelector(UserInput). null if this selector computes them.
+    private final PitMutantScoreSelector sharedSelector;
+
+    // the results of PIT on the original test suite, and their compressed report, computed once
+    private List<AbstractPitResult> originalPitResults;
+
+    private File originalMutationsScoreReport;
+
+    private boolean hasFailedToComputeOriginalPitResults;
 
     public PitMutantScoreSelector(AutomaticBuilder automaticBuilder,
                                   UserInput configuration) {
-        super(automaticBuilder, configuration);
-        this.mutationsScoreResults = new ArrayList<>();
-        this.absolutePathToProjectRoot = configuration.getAbsolutePathToProjectRoot();
-        this.shouldTargetOneTestClass = configuration.shouldTargetOneTestClass();
-        this.testClassTargetOne =
-                configuration.getTestClasses() == null || configuration.getTestClasses().isEmpty() ? null :
-                        configuration.getFactory().Class().get(configuration.getTestClasses().get(0));
-        this.testThatKilledMutants = new HashMap<>();
-        this.parser = new PitXMLResultParser();
+        this(automaticBuilder, configuration, null);
         final String pathPitResult = configuration.getPathPitResult();
         if (pathPitResult == null || pathPitResult.isEmpty()) {
             return;
@@ -95,13 +125,59 @@ public class PitMutantScoreSelector extends TakeAllSelector {
                 parser = originalResultParser = new PitXMLResultParser();
                 break;
         }
-        this.mutationsScoreResults.add(this.readFileContentAsString(pathPitResult));
-        initOriginalPitResult(originalResultParser.parse(new File(pathPitResult)));
+        this.originalMutationsScoreReport = this.newCompressedReport();
+        this.originalPitResults = originalResultParser.parseAndCompress(new File(pathPitResult), this.originalMutationsScoreReport);
+        this.mutationsScoreReports.add(this.originalMutationsScoreReport);
+        initOriginalPitResult(this.originalPitResults);
+    }
+
+    private PitMutantScoreSelector(AutomaticBuilder automaticBuilder,
+                                   UserInput configuration,
+                                   PitMutantScoreSelector sharedSelector) {
+        super(automaticBuilder, configuration);
+        this.sharedSelector = sharedSelector;
+        this.mutationsScoreReports = new ArrayList<>();
+        this.absolutePathToProjectRoot = configuration.getAbsolutePathToProjectRoot();
+        this.shouldTargetOneTestClass = configuration.shouldTargetOneTestClass();
+        this.testClassTargetOne =
+                configuration.getTestClasses() == null || configuration.getTestClasses().isEmpty() ? null :
+                        configuration.getFactory().Class().get(configuration.getTestClasses().get(0));
+        this.testThatKilledMutants = new HashMap<>();
+        this.parser = sharedSelector == null ? new PitXMLResultParser() : sharedSelector.parser;
+    }
+
+    /**
+     * @param configuration the configuration of DSpot
+     * @return a selector for a worker that amplifies test classes concurrently.
+     * PIT is run on the original test suite once, by this selector, and its results are shared by all the workers.
+     */
+    public PitMutantScoreSelector createWorkerSelector(UserInput configuration) {
+        return new PitMutantScoreSelector(this.automaticBuilder, configuration, this);
     }
 
     @Override
     public boolean init() {
         if (this.originalKilledMutants == null) {
+            final PitMutantScoreSelector selectorOfOriginalPitResults = this.sharedSelector == null ? this : this.sharedSelector;
+            final List<AbstractPitResult> results = selectorOfOriginalPitResults.getOriginalPitResults();
+            if (results == null) {
+                return false;
+            }
+            this.mutationsScoreReports.add(selectorOfOriginalPitResults.originalMutationsScoreReport);
+            initOriginalPitResult(results);
+        } else {
+            restoreBaseline();
+        }
+        return true;
+    }
+
+    // the results of PIT on the original test suite, or null if PIT failed, computed on the first call only
+    private synchronized List<AbstractPitResult> getOriginalPitResults() {
+        if (this.originalPitResults != null || this.hasFailedToComputeOriginalPitResults) {
+            return this.originalPitResults;
+        }
+        // PIT writes its reports in the same directory for all the test classes, even when they are amplified concurrently
+        synchronized (TestRunner.ENTRY_POINT_LOCK) {
             if (shouldTargetOneTestClass) {
                 this.automaticBuilder.runPit(testClassTargetOne);
             } else {
@@ -110,39 +186,45 @@ public class PitMutantScoreSelector extends TakeAllSelector {
                 } catch (Throwable e) {
                     LOGGER.error(ErrorEnum.ERROR_ORIGINAL_MUTATION_SCORE.getMessage());
                     DSpotState.GLOBAL_REPORT.addError(new Error(ErrorEnum.ERROR_ORIGINAL_MUTATION_SCORE, e));
-                    return false;
+                    this.hasFailedToComputeOriginalPitResults = true;
+                    return null;
                 }
             }
-            this.mutationsScoreResults.add(
-                    this.readFileContentAsString(
-                            this.parser.getPathOfMutationsFile(this.absolutePathToProjectRoot + this.automaticBuilder.getOutputDirectoryPit()).getAbsolutePath()
-                    )
+            this.originalMutationsScoreReport = this.newCompressedReport();
+            this.originalPitResults = parser.parseAndDelete(
+                    this.absolutePathToProjectRoot + this.automaticBuilder.getOutputDirectoryPit(),
+                    this.originalMutationsScoreReport
             );
-            initOriginalPitResult(parser.parseAndDelete(this.absolutePathToProjectRoot + this.automaticBuilder.getOutputDirectoryPit()));
-        } else {
-            this.baselineKilledMutants = new ArrayList<>();
-            for (AbstractPitResult r : this.originalKilledMutants) {
-                this.baselineKilledMutants.add(r.clone());
-            }
         }
-        return true;
+        return this.originalPitResults;
     }
 
     private void initOriginalPitResult(List<AbstractPitResult> results) {
         this.numberOfMutant = results.size();
-        this.mutantNotTestedByOriginal = results.stream()
+        this.mutantNotTestedByOriginal = this.mutantIndex.idsOf(results.stream()
                 .filter(result -> result.getStateOfMutant() != AbstractPitResult.State.KILLED)
                 .filter(result -> result.getStateOfMutant() != AbstractPitResult.State.SURVIVED)
                 .filter(result -> result.getStateOfMutant() != AbstractPitResult.State.NO_COVERAGE)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+        this.mutantNotKilledByOriginal = this.mutantIndex.idsOf(results.stream()
+                .filter(result -> result.getStateOfMutant() == AbstractPitResult.State.SURVIVED ||
+                        result.getStateOfMutant() == AbstractPitResult.State.NO_COVERAGE)
+                .collect(Collectors.toList()));
+        this.numberOfMutantsPerClass = results.stream()
+                .collect(Collectors.toMap(AbstractPitResult::getFullQualifiedNameOfMutatedClass, result -> 1, Integer::sum));
         this.originalKilledMutants = results.stream()
                 .filter(result -> result.getStateOfMutant() == AbstractPitResult.State.KILLED)
                 .collect(Collectors.toList());
+        this.originalKilledMutantIds = this.mutantIndex.idsOf(this.originalKilledMutants);
         LOGGER.info("The original test suite kill {} / {}", this.originalKilledMutants.size(), results.size());
-        this.baselineKilledMutants = new ArrayList<>();
-        for (AbstractPitResult r : this.originalKilledMutants) {
-            this.baselineKilledMutants.add(r.clone());
-        }
+        restoreBaseline();
+    }
+
+    // the baseline of the next test class is the set of the mutants killed by the original test suite:
+    // it is shared until the first mutant killed by an amplified test method, instead of being copied for each test class
+    private void restoreBaseline() {
+        this.baselineKilledMutants = this.originalKilledMutantIds;
+        this.isBaselineShared = true;
     }
 
     @Override
@@ -160,9 +242,17 @@ public class PitMutantScoreSelector extends TakeAllSelector {
             return amplifiedTestToBeKept;
         }
 
+        // PIT only mutates the classes that have mutants that are neither killed by the original test suite,
+        // nor by the amplified test methods kept so far, since the amplified test methods can only kill these mutants
+        final Set<String> targetClasses = getClassesOfMutantsToBeKilled();
+        if (targetClasses.isEmpty()) {
+            LOGGER.info("All the mutants are already killed, there is no need to run PIT.");
+            return Collections.emptyList();
+        }
+
         // prepare clone of the test class
         CtType clone = this.currentClassTestToBeAmplified.clone();
-        this.currentClassTestToBeAmplified.getPackage().addType(clone);
+        AmplificationHelper.addToPackageOf(this.currentClassTestToBeAmplified, clone);
         clone.setParent(this.currentClassTestToBeAmplified.getParent());
 
         // remove test methods from clone that are in original test class and add all amplified methods
@@ -174,39 +264,49 @@ public class PitMutantScoreSelector extends TakeAllSelector {
         // print clone to file and run pit on it
         //PIT cannot be executed on test classes containing parallel execution annotations
         CloneHelper.removeParallelExecutionAnnotation(clone, amplifiedTestToBeKept);
-        DSpotUtils.printCtTypeToGivenDirectory(clone, new File(DSpotCompiler.getPathToAmplifiedTestSrc()));
-        final String classpath = this.automaticBuilder
-                .buildClasspath()
-                + AmplificationHelper.PATH_SEPARATOR +
-                this.targetClasses
-                + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies();
-        DSpotCompiler.compile(
-                DSpotCompiler.getPathToAmplifiedTestSrc(),
-                classpath,
-                new File(this.absolutePathToProjectRoot + "/" + this.pathToTestClasses)
-        );
-        this.automaticBuilder.runPit(clone);
-        this.mutationsScoreResults.add(this.readFileContentAsString(
-                parser.getPathOfMutationsFile(this.absolutePathToProjectRoot + automaticBuilder.getOutputDirectoryPit()).getAbsolutePath())
-        );
-        final List<AbstractPitResult> results = parser.parseAndDelete(this.absolutePathToProjectRoot + automaticBuilder.getOutputDirectoryPit());
+        final List<AbstractPitResult> results;
+        // PIT writes its reports in the same directory for all the test classes, even when they are amplified concurrently
+        synchronized (TestRunner.ENTRY_POINT_LOCK) {
+            DSpotPOMCreator.isCurrentlyJUnit5 = TestFramework.isJUnit5(amplifiedTestToBeKept.get(0));
+            DSpotUtils.printCtTypeToGivenDirectory(clone, new File(getPathToAmplifiedTestSrc()));
+            final String classpath = this.automaticBuilder
+                    .buildClasspath()
+                    + AmplificationHelper.PATH_SEPARATOR +
+                    this.targetClasses
+                    + AmplificationHelper.PATH_SEPARATOR + DSpotUtils.getAbsolutePathToDSpotDependencies();
+            DSpotCompiler.compile(
+                    getPathToAmplifiedTestSrc(),
+                    classpath,
+                    new File(this.absolutePathToProjectRoot + "/" + this.pathToTestClasses)
+            );
+            this.automaticBuilder.runPit(targetClasses, clone);
+            final File compressedReport = this.newCompressedReport();
+            this.mutationsScoreReports.add(compressedReport);
+            results = parser.parseAndDelete(this.absolutePathToProjectRoot + automaticBuilder.getOutputDirectoryPit(), compressedReport);
+        }
         Set<CtMethod<?>> selectedTests = new HashSet<>();
         if (results != null) {
-            LOGGER.info("{} mutants has been generated ({})", results.size(), this.numberOfMutant);
-            if (results.size() != this.numberOfMutant) {
+            final int numberOfTargetedMutants = targetClasses.stream()
+                    .mapToInt(this.numberOfMutantsPerClass::get)
+                    .sum();
+            LOGGER.info("{} mutants has been generated ({} in the {} targeted classes, {} in total)",
+                    results.size(), numberOfTargetedMutants, targetClasses.size(), this.numberOfMutant);
+            if (results.size() != numberOfTargetedMutants) {
                 LOGGER.warn("Number of generated mutant is different than the original one.");
             }
 
             // keep results where amplified tests kill a mutant not killed (but tested) by original test
             results.stream()
-                    .filter(result -> result.getStateOfMutant() == AbstractPitResult.State.KILLED &&
-                            !this.baselineKilledMutants.contains(result) &&
-                            !this.mutantNotTestedByOriginal.contains(result))
+                    .filter(result -> result.getStateOfMutant() == AbstractPitResult.State.KILLED)
                     .forEach(result -> {
+                        final int id = this.mutantIndex.idOf(result);
+                        if (this.mutantNotTestedByOriginal.get(id)) {
+                            return;
+                        }
                         CtMethod method = result.getMethod(clone);
 
                         // keep methods that kill mutants not killed before
-                        if (killsNewMutant(result)) {
+                        if (killsNewMutant(id)) {
                             if (!testThatKilledMutants.containsKey(method)) {
                                 testThatKilledMutants.put(method, new HashSet<>());
                             }
@@ -232,21 +332,43 @@ public class PitMutantScoreSelector extends TakeAllSelector {
         return new ArrayList<>(selectedTests);
     }
 
-    private String readFileContentAsString(final String pathname) {
-        try (BufferedReader buffer = new BufferedReader(new FileReader(pathname))) {
-            return buffer.lines().collect(Collectors.joining(AmplificationHelper.LINE_SEPARATOR));
-        } catch (Exception e) {
+    private Set<String> getClassesOfMutantsToBeKilled() {
+        final BitSet mutantsToBeKilled = (BitSet) this.mutantNotKilledByOriginal.clone();
+        mutantsToBeKilled.andNot(this.baselineKilledMutants);
+        return mutantsToBeKilled.stream()
+                .mapToObj(this.mutantIndex::getKey)
+                .map(MutantKey::getFullQualifiedNameOfMutatedClass)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    // the reports are not kept in memory until the report of the selector, but compressed in the output directory
+    private File newCompressedReport() {
+        final File directory = new File(DSpotUtils.shouldAddSeparator.apply(this.outputDirectory) + PATH_TO_MUTATIONS_REPORTS);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        try {
+            return File.createTempFile("mutations_", this.getExtension() + ".gz", directory);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private boolean killsNewMutant(AbstractPitResult result) {
-        if (baselineKilledMutants.contains(result)) {
+    private String getExtension() {
+        return this.parser instanceof PitXMLResultParser ? ".xml" : ".csv";
+    }
+
+    private boolean killsNewMutant(int id) {
+        if (baselineKilledMutants.get(id)) {
             return false;
         }
 
         // add result to baseline to prohibit selection of identical amplified tests
-        baselineKilledMutants.add(result);
+        if (isBaselineShared) {
+            baselineKilledMutants = (BitSet) baselineKilledMutants.clone();
+            isBaselineShared = false;
+        }
+        baselineKilledMutants.set(id);
         return true;
     }
 
@@ -266,8 +388,8 @@ public class PitMutantScoreSelector extends TakeAllSelector {
         this.lastReport = new TestSelectorElementReportImpl(
                 reportStdout,
                 testClassJSON,
-                this.mutationsScoreResults,
-                this.parser instanceof PitXMLResultParser ? ".xml" : ".csv"
+                this.mutationsScoreReports,
+                this.getExtension()
         );
         return lastReport;
     }
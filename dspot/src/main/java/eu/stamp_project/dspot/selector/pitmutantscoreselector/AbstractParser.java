@@ -2,9 +2,16 @@ package eu.stamp_project.dspot.selector.pitmutantscoreselector;
 
 import org.apache.commons.io.FileUtils;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 abstract public class AbstractParser<T extends  AbstractPitResult> {
 
@@ -33,8 +40,17 @@ abstract public class AbstractParser<T extends  AbstractPitResult> {
     }
 
     public List<T> parseAndDelete(String pathToDirectoryResults) {
+        return parseAndDelete(pathToDirectoryResults, null);
+    }
+
+    /**
+     * @param pathToDirectoryResults the directory of the reports of PIT, deleted once parsed
+     * @param compressedReport       the file in which the report is stored, compressed, or null if it is not stored
+     * @return the results of the report
+     */
+    public List<T> parseAndDelete(String pathToDirectoryResults, File compressedReport) {
         final File fileResults = getPathOfMutationsFile(pathToDirectoryResults);
-        final List<T> results = parse(fileResults);
+        final List<T> results = compressedReport == null ? parse(fileResults) : parseAndCompress(fileResults, compressedReport);
         try {
             FileUtils.deleteDirectory(new File(pathToDirectoryResults));
         } catch (IOException e) {
@@ -43,5 +59,90 @@ abstract public class AbstractParser<T extends  AbstractPitResult> {
         return results;
     }
 
-    abstract public List<T> parse(File fileResults);
+    public List<T> parse(File fileResults) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(fileResults))) {
+            return parse(input);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parses the given report, and copies it, compressed with gzip, in the same pass over the report.
+     *
+     * @param fileResults      the report of PIT
+     * @param compressedReport the file in which the report is copied
+     * @return the results of the report
+     */
+    public List<T> parseAndCompress(File fileResults, File compressedReport) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(fileResults));
+             OutputStream output = new GZIPOutputStream(new FileOutputStream(compressedReport))) {
+            final CopyingInputStream copyingInput = new CopyingInputStream(input, output);
+            final List<T> results = parse(copyingInput);
+            // the parser may stop reading before the end of the report, e.g. after the closing tag of the XML report
+            copyingInput.readToEnd();
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param input the content of the report of PIT, that is read only once
+     * @return the results of the report
+     */
+    abstract public List<T> parse(InputStream input);
+
+    // copies the bytes read in the given output, and is not closed by the parsers
+    private static class CopyingInputStream extends FilterInputStream {
+
+        private final OutputStream output;
+
+        private CopyingInputStream(InputStream input, OutputStream output) {
+            super(input);
+            this.output = output;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) {
+                this.output.write(read);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            final int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                this.output.write(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            final int read = read(buffer, 0, buffer.length);
+            return Math.max(read, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // closed by AbstractParser#parseAndCompress(File, File)
+        }
+
+        private void readToEnd() throws IOException {
+            final byte[] buffer = new byte[8192];
+            while (read(buffer, 0, buffer.length) != -1) {
+                // the bytes are copied by read
+            }
+        }
+    }
 }
@@ -39,6 +39,10 @@ public abstract class AbstractPitResult {
         this.nameOfMutatedMethod = nameOfLocalisation;
     }
 
+    public String getFullQualifiedNameOfMutatedClass() {
+        return fullQualifiedNameOfMutatedClass;
+    }
+
     public AbstractPitResult.State getStateOfMutant() {
         return stateOfMutant;
     }
@@ -78,5 +82,13 @@ public abstract class AbstractPitResult {
         }
     }
 
+    /**
+     * @return the identity of the mutant of this result, see {@link MutantIndex}
+     */
+    public MutantKey getKey() {
+        return new MutantKey(fullQualifiedNameOfMutatedClass, nameOfMutatedMethod, null,
+                lineNumber, fullQualifiedNameMutantOperator, -1, -1);
+    }
+
     public abstract AbstractPitResult clone();
 }
@@ -0,0 +1,52 @@
+package eu.stamp_project.dspot.selector.pitmutantscoreselector;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the keys of the mutants into dense ids, from 0, in order to represent a set of mutants as a {@link BitSet}.
+ *
+ * The same mutant has the same id in all the runs of PIT, as long as the same index is used.
+ */
+public class MutantIndex {
+
+    private final Map<MutantKey, Integer> idPerKey = new HashMap<>();
+
+    private final List<MutantKey> keys = new ArrayList<>();
+
+    /**
+     * @param result a result of PIT
+     * @return the id of the mutant of the given result, a new one if this mutant has never been seen
+     */
+    public int idOf(AbstractPitResult result) {
+        final MutantKey key = result.getKey();
+        final Integer id = this.idPerKey.get(key);
+        if (id != null) {
+            return id;
+        }
+        this.idPerKey.put(key, this.keys.size());
+        this.keys.add(key);
+        return this.keys.size() - 1;
+    }
+
+    /**
+     * @param results results of PIT
+     * @return the set of the ids of the mutants of the given results
+     */
+    public BitSet idsOf(List<? extends AbstractPitResult> results) {
+        final BitSet ids = new BitSet();
+        results.forEach(result -> ids.set(idOf(result)));
+        return ids;
+    }
+
+    public MutantKey getKey(int id) {
+        return this.keys.get(id);
+    }
+
+    public int size() {
+        return this.keys.size();
+    }
+}
@@ -0,0 +1,88 @@
+package eu.stamp_project.dspot.selector.pitmutantscoreselector;
+
+import java.util.Objects;
+
+/**
+ * The identity of a mutant, whatever its state: two results of PIT with the same key are results of the same mutant,
+ * <i>e.g.</i> the mutant killed by an amplified test method that survived the original test suite.
+ *
+ * The descriptor of the mutated method, the index and the block of the mutation are only given by the XML reports of PIT,
+ * they are respectively null, -1 and -1 for the results read from CSV reports.
+ */
+public final class MutantKey {
+
+    private final String fullQualifiedNameOfMutatedClass;
+
+    private final String nameOfMutatedMethod;
+
+    private final String methodDescription;
+
+    private final int lineNumber;
+
+    private final String fullQualifiedNameMutantOperator;
+
+    private final int index;
+
+    private final int block;
+
+    private final int hashCode;
+
+    public MutantKey(String fullQualifiedNameOfMutatedClass,
+                     String nameOfMutatedMethod,
+                     String methodDescription,
+                     int lineNumber,
+                     String fullQualifiedNameMutantOperator,
+                     int index,
+                     int block) {
+        this.fullQualifiedNameOfMutatedClass = fullQualifiedNameOfMutatedClass;
+        this.nameOfMutatedMethod = nameOfMutatedMethod;
+        this.methodDescription = methodDescription;
+        this.lineNumber = lineNumber;
+        this.fullQualifiedNameMutantOperator = fullQualifiedNameMutantOperator;
+        this.index = index;
+        this.block = block;
+        int hashCode = Objects.hashCode(fullQualifiedNameOfMutatedClass);
+        hashCode = 31 * hashCode + Objects.hashCode(nameOfMutatedMethod);
+        hashCode = 31 * hashCode + Objects.hashCode(methodDescription);
+        hashCode = 31 * hashCode + lineNumber;
+        hashCode = 31 * hashCode + Objects.hashCode(fullQualifiedNameMutantOperator);
+        hashCode = 31 * hashCode + index;
+        this.hashCode = 31 * hashCode + block;
+    }
+
+    public String getFullQualifiedNameOfMutatedClass() {
+        return fullQualifiedNameOfMutatedClass;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MutantKey that = (MutantKey) o;
+        return this.hashCode == that.hashCode &&
+                this.lineNumber == that.lineNumber &&
+                this.index == that.index &&
+                this.block == that.block &&
+                Objects.equals(this.fullQualifiedNameOfMutatedClass, that.fullQualifiedNameOfMutatedClass) &&
+                Objects.equals(this.nameOfMutatedMethod, that.nameOfMutatedMethod) &&
+                Objects.equals(this.methodDescription, that.methodDescription) &&
+                Objects.equals(this.fullQualifiedNameMutantOperator, that.fullQualifiedNameMutantOperator);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return fullQualifiedNameOfMutatedClass + "#" + nameOfMutatedMethod +
+                (methodDescription == null ? "" : methodDescription) + ":" + lineNumber +
+                " " + fullQualifiedNameMutantOperator +
+                (index < 0 ? "" : " index=" + index + " block=" + block);
+    }
+}
@@ -1,8 +1,8 @@
 package eu.stamp_project.dspot.selector.pitmutantscoreselector;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -17,9 +17,10 @@ public class PitCSVResultParser extends AbstractParser<PitCSVResult> {
         super("/mutations.csv");
     }
 
-    public List<PitCSVResult> parse(File fileResults) {
+    public List<PitCSVResult> parse(InputStream input) {
         final List<PitCSVResult> results = new ArrayList<>();
-        try (BufferedReader buffer = new BufferedReader(new FileReader(fileResults))) {
+        try {
+            final BufferedReader buffer = new BufferedReader(new InputStreamReader(input));
             buffer.lines().forEach(line -> {
                 String[] splittedLines = line.split(",");
                 if (splittedLines.length == 7) {
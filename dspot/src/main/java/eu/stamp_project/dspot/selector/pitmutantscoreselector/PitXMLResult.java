@@ -50,6 +50,12 @@ public class PitXMLResult extends AbstractPitResult {
         return block;
     }
 
+    @Override
+    public MutantKey getKey() {
+        return new MutantKey(fullQualifiedNameOfMutatedClass, nameOfMutatedMethod, methodDescription,
+                lineNumber, fullQualifiedNameMutantOperator, index, block);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
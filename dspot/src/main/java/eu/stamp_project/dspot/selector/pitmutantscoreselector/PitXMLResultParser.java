@@ -1,8 +1,10 @@
 package eu.stamp_project.dspot.selector.pitmutantscoreselector;
 
-import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import org.xml.sax.Attributes;
@@ -19,12 +21,15 @@ public class PitXMLResultParser extends AbstractParser<PitXMLResult> {
         super("/mutations.xml");
     }
 
-    public List<PitXMLResult> parse(File fileResults) {
+    public List<PitXMLResult> parse(InputStream input) {
         try {
             SAXParserFactory factory = SAXParserFactory.newInstance();
             SAXParser saxParser = factory.newSAXParser();
             class Handler extends DefaultHandler {
-                private StringBuilder stringBuilder;
+                // the text of the current element, the same builder is used for all the elements
+                private final StringBuilder stringBuilder = new StringBuilder();
+                // the names of the classes, methods and mutators are shared by the results, rather than copied in each one
+                private final Map<String, String> sharedStrings = new HashMap<>();
                 final List<PitXMLResult> results = new ArrayList<>();
                 String sourceFile, methodDescription, mutatedClass, mutatedMethod, mutator, killingTest, description,
                         fullQualifiedNameMethod, fullQualifiedNameClass;
@@ -36,7 +41,7 @@ public class PitXMLResultParser extends AbstractParser<PitXMLResult> {
                 @Override
                 public void startElement(String uri, String localName, String qName, Attributes attributes) {
                     startElement = true;
-                    stringBuilder = new StringBuilder();
+                    stringBuilder.setLength(0);
                     if (qName.equalsIgnoreCase("mutation")) {
                         detected = Boolean.parseBoolean(attributes.getValue("detected"));
                         numberOfTestsRun = Integer.parseInt(attributes.getValue("numberOfTestsRun"));
@@ -50,32 +55,54 @@ public class PitXMLResultParser extends AbstractParser<PitXMLResult> {
 
                 @Override
                 public void characters(char ch[], int start, int length) {
-                    stringBuilder.append(new String(ch, start, length));
+                    stringBuilder.append(ch, start, length);
+                }
+
+                private String text() {
+                    final String text = stringBuilder.toString();
+                    final String sharedText = sharedStrings.putIfAbsent(text, text);
+                    return sharedText == null ? text : sharedText;
+                }
+
+                private int number() {
+                    int number = 0;
+                    boolean isNegative = false;
+                    for (int i = 0; i < stringBuilder.length(); i++) {
+                        final char c = stringBuilder.charAt(i);
+                        if (c == '-' && i == 0) {
+                            isNegative = true;
+                        } else if (c >= '0' && c <= '9') {
+                            number = number * 10 + (c - '0');
+                        } else if (!Character.isWhitespace(c)) {
+                            throw new NumberFormatException(stringBuilder.toString());
+                        }
+                    }
+                    return isNegative ? -number : number;
                 }
 
                 @Override
                 public void endElement(String uri, String localName, String qName) {
                     startElement = false;
                     if (qName.equalsIgnoreCase("sourceFile")) {
-                        sourceFile = stringBuilder.toString();
+                        sourceFile = text();
                     } else if (qName.equalsIgnoreCase("mutatedClass")) {
-                        mutatedClass = stringBuilder.toString();
+                        mutatedClass = text();
                     } else if (qName.equalsIgnoreCase("mutatedMethod")) {
-                        mutatedMethod = stringBuilder.toString();
+                        mutatedMethod = text();
                     } else if (qName.equalsIgnoreCase("methodDescription")) {
-                        methodDescription = stringBuilder.toString();
+                        methodDescription = text();
                     } else if (qName.equalsIgnoreCase("lineNumber")) {
-                        lineNumber = Integer.parseInt(stringBuilder.toString());
+                        lineNumber = number();
                     } else if (qName.equalsIgnoreCase("mutator")) {
-                        mutator = stringBuilder.toString();
+                        mutator = text();
                     } else if (qName.equalsIgnoreCase("index")) {
-                        index = Integer.parseInt(stringBuilder.toString());
+                        index = number();
                     } else if (qName.equalsIgnoreCase("block")) {
-                        block = Integer.parseInt(stringBuilder.toString());
+                        block = number();
                     } else if (qName.equalsIgnoreCase("killingTest")) {
-                        killingTest = stringBuilder.toString();
+                        killingTest = text();
                     } else if (qName.equalsIgnoreCase("description")) {
-                        description = stringBuilder.toString();
+                        description = text();
                     } else if (qName.equalsIgnoreCase("mutation")) {
                         if (killingTest.trim().equals("")) {
                             fullQualifiedNameMethod = "none";
@@ -102,7 +129,7 @@ public class PitXMLResultParser extends AbstractParser<PitXMLResult> {
                 }
             }
             Handler handler = new Handler();
-            saxParser.parse(fileResults, handler);
+            saxParser.parse(input, handler);
             return handler.getResults();
         } catch (Exception e) {
             e.printStackTrace();
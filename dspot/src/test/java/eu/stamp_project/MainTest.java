@@ -13,6 +13,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
@@ -239,36 +240,34 @@ public class MainTest {
         try (BufferedReader reader = new BufferedReader(new FileReader(amplifiedTestClass))) {
             String content = reader.lines().collect(Collectors.joining(AmplificationHelper.LINE_SEPARATOR));
             System.out.println(content);
-            assertTrue(
-                    content.startsWith(expectedAmplifiedTestClass)
-            );
+            assertEquals(expectedAmplifiedTestClass, content);
             assertTrue(new File("target/dspot/output/original/example/TestSuiteExample.java").exists());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    //we  don't test the whole file, but only the begin of it. It is sufficient to detect the auto import.
     private static final String expectedAmplifiedTestClass = "package example;" + AmplificationHelper.LINE_SEPARATOR +
             "import org.junit.Assert;" + AmplificationHelper.LINE_SEPARATOR +
             "import org.junit.Test;" + AmplificationHelper.LINE_SEPARATOR +
             "public class TestSuiteExample {" + AmplificationHelper.LINE_SEPARATOR +
             "    @Test(timeout = 10000)" + AmplificationHelper.LINE_SEPARATOR +
-            "    public void test3_literalMutationString50_failAssert0() throws Exception {" + AmplificationHelper.LINE_SEPARATOR +
-            "        try {" + AmplificationHelper.LINE_SEPARATOR +
-            "            Example ex = new Example();" + AmplificationHelper.LINE_SEPARATOR +
-            "            String s = \"\";" + AmplificationHelper.LINE_SEPARATOR +
-            "            ex.charAt(s, s.length() - 1);" + AmplificationHelper.LINE_SEPARATOR +
-            "            Assert.fail(\"test3_literalMutationString50 should have thrown StringIndexOutOfBoundsException\");" + AmplificationHelper.LINE_SEPARATOR +
-            "        } catch (StringIndexOutOfBoundsException expected) {" + AmplificationHelper.LINE_SEPARATOR +
-            "            Assert.assertEquals(\"String index out of range: 0\", expected.getMessage());" + AmplificationHelper.LINE_SEPARATOR +
-            "        }" + AmplificationHelper.LINE_SEPARATOR +
-            "    }" + AmplificationHelper.LINE_SEPARATOR;
-
+            "    public void test2_literalMutationNumber15() throws Exception {" + AmplificationHelper.LINE_SEPARATOR +
+            "        Example ex = new Example();" + AmplificationHelper.LINE_SEPARATOR +
+            "        char o_test2_literalMutationNumber15__3 = ex.charAt(\"abcd\", 0);" + AmplificationHelper.LINE_SEPARATOR +
+            "        Assert.assertEquals('a', ((char) (o_test2_literalMutationNumber15__3)));" + AmplificationHelper.LINE_SEPARATOR +
+            "    }" + AmplificationHelper.LINE_SEPARATOR +
+            "}";
+
+    /*
+        The only line of Example that the test class does not cover is the first branch of Example#charAt().
+        The first amplified test method that covers it is kept, and the amplified test methods after it
+        do not cover any other line, thus they are not kept.
+     */
     private static final String expectedReportExample =
                     "Initial instruction coverage: 30 / 34" + AmplificationHelper.LINE_SEPARATOR +
                     "88" + AmplificationHelper.DECIMAL_SEPARATOR + "24%" + AmplificationHelper.LINE_SEPARATOR +
-                    "Amplification results with 5 amplified tests." + AmplificationHelper.LINE_SEPARATOR +
+                    "Amplification results with 1 amplified tests." + AmplificationHelper.LINE_SEPARATOR +
                     "Amplified instruction coverage: 34 / 34" + AmplificationHelper.LINE_SEPARATOR +
                     "100" + AmplificationHelper.DECIMAL_SEPARATOR + "00%" + AmplificationHelper.LINE_SEPARATOR;
 
@@ -278,8 +277,8 @@ public class MainTest {
         /*
             Test that we can append result in different runs of DSpot, or not, according to the --clean (-q) flag
             Here, we run 4 time DSpot.
-                    - 1 time with a lot of Amplifiers: result with a lot of amplified test
-                    - then we append result of run 2 and run 3, we obtain the same result than the 1
+                    - 1 time with a lot of Amplifiers
+                    - then we append result of run 3 to the one of run 2
                     - the fourth is the same of the third time, but not appended to the result of the second
          */
 
@@ -326,8 +325,7 @@ public class MainTest {
 
 
         // Assert that we do not have result from the first run
-        // run 3: some amplifiers
-        // run 2 + 3 = run 1
+        // run 3: some amplifiers, appended to run 2
         Main.main(new String[]{
                 "--absolute-path-to-project-root", new File("src/test/resources/test-projects/").getAbsolutePath() + "/",
                 "--test-criterion", "JacocoCoverageSelector",
@@ -347,7 +345,7 @@ public class MainTest {
         launcher.buildModel();
         final CtClass<?> testClass3 = launcher.getFactory().Class().get("example.TestSuiteExample");
 
-        //run 4: equals to run 1 minus run 2 = run 3
+        //run 4: the same as run 3, but not appended
         Main.main(new String[]{
                 "--absolute-path-to-project-root", new File("src/test/resources/test-projects/").getAbsolutePath() + "/",
                 "--test-criterion", "JacocoCoverageSelector",
@@ -361,15 +359,64 @@ public class MainTest {
                 "--keep-original-test-methods",
                 "--clean"
         });
-        launcher = new Launcher();
-        launcher.getEnvironment().setNoClasspath(true);
-        launcher.getEnvironment().setAutoImports(true);
-        launcher.addInputResource("target/trash/example/TestSuiteExample.java");
-        launcher.buildModel();
-        final CtClass<?> testClass4 = launcher.getFactory().Class().get("example.TestSuiteExample");
-        assertEquals(11, testClass1.getMethods().size());
-        assertEquals(10, testClass2.getMethods().size());
-        assertEquals(11, testClass3.getMethods().size());
-        assertEquals(7, testClass4.getMethods().size());
+        /*
+            The 6 original test methods are kept. Each run keeps at most one amplified test method:
+                the first that covers the first branch of Example#charAt(), the only line that the test class does not cover.
+                The amplifiers of runs 3 and 4 do not change the index given to Example#charAt(), thus they keep no amplified test method:
+                run 3 leaves the amplified test class of run 2 as it is, and since run 4 cleans the results, there is no amplified test class anymore.
+         */
+        assertEquals(7, testClass1.getMethods().size());
+        assertEquals(7, testClass2.getMethods().size());
+        assertEquals(7, testClass3.getMethods().size());
+        assertFalse(new File("target/trash/example/TestSuiteExample.java").exists());
+    }
+
+    @Test
+    public void testAmplifyTestClassesConcurrently() throws Exception {
+
+        /*
+            Test that amplifying two test classes concurrently, i.e. with --nb-parallel-test-classes 2,
+            gives the same amplified test classes as amplifying them one after the other,
+            when the tests are executed in forked JVMs, and when they are executed in test runner daemons.
+         */
+
+        final String[] testClasses = new String[]{"example.TestSuiteExample", "example.TestSuiteExample2"};
+        Main.main(argumentsToAmplify("target/trash/sequential"));
+        Main.main(argumentsToAmplify("target/trash/concurrent", "--nb-parallel-test-classes", "2"));
+        Main.main(argumentsToAmplify("target/trash/concurrent-in-daemons", "--nb-parallel-test-classes", "2",
+                "--use-test-runner-daemon", "--collect-coverage-in-daemon"));
+        for (String testClass : testClasses) {
+            final String pathToAmplifiedTestClass = testClass.replace(".", "/") + ".java";
+            final File amplifiedTestClass = new File("target/trash/sequential/" + pathToAmplifiedTestClass);
+            assertTrue(amplifiedTestClass.exists());
+            assertEquals(withoutNumbersOfAmplifiedTestMethods(amplifiedTestClass),
+                    withoutNumbersOfAmplifiedTestMethods(new File("target/trash/concurrent/" + pathToAmplifiedTestClass))
+            );
+            assertEquals(withoutNumbersOfAmplifiedTestMethods(amplifiedTestClass),
+                    withoutNumbersOfAmplifiedTestMethods(new File("target/trash/concurrent-in-daemons/" + pathToAmplifiedTestClass))
+            );
+        }
+    }
+
+    // the amplified test methods are numbered in the order of their creation, that depends on the interleaving of the workers,
+    // e.g. test2_literalMutationNumber15 becomes test2_literalMutationNumber
+    private String withoutNumbersOfAmplifiedTestMethods(File amplifiedTestClass) throws IOException {
+        return FileUtils.readFileToString(amplifiedTestClass, "UTF-8").replaceAll("(_[a-zA-Z]+)\\d+", "$1");
+    }
+
+    private String[] argumentsToAmplify(String outputPath, String... additionalArguments) {
+        final String[] arguments = new String[]{
+                "--absolute-path-to-project-root", new File("src/test/resources/test-projects/").getAbsolutePath() + "/",
+                "--test-criterion", "JacocoCoverageSelector",
+                "--amplifiers", "FastLiteralAmplifier",
+                "--iteration", "1",
+                "--random-seed", "72",
+                "--test", "example.TestSuiteExample,example.TestSuiteExample2",
+                "--output-path", outputPath,
+                "--clean"
+        };
+        final String[] allArguments = Arrays.copyOf(arguments, arguments.length + additionalArguments.length);
+        System.arraycopy(additionalArguments, 0, allArguments, arguments.length, additionalArguments.length);
+        return allArguments;
     }
 }
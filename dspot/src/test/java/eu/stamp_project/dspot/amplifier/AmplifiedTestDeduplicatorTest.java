@@ -0,0 +1,62 @@
+package eu.stamp_project.dspot.amplifier;
+
+import eu.stamp_project.dspot.common.miscellaneous.TestMethodFingerprint;
+import org.junit.Test;
+import spoon.Launcher;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtMethod;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class AmplifiedTestDeduplicatorTest {
+
+    @Test
+    public void testRemoveDuplicates() {
+        /*
+            The amplified test methods that differ from a test method already seen
+            only by their names, the names of their local variables, or their comments, are removed.
+            The duplicates are removed among the amplified test methods themselves.
+         */
+        final CtClass<?> testClass = Launcher.parseClass("class ATest {" +
+                "   void test() { int a = 1; System.out.println(a); }" +
+                "   void test_litNum1() { /* DSpot */ int __DSPOT_a_0 = 1; System.out.println(__DSPOT_a_0); }" +
+                "   void test_litNum2() { int a = 2; System.out.println(a); }" +
+                "   void test_litNum3() { int b = 2; System.out.println(b); }" +
+                "}");
+        final AmplifiedTestDeduplicator deduplicator = new AmplifiedTestDeduplicator();
+        deduplicator.addAll(Collections.singletonList(getMethod(testClass, "test")));
+        assertEquals(
+                Collections.singletonList(getMethod(testClass, "test_litNum2")),
+                deduplicator.removeDuplicates(Arrays.asList(
+                        getMethod(testClass, "test_litNum1"),
+                        getMethod(testClass, "test_litNum2"),
+                        getMethod(testClass, "test_litNum3")
+                ))
+        );
+        assertEquals(2, deduplicator.getNumberOfRemovedTestMethods());
+    }
+
+    @Test
+    public void testSecondFingerprint() {
+        /*
+            A fingerprint hit is confirmed by a second fingerprint, with the same normalization than the fingerprint:
+            the names of the local variables and the comments are ignored, but not the order of the operands.
+         */
+        final CtClass<?> testClass = Launcher.parseClass("class ATest {" +
+                "   void test() { int a = 1; int b = 2; System.out.println(a + b); }" +
+                "   void test_litNum1() { /* DSpot */ int c = 1; int d = 2; System.out.println(c + d); }" +
+                "   void test_litNum2() { int a = 1; int b = 2; System.out.println(b + a); }" +
+                "}");
+        final long secondFingerprint = TestMethodFingerprint.secondFingerprint(getMethod(testClass, "test"));
+        assertEquals(secondFingerprint, TestMethodFingerprint.secondFingerprint(getMethod(testClass, "test_litNum1")));
+        assertNotEquals(secondFingerprint, TestMethodFingerprint.secondFingerprint(getMethod(testClass, "test_litNum2")));
+    }
+
+    private static CtMethod<?> getMethod(CtClass<?> testClass, String name) {
+        return testClass.getMethodsByName(name).get(0);
+    }
+}
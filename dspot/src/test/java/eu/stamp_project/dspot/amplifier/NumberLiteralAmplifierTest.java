@@ -1,6 +1,7 @@
 package eu.stamp_project.dspot.amplifier;
 
 import eu.stamp_project.dspot.AbstractTestOnSample;
+import eu.stamp_project.dspot.amplifier.amplifiers.AmplificationCandidate;
 import eu.stamp_project.dspot.amplifier.amplifiers.NumberLiteralAmplifier;
 import eu.stamp_project.dspot.amplifier.amplifiers.utils.RandomHelper;
 import org.junit.Before;
@@ -16,6 +17,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class NumberLiteralAmplifierTest extends AbstractTestOnSample {
@@ -55,6 +57,27 @@ public class NumberLiteralAmplifierTest extends AbstractTestOnSample {
         callAssertions(mutantMethods,nameMethod,expectedValues,expectedFieldReads,originalValue,6);
     }
 
+    @Test
+    public void testCandidatesAreAppliedLazily() {
+
+        /*
+            The candidates of the amplifier do not clone the test method until they are applied.
+            Applying a candidate twice gives the same amplified test method.
+         */
+
+        CtClass<Object> literalMutationClass = launcher.getFactory().Class().get("fr.inria.amp.LiteralMutation");
+        NumberLiteralAmplifier amplifier = getAmplifier(literalMutationClass);
+        CtMethod method = literalMutationClass.getMethod("methodByte");
+        final List<AmplificationCandidate> candidates = amplifier.candidates(method, 0).collect(Collectors.toList());
+        assertEquals(6, candidates.size());
+        assertTrue(candidates.stream().noneMatch(AmplificationCandidate::isApplied));
+        final CtMethod<?> amplifiedMethod = candidates.get(0).apply();
+        assertTrue(candidates.get(0).isApplied());
+        assertSame(amplifiedMethod, candidates.get(0).apply());
+        assertNotEquals(method, amplifiedMethod);
+        assertTrue(candidates.stream().skip(1).noneMatch(AmplificationCandidate::isApplied));
+    }
+
     @Test
     public void testNullByteMutation() {
         final String nameMethod = "methodNullByte";
@@ -0,0 +1,164 @@
+package eu.stamp_project.dspot.amplifier.input_ampl_distributor;
+
+import eu.stamp_project.dspot.AbstractTestOnSample;
+import eu.stamp_project.dspot.amplifier.MinHashInputAmplDistributor;
+import eu.stamp_project.dspot.amplifier.TextualDistanceInputAmplDistributor;
+import eu.stamp_project.dspot.common.miscellaneous.MinHashSketch;
+import eu.stamp_project.dspot.common.miscellaneous.TestMethodFingerprint;
+import org.junit.Ignore;
+import org.junit.Test;
+import spoon.Launcher;
+import spoon.reflect.code.CtLiteral;
+import spoon.reflect.code.CtStatement;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtMethod;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MinHashInputAmplDistributorTest extends AbstractTestOnSample {
+
+    @Test
+    public void testReduction() throws Exception {
+
+        /*
+            test that the reduction keeps different tests:
+            the copies of a same test share all their buckets, thus only one of them is selected.
+         */
+        final CtMethod methodString = findMethod("fr.inria.amp.LiteralMutation", "methodString");
+        // very different
+        final CtMethod methodInteger = findMethod("fr.inria.amp.LiteralMutation", "methodInteger");
+
+        List<CtMethod<?>> methods = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            methods.add(methodString);
+        }
+        final CtMethod clone = methodString.clone();
+        final CtLiteral originalLiteral = clone.getElements(new TypeFilter<>(CtLiteral.class)).get(0);
+        originalLiteral.replace(this.launcher.getFactory().createLiteral(originalLiteral.getValue() + "a"));
+        methods.add(clone);
+        methods.add(clone);
+        methods.add(clone);
+        methods.add(methodInteger);
+
+        final List<CtMethod<?>> reduce =
+                new MinHashInputAmplDistributor(2, Collections.emptyList()).reduce(methods);
+        assertEquals(2, reduce.size());
+        assertNotEquals(TestMethodFingerprint.fingerprint(reduce.get(0)), TestMethodFingerprint.fingerprint(reduce.get(1)));
+    }
+
+    @Test
+    public void testSimilarity() throws Exception {
+        final CtMethod methodString = findMethod("fr.inria.amp.LiteralMutation", "methodString");
+        final CtMethod methodInteger = findMethod("fr.inria.amp.LiteralMutation", "methodInteger");
+        final CtMethod clone = methodString.clone();
+        clone.getBody().getLastStatement().delete();
+        final long[] sketch = MinHashSketch.sketch(methodString);
+        assertEquals(1.0D, MinHashSketch.similarity(sketch, MinHashSketch.sketch(methodString)), 0.0D);
+        final double similarityWithClone = MinHashSketch.similarity(sketch, MinHashSketch.sketch(clone));
+        final double similarityWithOther = MinHashSketch.similarity(sketch, MinHashSketch.sketch(methodInteger));
+        assertNotEquals(1.0D, similarityWithClone, 0.0D);
+        assertNotEquals(0.0D, similarityWithClone, 0.0D);
+        assertTrue(similarityWithClone > similarityWithOther);
+    }
+
+    @Test
+    public void testSketchesOfSmallDissimilarBodies() {
+
+        /*
+            The bodies of these test methods are too small to fill the bins of their sketches.
+            Their empty bins must not be equal, otherwise the bands made only of empty bins
+            would put the two test methods in the same buckets.
+         */
+        final CtClass<?> testClass = Launcher.parseClass("class ATest {" +
+                "   void test() { int a = 1; }" +
+                "   void otherTest() { return; }" +
+                "}");
+        final long[] sketch = MinHashSketch.sketch(testClass.getMethodsByName("test").get(0));
+        final long[] otherSketch = MinHashSketch.sketch(testClass.getMethodsByName("otherTest").get(0));
+        // the bands of the MinHashInputAmplDistributor have 4 rows
+        for (int band = 0; band < MinHashSketch.NUMBER_OF_BINS; band += 4) {
+            assertFalse(Arrays.equals(Arrays.copyOfRange(sketch, band, band + 4), Arrays.copyOfRange(otherSketch, band, band + 4)));
+        }
+        assertEquals(0.0D, MinHashSketch.similarity(sketch, otherSketch), 0.0D);
+    }
+
+    @Ignore
+    @Test
+    public void testPerformance() throws Exception {
+
+        /*
+         * This test compares the MinHash reduction to the textual distance reduction,
+         * in terms of time of selection and in terms of diversity of the selected test methods.
+         * This test is meant to be run manually
+         */
+
+        final int budget = 200;
+        final CtMethod<?> methodString = findMethod("fr.inria.amp.LiteralMutation", "methodString");
+        for (int numberOfCandidates : new int[]{1_000, 10_000, 100_000}) {
+            final List<CtMethod<?>> candidates = generateVariants(methodString, numberOfCandidates);
+            System.out.println(numberOfCandidates + " candidates");
+            measure("TextualDistance", candidates,
+                    new TextualDistanceInputAmplDistributor(budget, Collections.emptyList())::reduce);
+            measure("MinHash", candidates,
+                    new MinHashInputAmplDistributor(budget, Collections.emptyList())::reduce);
+        }
+    }
+
+    private void measure(String name, List<CtMethod<?>> candidates, Function<List<CtMethod<?>>, List<CtMethod<?>>> reduce) {
+        final long start = System.currentTimeMillis();
+        final List<CtMethod<?>> selected = reduce.apply(candidates);
+        final long time = System.currentTimeMillis() - start;
+        final long numberOfDistinctTests = selected.stream()
+                .map(TestMethodFingerprint::fingerprint)
+                .distinct()
+                .count();
+        final List<long[]> sketches = selected.stream().map(MinHashSketch::sketch).collect(Collectors.toList());
+        double sumOfDistances = 0.0D;
+        int numberOfPairs = 0;
+        for (int i = 0; i < sketches.size(); i++) {
+            for (int j = i + 1; j < sketches.size(); j++) {
+                sumOfDistances += 1.0D - MinHashSketch.similarity(sketches.get(i), sketches.get(j));
+                numberOfPairs++;
+            }
+        }
+        System.out.println(String.format("\t%s: %dms, %d distinct tests out of %d, mean distance %.3f",
+                name, time, numberOfDistinctTests, selected.size(), sumOfDistances / numberOfPairs)
+        );
+    }
+
+    /*
+        Variants of the given test method, as the amplifiers would generate them:
+        the string literals are replaced by a few values, and a statement may be removed.
+     */
+    private List<CtMethod<?>> generateVariants(CtMethod<?> testMethod, int numberOfVariants) {
+        final Random random = new Random(23L);
+        final List<CtMethod<?>> variants = new ArrayList<>();
+        for (int i = 0; i < numberOfVariants; i++) {
+            final CtMethod<?> variant = testMethod.clone();
+            variant.setSimpleName(testMethod.getSimpleName() + "_variant" + i);
+            for (CtLiteral<?> literal : variant.getElements(new TypeFilter<>(CtLiteral.class))) {
+                if (literal.getValue() instanceof String) {
+                    literal.replace(this.launcher.getFactory().createLiteral("v" + random.nextInt(20)));
+                }
+            }
+            if (random.nextBoolean()) {
+                final List<CtStatement> statements = variant.getBody().getStatements();
+                statements.get(random.nextInt(statements.size())).delete();
+            }
+            variants.add(variant);
+        }
+        return variants;
+    }
+}
@@ -198,6 +198,23 @@ public class AssertionGeneratorTest extends AbstractTestOnSample {
     }
 
 
+    @Test
+    public void testMultipleObservationsPointsWithSinglePassObservation() {
+        /*
+            Running each instrumented test once, and running it again only to check the determinism of the observed values,
+            must produce the same assertions than running three copies of it.
+         */
+        this.assertionGenerator = new AssertionGenerator(0.1D, compiler, testCompiler, true, 2);
+        CtClass testClass = findClass("fr.inria.multipleobservations.TestClassToBeTest");
+        CtMethod test = findMethod("fr.inria.multipleobservations.TestClassToBeTest", "test");
+        List<CtMethod<?>> test_buildNewAssert = assertionGenerator.assertionAmplification(testClass, Collections.singletonList(test));
+        CtMethod<?> amplifiedTestMethod = test_buildNewAssert.get(0);
+        assertEquals(4, amplifiedTestMethod.getElements(TestFramework.ASSERTIONS_FILTER).size());
+
+        assertEquals(2, amplifiedTestMethod.getElements(new AssertionFilterNameOnInvocation("getInt", ASSERT_EQUALS)).size());
+        assertEquals(2, amplifiedTestMethod.getElements(new AssertionFilterNameOnInvocation("getInteger", ASSERT_EQUALS)).size());
+    }
+
     @Test
     public void testBuildAssertOnSpecificCases() {
         CtClass testClass = findClass("fr.inria.sample.TestClassWithSpecificCaseToBeAsserted");
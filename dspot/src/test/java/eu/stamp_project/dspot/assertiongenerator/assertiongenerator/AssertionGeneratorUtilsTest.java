@@ -140,7 +140,7 @@ public class AssertionGeneratorUtilsTest extends AbstractTestOnSample {
                 .getStatements()
                 .stream()
                 .noneMatch(statement ->
-                        statement.toString().endsWith("ObjectLog.save()")
+                        statement.toString().endsWith("ObjectLog.save(\"" + testClass.getQualifiedName() + "\")")
                 )
         );
         TestFramework.get().generateAfterClassToSaveObservations(testClass, Collections.singletonList(findMethod(testClass, "test")));
@@ -148,7 +148,7 @@ public class AssertionGeneratorUtilsTest extends AbstractTestOnSample {
                 .getStatements()
                 .stream()
                 .anyMatch(statement ->
-                        statement.toString().endsWith("ObjectLog.save()")
+                        statement.toString().endsWith("ObjectLog.save(\"" + testClass.getQualifiedName() + "\")")
                 )
         );
     }
@@ -8,6 +8,7 @@ import eu.stamp_project.dspot.common.test_framework.TestFramework;
 import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
 import eu.stamp_project.dspot.common.configuration.InitializeDSpot;
 import eu.stamp_project.dspot.common.configuration.options.AutomaticBuilderEnum;
+import org.junit.Ignore;
 import org.junit.Test;
 import spoon.Launcher;
 import spoon.OutputType;
@@ -21,6 +22,7 @@ import spoon.reflect.visitor.filter.TypeFilter;
 
 import java.io.File;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -284,4 +286,74 @@ public class AssertionRemoverTest extends AbstractTestOnSample {
         final CtMethod<?> removedAssertion = assertionRemover.removeAssertion(testMethod);
         assertEquals(4, removedAssertion.getBody().getStatements().size());
     }
+
+    @Test
+    public void testRemoveAssertionOnAGeneratedTestMethod() {
+
+        /*
+            The assertions are removed in a single pass over the test method:
+                the invocations in the assertions are kept as statements,
+                and the local variables read by the assertions are the asserted variables of the test method.
+         */
+
+        final CtMethod<?> test = generateTestMethod(50);
+        final AssertionRemover assertionRemover = new AssertionRemover();
+        final CtMethod<?> ctMethod = assertionRemover.removeAssertion(test);
+        assertTrue(ctMethod.getElements(TestFramework.ASSERTIONS_FILTER).isEmpty());
+        // 25 local variables, and the 12 invocations of the assertFalse
+        assertEquals(37, ctMethod.getBody().getStatements().size());
+        // the invocation in the first assertFalse, that is the fourth statement of the test method
+        final CtInvocation<?> assertFalse = test.getBody().getStatement(3);
+        assertEquals(assertFalse.getArguments().get(0), ctMethod.getBody().getStatement(2));
+        final List<CtLocalVariable<?>> variablesAsserted = assertionRemover.getVariableAssertedPerTestMethod().get(ctMethod);
+        assertEquals(13, variablesAsserted.size());
+        assertSame(ctMethod.getBody().getStatement(0), variablesAsserted.get(0));
+    }
+
+    @Ignore
+    @Test
+    public void testRemoveAssertionScalesLinearly() {
+
+        /*
+            This test aims at measuring the time to remove the assertions of test methods of 50, 500 and 5000 statements.
+            The time per statement should not grow with the number of statements.
+            This test is meant to be run manually
+         */
+
+        final int numberOfRuns = 10;
+        final double[] timePerStatement = new double[3];
+        final int[] numberOfStatements = new int[]{50, 500, 5000};
+        for (int i = 0; i < numberOfStatements.length; i++) {
+            final CtMethod<?> test = generateTestMethod(numberOfStatements[i]);
+            final AssertionRemover assertionRemover = new AssertionRemover();
+            assertionRemover.removeAssertion(test); // warm up
+            final long start = System.nanoTime();
+            for (int run = 0; run < numberOfRuns; run++) {
+                assertionRemover.removeAssertion(test);
+            }
+            final long timeInNs = (System.nanoTime() - start) / numberOfRuns;
+            timePerStatement[i] = (double) timeInNs / numberOfStatements[i];
+            System.out.println(numberOfStatements[i] + " statements: " + timeInNs / 1000000 + "ms, " +
+                    Math.round(timePerStatement[i]) + "ns per statement");
+        }
+        assertTrue(timePerStatement[2] < 5 * timePerStatement[1]);
+    }
+
+    // a test method of the given number of statements: a local variable, then an assertion on it
+    private static CtMethod<?> generateTestMethod(int numberOfStatements) {
+        final StringBuilder test = new StringBuilder("class GeneratedTest {" + AmplificationHelper.LINE_SEPARATOR +
+                "    @org.junit.Test" + AmplificationHelper.LINE_SEPARATOR +
+                "    public void test() {" + AmplificationHelper.LINE_SEPARATOR);
+        for (int i = 0; i < numberOfStatements / 2; i++) {
+            test.append("        int v_").append(i).append(" = ").append(i).append(";").append(AmplificationHelper.LINE_SEPARATOR);
+            if (i % 2 == 0) {
+                test.append("        org.junit.Assert.assertEquals(").append(i).append(", v_").append(i).append(");");
+            } else {
+                test.append("        org.junit.Assert.assertFalse(java.lang.String.valueOf(v_").append(i).append(").isEmpty());");
+            }
+            test.append(AmplificationHelper.LINE_SEPARATOR);
+        }
+        test.append("    }").append(AmplificationHelper.LINE_SEPARATOR).append("}");
+        return Launcher.parseClass(test.toString()).getMethodsByName("test").get(0);
+    }
 }
@@ -7,8 +7,11 @@ import spoon.reflect.code.CtExpression;
 import spoon.reflect.code.CtInvocation;
 import spoon.reflect.code.CtVariableRead;
 
+import java.util.ArrayList;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -22,7 +25,7 @@ public class TranslatorTest extends AbstractTestOnSample {
     @Before
     public void setUp()  {
         super.setUp();
-        // shared instance, the Translator does not have state between execution
+        // shared instance, as for the observation keys of a test method: the translated keys are kept in its trie
         this.translatorUnderTest = new Translator(this.launcher.getFactory());
     }
 
@@ -134,6 +137,29 @@ public class TranslatorTest extends AbstractTestOnSample {
     }
 
 
+    @Test
+    public void testTranslateKeysSharingAPrefix() throws Exception {
+
+        /*
+            The keys that share a prefix are translated from the same node of the trie of the translator,
+                but each translation is a new spoon node, that can be modified without modifying the others.
+         */
+
+        final String prefix = "((fr.inria.multipleobservations.ClassToBeTest)classToBeTest).getInt()";
+        final CtInvocation<?> invocation = translateInvocation("((fr.inria.multipleobservations.ClassToBeTest)" + prefix + ").getInt()");
+        final CtInvocation<?> invocationOfPrefix = translateInvocation(prefix);
+        assertEquals("((fr.inria.multipleobservations.ClassToBeTest) (classToBeTest)).getInt()", invocationOfPrefix.toString());
+        assertTrue(invocationOfPrefix.getTypeCasts().isEmpty());
+        assertEquals(1, invocation.getTarget().getTypeCasts().size());
+        assertNotSame(invocation.getTarget(), invocationOfPrefix);
+
+        final CtInvocation<?> sameInvocationOfPrefix = translateInvocation(prefix);
+        assertEquals(invocationOfPrefix, sameInvocationOfPrefix);
+        assertNotSame(invocationOfPrefix, sameInvocationOfPrefix);
+        invocationOfPrefix.getTarget().setTypeCasts(new ArrayList<>());
+        assertEquals(1, translateInvocation(prefix).getTarget().getTypeCasts().size());
+    }
+
     @Test
     public void testTranslateOnIsEmpty() throws Exception {
 
@@ -1,6 +1,7 @@
 package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs;
 
 import eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog.Observation;
+import eu.stamp_project.testrunner.EntryPoint;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -10,6 +11,7 @@ import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Benjamin DANGLOT
@@ -105,4 +107,48 @@ public class ObjectLogTest {
         assertEquals(20, observationValues.get("(myInternalClass ).getB()"));
 //        assertTrue(add__0.getNotDeterministValues().contains("(myInternalClass ).random()"));
     }
+
+    @Test
+    public void testLogFromSeveralThreads() throws Exception {
+        /*
+            Each thread observes the values in its own buffer, and the buffers are merged.
+            A value that differs from one thread to another, for the same id, is not deterministic.
+         */
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int a = i;
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10; j++) {
+                    ObjectLog.log(new MyInternalClass(a, 20), "myInternalClass ", "add__" + j);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(10, ObjectLog.getObservations().size());
+        final Observation add__0 = ObjectLog.getObservations().get("add__0");
+        assertTrue(add__0.getNotDeterministValues().contains("(myInternalClass ).getA()"));
+        assertEquals(20, add__0.getObservationValues().get("(myInternalClass ).getB()"));
+    }
+
+    @Test
+    public void testSaveAndLoadForTestClass() throws Exception {
+        /*
+            The observations of a test class are saved in a file specific to this test class,
+            in order to not be overwritten by the observations of test classes that are amplified concurrently.
+         */
+        // the observations are saved by this JVM, thus they are loaded from its working directory
+        EntryPoint.workingDirectory = null;
+        new File("target/dspot").mkdirs();
+        ObjectLog.log(new MyInternalClass(3, 20), "myInternalClass ", "add__0");
+        ObjectLog.save("fr.inria.ObjectLogTestClass");
+        ObjectLog.reset();
+        assertTrue(new File("target/dspot/observations_fr.inria.ObjectLogTestClass.bin").exists());
+        final Map<String, Observation> observations = ObjectLog.load("fr.inria.ObjectLogTestClass");
+        assertEquals(1, observations.size());
+        assertEquals(20, observations.get("add__0").getObservationValues().get("(myInternalClass ).getB()"));
+    }
 }
@@ -0,0 +1,81 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MethodInvokerTest {
+
+    public static class MyObservedClass {
+        public MyObservedClass getSelf() {
+            return this;
+        }
+
+        public int getInteger() {
+            return 23;
+        }
+
+        public int getThrowing() {
+            throw new RuntimeException();
+        }
+
+        public boolean isBlocking() throws InterruptedException {
+            Thread.sleep(10000);
+            return true;
+        }
+    }
+
+    private final MethodInvoker methodInvoker = new MethodInvoker();
+
+    @After
+    public void tearDown() {
+        this.methodInvoker.shutdown();
+    }
+
+    @Test
+    public void testInvokeChain() throws Exception {
+        assertEquals(23, this.methodInvoker.invokeChain(
+                Arrays.asList(
+                        MyObservedClass.class.getMethod("getSelf"),
+                        MyObservedClass.class.getMethod("getSelf"),
+                        MyObservedClass.class.getMethod("getInteger")
+                ),
+                new MyObservedClass()
+        ));
+        assertEquals(3, this.methodInvoker.getNumberOfInvocations());
+        assertEquals(0, this.methodInvoker.getNumberOfFailures());
+        assertEquals(0, this.methodInvoker.getNumberOfTimeouts());
+    }
+
+    @Test
+    public void testInvokeChainFailsAndTimesOut() throws Exception {
+        /*
+            A failing invocation, or an invocation that does not end in time, throws a FailToObserveException.
+            The invoker can still be used after a timeout.
+         */
+        try {
+            this.methodInvoker.invokeChain(Collections.singletonList(MyObservedClass.class.getMethod("getThrowing")), new MyObservedClass());
+            fail();
+        } catch (FailToObserveException expected) {
+            // expected
+        }
+        try {
+            this.methodInvoker.invokeChain(Collections.singletonList(MyObservedClass.class.getMethod("isBlocking")), new MyObservedClass());
+            fail();
+        } catch (FailToObserveException expected) {
+            // expected
+        }
+        assertEquals(23, this.methodInvoker.invokeChain(
+                Collections.singletonList(MyObservedClass.class.getMethod("getInteger")),
+                new MyObservedClass()
+        ));
+        assertEquals(3, this.methodInvoker.getNumberOfInvocations());
+        assertEquals(1, this.methodInvoker.getNumberOfFailures());
+        assertEquals(1, this.methodInvoker.getNumberOfTimeouts());
+    }
+}
@@ -0,0 +1,104 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ObservationCodecTest {
+
+    @Test
+    public void testWriteAndReadTestByTest() throws Exception {
+        /*
+            The observations are read back test method by test method, with the same values and the same non-deterministic values.
+            The ids of the same test method are grouped together, even if they were not observed one after the other.
+         */
+        final Observation observation = new Observation();
+        observation.add("((MyClass)o).getInt()", 23);
+        observation.add("((MyClass)o).getInt()", 24);
+        observation.add("((MyClass)o).getString()", "value");
+        observation.add("((MyClass)o).getChar()", 'c');
+        observation.add("((MyClass)o).getDouble()", 23.0D);
+        observation.add("((MyClass)o).getNull()", null);
+        observation.add("((MyClass)o).getInts()", new int[]{23, 24});
+        observation.add("((MyClass)o).getIntegers()", new Integer[]{23, null});
+        observation.add("((MyClass)o).getList()", new ArrayList<>(Arrays.asList(23, 24)));
+        final Observation otherObservation = new Observation();
+        otherObservation.add("((MyClass)o).isEmpty()", true);
+        final Map<String, Observation> observations = new LinkedHashMap<>();
+        observations.put("test__1", observation);
+        observations.put("otherTest__2", otherObservation);
+        observations.put("test__3", otherObservation);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ObservationCodec.write(observations, output);
+        final ObservationCodec.Reader reader = new ObservationCodec.Reader(new ByteArrayInputStream(output.toByteArray()));
+
+        final Map<String, Observation> observationsOfTest = reader.readNextTest();
+        assertEquals("test", reader.getCurrentTestName());
+        assertEquals(Arrays.asList("test__1", "test__3"), new ArrayList<>(observationsOfTest.keySet()));
+        final Observation readObservation = observationsOfTest.get("test__1");
+        assertEquals(Collections.singleton("((MyClass)o).getInt()"), readObservation.getNotDeterministValues());
+        final Map<String, Object> values = readObservation.getObservationValues();
+        assertEquals(23, values.get("((MyClass)o).getInt()"));
+        assertEquals("value", values.get("((MyClass)o).getString()"));
+        assertEquals('c', values.get("((MyClass)o).getChar()"));
+        assertEquals(23.0D, values.get("((MyClass)o).getDouble()"));
+        assertTrue(values.containsKey("((MyClass)o).getNull()"));
+        assertNull(values.get("((MyClass)o).getNull()"));
+        assertArrayEquals(new int[]{23, 24}, (int[]) values.get("((MyClass)o).getInts()"));
+        assertArrayEquals(new Integer[]{23, null}, (Integer[]) values.get("((MyClass)o).getIntegers()"));
+        assertEquals(Arrays.asList(23, 24), values.get("((MyClass)o).getList()"));
+        assertEquals(true, observationsOfTest.get("test__3").getObservationValues().get("((MyClass)o).isEmpty()"));
+
+        assertEquals(Collections.singleton("otherTest__2"), reader.readNextTest().keySet());
+        assertEquals("otherTest", reader.getCurrentTestName());
+        assertNull(reader.readNextTest());
+        reader.close();
+    }
+
+    @Test
+    public void testWriteAValueThatCannotBeSerialized() throws Exception {
+        /*
+            A map of a class that has been classified as serializable might not be serializable,
+            e.g. a sorted map with a lambda as comparator.
+            Such a value is not saved, and the other values of the observation are saved.
+         */
+        final Map<String, Integer> sortedMap = new TreeMap<>((key1, key2) -> key2.compareTo(key1));
+        sortedMap.put("key", 23);
+        final Observation observation = new Observation();
+        observation.add("((MyClass)o).getInt()", 23);
+        observation.add("((MyClass)o).getSortedMap()", sortedMap);
+        observation.add("((MyClass)o).getString()", "value");
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ObservationCodec.write(Collections.singletonMap("test__1", observation), output);
+        final Map<String, Object> values = ObservationCodec.read(new ByteArrayInputStream(output.toByteArray()))
+                .get("test__1")
+                .getObservationValues();
+        assertEquals(2, values.size());
+        assertEquals(23, values.get("((MyClass)o).getInt()"));
+        assertEquals("value", values.get("((MyClass)o).getString()"));
+        assertFalse(values.containsKey("((MyClass)o).getSortedMap()"));
+    }
+
+    @Test
+    public void testGetTestNameAndStatementIndex() {
+        assertEquals("test", ObservationCodec.getTestName("test__12"));
+        assertEquals(12, ObservationCodec.getStatementIndex("test__12"));
+        assertEquals("test", ObservationCodec.getTestName("test__12___end"));
+        assertEquals(12, ObservationCodec.getStatementIndex("test__12___end"));
+    }
+}
@@ -0,0 +1,48 @@
+package eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.objectlog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ValueClassifierTest {
+
+    @Test
+    public void testClassify() {
+        assertNull(ValueClassifier.classify(null));
+        assertEquals(ValueClassifier.Kind.BOXED, ValueClassifier.classify(23));
+        assertEquals(ValueClassifier.Kind.BOXED, ValueClassifier.classify('c'));
+        assertEquals(ValueClassifier.Kind.STRING, ValueClassifier.classify("value"));
+        assertEquals(ValueClassifier.Kind.PRIMITIVE_ARRAY, ValueClassifier.classify(new int[]{23}));
+        assertEquals(ValueClassifier.Kind.PRIMITIVE_ARRAY, ValueClassifier.classify(new Integer[]{23, null}));
+        assertEquals(ValueClassifier.Kind.COLLECTION_OF_PRIMITIVES, ValueClassifier.classify(new ArrayList<>(Arrays.asList(1, 2))));
+        assertEquals(ValueClassifier.Kind.COLLECTION_OF_PRIMITIVES, ValueClassifier.classify(Collections.singletonMap("key", 23)));
+        assertEquals(ValueClassifier.Kind.UNSUPPORTED, ValueClassifier.classify(new Object()));
+    }
+
+    @Test
+    public void testIsSerializable() {
+        /*
+            The classification of the collections is cached per class,
+            but each collection must contain only primitive values to be serializable.
+            A collection that is not serializable, e.g. the key set of a HashMap, is not supported.
+         */
+        assertTrue(ValueClassifier.isSerializable(null));
+        assertTrue(ValueClassifier.isSerializable(new ArrayList<>(Arrays.asList(1, 2))));
+        assertFalse(ValueClassifier.isSerializable(new ArrayList<>(Arrays.asList(1, new Object()))));
+        assertTrue(ValueClassifier.isSerializable(new ArrayList<>(Arrays.asList(1, null))));
+        final Map<String, Integer> map = new HashMap<>();
+        map.put("key", 23);
+        assertTrue(ValueClassifier.isSerializable(map));
+        assertFalse(ValueClassifier.isSerializable(map.keySet()));
+        assertFalse(ValueClassifier.isSerializable(new Object()));
+    }
+}
@@ -12,6 +12,7 @@ import spoon.Launcher;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import static org.junit.Assert.*;
 
@@ -108,6 +109,31 @@ public class MavenAutomaticBuilderTest {
         assertEquals(15, pitResults.stream().filter(pitResult -> pitResult.getStateOfMutant() == AbstractPitResult.State.KILLED).count());
     }
 
+    @Test
+    public void testTargetClasses() throws Exception {
+
+        /*
+            The given target classes override the filter of the configuration.
+            PIT fails when it does not find any mutant, i.e. when the target classes are actually used.
+         */
+
+        setUp("src/test/resources/test-projects/", "example.*", false);
+
+        builder.runPit(Collections.singletonList("example.Example"), launcher.getFactory().Class().get("example.TestSuiteExample2"));
+        final List<? extends AbstractPitResult> pitResults = parser.parseAndDelete(
+                configuration.getAbsolutePathToProjectRoot() + builder.getOutputDirectoryPit()
+        );
+        assertEquals(28, pitResults.size());
+        assertTrue(pitResults.stream().allMatch(pitResult -> "example.Example".equals(pitResult.getFullQualifiedNameOfMutatedClass())));
+
+        try {
+            builder.runPit(Collections.singletonList("example.DoesNotExist"), launcher.getFactory().Class().get("example.TestSuiteExample2"));
+            fail("PIT should have failed, since there is no mutant in the target classes");
+        } catch (RuntimeException expected) {
+            // expected
+        }
+    }
+
     @Test
     public void testMultipleClasses() throws Exception {
 
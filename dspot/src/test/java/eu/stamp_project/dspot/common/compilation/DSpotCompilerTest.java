@@ -2,6 +2,7 @@ package eu.stamp_project.dspot.common.compilation;
 
 import eu.stamp_project.dspot.amplifier.amplifiers.Amplifier;
 import eu.stamp_project.dspot.common.configuration.UserInput;
+import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -19,6 +20,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Benjamin DANGLOT
@@ -39,9 +41,22 @@ public class DSpotCompilerTest {
     // TODO update with configuration
     @Test
     public void testDSpotCompiler() throws Exception {
+        checkCompilationDiscardsUncompilableMethods(false);
+    }
+
+    @Test
+    public void testDSpotCompilerIncremental() throws Exception {
+        /*
+            The persistent compilation mode must discard the same uncompilable test methods,
+            without re-building a Spoon model of the printed test class
+         */
+        checkCompilationDiscardsUncompilableMethods(true);
+    }
 
+    private void checkCompilationDiscardsUncompilableMethods(boolean incremental) throws Exception {
         final UserInput configuration = new UserInput();
         configuration.setAbsolutePathToProjectRoot("src/test/resources/test-projects/");
+        configuration.setIncrementalCompilation(incremental);
         final DSpotCompiler compiler = DSpotCompiler.createDSpotCompiler(configuration, "");
         TestCompiler testCompiler = new TestCompiler(0,
                 false,
@@ -75,6 +90,39 @@ public class DSpotCompilerTest {
         assertEquals(2, aClass.getMethods().size());
     }
 
+    @Test
+    public void testDSpotCompilerIncrementalOnANewTypeOfTheSamePackage() throws Exception {
+        /*
+            The persistent compilation mode keeps the name environment of JDT, that caches the content of the directories.
+            A new type printed in the same package than an already compiled type must be found by the next compilation.
+         */
+        final UserInput configuration = new UserInput();
+        configuration.setAbsolutePathToProjectRoot("src/test/resources/test-projects/");
+        configuration.setIncrementalCompilation(true);
+        final DSpotCompiler compiler = DSpotCompiler.createDSpotCompiler(configuration, "");
+        TestCompiler testCompiler = new TestCompiler(0,
+                false,
+                configuration.getAbsolutePathToProjectRoot(),
+                configuration.getClasspathClassesProject(),
+                10000,
+                "",
+                false
+        );
+        final Factory factory = compiler.getLauncher().getFactory();
+        final CtClass<?> firstClass = getClass(factory, "same.FirstTestClass", "System.out.println()");
+        assertEquals(1, testCompiler.compileAndDiscardUncompilableMethods(compiler, firstClass, new ArrayList<>(firstClass.getMethods())).size());
+
+        final CtClass<?> helper = getClass(factory, "same.Helper", "System.out.println()");
+        DSpotUtils.printCtTypeToGivenDirectory(helper, compiler.getSourceOutputDirectory());
+        final CtClass<?> secondClass = getClass(factory, "same.SecondTestClass", "new Helper().method()");
+        final List<CtMethod<?>> results = testCompiler.compileAndDiscardUncompilableMethods(
+                compiler, secondClass, new ArrayList<>(secondClass.getMethods())
+        );
+        assertEquals(1, results.size());
+        assertEquals(1, secondClass.getMethods().size());
+        assertTrue(new File(compiler.getBinaryOutputDirectory(), "same/SecondTestClass.class").exists());
+    }
+
     // quick implementation used to produce a uncompilable test case
     private class UncompilableAmplifier implements Amplifier {
 
@@ -102,11 +150,15 @@ public class DSpotCompilerTest {
     }
 
     private CtClass<?> getClass(Factory factory) {
-        final CtClass<?> aClass = factory.Class().create("MyTestClass");
+        return getClass(factory, "MyTestClass", "System.out.println()");
+    }
+
+    private CtClass<?> getClass(Factory factory, String qualifiedName, String statement) {
+        final CtClass<?> aClass = factory.Class().create(qualifiedName);
         final CtMethod<Void> method = factory.createMethod();
         method.setSimpleName("method");
         method.setType(factory.Type().VOID_PRIMITIVE);
-        method.setBody(factory.createCodeSnippetStatement("System.out.println()"));
+        method.setBody(factory.createCodeSnippetStatement(statement));
         method.addModifier(ModifierKind.PUBLIC);
         aClass.addMethod(method);
         return aClass;
@@ -0,0 +1,32 @@
+package eu.stamp_project.dspot.common.compilation;
+
+import eu.stamp_project.dspot.AbstractTestOnSample;
+import org.junit.Test;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtMethod;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MethodIndexingPrinterTest extends AbstractTestOnSample {
+
+    @Test
+    public void testPrintAndIndex() {
+        /*
+            The printer must give the range of each method in the printed source,
+            in order to map compilation problems to the methods without building a new model.
+         */
+        final CtClass<?> testClass = findClass("fr.inria.filter.passing.PassingTest");
+        final SourcePositionIndex index = new MethodIndexingPrinter(launcher.getEnvironment()).printAndIndex(testClass);
+        final String source = index.getSource();
+        for (CtMethod<?> method : testClass.getMethods()) {
+            final int positionOfName = source.indexOf(" " + method.getSimpleName() + "(");
+            assertTrue(positionOfName > 0);
+            assertSame(method, index.getMethodAt(positionOfName, positionOfName + method.getSimpleName().length()));
+        }
+        // the package declaration is not in a method
+        final int positionOfPackage = source.indexOf("package");
+        assertNull(index.getMethodAt(positionOfPackage, positionOfPackage + "package".length()));
+    }
+}
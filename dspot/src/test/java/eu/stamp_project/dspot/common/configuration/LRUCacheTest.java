@@ -0,0 +1,48 @@
+package eu.stamp_project.dspot.common.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LRUCacheTest {
+
+    @Test
+    public void testEvictsTheLeastRecentlyUsedEntry() {
+
+        /*
+            When the cache is full, it evicts its least recently used entry,
+            and counts its hits, misses and evictions.
+         */
+
+        final LRUCache<String, Integer> cache = new LRUCache<>("test", 2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, (int) cache.get("a"));
+        cache.put("c", 3);
+        assertNull(cache.get("b"));
+        assertEquals(1, (int) cache.get("a"));
+        assertEquals(3, (int) cache.computeIfAbsent("c", key -> 4));
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getNumberOfHits());
+        assertEquals(1, cache.getNumberOfMisses());
+        assertEquals(1, cache.getNumberOfEvictions());
+        assertEquals(0.75D, cache.getHitRate(), 0.0D);
+    }
+
+    @Test
+    public void testByWeakIdentity() {
+
+        /*
+            The keys of a cache by weak identity are compared by identity, not with equals()
+         */
+
+        final LRUCache<String, Integer> cache = LRUCache.byWeakIdentity("test", 2);
+        final String key = new String("a");
+        cache.put(key, 1);
+        assertNull(cache.get(new String("a")));
+        assertEquals(1, (int) cache.get(key));
+        cache.remove(key);
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,166 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import eu.stamp_project.dspot.common.compilation.DSpotCompiler;
+import eu.stamp_project.dspot.common.execution.TestRunner;
+import eu.stamp_project.dspot.common.miscellaneous.AmplificationHelper;
+import eu.stamp_project.dspot.common.miscellaneous.DSpotUtils;
+import eu.stamp_project.testrunner.listener.TestResult;
+import org.apache.commons.io.FileUtils;
+import org.hamcrest.Matcher;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestRunnerDaemonClientTest {
+
+    private static final String PROJECT_ROOT = "target/daemon-test/";
+
+    private static final String TEST_CLASS_NAME = "example.DaemonTest";
+
+    private File testClasses;
+
+    private File jvmNameFile;
+
+    private String classpathOfProject;
+
+    private TestRunnerDaemonClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        final File projectRoot = new File(PROJECT_ROOT).getAbsoluteFile();
+        FileUtils.deleteDirectory(projectRoot);
+        DSpotUtils.init(false, PROJECT_ROOT + "output", "", projectRoot.getAbsolutePath());
+        /*
+            The test class passes one test method and fails the other one.
+            The passing test method writes the name of its JVM, i.e. its pid and its host, to know which JVM ran it.
+         */
+        this.jvmNameFile = new File(projectRoot, "jvm-name");
+        final File sources = new File(projectRoot, "src/example");
+        FileUtils.forceMkdir(sources);
+        Files.write(new File(sources, "DaemonTest.java").toPath(), ("package example;" +
+                "public class DaemonTest {" +
+                "   @org.junit.Test public void testPass() throws Exception {" +
+                "       java.nio.file.Files.write(java.nio.file.Paths.get(\"" + this.jvmNameFile.getAbsolutePath() + "\")," +
+                "           java.lang.management.ManagementFactory.getRuntimeMXBean().getName().getBytes());" +
+                "   }" +
+                "   @org.junit.Test public void testFail() {" +
+                "       org.junit.Assert.assertEquals(3, 1 + 1);" +
+                "   }" +
+                "}").getBytes(StandardCharsets.UTF_8));
+        this.classpathOfProject = pathToJarOf(Test.class) + AmplificationHelper.PATH_SEPARATOR + pathToJarOf(Matcher.class);
+        this.testClasses = new File(projectRoot, "test-classes");
+        assertTrue(DSpotCompiler.compile(new File(projectRoot, "src").getAbsolutePath(), this.classpathOfProject, this.testClasses));
+        this.client = new TestRunnerDaemonClient(DSpotUtils.getAbsolutePathToDSpotDependencies(),
+                PROJECT_ROOT + "output",
+                this.testClasses.getAbsolutePath()
+        );
+    }
+
+    @After
+    public void tearDown() {
+        this.client.stop();
+    }
+
+    @Test
+    public void testRun() throws Exception {
+
+        /*
+            The daemon runs the JUnit4 test methods, and the same JVM is used for the next executions.
+         */
+
+        TestResult result = this.client.run(classpath(this.classpathOfProject), TEST_CLASS_NAME, new String[0], 10000);
+        assertEquals(Collections.singletonList("testPass"), result.getPassingTests());
+        assertEquals(1, result.getFailingTests().size());
+        assertEquals("testFail", result.getFailingTests().get(0).testCaseName);
+        assertTrue(this.client.getDurationsOfLastRun().containsKey("testPass"));
+        assertTrue(this.client.getDurationsOfLastRun().containsKey("testFail"));
+        final String nameOfDaemon = jvmName();
+
+        result = this.client.run(classpath(this.classpathOfProject), TEST_CLASS_NAME, new String[]{"testPass"}, 10000);
+        assertEquals(Collections.singletonList("testPass"), result.getPassingTests());
+        assertTrue(result.getFailingTests().isEmpty());
+        assertEquals(nameOfDaemon, jvmName());
+    }
+
+    @Test
+    public void testRestartOnChangeOfTheClasspath() throws Exception {
+
+        /*
+            The classpath of the project is loaded once by the daemon: if it changes, the daemon is restarted.
+            The test classes are reloaded on each execution, their changes do not restart the daemon.
+         */
+
+        this.client.run(classpath(this.classpathOfProject), TEST_CLASS_NAME, new String[]{"testPass"}, 10000);
+        final String nameOfDaemon = jvmName();
+
+        FileUtils.touch(new File(this.testClasses, "example/DaemonTest.class"));
+        this.client.run(classpath(this.classpathOfProject), TEST_CLASS_NAME, new String[]{"testPass"}, 10000);
+        assertEquals(nameOfDaemon, jvmName());
+
+        final File newEntry = new File(PROJECT_ROOT, "new-entry").getAbsoluteFile();
+        FileUtils.forceMkdir(newEntry);
+        final String newClasspathOfProject = this.classpathOfProject + AmplificationHelper.PATH_SEPARATOR + newEntry.getAbsolutePath();
+        final TestResult result = this.client.run(classpath(newClasspathOfProject), TEST_CLASS_NAME, new String[]{"testPass"}, 10000);
+        assertEquals(Collections.singletonList("testPass"), result.getPassingTests());
+        assertNotEquals(nameOfDaemon, jvmName());
+        assertTrue(this.client.isAvailable());
+    }
+
+    @Test
+    public void testFallbackAfterTooManyFailures() throws Exception {
+
+        /*
+            After MAXIMUM_NUMBER_OF_FAILURES failures, the daemon is not used anymore:
+            the TestRunner executes the test methods in a forked JVM.
+         */
+
+        for (int i = 0; i < TestRunnerDaemonClient.MAXIMUM_NUMBER_OF_FAILURES; i++) {
+            assertTrue(this.client.isAvailable());
+            try {
+                this.client.run(classpath(this.classpathOfProject), "example.UnknownTest", new String[0], 10000);
+                fail("the daemon should not run an unknown test class");
+            } catch (IOException expected) {
+                // expected
+            }
+        }
+        assertFalse(this.client.isAvailable());
+
+        final TestRunner testRunner = new TestRunner(new File(PROJECT_ROOT).getAbsolutePath(), "", false);
+        testRunner.useDaemon(this.client);
+        final TestResult result = testRunner.run(classpath(this.classpathOfProject),
+                new File(PROJECT_ROOT).getAbsolutePath(),
+                TEST_CLASS_NAME,
+                "testPass"
+        );
+        assertEquals(Collections.singletonList("testPass"), result.getPassingTests());
+        assertTrue(this.client.getDurationsOfLastRun().isEmpty());
+    }
+
+    private String classpath(String classpathOfProject) {
+        return String.join(AmplificationHelper.PATH_SEPARATOR,
+                classpathOfProject,
+                this.testClasses.getAbsolutePath(),
+                DSpotUtils.getAbsolutePathToDSpotDependencies()
+        );
+    }
+
+    private String jvmName() throws IOException {
+        return new String(Files.readAllBytes(this.jvmNameFile.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static String pathToJarOf(Class<?> clazz) throws Exception {
+        return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    }
+}
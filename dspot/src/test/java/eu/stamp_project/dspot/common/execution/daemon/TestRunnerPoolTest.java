@@ -0,0 +1,104 @@
+package eu.stamp_project.dspot.common.execution.daemon;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestRunnerPoolTest {
+
+    @Test
+    public void testShardWithoutKnownDurations() {
+        /*
+            Without any known duration, the test methods are equally distributed among the shards.
+            There is no empty shard.
+         */
+        final List<List<String>> shards = TestRunnerPool.shard("fr.inria.ATest",
+                new String[]{"test1", "test2", "test3", "test4", "test5"},
+                2,
+                Collections.emptyMap()
+        );
+        assertEquals(2, shards.size());
+        assertEquals(3, shards.get(0).size());
+        assertEquals(2, shards.get(1).size());
+
+        assertEquals(1, TestRunnerPool.shard("fr.inria.ATest",
+                new String[]{"test1"},
+                4,
+                Collections.emptyMap()
+        ).size());
+    }
+
+    @Test
+    public void testShardWithKnownDurations() {
+        /*
+            The longest test method is alone in its shard, the others are balanced in the remaining shards.
+         */
+        final Map<String, Long> durations = new HashMap<>();
+        durations.put("fr.inria.ATest#testLong", 100L);
+        durations.put("fr.inria.ATest#test1", 10L);
+        durations.put("fr.inria.ATest#test2", 10L);
+        durations.put("fr.inria.ATest#test3", 10L);
+        durations.put("fr.inria.ATest#test4", 10L);
+        final List<List<String>> shards = TestRunnerPool.shard("fr.inria.ATest",
+                new String[]{"test1", "test2", "testLong", "test3", "test4"},
+                3,
+                durations
+        );
+        assertEquals(3, shards.size());
+        assertEquals(Collections.singletonList("testLong"), shards.get(0));
+        assertEquals(Arrays.asList("test1", "test3"), shards.get(1));
+        assertEquals(Arrays.asList("test2", "test4"), shards.get(2));
+    }
+
+    @Test
+    public void testRunOnTheAvailableRunners() throws Exception {
+
+        /*
+            A runner that failed too many times is not used anymore,
+            the test methods are sharded across the other ones, and the pool is still available.
+         */
+        final FakeRunner availableRunner = new FakeRunner(true);
+        final FakeRunner failedRunner = new FakeRunner(false);
+        final TestRunnerPool pool = new TestRunnerPool(Arrays.asList(failedRunner, availableRunner));
+        assertTrue(pool.isAvailable());
+        pool.run("", "fr.inria.ATest", new String[]{"test1", "test2", "test3"}, 1000);
+        assertTrue(failedRunner.runTestMethodNames.isEmpty());
+        assertEquals(Arrays.asList("test1", "test2", "test3"), availableRunner.runTestMethodNames);
+
+        assertFalse(new TestRunnerPool(Collections.singletonList(failedRunner)).isAvailable());
+    }
+
+    private static class FakeRunner extends TestRunnerDaemonClient {
+
+        private final boolean available;
+
+        private final List<String> runTestMethodNames = new ArrayList<>();
+
+        FakeRunner(boolean available) {
+            super("target/dspot/dependencies", "target/dspot/output");
+            this.available = available;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return this.available;
+        }
+
+        @Override
+        public synchronized TestResult run(String classpath, String fullQualifiedName, String[] testMethodNames, int timeoutInMs) {
+            this.runTestMethodNames.addAll(Arrays.asList(testMethodNames));
+            return new JUnit4TestResult();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package eu.stamp_project.dspot.common.miscellaneous;
+
+import org.junit.Test;
+import spoon.Launcher;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtMethod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class StructuralHashTest {
+
+    @Test
+    public void testHashIgnoresComments() {
+        /*
+            The structural hash does not depend on the comments,
+            but it does depend on the operators and on the values of the literals.
+         */
+        final CtClass<?> aClass = Launcher.parseClass("class A {" +
+                "   int m(int a) { return a + 1; }" +
+                "   int n(int a) { /* comment */ return a + 1; }" +
+                "   int o(int a) { return a - 1; }" +
+                "   int p(int a) { return a + 2; }" +
+                "}");
+        assertEquals(hashOfLastStatement(aClass, "m"), hashOfLastStatement(aClass, "n"));
+        assertNotEquals(hashOfLastStatement(aClass, "m"), hashOfLastStatement(aClass, "o"));
+        assertNotEquals(hashOfLastStatement(aClass, "m"), hashOfLastStatement(aClass, "p"));
+    }
+
+    private static int hashOfLastStatement(CtClass<?> aClass, String methodName) {
+        final CtMethod<?> method = aClass.getMethodsByName(methodName).get(0);
+        return StructuralHash.of(method.getBody().getLastStatement());
+    }
+}
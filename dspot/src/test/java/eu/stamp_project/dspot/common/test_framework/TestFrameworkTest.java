@@ -9,7 +9,9 @@ import spoon.reflect.code.CtInvocation;
 import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtMethod;
 import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.filter.TypeFilter;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -48,6 +50,57 @@ public class TestFrameworkTest extends AbstractTestOnSample {
         assertTrue(TestFramework.get().isAssert(testJUnit3.getBody().getStatement(0)));
     }
 
+    @Test
+    public void testIsAssertIsInvalidatedWhenTheDeclaringTypeIsModified() {
+
+        /*
+            The detection of the invocations to methods that contain assertions is memoized,
+            until the declaring type of these methods is modified
+         */
+
+        final CtMethod<?> test = this.findMethod("fr.inria.sample.TestClassWithAssert",
+                "testWithAMethodCallThatContainsAssertionsAndItsReturnedValueIsUsed");
+        final CtInvocation<?> invocationToVerify = test.getElements(new TypeFilter<CtInvocation<?>>(CtInvocation.class))
+                .stream()
+                .filter(invocation -> "verify".equals(invocation.getExecutable().getSimpleName()))
+                .findFirst()
+                .get();
+        assertTrue(TestFramework.get().isAssert(invocationToVerify));
+        assertTrue(TestFramework.get().isAssert(invocationToVerify));
+
+        final CtMethod<?> verify = this.findMethod("fr.inria.sample.TestClassWithAssert", "verify");
+        verify.getBody().getStatement(0).delete();
+        assertFalse(TestFramework.get().isAssert(invocationToVerify));
+    }
+
+    @Test
+    public void testIsTestIsUpdatedWhenTheTestMethodIsModified() {
+
+        /*
+            The test methods are indexed when the model is loaded.
+            The index is updated for the methods that are cloned or modified.
+         */
+
+        final CtMethod<?> testJUnit4 = this.findMethod("fr.inria.testframework.TestSupportJUnit4", "testJUnit4");
+        assertTrue(TestFramework.get().isTest(testJUnit4));
+        assertTrue(TestFramework.getAllTestClasses().contains(testJUnit4.getDeclaringType()));
+
+        final CtMethod<?> clone = testJUnit4.clone();
+        new ArrayList<>(testJUnit4.getAnnotations()).forEach(testJUnit4::removeAnnotation);
+        assertFalse(TestFramework.get().isTest(testJUnit4));
+        assertTrue(TestFramework.get().isTest(clone));
+
+        clone.getBody().setStatements(new ArrayList<>());
+        assertFalse(TestFramework.get().isTest(clone));
+
+        final CtMethod<?> testJUnit3 = this.findMethod("fr.inria.testframework.TestSupportJUnit3", "testJUnit3");
+        assertTrue(TestFramework.get().isTest(testJUnit3));
+        // a JUnit3 test method is a test method only in a subclass of junit.framework.TestCase
+        final CtMethod<?> cloneOfTestJUnit3 = testJUnit3.clone();
+        testJUnit4.getDeclaringType().addMethod(cloneOfTestJUnit3);
+        assertFalse(TestFramework.get().isTest(cloneOfTestJUnit3));
+    }
+
     @Test
     public void testGenerateAfterClassToSaveObservations() {
 
@@ -62,7 +115,7 @@ public class TestFrameworkTest extends AbstractTestOnSample {
 //                "    return new junit.extensions.TestSetup(new junit.framework.TestSuite(fr.inria.helper.SecondClassJUnit3.class)) {" + AmplificationHelper.LINE_SEPARATOR +
                 "    return new junit.extensions.TestSetup(fr.inria.helper.SecondClassJUnit3.class) {" + AmplificationHelper.LINE_SEPARATOR +
                 "        protected void tearDown() throws java.lang.Exception {" + AmplificationHelper.LINE_SEPARATOR +
-                "            eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.ObjectLog.save();" + AmplificationHelper.LINE_SEPARATOR +
+                "            eu.stamp_project.dspot.assertiongenerator.assertiongenerator.methodreconstructor.observer.testwithloggenerator.objectlogsyntaxbuilder_constructs.ObjectLog.save(\"fr.inria.helper.SecondClassJUnit3\");" + AmplificationHelper.LINE_SEPARATOR +
                 "        }" + AmplificationHelper.LINE_SEPARATOR +
                 "    };" + AmplificationHelper.LINE_SEPARATOR +
                 "}";
@@ -0,0 +1,134 @@
+package eu.stamp_project.dspot.pipeline;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AmplificationPipelineTest {
+
+    private static final AmplificationPipeline.Stage<String> IDENTITY = (testMethods, iteration) -> testMethods;
+
+    // appends the iteration to the name of each test method
+    private static final AmplificationPipeline.Stage<String> AMPLIFY = (testMethods, iteration) ->
+            testMethods.stream()
+                    .map(testMethod -> testMethod + "_" + iteration)
+                    .collect(Collectors.toList());
+
+    @Test
+    public void testRun() {
+
+        /*
+            The pipeline gives the same test methods to keep, whatever its capacity:
+            each iteration of a test method amplifies the test methods of its previous iteration.
+         */
+
+        final List<String> testMethods = Arrays.asList("a", "b", "c");
+        for (int capacity : new int[]{1, 2, 5}) {
+            final AmplificationPipeline<String> pipeline =
+                    new AmplificationPipeline<>(3, capacity, IDENTITY, AMPLIFY, IDENTITY, IDENTITY);
+            final List<List<String>> testMethodsToKeep = pipeline.run(testMethods);
+            assertEquals(Arrays.asList(
+                    Arrays.asList("a_0", "a_0_1", "a_0_1_2"),
+                    Arrays.asList("b_0", "b_0_1", "b_0_1_2"),
+                    Arrays.asList("c_0", "c_0_1", "c_0_1_2")
+            ), testMethodsToKeep);
+            // the pre-selection and the input amplification
+            assertEquals(9, pipeline.getStatistics().get(0).getNumberOfBatches());
+            assertEquals(0, pipeline.getStatistics().get(0).getMaximumQueueDepth());
+            assertEquals(9, pipeline.getStatistics().get(1).getNumberOfBatches());
+            assertTrue(pipeline.getStatistics().stream().allMatch(statistics -> statistics.getMaximumQueueDepth() <= capacity));
+        }
+    }
+
+    @Test
+    public void testFailingStage() {
+
+        /*
+            A stage that fails ends the amplification of the test method of the batch, but not of the other test methods.
+         */
+
+        final AmplificationPipeline<String> pipeline = new AmplificationPipeline<>(2, 2,
+                IDENTITY,
+                (testMethods, iteration) -> {
+                    if (testMethods.contains("b_0")) {
+                        throw new Exception();
+                    }
+                    return AMPLIFY.apply(testMethods, iteration);
+                },
+                IDENTITY,
+                IDENTITY
+        );
+        assertEquals(Arrays.asList(
+                Arrays.asList("a_0", "a_0_1"),
+                Collections.singletonList("b_0"),
+                Arrays.asList("c_0", "c_0_1")
+        ), pipeline.run(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void testStageThrowingAnError() {
+
+        /*
+            A stage that throws an error ends the run of the pipeline, that throws this error.
+         */
+
+        final Error error = new OutOfMemoryError();
+        final AmplificationPipeline<String> pipeline = new AmplificationPipeline<>(2, 2,
+                IDENTITY,
+                (testMethods, iteration) -> {
+                    if (testMethods.contains("b")) {
+                        throw error;
+                    }
+                    return AMPLIFY.apply(testMethods, iteration);
+                },
+                IDENTITY,
+                IDENTITY
+        );
+        try {
+            pipeline.run(Arrays.asList("a", "b", "c"));
+            fail();
+        } catch (OutOfMemoryError e) {
+            assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void testOverlap() {
+
+        /*
+            The input amplification of a batch is done while another batch is in the assertion amplification.
+         */
+
+        final CountDownLatch inputAmplificationOfB = new CountDownLatch(1);
+        final AtomicBoolean overlap = new AtomicBoolean(false);
+        final AmplificationPipeline<String> pipeline = new AmplificationPipeline<>(1, 2,
+                IDENTITY,
+                (testMethods, iteration) -> {
+                    if (testMethods.contains("b")) {
+                        inputAmplificationOfB.countDown();
+                    }
+                    return testMethods;
+                },
+                (testMethods, iteration) -> {
+                    if (testMethods.contains("a")) {
+                        overlap.set(inputAmplificationOfB.await(10, TimeUnit.SECONDS));
+                    }
+                    return testMethods;
+                },
+                IDENTITY
+        );
+        pipeline.run(Arrays.asList("a", "b"));
+        assertTrue(overlap.get());
+    }
+}
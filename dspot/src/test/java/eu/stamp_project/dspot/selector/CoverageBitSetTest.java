@@ -0,0 +1,77 @@
+package eu.stamp_project.dspot.selector;
+
+import eu.stamp_project.dspot.common.execution.daemon.CoverageCollector;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CoverageBitSetTest {
+
+    @Test
+    public void testParse() {
+        final CoverageBitSet coverage = CoverageBitSet.parse("fr/inria/A:0,2,1,0;fr/inria/B:0,0,0;fr/inria/C:3");
+        assertEquals(3, coverage.getNumberOfCoveredLines());
+        // the number of covered instructions of a line does not matter, only whether it is covered
+        assertEquals(coverage, CoverageBitSet.parse("fr/inria/C:1;fr/inria/A:0,1,1"));
+        assertEquals(coverage.hashCode(), CoverageBitSet.parse("fr/inria/C:1;fr/inria/A:0,1,1").hashCode());
+        assertNotEquals(coverage, CoverageBitSet.parse("fr/inria/A:0,2,1,0;fr/inria/C:0,3"));
+    }
+
+    @Test
+    public void testOfProbes() {
+        final Map<String, boolean[]> probesPerClass = new HashMap<>();
+        probesPerClass.put("fr/inria/A", new boolean[]{false, true, true, false});
+        probesPerClass.put("fr/inria/B", new boolean[]{false, false});
+        final CoverageBitSet coverage = CoverageBitSet.ofProbes(probesPerClass);
+        assertEquals(2, coverage.getNumberOfCoveredLines());
+        assertEquals(coverage, CoverageBitSet.ofProbes(Collections.singletonMap("fr/inria/A", new boolean[]{false, true, true})));
+        assertEquals(coverage, CoverageBitSet.of(new CoverageCollector.Result(3, 10, new HashMap<>(probesPerClass))));
+        // the probes and the lines of a class are not comparable
+        assertNotEquals(coverage, CoverageBitSet.parse("fr/inria/A:0,1,1"));
+        assertTrue(coverage.addsCoverageTo(CoverageBitSet.parse("fr/inria/A:1,1,1")));
+    }
+
+    @Test
+    public void testAddsCoverage() {
+
+        /*
+            A coverage adds coverage to another one if it covers a line that the other does not cover.
+            The cumulative coverage of a test suite is the union of the coverages of its test methods.
+         */
+
+        final StringBuilder longExecutionPath = new StringBuilder("fr/inria/A:");
+        for (int i = 0; i < 100; i++) {
+            longExecutionPath.append(i == 70 ? "1," : "0,");
+        }
+        final CoverageBitSet coverageOfLine70 = CoverageBitSet.parse(longExecutionPath.toString());
+        final CoverageBitSet coverageOfLine1 = CoverageBitSet.parse("fr/inria/A:0,4");
+        final CoverageBitSet coverageOfB = CoverageBitSet.parse("fr/inria/B:1");
+
+        final CoverageBitSet suiteCoverage = CoverageBitSet.empty();
+        assertTrue(coverageOfLine1.addsCoverageTo(suiteCoverage));
+        suiteCoverage.addAll(coverageOfLine1);
+        assertFalse(coverageOfLine1.addsCoverageTo(suiteCoverage));
+        assertTrue(coverageOfLine70.addsCoverageTo(suiteCoverage));
+        assertTrue(coverageOfLine70.isBetterThan(coverageOfLine1));
+        assertTrue(coverageOfB.isBetterThan(null));
+        suiteCoverage.addAll(coverageOfLine70);
+        suiteCoverage.addAll(coverageOfB);
+        assertEquals(3, suiteCoverage.getNumberOfCoveredLines());
+        assertFalse(coverageOfLine70.addsCoverageTo(suiteCoverage));
+        assertFalse(coverageOfB.addsCoverageTo(suiteCoverage));
+        assertTrue(suiteCoverage.addsCoverageTo(coverageOfLine70));
+
+        final Set<CoverageBitSet> coverages = new HashSet<>();
+        assertTrue(coverages.add(coverageOfLine1));
+        assertFalse(coverages.add(CoverageBitSet.parse("fr/inria/A:0,1,0")));
+    }
+}
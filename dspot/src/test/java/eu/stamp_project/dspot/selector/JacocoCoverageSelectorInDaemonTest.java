@@ -0,0 +1,13 @@
+package eu.stamp_project.dspot.selector;
+
+/**
+ * The coverage collected in the test runner daemon gives the same selection and the same report as in forked JVMs.
+ */
+public class JacocoCoverageSelectorInDaemonTest extends JacocoCoverageSelectorTest {
+
+	@Override
+	protected TestSelector getTestSelector() {
+		this.configuration.setCollectCoverageInDaemon(true);
+		return super.getTestSelector();
+	}
+}
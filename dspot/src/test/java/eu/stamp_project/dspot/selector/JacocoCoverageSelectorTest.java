@@ -1,6 +1,16 @@
 package eu.stamp_project.dspot.selector;
 
+import eu.stamp_project.dspot.common.execution.daemon.CoverageCollector;
+import org.junit.Test;
+import spoon.reflect.declaration.CtMethod;
+
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
 
 /**
  * Created by Benjamin DANGLOT
@@ -21,12 +31,54 @@ public class JacocoCoverageSelectorTest extends AbstractSelectorRemoveOverlapTes
 		);
 	}
 
+	/*
+		The amplified test methods that pass cover OverlapExample#getString() through their assertions,
+		and the ones on a string of one character also cover the first branch of OverlapExample#charAt().
+		Each amplified test method kept adds at least one of these lines to the coverage of the test class
+		and of the test methods kept before, thus at most two of them are kept.
+	 */
 	@Override
 	protected String getContentReportFile() {
 		return "Initial instruction coverage: 23 / 38" + nl +
 				"60" + DECIMAL_SEPARATOR + "53%" + nl +
-				"Amplification results with 3 amplified tests." + nl +
+				"Amplification results with 2 amplified tests." + nl +
 				"Amplified instruction coverage: 31 / 38" + nl +
 				"81" + DECIMAL_SEPARATOR + "58%" + nl;
 	}
+
+	@Test
+	public void testSelectTestsThatAddCoverage() {
+
+		/*
+			An amplified test method is kept if it covers a line that is neither covered by the test class,
+			nor by the amplified test methods kept before it, even if it covers more lines than its parent.
+		 */
+
+		final CtMethod<?> test = this.factory.Class().get("example.TestSuiteOverlapExample").getMethodsByName("test1").get(0);
+		final List<CtMethod<?>> amplifiedTests = Arrays.asList(
+				amplifiedTest(test, "testLine2"),
+				amplifiedTest(test, "testLine3"),
+				amplifiedTest(test, "testLines2And3"),
+				amplifiedTest(test, "testLine2Again"),
+				amplifiedTest(test, "testNotRun")
+		);
+		final Map<String, CoverageCollector.Result> coveragePerTestMethod = new HashMap<>();
+		coveragePerTestMethod.put("testLine2", new CoverageCollector.Result(3, 10, "example/OverlapExample:1,0,2"));
+		coveragePerTestMethod.put("testLine3", new CoverageCollector.Result(3, 10, "example/OverlapExample:1,0,0,2"));
+		coveragePerTestMethod.put("testLines2And3", new CoverageCollector.Result(5, 10, "example/OverlapExample:1,0,2,2"));
+		coveragePerTestMethod.put("testLine2Again", new CoverageCollector.Result(3, 10, "example/OverlapExample:1,0,2"));
+		final CoverageBitSet suiteCoverage = CoverageBitSet.parse("example/OverlapExample:1,1");
+
+		final List<CtMethod<?>> methodsKept = JacocoCoverageSelector.selectTestsThatAddCoverage(
+				amplifiedTests, coveragePerTestMethod, CoverageBitSet::of, suiteCoverage
+		);
+		assertEquals(Arrays.asList(amplifiedTests.get(0), amplifiedTests.get(1)), methodsKept);
+		assertEquals(4, suiteCoverage.getNumberOfCoveredLines());
+	}
+
+	private static CtMethod<?> amplifiedTest(CtMethod<?> test, String name) {
+		final CtMethod<?> clone = test.clone();
+		clone.setSimpleName(name);
+		return clone;
+	}
 }
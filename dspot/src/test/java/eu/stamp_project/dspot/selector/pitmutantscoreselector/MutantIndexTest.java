@@ -0,0 +1,44 @@
+package eu.stamp_project.dspot.selector.pitmutantscoreselector;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class MutantIndexTest {
+
+    @Test
+    public void testIdOf() throws Exception {
+
+        /*
+            The mutants of two reports of PIT have the same ids, whatever their state, and two different mutants have different ids.
+         */
+
+        final MutantIndex index = new MutantIndex();
+        final List<PitXMLResult> results = new PitXMLResultParser().parse(new File("src/test/resources/mutations_test-projects.xml"));
+        final BitSet ids = index.idsOf(results);
+        assertEquals(results.size(), index.size());
+        assertEquals(results.size(), ids.cardinality());
+        assertEquals(ids, index.idsOf(new PitXMLResultParser().parse(new File("src/test/resources/mutations_test-projects.xml"))));
+        assertEquals(results.size(), index.size());
+
+        final PitXMLResult result = results.get(0);
+        final PitXMLResult killed = new PitXMLResult(result.getFullQualifiedNameOfMutatedClass(),
+                AbstractPitResult.State.KILLED, result.getFullQualifiedNameMutantOperator(), "example.TestSuiteExample.test1",
+                "example.TestSuiteExample", result.getLineNumber(), result.getNameOfMutatedMethod(), result.getmethodDescription(),
+                result.getMutationDescription(), result.getIndex(), result.getBlock(), 1, true);
+        assertEquals(index.idOf(result), index.idOf(killed));
+        assertEquals(result.getFullQualifiedNameOfMutatedClass(), index.getKey(index.idOf(killed)).getFullQualifiedNameOfMutatedClass());
+
+        final PitXMLResult otherBlock = new PitXMLResult(result.getFullQualifiedNameOfMutatedClass(),
+                result.getStateOfMutant(), result.getFullQualifiedNameMutantOperator(), "none",
+                "none", result.getLineNumber(), result.getNameOfMutatedMethod(), result.getmethodDescription(),
+                result.getMutationDescription(), result.getIndex(), result.getBlock() + 1, 1, false);
+        assertNotEquals(index.idOf(result), index.idOf(otherBlock));
+        assertEquals(results.size() + 1, index.size());
+    }
+}
@@ -2,9 +2,15 @@ package eu.stamp_project.dspot.selector.pitmutantscoreselector;
 
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -27,4 +33,28 @@ public class PitXMLParserAndResultTest {
         assertEquals(15, pitXMLResults.stream().filter(pitResult -> pitResult.getStateOfMutant() == AbstractPitResult.State.KILLED).count(), nbErrors);
         assertEquals(4, pitXMLResults.stream().filter(pitResult -> pitResult.getStateOfMutant() == AbstractPitResult.State.NO_COVERAGE).count(), nbErrors);
     }
+
+    @Test
+    public void testParseAndCompress() throws Exception {
+
+        /*
+            The report is parsed and compressed in the same pass: the results are the same as the ones of the parse alone,
+            and the compressed report is the whole report.
+         */
+
+        final File report = new File("src/test/resources/mutations_test-projects.xml");
+        final File compressedReport = File.createTempFile("mutations_", ".xml.gz");
+        compressedReport.deleteOnExit();
+        final List<PitXMLResult> pitXMLResults = new PitXMLResultParser().parseAndCompress(report, compressedReport);
+        assertEquals(new PitXMLResultParser().parse(report), pitXMLResults);
+        final ByteArrayOutputStream decompressedReport = new ByteArrayOutputStream();
+        try (InputStream input = new GZIPInputStream(new FileInputStream(compressedReport))) {
+            final byte[] buffer = new byte[1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                decompressedReport.write(buffer, 0, read);
+            }
+        }
+        assertArrayEquals(Files.readAllBytes(report.toPath()), decompressedReport.toByteArray());
+    }
 }